@@ -0,0 +1,23 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法在AsyncExecutor中执行，只能标注在返回void或CompletableFuture的方法上，标注在类上时应用于返回void或CompletableFuture的public方法
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Async {
+
+    /**
+     * AsyncExecutor bean name.
+     */
+    String value() default "asyncExecutor";
+
+    /**
+     * Names of ContextPropagator beans applied besides ApplicationContext, e.g. "transaction".
+     */
+    String[] propagate() default {};
+
+}
@@ -0,0 +1,28 @@
+package com.johntitor.koharu.annotation;
+
+import com.johntitor.koharu.aop.limit.LimitMode;
+
+import java.lang.annotation.*;
+
+/**
+ * 限制并发执行数，标注在类上时该类所有public方法共用一个并发限制，方法上的注解优先
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * 名称，相同名称的方法共用一个并发限制，默认为SimpleName.method，标注在类上时为SimpleName
+     */
+    String value() default "";
+
+    int maxConcurrent();
+
+    LimitMode mode() default LimitMode.REJECT;
+
+    /**
+     * WAIT时最长等待时间(ms)
+     */
+    long timeout() default 1000;
+}
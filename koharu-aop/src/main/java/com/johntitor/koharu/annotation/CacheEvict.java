@@ -0,0 +1,33 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 调用方法后删除缓存
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheEvict {
+
+    /**
+     * Cache name.
+     */
+    String value();
+
+    /**
+     * Indexes of arguments used as cache key, default to all arguments.
+     */
+    int[] key() default {};
+
+    /**
+     * Remove all entries of the cache.
+     */
+    boolean allEntries() default false;
+
+    /**
+     * Evict before method invoked, so the cache is evicted even if the method throws.
+     */
+    boolean beforeInvocation() default false;
+
+}
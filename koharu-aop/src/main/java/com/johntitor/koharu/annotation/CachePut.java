@@ -0,0 +1,23 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 总是调用方法，并用返回值更新缓存
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachePut {
+
+    /**
+     * Cache name.
+     */
+    String value();
+
+    /**
+     * Indexes of arguments used as cache key, default to all arguments.
+     */
+    int[] key() default {};
+
+}
@@ -0,0 +1,23 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法结果按参数缓存，命中时不调用方法，并发的相同未命中只调用一次
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Cacheable {
+
+    /**
+     * Cache name.
+     */
+    String value();
+
+    /**
+     * Indexes of arguments used as cache key, default to all arguments.
+     */
+    int[] key() default {};
+
+}
@@ -0,0 +1,47 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 按最近调用的失败率熔断，标注在类上时该类所有public方法共用一个熔断器，方法上的注解优先
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CircuitBreaker {
+
+    /**
+     * 熔断器名称，相同名称的方法共用一个熔断器，默认为SimpleName.method，标注在类上时为SimpleName
+     */
+    String value() default "";
+
+    /**
+     * 失败率达到该百分比时打开
+     */
+    int failureRateThreshold() default 50;
+
+    /**
+     * 按最近window次调用计算失败率
+     */
+    int window() default 20;
+
+    /**
+     * 至少记录了minimumCalls次调用才计算失败率，不超过window
+     */
+    int minimumCalls() default 10;
+
+    /**
+     * 打开后经过openDuration(ms)进入半开状态
+     */
+    long openDuration() default 10000;
+
+    /**
+     * 半开状态允许的试探调用数，全部成功时关闭，任一失败时重新打开
+     */
+    int halfOpenCalls() default 3;
+
+    /**
+     * 不计为失败的异常
+     */
+    Class<? extends Throwable>[] ignore() default {};
+}
@@ -0,0 +1,18 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 只记录方法的调用次数和失败次数，不计时，标注在类上时应用于所有public方法
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Counted {
+
+    /**
+     * Metric name, default to "SimpleClassName.methodName". Used as name prefix on class.
+     */
+    String value() default "";
+
+}
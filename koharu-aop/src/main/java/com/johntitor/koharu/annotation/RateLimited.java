@@ -0,0 +1,33 @@
+package com.johntitor.koharu.annotation;
+
+import com.johntitor.koharu.aop.limit.LimitMode;
+
+import java.lang.annotation.*;
+
+/**
+ * 令牌桶限流，标注在类上时该类所有public方法共用一个限流器，方法上的注解优先
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    /**
+     * 限流器名称，相同名称的方法共用一个限流器，默认为SimpleName.method，标注在类上时为SimpleName
+     */
+    String value() default "";
+
+    double permitsPerSecond();
+
+    /**
+     * 空闲时最多累积的令牌数，默认为1
+     */
+    int burst() default 1;
+
+    LimitMode mode() default LimitMode.REJECT;
+
+    /**
+     * WAIT时最长等待时间(ms)
+     */
+    long timeout() default 1000;
+}
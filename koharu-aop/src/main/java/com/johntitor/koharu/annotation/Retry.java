@@ -0,0 +1,55 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 方法抛出异常时重试，标注在类上时作用于该类所有public方法，方法上的注解优先。
+ * <p>
+ * 和@Transactional一起使用时，没有外层事务则每次尝试都在新的事务中执行，失败的尝试回滚后重试；
+ * 已在外层事务中(REQUIRED、SUPPORTS、MANDATORY加入外层事务)时不重试，异常直接抛给外层事务，由外层事务整体回滚或重试。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Retry {
+
+    /**
+     * 统计名称，默认为SimpleName.method
+     */
+    String value() default "";
+
+    /**
+     * 最多调用次数，包括第一次
+     */
+    int maxAttempts() default 3;
+
+    /**
+     * 第一次重试前等待的时间(ms)
+     */
+    long backoff() default 100;
+
+    /**
+     * 每次重试的等待时间是上一次的multiplier倍
+     */
+    double multiplier() default 1.0;
+
+    /**
+     * 最长等待时间(ms)
+     */
+    long maxBackoff() default 10000;
+
+    /**
+     * 等待时间随机增减的比例，0~1
+     */
+    double jitter() default 0;
+
+    /**
+     * 需要重试的异常，异常本身或cause匹配即重试，默认为所有Exception
+     */
+    Class<? extends Throwable>[] retryFor() default {};
+
+    /**
+     * 不重试的异常，优先于retryFor
+     */
+    Class<? extends Throwable>[] noRetryFor() default {};
+}
@@ -0,0 +1,55 @@
+package com.johntitor.koharu.aop;
+
+import com.johntitor.koharu.context.BeanPostProcessor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按原始Bean的Class创建Advisor的BeanPostProcessor:
+ * <p>
+ * Bean已被其他BeanPostProcessor代理时在同一个Proxy上追加Advisor，注入属性时返回原始Bean。
+ * 只记录singleton的原始Bean，非singleton的Bean可能在多个线程中创建，且由容器直接注入原始实例。
+ */
+public abstract class AdvisingBeanPostProcessor implements BeanPostProcessor {
+
+    private final Map<String, Object> originBeans = new HashMap<>();
+
+    /**
+     * 返回null表示不需要代理
+     */
+    protected abstract Advisor buildAdvisor(Class<?> targetClass);
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        return advise(bean, beanName, true);
+    }
+
+    @Override
+    public Object postProcessScopedBeforeInitialization(Object bean, String beanName) {
+        return advise(bean, beanName, false);
+    }
+
+    private Object advise(Object bean, String beanName, boolean singleton) {
+        // 已被代理时，按原始Bean读取注解:
+        Object target = ProxyResolver.getTarget(bean);
+        Advisor advisor = buildAdvisor(target.getClass());
+        if (advisor == null) {
+            return bean;
+        }
+        if (singleton) {
+            originBeans.put(beanName, target);
+        }
+        if (bean instanceof AopProxy) {
+            // 同一个Proxy上追加拦截器，先执行的BeanPostProcessor的拦截器在外层:
+            return ProxyResolver.getInstance().addAdvisor(bean, advisor);
+        }
+        return ProxyResolver.getInstance().createProxy(bean, advisor);
+    }
+
+    @Override
+    public Object postProcessOnSetProperty(Object bean, String beanName) {
+        Object originalBean = originBeans.get(beanName);
+        return originalBean != null ? originalBean : bean;
+    }
+}
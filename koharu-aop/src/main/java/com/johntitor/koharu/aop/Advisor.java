@@ -0,0 +1,11 @@
+package com.johntitor.koharu.aop;
+
+/**
+ * 切入点和拦截器，拦截器只应用于匹配的方法
+ */
+public record Advisor(Pointcut pointcut, MethodInterceptor interceptor) {
+
+    public Advisor(MethodInterceptor interceptor) {
+        this(Pointcut.ALL, interceptor);
+    }
+}
@@ -3,7 +3,6 @@ package com.johntitor.koharu.aop;
 import com.johntitor.koharu.annotation.Around;
 import com.johntitor.koharu.context.ApplicationContextContainer;
 import com.johntitor.koharu.context.BeanDefinition;
-import com.johntitor.koharu.context.BeanPostProcessor;
 import com.johntitor.koharu.context.ConfigurableApplicationContext;
 import com.johntitor.koharu.exception.AopConfigException;
 
@@ -12,24 +11,22 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
 
-public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> implements BeanPostProcessor {
+/**
+ * 按类上的注解(如@Around("handlerName"))查找handler Bean并创建Advisor的BeanPostProcessor
+ */
+public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> extends AdvisingBeanPostProcessor {
 
-    private final Map<String, Object> originBeans = new HashMap<String, Object>();
     Class<A> annotationClass = this.getParameterizedType();
 
     public AnnotationProxyBeanPostProcessor() {
     }
 
     @Override
-    public Object postProcessBeforeInitialization(Object bean, String beanName){
-
-        A anno = bean.getClass().getAnnotation(annotationClass);
-
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        A anno = findAnnotation(targetClass);
         if (anno == null) {
-            return bean;
+            return null;
         }
 
         String handlerName;
@@ -38,12 +35,11 @@ public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> imp
         } catch (ReflectiveOperationException e) {
             throw new AopConfigException(String.format("@%s must have value() returned String type.", this.annotationClass.getSimpleName()), e);
         }
-        Object proxy =  createProxy(bean,handlerName);
-        originBeans.put(beanName,bean);
-        return proxy;
+        MethodInterceptor interceptor = createMethodInterceptor(targetClass, handlerName, getHandlerBean(handlerName));
+        return new Advisor(getPointcut(targetClass), interceptor);
     }
 
-    private Object createProxy(Object bean, String handlerName){
+    private Object getHandlerBean(String handlerName){
         ConfigurableApplicationContext ctx = (ConfigurableApplicationContext) ApplicationContextContainer.getApplicationContext();
         if (ctx == null) {
             throw new AopConfigException("No application context found");
@@ -59,20 +55,37 @@ public abstract class AnnotationProxyBeanPostProcessor<A extends Annotation> imp
             handlerBean = ctx.createBeanAsEarlySingleton(def);
         }
 
-        if (handlerBean instanceof InvocationHandler) {
-            InvocationHandler handler = (InvocationHandler) handlerBean;
-            return ProxyResolver.getInstance().createProxy(bean, handler);
-        }else {
-            throw new AopConfigException("Handler " + handlerName + " is not a supported type");
-        }
+        return handlerBean;
     }
 
-    @Override
-    public Object postProcessOnSetProperty(Object bean, String beanName){
-        Object originalBean = originBeans.get(beanName);
-        return originalBean !=null ? originalBean : bean;
+    /**
+     * 查找决定是否创建代理的注解，默认只查找类上的注解
+     */
+    protected A findAnnotation(Class<?> beanClass) {
+        return beanClass.getAnnotation(annotationClass);
     }
 
+    /**
+     * 需要拦截的方法，默认为除equals()、hashCode()、toString()外的所有可覆写public方法:
+     * <p>
+     * 这三个方法(包括目标类覆写的版本)不经过handler，由Proxy直接调用原始Bean。需要拦截时覆写此方法，例如返回Pointcut.ALL。
+     */
+    protected Pointcut getPointcut(Class<?> beanClass) {
+        return Pointcut.objectMethods().negate();
+    }
+
+    /**
+     * 根据handler Bean创建代理使用的MethodInterceptor，InvocationHandler通过适配器兼容
+     */
+    protected MethodInterceptor createMethodInterceptor(Class<?> beanClass, String handlerName, Object handlerBean) {
+        if (handlerBean instanceof MethodInterceptor) {
+            return (MethodInterceptor) handlerBean;
+        }
+        if (handlerBean instanceof InvocationHandler) {
+            return new InvocationHandlerInterceptor((InvocationHandler) handlerBean);
+        }
+        throw new AopConfigException("Handler " + handlerName + " is not a supported type");
+    }
 
     // 通过反射获取当前类的泛型类型参数的 Class 对象
     private Class<A> getParameterizedType() {
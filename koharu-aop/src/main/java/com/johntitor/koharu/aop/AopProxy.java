@@ -0,0 +1,11 @@
+package com.johntitor.koharu.aop;
+
+/**
+ * 由ProxyResolver生成的Proxy Class实现，用于访问代理的ProxyDispatcher
+ */
+public interface AopProxy {
+
+    ProxyDispatcher getProxyDispatcher();
+
+    void setProxyDispatcher(ProxyDispatcher dispatcher);
+}
@@ -0,0 +1,24 @@
+package com.johntitor.koharu.aop;
+
+import java.lang.reflect.InvocationHandler;
+
+/**
+ * 将InvocationHandler适配为MethodInterceptor，handler收到的proxy参数为原始Bean
+ */
+public class InvocationHandlerInterceptor implements MethodInterceptor {
+
+    private final InvocationHandler handler;
+
+    public InvocationHandlerInterceptor(InvocationHandler handler) {
+        this.handler = handler;
+    }
+
+    public InvocationHandler getHandler() {
+        return handler;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        return handler.invoke(invocation.getThis(), invocation.getMethod(), invocation.getArguments());
+    }
+}
@@ -0,0 +1,10 @@
+package com.johntitor.koharu.aop;
+
+/**
+ * 方法拦截器，通过MethodInvocation.proceed()调用目标方法
+ */
+@FunctionalInterface
+public interface MethodInterceptor {
+
+    Object invoke(MethodInvocation invocation) throws Throwable;
+}
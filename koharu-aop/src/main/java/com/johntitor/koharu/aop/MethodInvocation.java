@@ -0,0 +1,28 @@
+package com.johntitor.koharu.aop;
+
+import java.lang.reflect.Method;
+
+/**
+ * 一次代理方法调用
+ */
+public interface MethodInvocation {
+
+    /**
+     * 原始Bean
+     */
+    Object getThis();
+
+    Method getMethod();
+
+    Object[] getArguments();
+
+    /**
+     * 通过生成的字节码直接调用原始Bean的方法，不使用反射
+     */
+    Object proceed() throws Throwable;
+
+    /**
+     * 从当前位置继续执行拦截器链的独立副本，用于在其他线程中调用proceed()
+     */
+    MethodInvocation fork();
+}
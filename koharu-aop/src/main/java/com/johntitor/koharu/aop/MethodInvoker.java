@@ -0,0 +1,9 @@
+package com.johntitor.koharu.aop;
+
+/**
+ * 由ProxyResolver为每个被拦截的方法生成实现，直接调用target的方法
+ */
+public interface MethodInvoker {
+
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
@@ -0,0 +1,69 @@
+package com.johntitor.koharu.aop;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.regex.Pattern;
+
+/**
+ * 切入点，在生成Proxy Class时对目标类的每个可覆写方法求值一次，不匹配的方法直接调用原始Bean
+ */
+@FunctionalInterface
+public interface Pointcut {
+
+    /**
+     * 匹配所有可覆写的public方法
+     */
+    Pointcut ALL = (method, targetClass) -> true;
+
+    boolean matches(Method method, Class<?> targetClass);
+
+    default Pointcut and(Pointcut other) {
+        return (method, targetClass) -> matches(method, targetClass) && other.matches(method, targetClass);
+    }
+
+    default Pointcut or(Pointcut other) {
+        return (method, targetClass) -> matches(method, targetClass) || other.matches(method, targetClass);
+    }
+
+    default Pointcut negate() {
+        return (method, targetClass) -> !matches(method, targetClass);
+    }
+
+    /**
+     * 方法上标注了指定注解
+     */
+    static Pointcut annotatedWith(Class<? extends Annotation> annotationClass) {
+        return (method, targetClass) -> method.isAnnotationPresent(annotationClass);
+    }
+
+    /**
+     * 方法名匹配通配符模式，*匹配任意字符，例如"get*"、"*Async"
+     */
+    static Pointcut methodName(String pattern) {
+        Pattern regex = Pattern.compile(("\\Q" + pattern + "\\E").replace("*", "\\E.*\\Q"));
+        return (method, targetClass) -> regex.matcher(method.getName()).matches();
+    }
+
+    /**
+     * 方法由指定类型或其子类型声明
+     */
+    static Pointcut declaringType(Class<?> type) {
+        return (method, targetClass) -> type.isAssignableFrom(method.getDeclaringClass());
+    }
+
+    /**
+     * 与Object的equals()、hashCode()、toString()签名相同的方法，包括目标类覆写的版本:
+     * <p>
+     * AnnotationProxyBeanPostProcessor默认使用objectMethods().negate()，因此@Around/@Before/@After的handler不会拦截这些方法。
+     */
+    static Pointcut objectMethods() {
+        return (method, targetClass) -> {
+            try {
+                Object.class.getMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.johntitor.koharu.aop;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 保存在Proxy实例的字段中，生成的方法调用dispatch(方法序号, 参数)，依次执行该方法匹配的拦截器后调用原始Bean
+ */
+public final class ProxyDispatcher {
+
+    private final Class<?> targetClass;
+    private final Object target;
+    // 不为null时每次调用从targetSource获取目标，忽略target:
+    private final TargetSource targetSource;
+    private final Advisor[] advisors;
+    private final Method[] methods;
+    private final MethodInvoker[] invokers;
+    // 每个方法匹配的拦截器链，靠前的在外层:
+    private final MethodInterceptor[][] chains;
+
+    ProxyDispatcher(Class<?> targetClass, Object target, TargetSource targetSource, Advisor[] advisors, Method[] methods, MethodInvoker[] invokers, MethodInterceptor[][] chains) {
+        this.targetClass = targetClass;
+        this.target = target;
+        this.targetSource = targetSource;
+        this.advisors = advisors;
+        this.methods = methods;
+        this.invokers = invokers;
+        this.chains = chains;
+    }
+
+    public Object dispatch(int index, Object[] args) throws Throwable {
+        return new ProxyMethodInvocation(getTarget(), methods[index], args, invokers[index], chains[index]).proceed();
+    }
+
+    public Object getTarget() {
+        return targetSource == null ? target : targetSource.getTarget();
+    }
+
+    Class<?> targetClass() {
+        return targetClass;
+    }
+
+    TargetSource targetSource() {
+        return targetSource;
+    }
+
+    Advisor[] advisors() {
+        return advisors;
+    }
+
+    public List<Advisor> getAdvisors() {
+        return List.of(advisors);
+    }
+
+    public List<MethodInterceptor> getInterceptors() {
+        List<MethodInterceptor> list = new ArrayList<>(advisors.length);
+        for (Advisor advisor : advisors) {
+            list.add(advisor.interceptor());
+        }
+        return list;
+    }
+}
@@ -0,0 +1,58 @@
+package com.johntitor.koharu.aop;
+
+import java.lang.reflect.Method;
+
+class ProxyMethodInvocation implements MethodInvocation {
+
+    private final Object target;
+    private final Method method;
+    private final Object[] args;
+    private final MethodInvoker invoker;
+    private final MethodInterceptor[] interceptors;
+    // 下一个要执行的拦截器:
+    private int index;
+
+    ProxyMethodInvocation(Object target, Method method, Object[] args, MethodInvoker invoker, MethodInterceptor[] interceptors) {
+        this.target = target;
+        this.method = method;
+        this.args = args;
+        this.invoker = invoker;
+        this.interceptors = interceptors;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return args;
+    }
+
+    @Override
+    public MethodInvocation fork() {
+        ProxyMethodInvocation copy = new ProxyMethodInvocation(target, method, args.clone(), invoker, interceptors);
+        copy.index = index;
+        return copy;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        if (index == interceptors.length) {
+            return invoker.invoke(target, args);
+        }
+        int current = index++;
+        try {
+            return interceptors[current].invoke(this);
+        } finally {
+            // 恢复位置，拦截器可以多次调用proceed():
+            index = current;
+        }
+    }
+}
@@ -1,72 +1,276 @@
 package com.johntitor.koharu.aop;
 
+import com.johntitor.koharu.exception.AopConfigException;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
 import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
-import net.bytebuddy.implementation.InvocationHandlerAdapter;
-import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
 import net.bytebuddy.matcher.ElementMatchers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-
+/**
+ * 生成Proxy Class并创建Proxy实例:
+ * <p>
+ * Proxy Class实现AopProxy，生成时对每个方法求值Advisor的切入点，匹配的方法调用字段中ProxyDispatcher的dispatch(方法序号, 参数)，
+ * 并为其生成一个MethodInvoker，MethodInvocation.proceed()通过它直接调用原始Bean，不使用反射；不匹配的方法直接调用原始Bean。
+ */
 public class ProxyResolver {
 
+    // 生成的Proxy类中保存ProxyDispatcher的字段:
+    static final String DISPATCHER_FIELD = "$$koharu$$dispatcher";
+
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     // ByteBuddy实例:
     private final ByteBuddy byteBuddy = new ByteBuddy();
-
-    private static ProxyResolver INSTANCE = null;
+    // 目标Class -> 可覆写的public方法，保证方法下标稳定:
+    private final Map<Class<?>, Method[]> candidateMethods = new ConcurrentHashMap<>();
+    // Proxy Class缓存，目标Class相同且拦截的方法相同的Bean共用一个Proxy Class:
+    private final Map<ProxyClassKey, ProxyClass> proxyClasses = new ConcurrentHashMap<>();
 
     private ProxyResolver() {
 
     }
 
     public static ProxyResolver getInstance() {
-        if(INSTANCE == null){
-            INSTANCE = new ProxyResolver();
-        }
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
+    // 由类加载保证线程安全的延迟初始化:
+    private static class Holder {
+        static final ProxyResolver INSTANCE = new ProxyResolver();
+    }
+
+    /**
+     * 兼容InvocationHandler，handler收到的proxy参数为原始Bean
+     */
     public <T> T createProxy(T bean, InvocationHandler handler) {
-        // 目标Bean的Class类型:
-        Class<?> targetClass = bean.getClass();
-        logger.debug("create proxy for bean {} @{}", targetClass.getName(), Integer.toHexString(bean.hashCode()));
-        // 动态创建Proxy的Class:
-        Class<?> proxyClass = this.byteBuddy
+        MethodInterceptor interceptor = handler instanceof MethodInterceptor mi ? mi : new InvocationHandlerInterceptor(handler);
+        return createProxy(bean, interceptor);
+    }
+
+    /**
+     * 拦截所有可覆写的public方法
+     */
+    public <T> T createProxy(T bean, MethodInterceptor... interceptors) {
+        Advisor[] advisors = new Advisor[interceptors.length];
+        for (int i = 0; i < interceptors.length; i++) {
+            advisors[i] = new Advisor(interceptors[i]);
+        }
+        return createProxy(bean, advisors);
+    }
+
+    /**
+     * 只拦截匹配任一Advisor切入点的方法，其余方法由Proxy Class直接调用原始Bean
+     */
+    public <T> T createProxy(T bean, Advisor... advisors) {
+        return (T) newProxy(bean.getClass(), bean, null, advisors.clone(), null);
+    }
+
+    /**
+     * 每次方法调用时从TargetSource获取目标对象，Proxy Class为targetClass的子类
+     */
+    public <T> T createProxy(Class<T> targetClass, TargetSource targetSource, Advisor... advisors) {
+        return (T) newProxy(targetClass, null, targetSource, advisors.clone(), null);
+    }
+
+    /**
+     * 在已有Proxy的拦截器链末尾追加Advisor:
+     * <p>
+     * 拦截的方法集合不变时复用原Proxy实例和Proxy Class，否则返回新的Proxy实例。
+     */
+    public <T> T addAdvisor(T proxy, Advisor advisor) {
+        if (!(proxy instanceof AopProxy aopProxy)) {
+            throw new AopConfigException("Not a proxy created by ProxyResolver: " + proxy.getClass().getName());
+        }
+        ProxyDispatcher dispatcher = aopProxy.getProxyDispatcher();
+        Advisor[] advisors = Arrays.copyOf(dispatcher.advisors(), dispatcher.advisors().length + 1);
+        advisors[advisors.length - 1] = advisor;
+        TargetSource targetSource = dispatcher.targetSource();
+        return (T) newProxy(dispatcher.targetClass(), targetSource == null ? dispatcher.getTarget() : null, targetSource, advisors, aopProxy);
+    }
+
+    public <T> T addInterceptor(T proxy, MethodInterceptor interceptor) {
+        return addAdvisor(proxy, new Advisor(interceptor));
+    }
+
+    /**
+     * 返回Proxy代理的原始Bean，不是Proxy时返回自身
+     */
+    public static Object getTarget(Object bean) {
+        return bean instanceof AopProxy proxy ? proxy.getProxyDispatcher().getTarget() : bean;
+    }
+
+    /**
+     * 已生成的Proxy Class数量
+     */
+    public int getProxyClassCount() {
+        return proxyClasses.size();
+    }
+
+    private Object newProxy(Class<?> targetClass, Object bean, TargetSource targetSource, Advisor[] advisors, AopProxy existing) {
+        if (bean != null) {
+            logger.debug("create proxy for bean {} @{}", targetClass.getName(), Integer.toHexString(bean.hashCode()));
+        } else {
+            logger.debug("create proxy for target source of {}", targetClass.getName());
+        }
+        Method[] candidates = candidateMethods.computeIfAbsent(targetClass, ProxyResolver::candidateMethods);
+        // 对每个方法求值切入点，只有匹配的方法经过dispatch:
+        BitSet dispatched = new BitSet(candidates.length);
+        List<MethodInterceptor[]> chains = new ArrayList<>();
+        for (int i = 0; i < candidates.length; i++) {
+            MethodInterceptor[] chain = matchInterceptors(candidates[i], targetClass, advisors);
+            // 无法直接调用的方法仍经过dispatch，由反射MethodInvoker调用原始Bean:
+            if (chain.length > 0 || !isDirectlyInvocable(candidates[i])) {
+                dispatched.set(i);
+                chains.add(chain);
+            }
+        }
+        ProxyClass proxyClass = proxyClasses.computeIfAbsent(new ProxyClassKey(targetClass, dispatched), this::createProxyClass);
+        ProxyDispatcher dispatcher = new ProxyDispatcher(targetClass, bean, targetSource, advisors, proxyClass.methods, proxyClass.invokers, chains.toArray(MethodInterceptor[][]::new));
+        // 同一个Proxy Class时只替换ProxyDispatcher:
+        if (existing != null && existing.getClass() == proxyClass.type) {
+            existing.setProxyDispatcher(dispatcher);
+            return existing;
+        }
+        try {
+            AopProxy proxy = (AopProxy) proxyClass.constructor.newInstance();
+            proxy.setProxyDispatcher(dispatcher);
+            return proxy;
+        } catch (ReflectiveOperationException e) {
+            throw new AopConfigException("Could not create proxy for " + targetClass.getName(), e);
+        }
+    }
+
+    private static MethodInterceptor[] matchInterceptors(Method method, Class<?> targetClass, Advisor[] advisors) {
+        List<MethodInterceptor> list = new ArrayList<>(advisors.length);
+        for (Advisor advisor : advisors) {
+            if (advisor.pointcut().matches(method, targetClass)) {
+                list.add(advisor.interceptor());
+            }
+        }
+        return list.toArray(MethodInterceptor[]::new);
+    }
+
+    private ProxyClass createProxyClass(ProxyClassKey key) {
+        Class<?> targetClass = key.targetClass;
+        logger.debug("generate proxy class for {}", targetClass.getName());
+        Method[] candidates = candidateMethods.get(targetClass);
+        Method[] methods = key.dispatched.stream().mapToObj(i -> candidates[i]).toArray(Method[]::new);
+        Method dispatch;
+        Method getTarget;
+        try {
+            dispatch = ProxyDispatcher.class.getMethod("dispatch", int.class, Object[].class);
+            getTarget = ProxyDispatcher.class.getMethod("getTarget");
+        } catch (NoSuchMethodException e) {
+            throw new AopConfigException(e);
+        }
+        DynamicType.Builder<?> builder = this.byteBuddy
                 // 子类用默认无参数构造方法:
                 .subclass(targetClass, ConstructorStrategy.Default.DEFAULT_CONSTRUCTOR)
-                // 拦截所有public方法:
-                .method(ElementMatchers.isPublic())
-                .intercept(InvocationHandlerAdapter.of(
-                    // 新的拦截器实例:
-                    // 明确 “代理 -> 委托给 handler -> 作用在原始 bean 上
-                    new InvocationHandler() {
-                        @Override
-                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                            // 将方法调用代理至原始Bean:
-                            return handler.invoke(bean, method, args);
-                        }
-                    }))
-                // 生成字节码:
-                .make()
-                // 加载字节码:
-                .load(targetClass.getClassLoader()).getLoaded();
-
-        // 创建Proxy实例:
-        Object proxy;
+                .defineField(DISPATCHER_FIELD, ProxyDispatcher.class, Visibility.PRIVATE)
+                .implement(AopProxy.class)
+                .intercept(FieldAccessor.ofField(DISPATCHER_FIELD));
+        List<DynamicType.Unloaded<?>> invokerTypes = new ArrayList<>(methods.length);
+        int index = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            Method method = candidates[i];
+            MethodCall call;
+            if (key.dispatched.get(i)) {
+                // 拦截方法，调用dispatcher.dispatch(index, args):
+                call = MethodCall.invoke(dispatch).onField(DISPATCHER_FIELD).with(index++).withArgumentArray();
+                invokerTypes.add(isDirectlyInvocable(method) ? createInvokerType(method) : null);
+            } else {
+                // 不匹配的方法直接调用原始Bean，不创建参数数组:
+                call = MethodCall.invoke(method).onMethodCall(MethodCall.invoke(getTarget).onField(DISPATCHER_FIELD)).withAllArguments();
+            }
+            builder = builder.method(ElementMatchers.named(method.getName()).and(ElementMatchers.takesArguments(method.getParameterTypes())))
+                    .intercept(call.withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+        }
+        // 生成字节码，Proxy Class和MethodInvoker在同一个ClassLoader中加载:
+        DynamicType.Loaded<?> loaded = builder.make()
+                .include(invokerTypes.stream().filter(t -> t != null).toList())
+                .load(targetClass.getClassLoader());
+        MethodInvoker[] invokers = new MethodInvoker[methods.length];
         try {
-            proxy = proxyClass.getConstructor().newInstance();
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            for (int i = 0; i < methods.length; i++) {
+                DynamicType.Unloaded<?> invokerType = invokerTypes.get(i);
+                invokers[i] = invokerType == null
+                        ? reflectiveInvoker(methods[i])
+                        : (MethodInvoker) loaded.getAllLoaded().get(invokerType.getTypeDescription()).getConstructor().newInstance();
+            }
+            Class<?> proxyClass = loaded.getLoaded();
+            return new ProxyClass(proxyClass, proxyClass.getConstructor(), methods, invokers);
+        } catch (ReflectiveOperationException e) {
+            throw new AopConfigException("Invalid proxy class generated for " + targetClass.getName(), e);
         }
-        return (T) proxy;
     }
 
+    /**
+     * 可被子类覆写的public方法
+     */
+    static Method[] candidateMethods(Class<?> targetClass) {
+        List<Method> list = new ArrayList<>();
+        for (Method method : targetClass.getMethods()) {
+            int mod = method.getModifiers();
+            if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            list.add(method);
+        }
+        return list.toArray(Method[]::new);
+    }
+
+    // 生成的MethodInvoker位于其他ClassLoader，只能调用public类的方法:
+    private static boolean isDirectlyInvocable(Method method) {
+        return Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+
+    /**
+     * 生成: Object invoke(Object target, Object[] args) { return ((T) target).method((P0) args[0], ...); }
+     */
+    private DynamicType.Unloaded<?> createInvokerType(Method method) {
+        MethodCall call = MethodCall.invoke(method).onArgument(0);
+        if (method.getParameterCount() > 0) {
+            call = call.withArgumentArrayElements(1, method.getParameterCount());
+        }
+        return this.byteBuddy
+                .subclass(MethodInvoker.class)
+                .method(ElementMatchers.named("invoke"))
+                .intercept(call.withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC))
+                .make();
+    }
+
+    private static MethodInvoker reflectiveInvoker(Method method) {
+        method.setAccessible(true);
+        return (target, args) -> {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
 
+    // 目标Class和经过dispatch的方法(candidateMethods的下标)决定一个Proxy Class:
+    private record ProxyClassKey(Class<?> targetClass, BitSet dispatched) {
+    }
+
+    private record ProxyClass(Class<?> type, Constructor<?> constructor, Method[] methods, MethodInvoker[] invokers) {
+    }
 }
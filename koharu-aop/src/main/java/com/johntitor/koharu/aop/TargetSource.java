@@ -0,0 +1,10 @@
+package com.johntitor.koharu.aop;
+
+/**
+ * 每次方法调用时提供Proxy的目标对象，用于目标随调用变化的Proxy，如Scoped Proxy
+ */
+@FunctionalInterface
+public interface TargetSource {
+
+    Object getTarget();
+}
@@ -0,0 +1,58 @@
+package com.johntitor.koharu.aop.async;
+
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.AdvisingBeanPostProcessor;
+import com.johntitor.koharu.context.ApplicationContextContainer;
+import com.johntitor.koharu.context.BeanDefinition;
+import com.johntitor.koharu.context.ConfigurableApplicationContext;
+import com.johntitor.koharu.exception.AopConfigException;
+
+/**
+ * 为类或public方法上标注了@Async的Bean创建代理，AsyncExecutor和ContextPropagator从ApplicationContext中按名称查找
+ */
+public class AsyncBeanPostProcessor extends AdvisingBeanPostProcessor {
+
+    @Override
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        AsyncInterceptor interceptor = new AsyncInterceptor(targetClass,
+                name -> getBean(name, AsyncExecutor.class), this::getPropagator);
+        return interceptor.hasOperations() ? new Advisor(interceptor.getPointcut(), interceptor) : null;
+    }
+
+    private ContextPropagator getPropagator(String name) {
+        ConfigurableApplicationContext ctx = getContext();
+        for (BeanDefinition def : ctx.findBeanDefinitions(ContextPropagator.class)) {
+            ContextPropagator propagator = (ContextPropagator) getInstance(ctx, def);
+            if (propagator.getName().equals(name)) {
+                return propagator;
+            }
+        }
+        throw new AopConfigException("No ContextPropagator found with name " + name);
+    }
+
+    private <T> T getBean(String name, Class<T> type) {
+        ConfigurableApplicationContext ctx = getContext();
+        BeanDefinition def = ctx.findBeanDefinition(name);
+        if (def == null) {
+            throw new AopConfigException("No definition found for " + type.getSimpleName() + " " + name);
+        }
+        Object bean = getInstance(ctx, def);
+        if (!type.isInstance(bean)) {
+            throw new AopConfigException(String.format("Bean %s is not a %s.", name, type.getSimpleName()));
+        }
+        return type.cast(bean);
+    }
+
+    private static Object getInstance(ConfigurableApplicationContext ctx, BeanDefinition def) {
+        Object instance = def.getInstance();
+        return instance != null ? instance : ctx.createBeanAsEarlySingleton(def);
+    }
+
+    private static ConfigurableApplicationContext getContext() {
+        ConfigurableApplicationContext ctx = (ConfigurableApplicationContext) ApplicationContextContainer.getApplicationContext();
+        if (ctx == null) {
+            throw new AopConfigException("No application context found");
+        }
+        return ctx;
+    }
+}
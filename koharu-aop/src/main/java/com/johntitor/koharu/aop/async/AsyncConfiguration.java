@@ -0,0 +1,27 @@
+package com.johntitor.koharu.aop.async;
+
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Value;
+
+import java.time.Duration;
+
+/**
+ * 通过@Import(AsyncConfiguration.class)启用@Async，默认的AsyncExecutor名称为asyncExecutor，使用虚拟线程
+ */
+@Configuration
+public class AsyncConfiguration {
+
+    @Bean(destroyMethod = "close")
+    AsyncExecutor asyncExecutor(
+            @Value("${koharu.async.max-pending:10000}") int maxPending,
+            @Value("${koharu.async.rejection-policy:block}") String rejectionPolicy,
+            @Value("${koharu.async.block-timeout:30000}") long blockTimeout) {
+        return new AsyncExecutor("asyncExecutor", maxPending, RejectionPolicy.of(rejectionPolicy), Duration.ofMillis(blockTimeout));
+    }
+
+    @Bean
+    AsyncBeanPostProcessor asyncBeanPostProcessor() {
+        return new AsyncBeanPostProcessor();
+    }
+}
@@ -0,0 +1,155 @@
+package com.johntitor.koharu.aop.async;
+
+import com.johntitor.koharu.aop.metrics.LogHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @Async任务的执行器:
+ * <p>
+ * 默认每个任务一个虚拟线程。未完成(排队和执行中)的任务数由Semaphore限制，达到上限时按RejectionPolicy处理，
+ * 避免调用方提交任务的速度超过执行速度时无限堆积。
+ */
+public class AsyncExecutor implements AutoCloseable {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final ExecutorService executor;
+    private final int maxPending;
+    private final Semaphore permits;
+    private final RejectionPolicy rejectionPolicy;
+    private final long blockTimeoutNanos;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LogHistogram queueWait = new LogHistogram();
+    private final LogHistogram execution = new LogHistogram();
+
+    /**
+     * 使用虚拟线程执行任务
+     */
+    public AsyncExecutor(String name, int maxPending, RejectionPolicy rejectionPolicy, Duration blockTimeout) {
+        this(name, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory()),
+                maxPending, rejectionPolicy, blockTimeout);
+    }
+
+    public AsyncExecutor(String name, ExecutorService executor, int maxPending, RejectionPolicy rejectionPolicy, Duration blockTimeout) {
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("Invalid maxPending: " + maxPending);
+        }
+        this.name = name;
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.permits = new Semaphore(maxPending);
+        this.rejectionPolicy = rejectionPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 提交任务，任务的异常通过返回的CompletableFuture传递
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        submitted.increment();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (!acquire()) {
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS) {
+                callerRuns.increment();
+                run(task, future, System.nanoTime(), false);
+            } else {
+                rejected.increment();
+                future.completeExceptionally(new RejectedExecutionException(
+                        String.format("AsyncExecutor '%s' has reached max pending tasks %s.", name, maxPending)));
+            }
+            return future;
+        }
+        long enqueued = System.nanoTime();
+        try {
+            executor.execute(() -> run(task, future, enqueued, true));
+        } catch (RejectedExecutionException e) {
+            // 已关闭:
+            permits.release();
+            rejected.increment();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private boolean acquire() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (rejectionPolicy != RejectionPolicy.BLOCK) {
+            return false;
+        }
+        try {
+            return permits.tryAcquire(blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> future, long enqueued, boolean release) {
+        long start = System.nanoTime();
+        queueWait.record(start - enqueued);
+        T result = null;
+        Throwable error = null;
+        try {
+            result = task.call();
+        } catch (Throwable e) {
+            error = e;
+        }
+        // 先记录统计再完成future，调用方拿到结果时统计已更新:
+        execution.record(System.nanoTime() - start);
+        if (release) {
+            permits.release();
+        }
+        if (error == null) {
+            completed.increment();
+            future.complete(result);
+        } else {
+            failed.increment();
+            future.completeExceptionally(error);
+        }
+    }
+
+    public AsyncExecutorStats getStats() {
+        return new AsyncExecutorStats(name, submitted.sum(), completed.sum(), failed.sum(), rejected.sum(), callerRuns.sum(),
+                maxPending - permits.availablePermits(), queueWait.snapshot(), execution.snapshot());
+    }
+
+    /**
+     * 不再接受新任务，等待已提交的任务完成
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("AsyncExecutor '{}' did not terminate in 30 seconds, {} tasks pending.", name, maxPending - permits.availablePermits());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.johntitor.koharu.aop.async;
+
+import com.johntitor.koharu.aop.metrics.LatencySnapshot;
+
+/**
+ * AsyncExecutor统计，queueWait为提交到开始执行的时间，execution为执行时间，单位为纳秒
+ */
+public record AsyncExecutorStats(String name, long submitted, long completed, long failed, long rejected, long callerRuns,
+                                 int pending, LatencySnapshot queueWait, LatencySnapshot execution) {
+}
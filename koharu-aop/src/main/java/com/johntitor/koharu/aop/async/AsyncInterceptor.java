@@ -0,0 +1,112 @@
+package com.johntitor.koharu.aop.async;
+
+import com.johntitor.koharu.annotation.Async;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.Pointcut;
+import com.johntitor.koharu.context.ApplicationContext;
+import com.johntitor.koharu.context.ApplicationContextContainer;
+import com.johntitor.koharu.exception.AopConfigException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * @Async的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法解析一次AsyncExecutor和ContextPropagator。调用时在调用线程捕获ApplicationContext和
+ * 指定的上下文，在AsyncExecutor中继续执行拦截器链。void方法的异常记录日志，CompletableFuture方法的异常通过返回值传递。
+ */
+public class AsyncInterceptor implements MethodInterceptor {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // Method -> 异步操作，只包含@Async方法:
+    private final Map<Method, AsyncOperation> operations;
+
+    public AsyncInterceptor(Class<?> targetClass, Function<String, AsyncExecutor> executors, Function<String, ContextPropagator> propagators) {
+        Async classAsync = targetClass.getAnnotation(Async.class);
+        Map<Method, AsyncOperation> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            Async async = method.getAnnotation(Async.class);
+            boolean supported = method.getReturnType() == void.class || method.getReturnType() == CompletableFuture.class;
+            if (async == null) {
+                // 类上的@Async只应用于支持的方法:
+                if (classAsync == null || !supported) {
+                    continue;
+                }
+                async = classAsync;
+            } else if (!supported) {
+                throw new AopConfigException("@Async method must return void or CompletableFuture: " + method);
+            }
+            ContextPropagator[] list = new ContextPropagator[async.propagate().length];
+            for (int i = 0; i < list.length; i++) {
+                list[i] = propagators.apply(async.propagate()[i]);
+            }
+            map.put(method, new AsyncOperation(executors.apply(async.value()), list, method.getReturnType() == void.class));
+        }
+        this.operations = map;
+    }
+
+    public boolean hasOperations() {
+        return !operations.isEmpty();
+    }
+
+    /**
+     * 只匹配@Async方法
+     */
+    public Pointcut getPointcut() {
+        return (method, targetClass) -> operations.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        AsyncOperation op = operations.get(invocation.getMethod());
+        if (op == null) {
+            return invocation.proceed();
+        }
+        // 调用线程返回后会修改invocation的状态，在执行线程中使用副本:
+        MethodInvocation forked = invocation.fork();
+        ApplicationContext ctx = ApplicationContextContainer.getApplicationContext();
+        Callable<Object> task = () -> {
+            ApplicationContext previous = ApplicationContextContainer.bindToThread(ctx);
+            try {
+                return forked.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            } finally {
+                ApplicationContextContainer.bindToThread(previous);
+            }
+        };
+        for (ContextPropagator propagator : op.propagators) {
+            task = propagator.wrap(task);
+        }
+        CompletableFuture<Object> future = op.executor.submit(task);
+        if (op.isVoid) {
+            future.whenComplete((r, e) -> {
+                if (e != null) {
+                    logger.warn("@Async method {}.{}() failed.", invocation.getMethod().getDeclaringClass().getSimpleName(),
+                            invocation.getMethod().getName(), e);
+                }
+            });
+            return null;
+        }
+        // 方法返回的CompletableFuture完成时才完成:
+        return future.thenCompose(r -> r == null ? CompletableFuture.completedFuture(null) : (CompletableFuture<Object>) r);
+    }
+
+    private record AsyncOperation(AsyncExecutor executor, ContextPropagator[] propagators, boolean isVoid) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.johntitor.koharu.aop.async;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 把调用线程的上下文传递到@Async任务的执行线程，通过@Async(propagate = "name")按名称启用
+ */
+public interface ContextPropagator {
+
+    String getName();
+
+    /**
+     * 在调用线程中执行，捕获当前上下文并返回在执行线程中恢复该上下文的任务
+     */
+    <T> Callable<T> wrap(Callable<T> task);
+}
@@ -0,0 +1,26 @@
+package com.johntitor.koharu.aop.async;
+
+/**
+ * 未完成的任务达到上限时的处理方式
+ */
+public enum RejectionPolicy {
+
+    /**
+     * 返回以RejectedExecutionException失败的CompletableFuture
+     */
+    ABORT,
+
+    /**
+     * 在调用线程中直接执行
+     */
+    CALLER_RUNS,
+
+    /**
+     * 阻塞调用线程直到有空位，超时后按ABORT处理
+     */
+    BLOCK;
+
+    public static RejectionPolicy of(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,335 @@
+package com.johntitor.koharu.aop.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 有容量和过期时间限制的并发Cache:
+ * <p>
+ * 读取只访问ConcurrentHashMap，访问顺序和频率在tryLock成功时更新，锁被占用时跳过，读取不会阻塞。
+ * 写入在锁内维护LRU链表并淘汰超出容量的条目。同一个key的并发加载合并为一次。
+ */
+public class BoundedCache implements Cache {
+
+    // 缓存的null值:
+    private static final Object NULL = new Object();
+
+    private final String name;
+    private final long maximumSize;
+    private final long expireNanos;
+    // W-TinyLFU时为窗口容量，LRU时为0:
+    private final long windowMaximum;
+    // LRU时为null:
+    private final FrequencySketch sketch;
+
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Object, Loading> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder main = new AccessOrder();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(String name, CacheSpec spec) {
+        this.name = name;
+        this.maximumSize = spec.maximumSize();
+        this.expireNanos = spec.expireAfterWrite().toNanos();
+        if (spec.eviction() == EvictionPolicy.TINY_LFU) {
+            this.windowMaximum = Math.max(1, maximumSize / 100);
+            this.sketch = new FrequencySketch(maximumSize);
+        } else {
+            this.windowMaximum = 0;
+            this.sketch = null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getIfPresent(Object key) {
+        Object value = lookup(key);
+        return value == NULL || value == null ? null : value;
+    }
+
+    @Override
+    public Object get(Object key, CacheLoader loader) throws Throwable {
+        Object value = lookup(key);
+        if (value != null) {
+            return value == NULL ? null : value;
+        }
+        Loading future = new Loading(Thread.currentThread());
+        Loading existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            // loader在同一个线程中递归加载同一个key时，等待自己的结果会永远阻塞:
+            if (existing.owner == Thread.currentThread()) {
+                throw new IllegalStateException(String.format("Recursive load of key %s in cache %s.", key, name));
+            }
+            // 等待其他线程的加载结果:
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            // 其他线程可能在lookup()之后刚完成加载:
+            Node loaded = data.get(key);
+            if (loaded != null && !loaded.isExpired(System.nanoTime())) {
+                value = loaded.value == NULL ? null : loaded.value;
+                future.complete(value);
+                return value;
+            }
+            long start = System.nanoTime();
+            try {
+                value = loader.load();
+            } catch (Throwable e) {
+                loadFailures.increment();
+                loadTime.add(System.nanoTime() - start);
+                future.completeExceptionally(e);
+                throw e;
+            }
+            loadSuccesses.increment();
+            loadTime.add(System.nanoTime() - start);
+            put(key, value);
+            future.complete(value);
+            return value;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    // 正在进行的加载，记录加载线程用于检测递归加载:
+    private static final class Loading extends CompletableFuture<Object> {
+
+        final Thread owner;
+
+        Loading(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    /**
+     * 返回缓存的值，NULL表示缓存的null，未命中时返回null
+     */
+    private Object lookup(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (node.isExpired(System.nanoTime())) {
+            misses.increment();
+            if (data.remove(key, node)) {
+                evictions.increment();
+                evictionLock.lock();
+                try {
+                    unlink(node);
+                } finally {
+                    evictionLock.unlock();
+                }
+            }
+            return null;
+        }
+        hits.increment();
+        afterRead(node);
+        return node.value;
+    }
+
+    private void afterRead(Node node) {
+        // 锁被占用时放弃更新访问顺序:
+        if (evictionLock.tryLock()) {
+            try {
+                if (node.queue != null) {
+                    node.queue.moveToTail(node);
+                }
+                if (sketch != null) {
+                    sketch.increment(node.key);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long expiresAt = expireNanos > 0 ? System.nanoTime() + expireNanos : 0L;
+        Node node = new Node(key, value == null ? NULL : value, expiresAt);
+        Node old = data.put(key, node);
+        evictionLock.lock();
+        try {
+            if (old != null) {
+                unlink(old);
+            }
+            // 已被并发的put或evict替换时不再加入链表:
+            if (data.get(key) == node) {
+                if (sketch != null) {
+                    sketch.increment(key);
+                    window.addLast(node);
+                } else {
+                    main.addLast(node);
+                }
+                evictEntries();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evictEntries() {
+        if (sketch == null) {
+            while (main.size > maximumSize) {
+                evict(main.head);
+            }
+            return;
+        }
+        long mainMaximum = maximumSize - windowMaximum;
+        while (window.size > windowMaximum) {
+            // 离开窗口的候选条目:
+            Node candidate = window.head;
+            window.remove(candidate);
+            if (main.size < mainMaximum) {
+                main.addLast(candidate);
+                continue;
+            }
+            Node victim = main.head;
+            if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+                main.addLast(candidate);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.queue != null) {
+            node.queue.remove(node);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        Node node = data.remove(key);
+        if (node != null) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            for (Node node : data.values()) {
+                if (data.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.size();
+    }
+
+    @Override
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                loadTime.sum(), evictions.sum(), data.size());
+    }
+
+    static final class Node {
+
+        final Object key;
+        final Object value;
+        // 0表示不过期:
+        final long expiresAt;
+        // 以下字段只在evictionLock内访问:
+        AccessOrder queue;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != 0L && now - expiresAt >= 0;
+        }
+    }
+
+    /**
+     * 按访问顺序排列的双向链表，head为最久未访问
+     */
+    static final class AccessOrder {
+
+        Node head;
+        Node tail;
+        long size;
+
+        void addLast(Node node) {
+            node.queue = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToTail(Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.johntitor.koharu.aop.cache;
+
+/**
+ * 缓存，key不能为null，value可以为null
+ */
+public interface Cache {
+
+    String getName();
+
+    /**
+     * 未命中或缓存的值为null时返回null
+     */
+    Object getIfPresent(Object key);
+
+    /**
+     * 未命中时调用loader加载并缓存，同一个key的并发加载只调用一次loader，其余调用等待结果。
+     * loader在同一个线程中再次加载同一个key时抛出IllegalStateException
+     */
+    Object get(Object key, CacheLoader loader) throws Throwable;
+
+    void put(Object key, Object value);
+
+    void evict(Object key);
+
+    void clear();
+
+    long size();
+
+    CacheStats getStats();
+}
@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.cache;
+
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.AdvisingBeanPostProcessor;
+
+/**
+ * 为public方法上标注了@Cacheable、@CachePut或@CacheEvict的Bean创建代理
+ */
+public class CacheBeanPostProcessor extends AdvisingBeanPostProcessor {
+
+    private final CacheManager cacheManager;
+
+    public CacheBeanPostProcessor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        CacheInterceptor interceptor = new CacheInterceptor(cacheManager, targetClass);
+        return interceptor.hasOperations() ? new Advisor(interceptor.getPointcut(), interceptor) : null;
+    }
+}
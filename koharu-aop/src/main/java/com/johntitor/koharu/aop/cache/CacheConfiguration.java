@@ -0,0 +1,29 @@
+package com.johntitor.koharu.aop.cache;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Value;
+
+import java.time.Duration;
+
+/**
+ * 通过@Import(CacheConfiguration.class)启用@Cacheable，默认使用ConcurrentCacheManager，
+ * 另外定义@Primary的CacheManager即可替换
+ */
+@Configuration
+public class CacheConfiguration {
+
+    @Bean
+    CacheManager cacheManager(
+            @Value("${koharu.cache.maximum-size:10000}") long maximumSize,
+            @Value("${koharu.cache.expire-after-write:0}") long expireAfterWrite,
+            @Value("${koharu.cache.eviction:tiny-lfu}") String eviction) {
+        return new ConcurrentCacheManager(new CacheSpec(maximumSize, Duration.ofMillis(expireAfterWrite), EvictionPolicy.of(eviction)));
+    }
+
+    @Bean
+    CacheBeanPostProcessor cacheBeanPostProcessor(@Autowired CacheManager cacheManager) {
+        return new CacheBeanPostProcessor(cacheManager);
+    }
+}
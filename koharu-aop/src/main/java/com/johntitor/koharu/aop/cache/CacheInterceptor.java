@@ -0,0 +1,106 @@
+package com.johntitor.koharu.aop.cache;
+
+import com.johntitor.koharu.annotation.CacheEvict;
+import com.johntitor.koharu.annotation.CachePut;
+import com.johntitor.koharu.annotation.Cacheable;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.Pointcut;
+import com.johntitor.koharu.exception.AopConfigException;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Cacheable、@CachePut和@CacheEvict的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法读取一次注解并从CacheManager取得Cache，调用时查表。
+ */
+public class CacheInterceptor implements MethodInterceptor {
+
+    // Method -> 缓存操作，只包含有缓存注解的方法:
+    private final Map<Method, CacheOperations> operations;
+
+    public CacheInterceptor(CacheManager cacheManager, Class<?> targetClass) {
+        Map<Method, CacheOperations> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            Cacheable cacheable = method.getAnnotation(Cacheable.class);
+            CachePut cachePut = method.getAnnotation(CachePut.class);
+            CacheEvict cacheEvict = method.getAnnotation(CacheEvict.class);
+            if (cacheable == null && cachePut == null && cacheEvict == null) {
+                continue;
+            }
+            if ((cacheable != null || cachePut != null) && method.getReturnType() == void.class) {
+                throw new AopConfigException("Cannot cache result of void method: " + method);
+            }
+            map.put(method, new CacheOperations(
+                    cacheable == null ? null : operation(cacheManager, method, cacheable.value(), cacheable.key(), false, false),
+                    cachePut == null ? null : operation(cacheManager, method, cachePut.value(), cachePut.key(), false, false),
+                    cacheEvict == null ? null : operation(cacheManager, method, cacheEvict.value(), cacheEvict.key(),
+                            cacheEvict.allEntries(), cacheEvict.beforeInvocation())));
+        }
+        this.operations = map;
+    }
+
+    private static CacheOperation operation(CacheManager cacheManager, Method method, String cacheName, int[] key,
+                                            boolean allEntries, boolean beforeInvocation) {
+        for (int index : key) {
+            if (index < 0 || index >= method.getParameterCount()) {
+                throw new AopConfigException(String.format("Invalid cache key argument index %s on method %s.", index, method));
+            }
+        }
+        return new CacheOperation(cacheManager.getCache(cacheName), key, allEntries, beforeInvocation);
+    }
+
+    public boolean hasOperations() {
+        return !operations.isEmpty();
+    }
+
+    /**
+     * 只匹配有缓存注解的方法
+     */
+    public Pointcut getPointcut() {
+        return (method, targetClass) -> operations.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CacheOperations ops = operations.get(invocation.getMethod());
+        if (ops == null) {
+            return invocation.proceed();
+        }
+        Object[] args = invocation.getArguments();
+        if (ops.evict != null && ops.evict.beforeInvocation) {
+            ops.evict.evict(args);
+        }
+        Object result = ops.cacheable != null
+                ? ops.cacheable.cache.get(ops.cacheable.key(args), invocation::proceed)
+                : invocation.proceed();
+        if (ops.put != null) {
+            ops.put.cache.put(ops.put.key(args), result);
+        }
+        if (ops.evict != null && !ops.evict.beforeInvocation) {
+            ops.evict.evict(args);
+        }
+        return result;
+    }
+
+    private record CacheOperations(CacheOperation cacheable, CacheOperation put, CacheOperation evict) {
+    }
+
+    private record CacheOperation(Cache cache, int[] keyIndexes, boolean allEntries, boolean beforeInvocation) {
+
+        Object key(Object[] args) {
+            return SimpleKey.of(args, keyIndexes);
+        }
+
+        void evict(Object[] args) {
+            if (allEntries) {
+                cache.clear();
+            } else {
+                cache.evict(key(args));
+            }
+        }
+    }
+}
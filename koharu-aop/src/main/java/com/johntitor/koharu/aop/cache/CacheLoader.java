@@ -0,0 +1,10 @@
+package com.johntitor.koharu.aop.cache;
+
+/**
+ * 未命中时加载值，可以直接抛出被代理方法的异常
+ */
+@FunctionalInterface
+public interface CacheLoader {
+
+    Object load() throws Throwable;
+}
@@ -0,0 +1,16 @@
+package com.johntitor.koharu.aop.cache;
+
+import java.util.Collection;
+
+/**
+ * 按名称管理Cache，可以替换为其他实现
+ */
+public interface CacheManager {
+
+    /**
+     * 返回指定名称的Cache，不存在时创建
+     */
+    Cache getCache(String name);
+
+    Collection<String> getCacheNames();
+}
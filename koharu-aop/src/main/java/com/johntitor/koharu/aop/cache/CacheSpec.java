@@ -0,0 +1,20 @@
+package com.johntitor.koharu.aop.cache;
+
+import java.time.Duration;
+
+/**
+ * Cache的容量、过期时间和淘汰策略，expireAfterWrite为ZERO表示不过期
+ */
+public record CacheSpec(long maximumSize, Duration expireAfterWrite, EvictionPolicy eviction) {
+
+    public static final CacheSpec DEFAULT = new CacheSpec(10_000, Duration.ZERO, EvictionPolicy.TINY_LFU);
+
+    public CacheSpec {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Invalid maximumSize: " + maximumSize);
+        }
+        if (expireAfterWrite.isNegative()) {
+            throw new IllegalArgumentException("Invalid expireAfterWrite: " + expireAfterWrite);
+        }
+    }
+}
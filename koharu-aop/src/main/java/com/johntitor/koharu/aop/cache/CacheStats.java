@@ -0,0 +1,13 @@
+package com.johntitor.koharu.aop.cache;
+
+/**
+ * 缓存统计，加载时间单位为纳秒
+ */
+public record CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                         long totalLoadTime, long evictionCount, long size) {
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
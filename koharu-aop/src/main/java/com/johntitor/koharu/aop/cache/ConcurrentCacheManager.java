@@ -0,0 +1,44 @@
+package com.johntitor.koharu.aop.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按需创建BoundedCache的CacheManager，未单独设置CacheSpec的Cache使用默认CacheSpec
+ */
+public class ConcurrentCacheManager implements CacheManager {
+
+    private final CacheSpec defaultSpec;
+    private final Map<String, CacheSpec> specs = new ConcurrentHashMap<>();
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public ConcurrentCacheManager() {
+        this(CacheSpec.DEFAULT);
+    }
+
+    public ConcurrentCacheManager(CacheSpec defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    /**
+     * 设置指定Cache的CacheSpec，必须在Cache创建前调用
+     */
+    public void setCacheSpec(String name, CacheSpec spec) {
+        if (caches.containsKey(name)) {
+            throw new IllegalStateException("Cache '" + name + "' is already created.");
+        }
+        specs.put(name, spec);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, n -> new BoundedCache(n, specs.getOrDefault(n, defaultSpec)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return List.copyOf(caches.keySet());
+    }
+}
@@ -0,0 +1,21 @@
+package com.johntitor.koharu.aop.cache;
+
+/**
+ * 超过容量时的淘汰策略
+ */
+public enum EvictionPolicy {
+
+    /**
+     * 淘汰最久未访问的条目
+     */
+    LRU,
+
+    /**
+     * W-TinyLFU: 新条目先进入1%容量的LRU窗口，离开窗口时与主区域的LRU条目比较访问频率，频率高的保留
+     */
+    TINY_LFU;
+
+    public static EvictionPolicy of(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,60 @@
+package com.johntitor.koharu.aop.cache;
+
+import java.util.Arrays;
+
+/**
+ * 多个参数组成的缓存key，hashCode在创建时计算一次
+ */
+public final class SimpleKey {
+
+    public static final SimpleKey EMPTY = new SimpleKey(new Object[0]);
+
+    private final Object[] params;
+    private final int hashCode;
+
+    private SimpleKey(Object[] params) {
+        this.params = params;
+        this.hashCode = Arrays.deepHashCode(params);
+    }
+
+    /**
+     * 由参数生成key:
+     * <p>
+     * 没有参数时为EMPTY，只有一个非null、非数组的参数时直接使用该参数，不创建新对象；
+     * 基本类型参数使用代理调用时已装箱的对象，不会再次装箱。
+     *
+     * @param indexes 用于生成key的参数下标，空数组表示使用全部参数
+     */
+    public static Object of(Object[] args, int[] indexes) {
+        int length = indexes.length == 0 ? args.length : indexes.length;
+        if (length == 0) {
+            return EMPTY;
+        }
+        if (length == 1) {
+            Object arg = indexes.length == 0 ? args[0] : args[indexes[0]];
+            if (arg != null && !arg.getClass().isArray()) {
+                return arg;
+            }
+        }
+        Object[] params = new Object[length];
+        for (int i = 0; i < length; i++) {
+            params[i] = indexes.length == 0 ? args[i] : args[indexes[i]];
+        }
+        return new SimpleKey(params);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof SimpleKey other && hashCode == other.hashCode && Arrays.deepEquals(params, other.params));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "SimpleKey " + Arrays.deepToString(params);
+    }
+}
@@ -0,0 +1,133 @@
+package com.johntitor.koharu.aop.limit;
+
+import com.johntitor.koharu.exception.BulkheadFullException;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分段Semaphore实现的并发限制:
+ * <p>
+ * maxConcurrent个许可分到多个Semaphore，每个线程先尝试自己的分段再依次尝试其他分段，减少高并发时对同一个Semaphore的竞争。
+ * 等待时在自己的分段上等待一小段时间后重新扫描所有分段，避免其他分段有空闲时仍在等待。
+ */
+public class ConcurrencyLimiter {
+
+    // 等待时每次在一个分段上等待的最长时间:
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final int maxConcurrent;
+    private final LimitMode mode;
+    private final long timeoutNanos;
+    private final Semaphore[] stripes;
+    private final int[] capacities;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAccumulator maxWait = new LongAccumulator(Math::max, 0);
+
+    public ConcurrencyLimiter(String name, int maxConcurrent, LimitMode mode, Duration timeout) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Invalid bulkhead " + name + ": maxConcurrent must be positive.");
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.mode = mode;
+        this.timeoutNanos = mode == LimitMode.WAIT ? timeout.toNanos() : 0;
+        int n = Math.min(maxConcurrent, Runtime.getRuntime().availableProcessors());
+        this.stripes = new Semaphore[n];
+        this.capacities = new int[n];
+        for (int i = 0; i < n; i++) {
+            // 许可尽量平均分配:
+            capacities[i] = maxConcurrent / n + (i < maxConcurrent % n ? 1 : 0);
+            stripes[i] = new Semaphore(capacities[i]);
+        }
+    }
+
+    /**
+     * 获取一个许可，返回分段序号，用于release()
+     */
+    public int acquire() {
+        int home = (int) (Thread.currentThread().threadId() % stripes.length);
+        int stripe = tryAcquire(home);
+        if (stripe >= 0) {
+            permitted.increment();
+            return stripe;
+        }
+        if (timeoutNanos <= 0) {
+            rejected.increment();
+            throw new BulkheadFullException(name);
+        }
+        long start = System.nanoTime();
+        long deadline = start + timeoutNanos;
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                if (stripes[home].tryAcquire(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS)) {
+                    stripe = home;
+                } else {
+                    stripe = tryAcquire(home);
+                }
+                if (stripe >= 0) {
+                    long wait = System.nanoTime() - start;
+                    permitted.increment();
+                    waited.increment();
+                    waitTime.add(wait);
+                    maxWait.accumulate(wait);
+                    return stripe;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new BulkheadFullException(name);
+    }
+
+    private int tryAcquire(int home) {
+        for (int i = 0; i < stripes.length; i++) {
+            int index = (home + i) % stripes.length;
+            if (stripes[index].tryAcquire()) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    public void release(int stripe) {
+        stripes[stripe].release();
+    }
+
+    /**
+     * 正在执行的调用数
+     */
+    public int getActive() {
+        int active = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            active += capacities[i] - stripes[i].availablePermits();
+        }
+        return active;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public LimiterStats getStats() {
+        return new LimiterStats(name, "bulkhead", maxConcurrent, permitted.sum(), rejected.sum(), waited.sum(),
+                waitTime.sum(), maxWait.get(), getActive());
+    }
+}
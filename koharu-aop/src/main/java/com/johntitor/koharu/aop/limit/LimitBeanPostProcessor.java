@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.limit;
+
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.AdvisingBeanPostProcessor;
+
+/**
+ * 为类或public方法上标注了@RateLimited或@Bulkhead的Bean创建代理，只拦截需要限流的方法
+ */
+public class LimitBeanPostProcessor extends AdvisingBeanPostProcessor {
+
+    private final LimiterRegistry registry;
+
+    public LimitBeanPostProcessor(LimiterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        LimitInterceptor interceptor = new LimitInterceptor(registry, targetClass);
+        return interceptor.hasLimits() ? new Advisor(interceptor.getPointcut(), interceptor) : null;
+    }
+}
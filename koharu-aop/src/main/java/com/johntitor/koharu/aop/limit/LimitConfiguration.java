@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.limit;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+
+/**
+ * 通过@Import(LimitConfiguration.class)启用@RateLimited和@Bulkhead
+ */
+@Configuration
+public class LimitConfiguration {
+
+    @Bean
+    LimiterRegistry limiterRegistry() {
+        return new LimiterRegistry();
+    }
+
+    @Bean
+    LimitBeanPostProcessor limitBeanPostProcessor(@Autowired LimiterRegistry registry) {
+        return new LimitBeanPostProcessor(registry);
+    }
+}
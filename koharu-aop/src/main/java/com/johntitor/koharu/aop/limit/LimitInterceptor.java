@@ -0,0 +1,111 @@
+package com.johntitor.koharu.aop.limit;
+
+import com.johntitor.koharu.annotation.Bulkhead;
+import com.johntitor.koharu.annotation.RateLimited;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.Pointcut;
+import com.johntitor.koharu.exception.AopConfigException;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * @RateLimited和@Bulkhead的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法读取一次注解并绑定限流器，调用时先获取令牌，再获取并发许可。
+ * 返回未完成的CompletableFuture时，并发许可在Future完成时释放。
+ */
+public class LimitInterceptor implements MethodInterceptor {
+
+    private final Map<Method, Binding> bindings;
+
+    public LimitInterceptor(LimiterRegistry registry, Class<?> targetClass) {
+        RateLimited classRateLimited = targetClass.getAnnotation(RateLimited.class);
+        Bulkhead classBulkhead = targetClass.getAnnotation(Bulkhead.class);
+        Map<Method, Binding> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            // 方法上的注解优先:
+            RateLimited rateLimited = method.getAnnotation(RateLimited.class);
+            Bulkhead bulkhead = method.getAnnotation(Bulkhead.class);
+            RateLimiter rateLimiter = null;
+            ConcurrencyLimiter concurrencyLimiter = null;
+            try {
+                if (rateLimited != null || classRateLimited != null) {
+                    RateLimited r = rateLimited != null ? rateLimited : classRateLimited;
+                    rateLimiter = registry.getOrCreateRateLimiter(name(r.value(), targetClass, rateLimited != null ? method : null),
+                            r.permitsPerSecond(), r.burst(), r.mode(), Duration.ofMillis(r.timeout()));
+                }
+                if (bulkhead != null || classBulkhead != null) {
+                    Bulkhead b = bulkhead != null ? bulkhead : classBulkhead;
+                    concurrencyLimiter = registry.getOrCreateBulkhead(name(b.value(), targetClass, bulkhead != null ? method : null),
+                            b.maxConcurrent(), b.mode(), Duration.ofMillis(b.timeout()));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new AopConfigException("Invalid limit on method " + targetClass.getName() + "." + method.getName(), e);
+            }
+            if (rateLimiter != null || concurrencyLimiter != null) {
+                map.put(method, new Binding(rateLimiter, concurrencyLimiter));
+            }
+        }
+        this.bindings = map;
+    }
+
+    // 方法上的注解默认为SimpleName.method，类上的注解默认为SimpleName:
+    private static String name(String value, Class<?> targetClass, Method method) {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        return method == null ? targetClass.getSimpleName() : targetClass.getSimpleName() + "." + method.getName();
+    }
+
+    public boolean hasLimits() {
+        return !bindings.isEmpty();
+    }
+
+    /**
+     * 只匹配需要限流的方法
+     */
+    public Pointcut getPointcut() {
+        return (method, targetClass) -> bindings.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Binding binding = bindings.get(invocation.getMethod());
+        if (binding == null) {
+            return invocation.proceed();
+        }
+        if (binding.rateLimiter != null) {
+            binding.rateLimiter.acquire();
+        }
+        ConcurrencyLimiter limiter = binding.concurrencyLimiter;
+        if (limiter == null) {
+            return invocation.proceed();
+        }
+        int stripe = limiter.acquire();
+        boolean released = true;
+        try {
+            Object result = invocation.proceed();
+            if (result instanceof CompletableFuture<?> future && !future.isDone()) {
+                // 异步方法在完成时释放:
+                released = false;
+                future.whenComplete((r, e) -> limiter.release(stripe));
+            }
+            return result;
+        } finally {
+            if (released) {
+                limiter.release(stripe);
+            }
+        }
+    }
+
+    private record Binding(RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter) {
+    }
+}
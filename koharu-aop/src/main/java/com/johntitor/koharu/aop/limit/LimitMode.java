@@ -0,0 +1,17 @@
+package com.johntitor.koharu.aop.limit;
+
+/**
+ * 没有可用的令牌或并发数时的处理方式
+ */
+public enum LimitMode {
+
+    /**
+     * 立即抛出InvocationRejectedException
+     */
+    REJECT,
+
+    /**
+     * 等待至多timeout，超时后抛出InvocationRejectedException
+     */
+    WAIT
+}
@@ -0,0 +1,44 @@
+package com.johntitor.koharu.aop.limit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称保存所有@RateLimited和@Bulkhead的限流器，相同名称只创建一次
+ */
+public class LimiterRegistry {
+
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<String, ConcurrencyLimiter> bulkheads = new ConcurrentHashMap<>();
+
+    public RateLimiter getOrCreateRateLimiter(String name, double permitsPerSecond, int burst, LimitMode mode, Duration timeout) {
+        return rateLimiters.computeIfAbsent(name, n -> new RateLimiter(n, permitsPerSecond, burst, mode, timeout));
+    }
+
+    public ConcurrencyLimiter getOrCreateBulkhead(String name, int maxConcurrent, LimitMode mode, Duration timeout) {
+        return bulkheads.computeIfAbsent(name, n -> new ConcurrencyLimiter(n, maxConcurrent, mode, timeout));
+    }
+
+    public RateLimiter getRateLimiter(String name) {
+        return rateLimiters.get(name);
+    }
+
+    public ConcurrencyLimiter getBulkhead(String name) {
+        return bulkheads.get(name);
+    }
+
+    /**
+     * 按名称排序的统计
+     */
+    public List<LimiterStats> snapshot() {
+        List<LimiterStats> list = new ArrayList<>();
+        rateLimiters.values().forEach(r -> list.add(r.getStats()));
+        bulkheads.values().forEach(b -> list.add(b.getStats()));
+        list.sort(Comparator.comparing(LimiterStats::name).thenComparing(LimiterStats::type));
+        return list;
+    }
+}
@@ -0,0 +1,8 @@
+package com.johntitor.koharu.aop.limit;
+
+/**
+ * 限流器的统计，type为rate-limited或bulkhead，limit为每秒令牌数或最大并发数，时间单位为纳秒
+ */
+public record LimiterStats(String name, String type, double limit, long permitted, long rejected, long waited,
+                           long waitTime, long maxWait, int active) {
+}
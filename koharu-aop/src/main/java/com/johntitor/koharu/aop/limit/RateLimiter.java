@@ -0,0 +1,116 @@
+package com.johntitor.koharu.aop.limit;
+
+import com.johntitor.koharu.exception.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁令牌桶:
+ * <p>
+ * 只保存下一个令牌的理论到达时间(GCRA)，获取令牌是一次CAS，不需要后台线程补充令牌。
+ * 等待模式下先CAS预定令牌，再睡眠到令牌到达的时间，睡眠被中断时归还预定的令牌。
+ */
+public class RateLimiter {
+
+    private final String name;
+    private final double permitsPerSecond;
+    private final LimitMode mode;
+    private final long timeoutNanos;
+    // 两个令牌之间的间隔:
+    private final long intervalNanos;
+    // burst个令牌允许提前到达的时间:
+    private final long toleranceNanos;
+    // 下一个令牌的理论到达时间(System.nanoTime()):
+    private final AtomicLong arrival;
+
+    private final LongAdder permitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAccumulator maxWait = new LongAccumulator(Math::max, 0);
+
+    public RateLimiter(String name, double permitsPerSecond, int burst, LimitMode mode, Duration timeout) {
+        if (!(permitsPerSecond > 0) || burst < 1) {
+            throw new IllegalArgumentException("Invalid rate limiter " + name + ": permitsPerSecond must be positive and burst at least 1.");
+        }
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.mode = mode;
+        this.timeoutNanos = mode == LimitMode.WAIT ? timeout.toNanos() : 0;
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.toleranceNanos = (burst - 1) * intervalNanos;
+        this.arrival = new AtomicLong(System.nanoTime() - toleranceNanos);
+    }
+
+    /**
+     * 获取一个令牌，没有令牌且不能等待时抛出RateLimitExceededException
+     */
+    public void acquire() {
+        long wait;
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrival.get();
+            // 桶已满时从当前时间开始计算:
+            long next = current - now > 0 ? current : now;
+            wait = next - now - toleranceNanos;
+            if (wait > timeoutNanos) {
+                rejected.increment();
+                throw new RateLimitExceededException(name, wait);
+            }
+            if (arrival.compareAndSet(current, next + intervalNanos)) {
+                break;
+            }
+        }
+        permitted.increment();
+        if (wait > 0) {
+            waited.increment();
+            waitTime.add(wait);
+            maxWait.accumulate(wait);
+            try {
+                Thread.sleep(Duration.ofNanos(wait));
+            } catch (InterruptedException e) {
+                // 调用没有执行，把理论到达时间退回一个间隔:
+                arrival.addAndGet(-intervalNanos);
+                permitted.decrement();
+                rejected.increment();
+                Thread.currentThread().interrupt();
+                throw new RateLimitExceededException(name, wait);
+            }
+        }
+    }
+
+    /**
+     * 不等待，只尝试获取一个令牌
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrival.get();
+            long next = current - now > 0 ? current : now;
+            if (next - now - toleranceNanos > 0) {
+                rejected.increment();
+                return false;
+            }
+            if (arrival.compareAndSet(current, next + intervalNanos)) {
+                permitted.increment();
+                return true;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LimitMode getMode() {
+        return mode;
+    }
+
+    public LimiterStats getStats() {
+        return new LimiterStats(name, "rate-limited", permitsPerSecond, permitted.sum(), rejected.sum(), waited.sum(),
+                waitTime.sum(), maxWait.get(), 0);
+    }
+}
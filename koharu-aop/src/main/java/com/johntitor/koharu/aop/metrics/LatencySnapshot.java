@@ -0,0 +1,9 @@
+package com.johntitor.koharu.aop.metrics;
+
+/**
+ * LogHistogram的快照，时间单位为纳秒
+ */
+public record LatencySnapshot(long count, double mean, long max, long p50, long p90, long p99, long p999) {
+
+    public static final LatencySnapshot EMPTY = new LatencySnapshot(0, 0, 0, 0, 0, 0, 0);
+}
@@ -0,0 +1,59 @@
+package com.johntitor.koharu.aop.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个metric名称的统计，同名的方法共用
+ */
+public class MethodMetrics {
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    // @Counted时为null:
+    private volatile LogHistogram latency;
+
+    MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isTimed() {
+        return latency != null;
+    }
+
+    synchronized void enableTiming() {
+        if (latency == null) {
+            latency = new LogHistogram();
+        }
+    }
+
+    /**
+     * 记录一次@Counted调用
+     */
+    public void recordCount(boolean failed) {
+        count.increment();
+        if (failed) {
+            failures.increment();
+        }
+    }
+
+    /**
+     * 记录一次@Timed调用的耗时(纳秒)
+     */
+    public void record(long nanos, boolean failed) {
+        recordCount(failed);
+        LogHistogram histogram = latency;
+        if (histogram != null) {
+            histogram.record(nanos);
+        }
+    }
+
+    public MethodMetricsSnapshot snapshot() {
+        LogHistogram histogram = latency;
+        return new MethodMetricsSnapshot(name, count.sum(), failures.sum(), histogram == null ? null : histogram.snapshot());
+    }
+}
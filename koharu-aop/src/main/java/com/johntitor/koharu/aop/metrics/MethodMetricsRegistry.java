@@ -0,0 +1,37 @@
+package com.johntitor.koharu.aop.metrics;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称保存所有@Timed和@Counted方法的统计
+ */
+public class MethodMetricsRegistry {
+
+    private final Map<String, MethodMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * 返回指定名称的统计，timed为true时同时记录耗时
+     */
+    public MethodMetrics getOrCreate(String name, boolean timed) {
+        MethodMetrics m = metrics.computeIfAbsent(name, MethodMetrics::new);
+        if (timed && !m.isTimed()) {
+            m.enableTiming();
+        }
+        return m;
+    }
+
+    public MethodMetrics get(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * 按名称排序的快照
+     */
+    public List<MethodMetricsSnapshot> snapshot() {
+        return metrics.values().stream().map(MethodMetrics::snapshot)
+                .sorted(Comparator.comparing(MethodMetricsSnapshot::name)).toList();
+    }
+}
@@ -0,0 +1,7 @@
+package com.johntitor.koharu.aop.metrics;
+
+/**
+ * 一个metric的快照，@Counted的latency为null
+ */
+public record MethodMetricsSnapshot(String name, long count, long failures, LatencySnapshot latency) {
+}
@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.metrics;
+
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.AdvisingBeanPostProcessor;
+
+/**
+ * 为类或public方法上标注了@Timed或@Counted的Bean创建代理，只拦截需要统计的方法
+ */
+public class MetricsBeanPostProcessor extends AdvisingBeanPostProcessor {
+
+    private final MethodMetricsRegistry registry;
+
+    public MetricsBeanPostProcessor(MethodMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        MetricsInterceptor interceptor = new MetricsInterceptor(registry, targetClass);
+        return interceptor.hasMetrics() ? new Advisor(interceptor.getPointcut(), interceptor) : null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.metrics;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+
+/**
+ * 通过@Import(MetricsConfiguration.class)启用@Timed和@Counted
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    MethodMetricsRegistry methodMetricsRegistry() {
+        return new MethodMetricsRegistry();
+    }
+
+    @Bean
+    MetricsBeanPostProcessor metricsBeanPostProcessor(@Autowired MethodMetricsRegistry registry) {
+        return new MetricsBeanPostProcessor(registry);
+    }
+}
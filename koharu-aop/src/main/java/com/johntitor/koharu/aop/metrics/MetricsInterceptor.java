@@ -0,0 +1,95 @@
+package com.johntitor.koharu.aop.metrics;
+
+import com.johntitor.koharu.annotation.Counted;
+import com.johntitor.koharu.annotation.Timed;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.Pointcut;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Timed和@Counted的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法读取一次注解并绑定MethodMetrics，调用时查表，只对@Timed调用System.nanoTime()。
+ */
+public class MetricsInterceptor implements MethodInterceptor {
+
+    // Method -> MethodMetrics，只包含需要统计的方法:
+    private final Map<Method, Binding> metrics;
+
+    public MetricsInterceptor(MethodMetricsRegistry registry, Class<?> targetClass) {
+        Timed classTimed = targetClass.getAnnotation(Timed.class);
+        Counted classCounted = targetClass.getAnnotation(Counted.class);
+        Map<Method, Binding> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            // 方法上的注解优先，@Timed优先于@Counted:
+            Timed timed = method.getAnnotation(Timed.class);
+            Counted counted = method.getAnnotation(Counted.class);
+            String name;
+            if (timed != null || counted != null) {
+                String value = timed != null ? timed.value() : counted.value();
+                name = value.isEmpty() ? targetClass.getSimpleName() + "." + method.getName() : value;
+            } else if (classTimed != null || classCounted != null) {
+                String prefix = classTimed != null ? classTimed.value() : classCounted.value();
+                name = (prefix.isEmpty() ? targetClass.getSimpleName() : prefix) + "." + method.getName();
+            } else {
+                continue;
+            }
+            boolean isTimed = timed != null || (counted == null && classTimed != null);
+            map.put(method, new Binding(registry.getOrCreate(name, isTimed), isTimed));
+        }
+        this.metrics = map;
+    }
+
+    public boolean hasMetrics() {
+        return !metrics.isEmpty();
+    }
+
+    public MethodMetrics getMetrics(Method method) {
+        Binding binding = metrics.get(method);
+        return binding == null ? null : binding.metrics;
+    }
+
+    /**
+     * 只匹配需要统计的方法
+     */
+    public Pointcut getPointcut() {
+        return (method, targetClass) -> metrics.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Binding binding = metrics.get(invocation.getMethod());
+        if (binding == null) {
+            return invocation.proceed();
+        }
+        if (!binding.timed) {
+            boolean failed = true;
+            try {
+                Object result = invocation.proceed();
+                failed = false;
+                return result;
+            } finally {
+                binding.metrics.recordCount(failed);
+            }
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            binding.metrics.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    private record Binding(MethodMetrics metrics, boolean timed) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.johntitor.koharu.aop.resilience;
+
+import com.johntitor.koharu.exception.CircuitBreakerOpenException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 按失败率熔断的熔断器:
+ * <p>
+ * 最近window次调用的结果保存在byte[]环形缓冲区中，记录结果是一次getAndIncrement和一次getAndSet，成功路径上没有锁。
+ * 只有失败时才计算失败率，状态转换通过CAS完成。打开时长按nanoClock计算，默认为System.nanoTime()。
+ */
+public class CircuitBreaker {
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<CircuitBreakerState> state = new AtomicReference<>(CircuitBreakerState.CLOSED);
+    // 关闭时重新创建，避免和正在记录的调用竞争清零:
+    private volatile Window window;
+    private volatile long openedAt;
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private final LongAdder successful = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public CircuitBreaker(String name, int failureRateThreshold, int window, int minimumCalls, Duration openDuration, int halfOpenCalls) {
+        this(name, failureRateThreshold, window, minimumCalls, openDuration, halfOpenCalls, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, int failureRateThreshold, int window, int minimumCalls, Duration openDuration, int halfOpenCalls,
+                          LongSupplier nanoClock) {
+        if (failureRateThreshold < 1 || failureRateThreshold > 100 || window < 1 || minimumCalls < 1 || halfOpenCalls < 1
+                || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Invalid circuit breaker " + name + ": failureRateThreshold must be 1-100, "
+                    + "window, minimumCalls and halfOpenCalls must be positive.");
+        }
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.windowSize = window;
+        this.minimumCalls = Math.min(minimumCalls, window);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.window = new Window(window);
+    }
+
+    /**
+     * 检查是否允许调用，打开时抛出CircuitBreakerOpenException
+     */
+    public void acquirePermission() {
+        CircuitBreakerState s = state.get();
+        if (s == CircuitBreakerState.CLOSED) {
+            return;
+        }
+        if (s == CircuitBreakerState.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openDurationNanos) {
+                notPermitted.increment();
+                throw new CircuitBreakerOpenException(name);
+            }
+            transitionToHalfOpen();
+        }
+        // 半开状态，获取试探许可:
+        int permits;
+        do {
+            permits = halfOpenPermits.get();
+            if (permits <= 0) {
+                notPermitted.increment();
+                throw new CircuitBreakerOpenException(name);
+            }
+        } while (!halfOpenPermits.compareAndSet(permits, permits - 1));
+    }
+
+    public void onSuccess() {
+        successful.increment();
+        CircuitBreakerState s = state.get();
+        if (s == CircuitBreakerState.CLOSED) {
+            window.record(false);
+        } else if (s == CircuitBreakerState.HALF_OPEN && halfOpenSuccesses.incrementAndGet() >= halfOpenCalls) {
+            if (state.compareAndSet(CircuitBreakerState.HALF_OPEN, CircuitBreakerState.CLOSED)) {
+                window = new Window(windowSize);
+            }
+        }
+    }
+
+    public void onError() {
+        failed.increment();
+        CircuitBreakerState s = state.get();
+        if (s == CircuitBreakerState.CLOSED) {
+            Window w = window;
+            w.record(true);
+            if (w.failureRate(minimumCalls) >= failureRateThreshold) {
+                transitionToOpen(CircuitBreakerState.CLOSED);
+            }
+        } else if (s == CircuitBreakerState.HALF_OPEN) {
+            transitionToOpen(CircuitBreakerState.HALF_OPEN);
+        }
+    }
+
+    private void transitionToOpen(CircuitBreakerState from) {
+        if (state.get() != from) {
+            return;
+        }
+        // 先写openedAt，其他线程看到OPEN时读到的是本次打开的时间:
+        openedAt = nanoClock.getAsLong();
+        if (state.compareAndSet(from, CircuitBreakerState.OPEN)) {
+            halfOpenPermits.set(0);
+            opened.increment();
+        }
+    }
+
+    private void transitionToHalfOpen() {
+        // 只有CAS成功的线程重置试探许可，此前其他线程看到的许可为0:
+        if (state.compareAndSet(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN)) {
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(halfOpenCalls);
+        }
+    }
+
+    public CircuitBreakerState getState() {
+        return state.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreakerStats getStats() {
+        Window w = window;
+        return new CircuitBreakerStats(name, state.get(), w.failureRate(minimumCalls), w.calls(), w.failures.get(),
+                successful.sum(), failed.sum(), notPermitted.sum(), opened.sum());
+    }
+
+    /**
+     * 最近size次调用的结果，1表示失败
+     */
+    private static final class Window {
+
+        private static final VarHandle OUTCOMES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+        final byte[] outcomes;
+        final AtomicLong position = new AtomicLong();
+        final AtomicInteger failures = new AtomicInteger();
+
+        Window(int size) {
+            this.outcomes = new byte[size];
+        }
+
+        void record(boolean failure) {
+            int slot = (int) (position.getAndIncrement() % outcomes.length);
+            byte value = failure ? (byte) 1 : (byte) 0;
+            byte previous = (byte) OUTCOMES.getAndSet(outcomes, slot, value);
+            // 只在结果变化时更新失败计数:
+            if (previous != value) {
+                failures.addAndGet(value - previous);
+            }
+        }
+
+        int calls() {
+            return (int) Math.min(position.get(), outcomes.length);
+        }
+
+        float failureRate(int minimumCalls) {
+            int calls = calls();
+            return calls < minimumCalls ? -1 : failures.get() * 100f / calls;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.johntitor.koharu.aop.resilience;
+
+public enum CircuitBreakerState {
+
+    /**
+     * 正常调用，记录结果
+     */
+    CLOSED,
+
+    /**
+     * 拒绝所有调用
+     */
+    OPEN,
+
+    /**
+     * 只允许有限的试探调用
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,8 @@
+package com.johntitor.koharu.aop.resilience;
+
+/**
+ * 熔断器的统计，failureRate为窗口内的失败百分比，调用数不足minimumCalls时为-1
+ */
+public record CircuitBreakerStats(String name, CircuitBreakerState state, float failureRate, int bufferedCalls,
+                                  int bufferedFailures, long successful, long failed, long notPermitted, long opened) {
+}
@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.resilience;
+
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.AdvisingBeanPostProcessor;
+
+/**
+ * 为类或public方法上标注了@Retry或@CircuitBreaker的Bean创建代理
+ */
+public class ResilienceBeanPostProcessor extends AdvisingBeanPostProcessor {
+
+    private final ResilienceRegistry registry;
+
+    public ResilienceBeanPostProcessor(ResilienceRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected Advisor buildAdvisor(Class<?> targetClass) {
+        ResilienceInterceptor interceptor = new ResilienceInterceptor(registry, targetClass);
+        return interceptor.hasBindings() ? new Advisor(interceptor.getPointcut(), interceptor) : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.johntitor.koharu.aop.resilience;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Order;
+
+/**
+ * 通过@Import(ResilienceConfiguration.class)启用@Retry和@CircuitBreaker
+ */
+@Configuration
+public class ResilienceConfiguration {
+
+    @Bean
+    ResilienceRegistry resilienceRegistry() {
+        return new ResilienceRegistry();
+    }
+
+    /**
+     * 排在其他BeanPostProcessor之前，拦截器位于代理链最外层，每次重试都重新经过事务等拦截器
+     */
+    @Bean
+    @Order(100)
+    ResilienceBeanPostProcessor resilienceBeanPostProcessor(@Autowired ResilienceRegistry registry) {
+        return new ResilienceBeanPostProcessor(registry);
+    }
+}
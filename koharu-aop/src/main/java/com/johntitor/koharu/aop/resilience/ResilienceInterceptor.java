@@ -0,0 +1,153 @@
+package com.johntitor.koharu.aop.resilience;
+
+import com.johntitor.koharu.annotation.Retry;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.Pointcut;
+import com.johntitor.koharu.exception.AopConfigException;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @Retry和@CircuitBreaker的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法读取一次注解并绑定RetryPolicy和CircuitBreaker。
+ * 每次尝试都经过熔断器，再通过proceed()调用拦截器链的剩余部分，因此位于事务拦截器外层时每次尝试都重新经过事务拦截器:
+ * 没有外层事务时每次尝试是一个新事务，加入外层事务时不重试。
+ */
+public class ResilienceInterceptor implements MethodInterceptor {
+
+    private final Map<Method, Binding> bindings;
+
+    public ResilienceInterceptor(ResilienceRegistry registry, Class<?> targetClass) {
+        Retry classRetry = targetClass.getAnnotation(Retry.class);
+        com.johntitor.koharu.annotation.CircuitBreaker classBreaker = targetClass.getAnnotation(com.johntitor.koharu.annotation.CircuitBreaker.class);
+        Map<Method, Binding> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.isBridge() || method.isSynthetic()) {
+                continue;
+            }
+            // 方法上的注解优先:
+            Retry retry = method.getAnnotation(Retry.class);
+            com.johntitor.koharu.annotation.CircuitBreaker breaker = method.getAnnotation(com.johntitor.koharu.annotation.CircuitBreaker.class);
+            if (retry == null) {
+                retry = classRetry;
+            }
+            boolean methodBreaker = breaker != null;
+            if (breaker == null) {
+                breaker = classBreaker;
+            }
+            if (retry == null && breaker == null) {
+                continue;
+            }
+            try {
+                RetryPolicy retryPolicy = null;
+                CircuitBreaker circuitBreaker = null;
+                if (retry != null) {
+                    Retry r = retry;
+                    // 重试按方法统计:
+                    String name = r.value().isEmpty() ? targetClass.getSimpleName() + "." + method.getName() : r.value();
+                    retryPolicy = registry.getOrCreateRetry(name, n -> new RetryPolicy(n, r.maxAttempts(), Duration.ofMillis(r.backoff()),
+                            r.multiplier(), Duration.ofMillis(r.maxBackoff()), r.jitter(), r.retryFor(), r.noRetryFor()));
+                }
+                if (breaker != null) {
+                    var b = breaker;
+                    String name = !b.value().isEmpty() ? b.value()
+                            : methodBreaker ? targetClass.getSimpleName() + "." + method.getName() : targetClass.getSimpleName();
+                    circuitBreaker = registry.getOrCreateCircuitBreaker(name, n -> new CircuitBreaker(n, b.failureRateThreshold(),
+                            b.window(), b.minimumCalls(), Duration.ofMillis(b.openDuration()), b.halfOpenCalls(), registry.getNanoClock()));
+                }
+                map.put(method, new Binding(retryPolicy, circuitBreaker, breaker == null ? null : breaker.ignore()));
+            } catch (IllegalArgumentException e) {
+                throw new AopConfigException("Invalid @Retry or @CircuitBreaker on method " + targetClass.getName() + "." + method.getName(), e);
+            }
+        }
+        this.bindings = map;
+    }
+
+    public boolean hasBindings() {
+        return !bindings.isEmpty();
+    }
+
+    /**
+     * 只匹配@Retry或@CircuitBreaker方法
+     */
+    public Pointcut getPointcut() {
+        return (method, targetClass) -> bindings.containsKey(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Binding binding = bindings.get(invocation.getMethod());
+        if (binding == null) {
+            return invocation.proceed();
+        }
+        RetryPolicy retry = binding.retry;
+        if (retry == null) {
+            return attempt(invocation, binding);
+        }
+        for (int attempt = 1; ; attempt++) {
+            RetryContext previous = RetryContext.enter(invocation.getMethod(), attempt);
+            RetryContext context = RetryContext.current();
+            try {
+                Object result = attempt(invocation, binding);
+                retry.recordSuccess(attempt);
+                return result;
+            } catch (Throwable t) {
+                if (attempt >= retry.getMaxAttempts() || !retry.isRetryable(t) || !context.isRetryable()) {
+                    retry.recordFailure(attempt);
+                    throw t;
+                }
+                retry.recordRetry();
+                long backoff = retry.backoffNanos(attempt);
+                if (backoff > 0) {
+                    try {
+                        Thread.sleep(Duration.ofNanos(backoff));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        retry.recordFailure(attempt);
+                        throw t;
+                    }
+                }
+            } finally {
+                RetryContext.restore(previous);
+            }
+        }
+    }
+
+    private Object attempt(MethodInvocation invocation, Binding binding) throws Throwable {
+        CircuitBreaker breaker = binding.circuitBreaker;
+        if (breaker == null) {
+            return invocation.proceed();
+        }
+        breaker.acquirePermission();
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable t) {
+            if (isIgnored(t, binding.ignore)) {
+                breaker.onSuccess();
+            } else {
+                breaker.onError();
+            }
+            throw t;
+        }
+        breaker.onSuccess();
+        return result;
+    }
+
+    private static boolean isIgnored(Throwable t, Class<? extends Throwable>[] ignore) {
+        for (Class<? extends Throwable> type : ignore) {
+            if (type.isInstance(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Binding(RetryPolicy retry, CircuitBreaker circuitBreaker, Class<? extends Throwable>[] ignore) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.johntitor.koharu.aop.resilience;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 按名称保存所有@Retry和@CircuitBreaker，相同名称只创建一次，熔断器使用registry的nanoClock计时
+ */
+public class ResilienceRegistry {
+
+    private final LongSupplier nanoClock;
+
+    private final Map<String, RetryPolicy> retries = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public ResilienceRegistry() {
+        this(System::nanoTime);
+    }
+
+    public ResilienceRegistry(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    public LongSupplier getNanoClock() {
+        return nanoClock;
+    }
+
+    public RetryPolicy getOrCreateRetry(String name, Function<String, RetryPolicy> factory) {
+        return retries.computeIfAbsent(name, factory);
+    }
+
+    public CircuitBreaker getOrCreateCircuitBreaker(String name, Function<String, CircuitBreaker> factory) {
+        return circuitBreakers.computeIfAbsent(name, factory);
+    }
+
+    public RetryPolicy getRetry(String name) {
+        return retries.get(name);
+    }
+
+    public CircuitBreaker getCircuitBreaker(String name) {
+        return circuitBreakers.get(name);
+    }
+
+    /**
+     * 按名称排序的重试统计
+     */
+    public List<RetryStats> retrySnapshot() {
+        return retries.values().stream().map(RetryPolicy::getStats).sorted(Comparator.comparing(RetryStats::name)).toList();
+    }
+
+    /**
+     * 按名称排序的熔断器统计
+     */
+    public List<CircuitBreakerStats> circuitBreakerSnapshot() {
+        return circuitBreakers.values().stream().map(CircuitBreaker::getStats)
+                .sorted(Comparator.comparing(CircuitBreakerStats::name)).toList();
+    }
+}
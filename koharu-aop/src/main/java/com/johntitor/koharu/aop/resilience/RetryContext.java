@@ -0,0 +1,73 @@
+package com.johntitor.koharu.aop.resilience;
+
+import java.lang.reflect.Method;
+
+/**
+ * 当前线程正在执行的@Retry尝试:
+ * <p>
+ * 被重试的方法加入外层事务时，事务拦截器调用disableRetry()，失败后不再重试，异常直接交给外层事务回滚。
+ */
+public final class RetryContext {
+
+    private static final ThreadLocal<RetryContext> current = new ThreadLocal<>();
+
+    private final Method method;
+    private final int attempt;
+    private boolean retryable = true;
+
+    private RetryContext(Method method, int attempt) {
+        this.method = method;
+        this.attempt = attempt;
+    }
+
+    /**
+     * 当前线程是否正在重试指定方法
+     */
+    public static boolean isRetrying(Method method) {
+        RetryContext context = current.get();
+        return context != null && context.method.equals(method);
+    }
+
+    public static RetryContext current() {
+        return current.get();
+    }
+
+    /**
+     * 绑定一次尝试，返回之前的RetryContext，用于restore()
+     */
+    static RetryContext enter(Method method, int attempt) {
+        RetryContext previous = current.get();
+        current.set(new RetryContext(method, attempt));
+        return previous;
+    }
+
+    static void restore(RetryContext previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * 从1开始的尝试次数
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    /**
+     * 本次尝试失败后不再重试
+     */
+    public void disableRetry() {
+        this.retryable = false;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
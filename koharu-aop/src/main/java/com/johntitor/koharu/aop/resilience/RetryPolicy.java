@@ -0,0 +1,104 @@
+package com.johntitor.koharu.aop.resilience;
+
+import com.johntitor.koharu.exception.InvocationRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个@Retry方法的重试策略和统计
+ */
+public class RetryPolicy {
+
+    private final String name;
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final double multiplier;
+    private final long maxBackoffNanos;
+    private final double jitter;
+    private final Class<? extends Throwable>[] retryFor;
+    private final Class<? extends Throwable>[] noRetryFor;
+
+    private final LongAdder successWithoutRetry = new LongAdder();
+    private final LongAdder successWithRetry = new LongAdder();
+    private final LongAdder failedWithoutRetry = new LongAdder();
+    private final LongAdder failedWithRetry = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public RetryPolicy(String name, int maxAttempts, Duration backoff, double multiplier, Duration maxBackoff, double jitter,
+                       Class<? extends Throwable>[] retryFor, Class<? extends Throwable>[] noRetryFor) {
+        if (maxAttempts < 1 || backoff.isNegative() || multiplier < 1 || jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Invalid retry " + name + ": maxAttempts must be positive, multiplier at least 1 "
+                    + "and jitter between 0 and 1.");
+        }
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.multiplier = multiplier;
+        this.maxBackoffNanos = Math.max(backoffNanos, maxBackoff.toNanos());
+        this.jitter = jitter;
+        this.retryFor = retryFor;
+        this.noRetryFor = noRetryFor;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * 异常本身或任一cause匹配retryFor且不匹配noRetryFor时重试，限流和熔断拒绝的调用不重试
+     */
+    public boolean isRetryable(Throwable ex) {
+        if (ex instanceof InvocationRejectedException || ex instanceof Error) {
+            return false;
+        }
+        if (matches(ex, noRetryFor)) {
+            return false;
+        }
+        return retryFor.length == 0 ? ex instanceof Exception : matches(ex, retryFor);
+    }
+
+    private static boolean matches(Throwable ex, Class<? extends Throwable>[] types) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            for (Class<? extends Throwable> type : types) {
+                if (type.isInstance(t)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 第attempt次尝试失败后的等待时间
+     */
+    public long backoffNanos(int attempt) {
+        double delay = backoffNanos * Math.pow(multiplier, attempt - 1);
+        if (jitter > 0) {
+            delay *= 1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1);
+        }
+        return (long) Math.min(delay, maxBackoffNanos);
+    }
+
+    void recordSuccess(int attempt) {
+        (attempt == 1 ? successWithoutRetry : successWithRetry).increment();
+    }
+
+    void recordFailure(int attempt) {
+        (attempt == 1 ? failedWithoutRetry : failedWithRetry).increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RetryStats getStats() {
+        return new RetryStats(name, successWithoutRetry.sum(), successWithRetry.sum(), failedWithoutRetry.sum(),
+                failedWithRetry.sum(), retries.sum());
+    }
+}
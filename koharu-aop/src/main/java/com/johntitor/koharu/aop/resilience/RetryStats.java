@@ -0,0 +1,8 @@
+package com.johntitor.koharu.aop.resilience;
+
+/**
+ * 重试的统计: 成功且未重试、重试后成功、未重试即失败(异常不可重试)、重试后仍失败，retries为总重试次数
+ */
+public record RetryStats(String name, long successWithoutRetry, long successWithRetry, long failedWithoutRetry,
+                         long failedWithRetry, long retries) {
+}
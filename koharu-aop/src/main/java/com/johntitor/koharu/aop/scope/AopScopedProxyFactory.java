@@ -0,0 +1,20 @@
+package com.johntitor.koharu.aop.scope;
+
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.scope.ScopedProxyFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * 通过ProxyResolver生成Scoped Proxy:
+ * <p>
+ * Proxy不带任何Advisor，所有方法由生成的字节码直接调用targetSource返回的当前实例，不使用反射。
+ * 通过META-INF/services注册，koharu-aop在classpath中时由ApplicationContext自动加载。
+ */
+public class AopScopedProxyFactory implements ScopedProxyFactory {
+
+    @Override
+    public Object createScopedProxy(Class<?> beanClass, Supplier<?> targetSource) {
+        return ProxyResolver.getInstance().createProxy(beanClass, targetSource::get);
+    }
+}
@@ -0,0 +1,8 @@
+package com.johntitor.koharu.exception;
+
+public class BulkheadFullException extends InvocationRejectedException {
+
+    public BulkheadFullException(String limiterName) {
+        super(limiterName, "Bulkhead is full: " + limiterName);
+    }
+}
@@ -0,0 +1,8 @@
+package com.johntitor.koharu.exception;
+
+public class CircuitBreakerOpenException extends InvocationRejectedException {
+
+    public CircuitBreakerOpenException(String limiterName) {
+        super(limiterName, "Circuit breaker is open: " + limiterName);
+    }
+}
@@ -0,0 +1,18 @@
+package com.johntitor.koharu.exception;
+
+/**
+ * 限流或并发限制拒绝了方法调用
+ */
+public class InvocationRejectedException extends NestedRuntimeException {
+
+    private final String limiterName;
+
+    public InvocationRejectedException(String limiterName, String message) {
+        super(message);
+        this.limiterName = limiterName;
+    }
+
+    public String getLimiterName() {
+        return limiterName;
+    }
+}
@@ -0,0 +1,18 @@
+package com.johntitor.koharu.exception;
+
+public class RateLimitExceededException extends InvocationRejectedException {
+
+    private final long retryAfterNanos;
+
+    public RateLimitExceededException(String limiterName, long retryAfterNanos) {
+        super(limiterName, "Rate limit exceeded: " + limiterName);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * 距离下一个令牌可用的时间
+     */
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+}
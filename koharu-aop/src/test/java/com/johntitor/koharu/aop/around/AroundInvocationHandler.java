@@ -4,12 +4,18 @@ import com.johntitor.koharu.annotation.Component;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
 public class AroundInvocationHandler implements InvocationHandler {
 
+    // 被拦截的方法名:
+    public final List<String> invoked = new CopyOnWriteArrayList<>();
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        invoked.add(method.getName());
         // 拦截标记了@Polite的方法返回值:
         if (method.getAnnotation(Polite.class) != null) {
             String ret = (String) method.invoke(proxy, args);
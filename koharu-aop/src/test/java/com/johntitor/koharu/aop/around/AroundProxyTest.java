@@ -4,6 +4,7 @@ import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
 import com.johntitor.koharu.io.PropertyResolver;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +31,22 @@ public class AroundProxyTest {
         }
     }
 
+    @Test
+    public void testObjectMethodsNotAdvised() {
+        try (var ctx = new AnnotationConfigApplicationContext(AroundApplication.class, createPropertyResolver())) {
+            OriginBean proxy = ctx.getBean(OriginBean.class);
+            AroundInvocationHandler handler = ctx.getBean(AroundInvocationHandler.class);
+            handler.invoked.clear();
+            // equals()、hashCode()、toString()直接调用原始Bean，不经过handler:
+            assertNotNull(proxy.toString());
+            proxy.hashCode();
+            proxy.equals(proxy);
+            assertTrue(handler.invoked.isEmpty());
+            assertEquals("Morning, Bob.", proxy.morning());
+            assertEquals(List.of("morning"), handler.invoked);
+        }
+    }
+
     PropertyResolver createPropertyResolver() {
         var ps = new Properties();
         ps.put("customer.name", "Bob");
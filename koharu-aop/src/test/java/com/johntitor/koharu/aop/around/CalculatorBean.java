@@ -0,0 +1,24 @@
+package com.johntitor.koharu.aop.around;
+
+import java.io.IOException;
+
+public class CalculatorBean {
+
+    public long total;
+
+    public int add(int a, int b) {
+        return a + b;
+    }
+
+    public void accumulate(long value) {
+        total += value;
+    }
+
+    public double half(double value) {
+        return value / 2;
+    }
+
+    public void fail() throws IOException {
+        throw new IOException("failed");
+    }
+}
@@ -1,9 +1,16 @@
 package com.johntitor.koharu.aop.around;
 
+import com.johntitor.koharu.aop.Advisor;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.Pointcut;
 import com.johntitor.koharu.aop.ProxyResolver;
 import com.johntitor.koharu.io.PropertyResolver;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,4 +40,92 @@ public class ProxyResolverTest {
         // 不带@Polite:
         assertEquals("Morning, Bob.", proxy.morning());
     }
+
+    @Test
+    public void testProxyClassCache() {
+        OriginBean bob = new OriginBean();
+        bob.name = "Bob";
+        OriginBean alice = new OriginBean();
+        alice.name = "Alice";
+
+        OriginBean bobProxy = ProxyResolver.getInstance().createProxy(bob, new PoliteInvocationHandler());
+        OriginBean aliceProxy = ProxyResolver.getInstance().createProxy(alice, new PoliteInvocationHandler());
+
+        // 同一个目标Class共用Proxy Class:
+        assertSame(bobProxy.getClass(), aliceProxy.getClass());
+        // 每个Proxy实例委托给各自的原始Bean:
+        assertEquals("Hello, Bob!", bobProxy.hello());
+        assertEquals("Hello, Alice!", aliceProxy.hello());
+        assertEquals("Morning, Alice.", aliceProxy.morning());
+    }
+
+    @Test
+    public void testMethodInterceptor() throws Exception {
+        CalculatorBean origin = new CalculatorBean();
+        List<String> calls = new ArrayList<>();
+        CalculatorBean proxy = ProxyResolver.getInstance().createProxy(origin, (MethodInterceptor) invocation -> {
+            calls.add(invocation.getMethod().getName());
+            assertSame(origin, invocation.getThis());
+            return invocation.proceed();
+        });
+
+        // 基本类型参数和返回值:
+        assertEquals(3, proxy.add(1, 2));
+        assertEquals(1.5, proxy.half(3.0));
+        proxy.accumulate(10L);
+        proxy.accumulate(5L);
+        assertEquals(15L, origin.total);
+        // 原始异常直接抛出，不包装为InvocationTargetException:
+        IOException e = assertThrows(IOException.class, proxy::fail);
+        assertEquals("failed", e.getMessage());
+        assertEquals(List.of("add", "half", "accumulate", "accumulate", "fail"), calls);
+    }
+
+    @Test
+    public void testPointcut() throws Exception {
+        OriginBean origin = new OriginBean();
+        origin.name = "Bob";
+        List<String> calls = new ArrayList<>();
+        MethodInterceptor recording = invocation -> {
+            calls.add(invocation.getMethod().getName());
+            return invocation.proceed();
+        };
+        ProxyResolver resolver = ProxyResolver.getInstance();
+        OriginBean proxy = resolver.createProxy(origin, new Advisor(Pointcut.annotatedWith(Polite.class), recording));
+
+        assertEquals("Hello, Bob.", proxy.hello());
+        // 不匹配的方法直接调用原始Bean:
+        assertEquals("Morning, Bob.", proxy.morning());
+        assertEquals(origin.toString(), proxy.toString());
+        assertEquals(List.of("hello"), calls);
+
+        // 追加Advisor改变拦截的方法时生成新的Proxy:
+        OriginBean second = resolver.addAdvisor(proxy, new Advisor(Pointcut.methodName("mor*"), recording));
+        assertNotSame(proxy, second);
+        assertNotSame(proxy.getClass(), second.getClass());
+        calls.clear();
+        assertEquals("Morning, Bob.", second.morning());
+        assertEquals("Hello, Bob.", second.hello());
+        assertEquals(List.of("morning", "hello"), calls);
+
+        // 拦截的方法相同时共用Proxy Class:
+        int count = resolver.getProxyClassCount();
+        OriginBean other = resolver.createProxy(new OriginBean(), new Advisor(Pointcut.methodName("hello"), recording));
+        assertSame(proxy.getClass(), other.getClass());
+        assertEquals(count, resolver.getProxyClassCount());
+    }
+
+    @Test
+    public void testPointcutMatching() throws Exception {
+        Method hello = OriginBean.class.getMethod("hello");
+        Method morning = OriginBean.class.getMethod("morning");
+        Method toString = OriginBean.class.getMethod("toString");
+        assertTrue(Pointcut.methodName("*ing").matches(morning, OriginBean.class));
+        assertFalse(Pointcut.methodName("*ing").matches(hello, OriginBean.class));
+        assertTrue(Pointcut.declaringType(OriginBean.class).matches(hello, OriginBean.class));
+        assertFalse(Pointcut.declaringType(OriginBean.class).matches(toString, OriginBean.class));
+        assertTrue(Pointcut.objectMethods().matches(toString, OriginBean.class));
+        assertTrue(Pointcut.annotatedWith(Polite.class).or(Pointcut.methodName("morning")).matches(morning, OriginBean.class));
+        assertFalse(Pointcut.annotatedWith(Polite.class).and(Pointcut.methodName("morning")).negate().negate().matches(morning, OriginBean.class));
+    }
 }
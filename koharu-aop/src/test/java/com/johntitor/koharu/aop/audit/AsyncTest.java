@@ -0,0 +1,109 @@
+package com.johntitor.koharu.aop.audit;
+
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.aop.async.AsyncExecutor;
+import com.johntitor.koharu.aop.async.AsyncExecutorStats;
+import com.johntitor.koharu.aop.async.RejectionPolicy;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncTest {
+
+    @Test
+    public void testFireAndForget() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(AuditApplication.class, createPropertyResolver())) {
+            AuditService auditService = ctx.getBean(AuditService.class);
+            AuditService target = (AuditService) ProxyResolver.getTarget(auditService);
+            TenantPropagator.TENANT.set("acme");
+            try {
+                auditService.write("login");
+            } finally {
+                TenantPropagator.TENANT.remove();
+            }
+            assertTrue(target.latch.await(5, TimeUnit.SECONDS));
+            // 在虚拟线程中执行，传递tenant和ApplicationContext:
+            assertEquals(List.of("login@acme:true:true"), target.records);
+            // 非@Async方法在调用线程执行:
+            assertEquals(Thread.currentThread().getName(), auditService.sync());
+        }
+    }
+
+    @Test
+    public void testCompletableFuture() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(AuditApplication.class, createPropertyResolver())) {
+            AuditService auditService = ctx.getBean(AuditService.class);
+            assertEquals("LOGOUT", auditService.load("logout").get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> auditService.load("").get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+
+            AsyncExecutorStats stats = ((AsyncExecutor) ctx.getBean("asyncExecutor")).getStats();
+            assertEquals("asyncExecutor", stats.name());
+            assertEquals(2, stats.submitted());
+            assertEquals(1, stats.completed());
+            assertEquals(1, stats.failed());
+            assertEquals(2, stats.execution().count());
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(AuditApplication.class, createPropertyResolver())) {
+            AuditService auditService = ctx.getBean(AuditService.class);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> first = auditService.slow(release);
+            // auditExecutor最多1个未完成任务:
+            ExecutionException e = assertThrows(ExecutionException.class, () -> auditService.slow(release).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS).startsWith("auditExecutor-"));
+            AsyncExecutorStats stats = ((AsyncExecutor) ctx.getBean("auditExecutor")).getStats();
+            assertEquals(1, stats.rejected());
+        }
+    }
+
+    @Test
+    public void testCallerRuns() throws Exception {
+        try (AsyncExecutor executor = new AsyncExecutor("test", 1, RejectionPolicy.CALLER_RUNS, Duration.ZERO)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> first = executor.submit(() -> {
+                release.await();
+                return Thread.currentThread().getName();
+            });
+            // 达到上限时在调用线程执行:
+            assertEquals(Thread.currentThread().getName(), executor.submit(() -> Thread.currentThread().getName()).get());
+            release.countDown();
+            assertEquals("test-0", first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executor.getStats().callerRuns());
+        }
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        try (AsyncExecutor executor = new AsyncExecutor("test", 1, RejectionPolicy.BLOCK, Duration.ofSeconds(5))) {
+            CompletableFuture<Long> first = executor.submit(() -> {
+                Thread.sleep(100);
+                return System.nanoTime();
+            });
+            // 阻塞直到第一个任务完成:
+            long submitted = executor.submit(System::nanoTime).get(5, TimeUnit.SECONDS);
+            assertTrue(submitted >= first.get());
+            assertEquals(0, executor.getStats().rejected());
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
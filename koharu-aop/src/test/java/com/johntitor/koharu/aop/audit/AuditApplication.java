@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.audit;
+
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.async.AsyncConfiguration;
+import com.johntitor.koharu.aop.async.AsyncExecutor;
+import com.johntitor.koharu.aop.async.RejectionPolicy;
+
+import java.time.Duration;
+
+@Configuration
+@ComponentScan
+@Import(AsyncConfiguration.class)
+public class AuditApplication {
+
+    @Bean(destroyMethod = "close")
+    AsyncExecutor auditExecutor() {
+        return new AsyncExecutor("auditExecutor", 1, RejectionPolicy.ABORT, Duration.ZERO);
+    }
+}
@@ -0,0 +1,43 @@
+package com.johntitor.koharu.aop.audit;
+
+import com.johntitor.koharu.annotation.Async;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.context.ApplicationContextContainer;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@Component
+public class AuditService {
+
+    final List<String> records = new CopyOnWriteArrayList<>();
+    volatile CountDownLatch latch = new CountDownLatch(1);
+
+    @Async(propagate = "tenant")
+    public void write(String event) {
+        Thread thread = Thread.currentThread();
+        records.add(event + "@" + TenantPropagator.TENANT.get() + ":" + thread.isVirtual()
+                + ":" + (ApplicationContextContainer.getApplicationContext() != null));
+        latch.countDown();
+    }
+
+    @Async
+    public CompletableFuture<String> load(String event) {
+        if (event.isEmpty()) {
+            throw new IllegalArgumentException("Empty event");
+        }
+        return CompletableFuture.completedFuture(event.toUpperCase());
+    }
+
+    @Async("auditExecutor")
+    public CompletableFuture<String> slow(CountDownLatch release) throws InterruptedException {
+        release.await();
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    public String sync() {
+        return Thread.currentThread().getName();
+    }
+}
@@ -0,0 +1,30 @@
+package com.johntitor.koharu.aop.audit;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.aop.async.ContextPropagator;
+
+import java.util.concurrent.Callable;
+
+@Component
+public class TenantPropagator implements ContextPropagator {
+
+    static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    @Override
+    public String getName() {
+        return "tenant";
+    }
+
+    @Override
+    public <T> Callable<T> wrap(Callable<T> task) {
+        String tenant = TENANT.get();
+        return () -> {
+            TENANT.set(tenant);
+            try {
+                return task.call();
+            } finally {
+                TENANT.remove();
+            }
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package com.johntitor.koharu.aop.benchmark;
+
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.ProxyResolver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationHandler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 代理调用与直接调用的开销对比，mvn test-compile后运行main方法(需要test classpath)。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyBenchmark {
+
+    public static class Greeter {
+        public String greet(String name, int times) {
+            return times > 1 ? name + times : name;
+        }
+    }
+
+    Greeter direct;
+    Greeter interceptorProxy;
+    Greeter invocationHandlerProxy;
+    String name = "Bob";
+    int times = 2;
+
+    @Setup
+    public void setup() {
+        direct = new Greeter();
+        // MethodInterceptor: proceed()通过生成的字节码调用
+        MethodInterceptor interceptor = invocation -> invocation.proceed();
+        interceptorProxy = ProxyResolver.getInstance().createProxy(new Greeter(), interceptor);
+        // InvocationHandler: 通过适配器，handler内部反射调用
+        InvocationHandler handler = (target, method, args) -> method.invoke(target, args);
+        invocationHandlerProxy = ProxyResolver.getInstance().createProxy(new Greeter(), handler);
+    }
+
+    @Benchmark
+    public String direct() {
+        return direct.greet(name, times);
+    }
+
+    @Benchmark
+    public String methodInterceptor() {
+        return interceptorProxy.greet(name, times);
+    }
+
+    @Benchmark
+    public String invocationHandler() {
+        return invocationHandlerProxy.greet(name, times);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProxyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
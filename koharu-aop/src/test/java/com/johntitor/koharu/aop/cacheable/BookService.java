@@ -0,0 +1,60 @@
+package com.johntitor.koharu.aop.cacheable;
+
+import com.johntitor.koharu.annotation.CacheEvict;
+import com.johntitor.koharu.annotation.CachePut;
+import com.johntitor.koharu.annotation.Cacheable;
+import com.johntitor.koharu.annotation.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class BookService {
+
+    final Map<Long, String> books = new HashMap<>(Map.of(1L, "Dune", 2L, "Emma"));
+    final AtomicInteger loads = new AtomicInteger();
+    CountDownLatch latch = new CountDownLatch(0);
+
+    @Cacheable("books")
+    public String find(long id) {
+        loads.incrementAndGet();
+        return books.get(id);
+    }
+
+    // 只用第一个参数作为key:
+    @Cacheable(value = "titles", key = 0)
+    public String title(long id, boolean upperCase) {
+        loads.incrementAndGet();
+        return upperCase ? books.get(id).toUpperCase() : books.get(id);
+    }
+
+    @Cacheable("slow")
+    public String slow(String key) throws InterruptedException {
+        loads.incrementAndGet();
+        latch.await();
+        return key + "!";
+    }
+
+    @Cacheable("failing")
+    public String failing(String key) {
+        loads.incrementAndGet();
+        throw new IllegalStateException("failed: " + key);
+    }
+
+    @CachePut(value = "books", key = 0)
+    public String update(long id, String title) {
+        books.put(id, title);
+        return title;
+    }
+
+    @CacheEvict("books")
+    public void remove(long id) {
+        books.remove(id);
+    }
+
+    @CacheEvict(value = "books", allEntries = true)
+    public void reload() {
+    }
+}
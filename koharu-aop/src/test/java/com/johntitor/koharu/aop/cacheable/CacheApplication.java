@@ -0,0 +1,12 @@
+package com.johntitor.koharu.aop.cacheable;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.cache.CacheConfiguration;
+
+@Configuration
+@ComponentScan
+@Import(CacheConfiguration.class)
+public class CacheApplication {
+}
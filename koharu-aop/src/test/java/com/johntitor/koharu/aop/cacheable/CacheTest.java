@@ -0,0 +1,187 @@
+package com.johntitor.koharu.aop.cacheable;
+
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.aop.cache.BoundedCache;
+import com.johntitor.koharu.aop.cache.CacheManager;
+import com.johntitor.koharu.aop.cache.CacheSpec;
+import com.johntitor.koharu.aop.cache.CacheStats;
+import com.johntitor.koharu.aop.cache.EvictionPolicy;
+import com.johntitor.koharu.aop.cache.SimpleKey;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheTest {
+
+    @Test
+    public void testCacheable() {
+        try (var ctx = new AnnotationConfigApplicationContext(CacheApplication.class, createPropertyResolver())) {
+            BookService bookService = ctx.getBean(BookService.class);
+            // Proxy实例的字段不是原始Bean的字段:
+            BookService target = (BookService) ProxyResolver.getTarget(bookService);
+            assertEquals("Dune", bookService.find(1));
+            assertEquals("Dune", bookService.find(1));
+            assertEquals("Emma", bookService.find(2));
+            // null也会被缓存:
+            assertNull(bookService.find(3));
+            assertNull(bookService.find(3));
+            assertEquals(3, target.loads.get());
+
+            // 只用第一个参数作为key:
+            assertEquals("DUNE", bookService.title(1, true));
+            assertEquals("DUNE", bookService.title(1, false));
+
+            CacheStats stats = ctx.getBean(CacheManager.class).getCache("books").getStats();
+            assertEquals(2, stats.hitCount());
+            assertEquals(3, stats.missCount());
+            assertEquals(3, stats.loadSuccessCount());
+            assertEquals(3, stats.size());
+        }
+    }
+
+    @Test
+    public void testPutAndEvict() {
+        try (var ctx = new AnnotationConfigApplicationContext(CacheApplication.class, createPropertyResolver())) {
+            BookService bookService = ctx.getBean(BookService.class);
+            // Proxy实例的字段不是原始Bean的字段:
+            BookService target = (BookService) ProxyResolver.getTarget(bookService);
+            assertEquals("Dune", bookService.find(1));
+            assertEquals("Dune Messiah", bookService.update(1, "Dune Messiah"));
+            assertEquals("Dune Messiah", bookService.find(1));
+            assertEquals(1, target.loads.get());
+
+            bookService.remove(1);
+            assertNull(bookService.find(1));
+            assertEquals(2, target.loads.get());
+
+            assertEquals("Emma", bookService.find(2));
+            bookService.reload();
+            assertEquals("Emma", bookService.find(2));
+            assertEquals(4, target.loads.get());
+        }
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(CacheApplication.class, createPropertyResolver())) {
+            BookService bookService = ctx.getBean(BookService.class);
+            // Proxy实例的字段不是原始Bean的字段:
+            BookService target = (BookService) ProxyResolver.getTarget(bookService);
+            target.latch = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> bookService.slow("a")));
+                }
+                // 等待所有线程进入加载或等待:
+                Thread.sleep(200);
+                target.latch.countDown();
+                for (Future<String> future : futures) {
+                    assertEquals("a!", future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+            // 并发的未命中只加载一次:
+            assertEquals(1, target.loads.get());
+            // 加载失败不缓存，异常原样抛出:
+            assertThrows(IllegalStateException.class, () -> bookService.failing("x"));
+            assertThrows(IllegalStateException.class, () -> bookService.failing("x"));
+            assertEquals(3, target.loads.get());
+            assertEquals(2, ctx.getBean(CacheManager.class).getCache("failing").getStats().loadFailureCount());
+        }
+    }
+
+    @Test
+    public void testRecursiveLoad() throws Throwable {
+        BoundedCache cache = new BoundedCache("recursive", new CacheSpec(10, Duration.ZERO, EvictionPolicy.LRU));
+        // 递归加载同一个key时抛出异常而不是死锁:
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> cache.get("a", () -> cache.get("a", () -> "inner")));
+        assertTrue(e.getMessage().startsWith("Recursive load"));
+        assertNull(cache.getIfPresent("a"));
+        // 递归加载其他key正常:
+        assertEquals("b:c", cache.get("b", () -> "b:" + cache.get("c", () -> "c")));
+        assertEquals("c", cache.getIfPresent("c"));
+        assertEquals("a", cache.get("a", () -> "a"));
+    }
+
+    @Test
+    public void testLru() {
+        BoundedCache cache = new BoundedCache("lru", new CacheSpec(3, Duration.ZERO, EvictionPolicy.LRU));
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+        // 访问a后b最久未访问:
+        assertEquals(1, cache.getIfPresent("a"));
+        cache.put("d", 4);
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, cache.getIfPresent("a"));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getStats().evictionCount());
+    }
+
+    @Test
+    public void testTinyLfu() {
+        BoundedCache cache = new BoundedCache("lfu", new CacheSpec(100, Duration.ZERO, EvictionPolicy.TINY_LFU));
+        for (int i = 0; i < 100; i++) {
+            cache.put("hot-" + i, i);
+        }
+        // 热点key多次访问:
+        for (int n = 0; n < 5; n++) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, cache.getIfPresent("hot-" + i));
+            }
+        }
+        // 大量只访问一次的key不会挤掉热点key:
+        for (int i = 0; i < 1000; i++) {
+            cache.put("cold-" + i, i);
+        }
+        int hot = 0;
+        for (int i = 0; i < 100; i++) {
+            if (cache.getIfPresent("hot-" + i) != null) {
+                hot++;
+            }
+        }
+        assertTrue(hot >= 95, "hot entries retained: " + hot);
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testExpire() throws Throwable {
+        BoundedCache cache = new BoundedCache("ttl", new CacheSpec(10, Duration.ofMillis(50), EvictionPolicy.LRU));
+        cache.put("a", 1);
+        assertEquals(1, cache.getIfPresent("a"));
+        Thread.sleep(100);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.get("a", () -> 2));
+    }
+
+    @Test
+    public void testSimpleKey() {
+        Object[] args = {42L, "x"};
+        // 单个参数直接作为key:
+        assertSame(args[0], SimpleKey.of(args, new int[]{0}));
+        assertSame(SimpleKey.EMPTY, SimpleKey.of(new Object[0], new int[0]));
+        assertEquals(SimpleKey.of(args, new int[0]), SimpleKey.of(new Object[]{42L, "x"}, new int[0]));
+        assertNotEquals(SimpleKey.of(args, new int[0]), SimpleKey.of(new Object[]{"x", 42L}, new int[0]));
+        assertEquals(SimpleKey.of(new Object[]{new int[]{1, 2}}, new int[0]), SimpleKey.of(new Object[]{new int[]{1, 2}}, new int[0]));
+        assertEquals(SimpleKey.of(new Object[]{null}, new int[0]), SimpleKey.of(new Object[]{null}, new int[0]));
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
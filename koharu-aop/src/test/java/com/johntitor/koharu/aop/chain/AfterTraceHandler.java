@@ -0,0 +1,16 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.aop.AfterInvocationHandlerAdapter;
+
+import java.lang.reflect.Method;
+
+@Component
+public class AfterTraceHandler extends AfterInvocationHandlerAdapter {
+
+    @Override
+    public Object after(Object proxy, Object returnValue, Method method, Object[] args) {
+        Trace.add("after");
+        return returnValue instanceof String s ? s.replace(".", "!") : returnValue;
+    }
+}
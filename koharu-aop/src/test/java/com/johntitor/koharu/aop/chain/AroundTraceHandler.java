@@ -0,0 +1,19 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+
+@Component
+public class AroundTraceHandler implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Trace.add("around:begin");
+        try {
+            return invocation.proceed();
+        } finally {
+            Trace.add("around:end");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.aop.BeforeInvocationHandlerAdapter;
+
+import java.lang.reflect.Method;
+
+@Component
+public class BeforeTraceHandler extends BeforeInvocationHandlerAdapter {
+
+    @Override
+    public void before(Object proxy, Method method, Object[] args) {
+        Trace.add("before");
+    }
+}
@@ -0,0 +1,32 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Order;
+import com.johntitor.koharu.aop.AfterProxyBeanPostProcessor;
+import com.johntitor.koharu.aop.AroundProxyBeanPostProcessor;
+import com.johntitor.koharu.aop.BeforeProxyBeanPostProcessor;
+
+@Configuration
+@ComponentScan
+public class ChainApplication {
+
+    @Order(1)
+    @Bean
+    AroundProxyBeanPostProcessor createAroundProxyBeanPostProcessor() {
+        return new AroundProxyBeanPostProcessor();
+    }
+
+    @Order(2)
+    @Bean
+    BeforeProxyBeanPostProcessor createBeforeProxyBeanPostProcessor() {
+        return new BeforeProxyBeanPostProcessor();
+    }
+
+    @Order(3)
+    @Bean
+    AfterProxyBeanPostProcessor createAfterProxyBeanPostProcessor() {
+        return new AfterProxyBeanPostProcessor();
+    }
+}
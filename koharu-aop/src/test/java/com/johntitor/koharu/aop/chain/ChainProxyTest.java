@@ -0,0 +1,84 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.aop.AopProxy;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChainProxyTest {
+
+    @BeforeEach
+    public void beforeEach() {
+        Trace.calls.clear();
+    }
+
+    @Test
+    public void testChain() {
+        try (var ctx = new AnnotationConfigApplicationContext(ChainApplication.class, createPropertyResolver())) {
+            TraceBean proxy = ctx.getBean(TraceBean.class);
+            // 只有一层Proxy:
+            assertInstanceOf(AopProxy.class, proxy);
+            assertSame(TraceBean.class, proxy.getClass().getSuperclass());
+            assertEquals(3, ((AopProxy) proxy).getProxyDispatcher().getInterceptors().size());
+            // 注入到原始Bean:
+            assertNull(proxy.name);
+            TraceBean target = (TraceBean) ProxyResolver.getTarget(proxy);
+            assertEquals("Alice", target.name);
+
+            Trace.calls.clear();
+            assertEquals("Hello, Alice!", proxy.hello());
+            // 按@Order从外到内执行:
+            assertEquals(List.of("around:begin", "before", "target", "after", "around:end"), Trace.calls);
+        }
+    }
+
+    @Test
+    public void testAddInterceptor() {
+        ProxyResolver resolver = ProxyResolver.getInstance();
+        TraceBean target = new TraceBean();
+        target.name = "Bob";
+        TraceBean proxy = resolver.createProxy(target, recording("outer"));
+        int classes = resolver.getProxyClassCount();
+        resolver.addInterceptor(proxy, recording("inner"));
+        // 追加拦截器不生成新的Proxy Class:
+        assertEquals(classes, resolver.getProxyClassCount());
+        assertEquals("Hello, Bob.", proxy.hello());
+        assertEquals(List.of("outer", "inner", "target"), Trace.calls);
+    }
+
+    @Test
+    public void testProceedTwice() {
+        MethodInterceptor twice = invocation -> {
+            invocation.proceed();
+            return invocation.proceed();
+        };
+        TraceBean target = new TraceBean();
+        target.name = "Bob";
+        TraceBean proxy = ProxyResolver.getInstance().createProxy(target, twice, recording("inner"));
+        assertEquals("Hello, Bob.", proxy.hello());
+        // 每次proceed()都重新执行后续拦截器:
+        assertEquals(List.of("inner", "target", "inner", "target"), Trace.calls);
+    }
+
+    MethodInterceptor recording(String name) {
+        return (MethodInvocation invocation) -> {
+            Trace.add(name);
+            return invocation.proceed();
+        };
+    }
+
+    PropertyResolver createPropertyResolver() {
+        var ps = new Properties();
+        ps.put("trace.name", "Alice");
+        return new PropertyResolver(ps);
+    }
+}
@@ -0,0 +1,16 @@
+package com.johntitor.koharu.aop.chain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录拦截器的执行顺序
+ */
+public class Trace {
+
+    static final List<String> calls = new ArrayList<>();
+
+    static void add(String call) {
+        calls.add(call);
+    }
+}
@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.chain;
+
+import com.johntitor.koharu.annotation.After;
+import com.johntitor.koharu.annotation.Around;
+import com.johntitor.koharu.annotation.Before;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Value;
+
+@Component
+@Around("aroundTraceHandler")
+@Before("beforeTraceHandler")
+@After("afterTraceHandler")
+public class TraceBean {
+
+    @Value("${trace.name:koharu}")
+    public String name;
+
+    public String hello() {
+        Trace.add("target");
+        return "Hello, " + name + ".";
+    }
+}
@@ -0,0 +1,12 @@
+package com.johntitor.koharu.aop.limited;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.limit.LimitConfiguration;
+
+@Configuration
+@ComponentScan
+@Import(LimitConfiguration.class)
+public class LimitApplication {
+}
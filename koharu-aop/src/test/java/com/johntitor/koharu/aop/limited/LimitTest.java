@@ -0,0 +1,175 @@
+package com.johntitor.koharu.aop.limited;
+
+import com.johntitor.koharu.aop.limit.ConcurrencyLimiter;
+import com.johntitor.koharu.aop.limit.LimitMode;
+import com.johntitor.koharu.aop.limit.LimiterRegistry;
+import com.johntitor.koharu.aop.limit.LimiterStats;
+import com.johntitor.koharu.aop.limit.RateLimiter;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.BulkheadFullException;
+import com.johntitor.koharu.exception.RateLimitExceededException;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LimitTest {
+
+    @Test
+    public void testRateLimitReject() {
+        try (var ctx = new AnnotationConfigApplicationContext(LimitApplication.class, createPropertyResolver())) {
+            ReportService service = ctx.getBean(ReportService.class);
+            // burst=3:
+            for (int i = 0; i < 3; i++) {
+                assertEquals("report-a", service.export("a"));
+            }
+            var e = assertThrows(RateLimitExceededException.class, () -> service.export("a"));
+            assertEquals("ReportService.export", e.getLimiterName());
+            assertTrue(e.getRetryAfterNanos() > 0);
+
+            LimiterStats stats = ctx.getBean(LimiterRegistry.class).getRateLimiter("ReportService.export").getStats();
+            assertEquals(3, stats.permitted());
+            assertEquals(1, stats.rejected());
+        }
+    }
+
+    @Test
+    public void testRateLimitWait() {
+        try (var ctx = new AnnotationConfigApplicationContext(LimitApplication.class, createPropertyResolver())) {
+            ReportService service = ctx.getBean(ReportService.class);
+            long start = System.nanoTime();
+            // 20/s，第1个立即获取，其余每个等待50ms:
+            for (int i = 0; i < 5; i++) {
+                assertEquals("ok", service.throttled());
+            }
+            long elapsed = System.nanoTime() - start;
+            assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(190), "elapsed " + elapsed);
+            LimiterStats stats = ctx.getBean(LimiterRegistry.class).getRateLimiter("throttled").getStats();
+            assertEquals(5, stats.permitted());
+            assertEquals(4, stats.waited());
+        }
+    }
+
+    @Test
+    public void testInterruptedWaitReturnsPermit() throws Exception {
+        // 每200ms一个令牌，最多等待300ms:
+        var limiter = new RateLimiter("interrupted", 5, 1, LimitMode.WAIT, Duration.ofMillis(300));
+        limiter.acquire();
+        var thrown = new RateLimitExceededException[1];
+        Thread waiter = new Thread(() -> {
+            try {
+                limiter.acquire();
+            } catch (RateLimitExceededException e) {
+                thrown[0] = e;
+            }
+        });
+        waiter.start();
+        while (waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        waiter.interrupt();
+        waiter.join();
+        assertNotNull(thrown[0]);
+        // 被中断的预定已归还，下一个调用只需等待一个间隔，否则需要400ms并超时:
+        limiter.acquire();
+        LimiterStats stats = limiter.getStats();
+        assertEquals(2, stats.permitted());
+        assertEquals(1, stats.rejected());
+    }
+
+    @Test
+    public void testTokenBucket() {
+        var limiter = new RateLimiter("bucket", 1000, 10, LimitMode.REJECT, Duration.ZERO);
+        int permitted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (limiter.tryAcquire()) {
+                permitted++;
+            }
+        }
+        // 10个突发，加上循环期间可能补充的少量令牌:
+        assertTrue(permitted >= 10 && permitted < 20, "permitted " + permitted);
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter("bad", 0, 1, LimitMode.REJECT, Duration.ZERO));
+    }
+
+    @Test
+    public void testBulkheadReject() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LimitApplication.class, createPropertyResolver())) {
+            ReportService service = ctx.getBean(ReportService.class);
+            ConcurrencyLimiter bulkhead = ctx.getBean(LimiterRegistry.class).getBulkhead("ReportService");
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            try {
+                CountDownLatch started = new CountDownLatch(2);
+                CountDownLatch release = new CountDownLatch(1);
+                Future<?> f1 = executor.submit(() -> {
+                    service.generate(started, release);
+                    return null;
+                });
+                Future<?> f2 = executor.submit(() -> {
+                    service.generate(started, release);
+                    return null;
+                });
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                assertEquals(2, bulkhead.getActive());
+                // 类上的@Bulkhead(maxConcurrent=2)已满:
+                var e = assertThrows(BulkheadFullException.class, () -> service.generate(new CountDownLatch(1), release));
+                assertEquals("ReportService", e.getLimiterName());
+                release.countDown();
+                f1.get();
+                f2.get();
+                assertEquals(0, bulkhead.getActive());
+                LimiterStats stats = bulkhead.getStats();
+                assertEquals(2, stats.permitted());
+                assertEquals(1, stats.rejected());
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testBulkheadWait() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(LimitApplication.class, createPropertyResolver())) {
+            ReportService service = ctx.getBean(ReportService.class);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                CountDownLatch started = new CountDownLatch(1);
+                Future<?> f = executor.submit(() -> {
+                    service.single(started, 100);
+                    return null;
+                });
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                // 等待前一个调用结束:
+                service.single(new CountDownLatch(1), 0);
+                f.get();
+                LimiterStats stats = ctx.getBean(LimiterRegistry.class).getBulkhead("ReportService.single").getStats();
+                assertEquals(2, stats.permitted());
+                assertEquals(1, stats.waited());
+                assertEquals(0, stats.rejected());
+                assertTrue(stats.maxWait() > 0);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    @Test
+    public void testSnapshot() {
+        try (var ctx = new AnnotationConfigApplicationContext(LimitApplication.class, createPropertyResolver())) {
+            var names = ctx.getBean(LimiterRegistry.class).snapshot().stream().map(s -> s.name() + ":" + s.type()).toList();
+            assertEquals(java.util.List.of("ReportService:bulkhead", "ReportService.export:rate-limited",
+                    "ReportService.single:bulkhead", "throttled:rate-limited"), names);
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
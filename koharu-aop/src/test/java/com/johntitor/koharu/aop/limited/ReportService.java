@@ -0,0 +1,38 @@
+package com.johntitor.koharu.aop.limited;
+
+import com.johntitor.koharu.annotation.Bulkhead;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.RateLimited;
+import com.johntitor.koharu.aop.limit.LimitMode;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Bulkhead(maxConcurrent = 2)
+public class ReportService {
+
+    @RateLimited(permitsPerSecond = 1, burst = 3)
+    public String export(String name) {
+        return "report-" + name;
+    }
+
+    @RateLimited(value = "throttled", permitsPerSecond = 20, mode = LimitMode.WAIT, timeout = 500)
+    public String throttled() {
+        return "ok";
+    }
+
+    /**
+     * 使用类上的@Bulkhead
+     */
+    public void generate(CountDownLatch started, CountDownLatch release) throws InterruptedException {
+        started.countDown();
+        release.await(5, TimeUnit.SECONDS);
+    }
+
+    @Bulkhead(maxConcurrent = 1, mode = LimitMode.WAIT, timeout = 2000)
+    public void single(CountDownLatch started, long millis) throws InterruptedException {
+        started.countDown();
+        Thread.sleep(millis);
+    }
+}
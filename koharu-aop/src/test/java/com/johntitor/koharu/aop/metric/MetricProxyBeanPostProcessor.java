@@ -2,8 +2,14 @@ package com.johntitor.koharu.aop.metric;
 
 import com.johntitor.koharu.annotation.Component;
 import com.johntitor.koharu.aop.AnnotationProxyBeanPostProcessor;
+import com.johntitor.koharu.aop.Pointcut;
 
 @Component
 public class MetricProxyBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Metric> {
 
+    // 只拦截标注了@Metric的方法:
+    @Override
+    protected Pointcut getPointcut(Class<?> beanClass) {
+        return Pointcut.annotatedWith(Metric.class);
+    }
 }
@@ -32,6 +32,9 @@ public class MetricProxyTest {
             assertEquals(256, metrics.lastProcessedTime.get("SHA-256"));
             // cannot metric sha1() because it is a final method:
             assertNull(metrics.lastProcessedTime.get("SHA-1"));
+            // 只有标注@Metric的方法经过MetricInvocationHandler:
+            worker.toString();
+            assertEquals(2, metrics.lastProcessedTime.size());
         }
     }
 
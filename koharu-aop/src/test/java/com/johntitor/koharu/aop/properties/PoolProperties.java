@@ -0,0 +1,26 @@
+package com.johntitor.koharu.aop.properties;
+
+import com.johntitor.koharu.annotation.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.pool")
+public class PoolProperties {
+
+    private int minSize = 1;
+    private int maxSize = 8;
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(int minSize) {
+        this.minSize = minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,15 @@
+package com.johntitor.koharu.aop.properties;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+
+@Component
+public class PoolService {
+
+    @Autowired
+    PoolProperties properties;
+
+    public PoolProperties getProperties() {
+        return properties;
+    }
+}
@@ -0,0 +1,9 @@
+package com.johntitor.koharu.aop.properties;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+
+@Configuration
+@ComponentScan
+public class PropertiesApplication {
+}
@@ -0,0 +1,84 @@
+package com.johntitor.koharu.aop.properties;
+
+import com.johntitor.koharu.aop.AopProxy;
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReloadPropertiesTest {
+
+    @Test
+    public void testReloadThroughProxy() throws Exception {
+        var ps = new Properties();
+        ps.put("app.pool.min-size", "2");
+        ps.put("app.pool.max-size", "20");
+        var pr = new PropertyResolver(ps);
+        try (var ctx = new AnnotationConfigApplicationContext(PropertiesApplication.class, pr)) {
+            PoolProperties injected = ctx.getBean(PoolService.class).getProperties();
+            // 注入的是Proxy:
+            assertInstanceOf(AopProxy.class, injected);
+            assertSame(injected, ctx.getBean(PoolProperties.class));
+            assertEquals(2, injected.getMinSize());
+            assertEquals(20, injected.getMaxSize());
+
+            // 已注入的引用看到新值:
+            ps.put("app.pool.min-size", "4");
+            ps.put("app.pool.max-size", "40");
+            pr.reload(ps);
+            assertEquals(4, injected.getMinSize());
+            assertEquals(40, injected.getMaxSize());
+
+            // 删除的key恢复为默认值:
+            ps.remove("app.pool.min-size");
+            pr.reload(ps);
+            assertEquals(1, injected.getMinSize());
+            assertEquals(40, injected.getMaxSize());
+
+            // 绑定失败时保留原值:
+            ps.put("app.pool.max-size", "many");
+            pr.reload(ps);
+            assertEquals(40, injected.getMaxSize());
+        }
+    }
+
+    @Test
+    public void testReadersNeverSeePartialUpdate() throws Exception {
+        var ps = new Properties();
+        ps.put("app.pool.min-size", "0");
+        ps.put("app.pool.max-size", "0");
+        var pr = new PropertyResolver(ps);
+        try (var ctx = new AnnotationConfigApplicationContext(PropertiesApplication.class, pr)) {
+            PoolProperties injected = ctx.getBean(PoolService.class).getProperties();
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<String> torn = new AtomicReference<>();
+            // 读取方不加锁，同一个实例的minSize和maxSize总是来自同一次绑定:
+            Thread reader = new Thread(() -> {
+                while (running.get() && torn.get() == null) {
+                    PoolProperties snapshot = (PoolProperties) ProxyResolver.getTarget(injected);
+                    int min = snapshot.getMinSize();
+                    int max = snapshot.getMaxSize();
+                    if (min != max) {
+                        torn.set(min + " != " + max);
+                    }
+                }
+            });
+            reader.start();
+            for (int i = 1; i <= 200; i++) {
+                ps.put("app.pool.min-size", String.valueOf(i));
+                ps.put("app.pool.max-size", String.valueOf(i));
+                pr.reload(ps);
+            }
+            running.set(false);
+            reader.join();
+            assertNull(torn.get());
+            assertEquals(200, injected.getMaxSize());
+        }
+    }
+}
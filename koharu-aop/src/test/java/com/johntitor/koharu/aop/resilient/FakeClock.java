@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.resilient;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 只在调用advance()时前进的纳秒时钟
+ */
+public class FakeClock implements LongSupplier {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Override
+    public long getAsLong() {
+        return nanos.get();
+    }
+
+    public void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
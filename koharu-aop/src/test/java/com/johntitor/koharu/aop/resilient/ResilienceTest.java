@@ -0,0 +1,160 @@
+package com.johntitor.koharu.aop.resilient;
+
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.aop.resilience.CircuitBreaker;
+import com.johntitor.koharu.aop.resilience.CircuitBreakerState;
+import com.johntitor.koharu.aop.resilience.CircuitBreakerStats;
+import com.johntitor.koharu.aop.resilience.ResilienceRegistry;
+import com.johntitor.koharu.aop.resilience.RetryPolicy;
+import com.johntitor.koharu.aop.resilience.RetryStats;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.CircuitBreakerOpenException;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResilienceTest {
+
+    @Test
+    public void testRetry() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(ResilientApplication.class, createPropertyResolver())) {
+            StubService service = ctx.getBean(StubService.class);
+            // Proxy实例的字段不是原始Bean的字段:
+            StubService stub = (StubService) ProxyResolver.getTarget(service);
+            assertEquals("value-a", service.fetch("a"));
+            assertEquals(1, stub.calls.get());
+
+            // 失败2次后成功:
+            stub.failures.set(2);
+            assertEquals("value-b", service.fetch("b"));
+            assertEquals(4, stub.calls.get());
+
+            // 3次都失败:
+            stub.failures.set(3);
+            assertThrows(IOException.class, () -> service.fetch("c"));
+            assertEquals(7, stub.calls.get());
+
+            RetryStats stats = ctx.getBean(ResilienceRegistry.class).getRetry("StubService.fetch").getStats();
+            assertEquals(1, stats.successWithoutRetry());
+            assertEquals(1, stats.successWithRetry());
+            assertEquals(1, stats.failedWithRetry());
+            assertEquals(4, stats.retries());
+        }
+    }
+
+    @Test
+    public void testRetryFor() {
+        try (var ctx = new AnnotationConfigApplicationContext(ResilientApplication.class, createPropertyResolver())) {
+            StubService service = ctx.getBean(StubService.class);
+            StubService stub = (StubService) ProxyResolver.getTarget(service);
+            assertThrows(IOException.class, () -> service.onlyIo(true));
+            assertEquals(5, stub.calls.get());
+            // 不在retryFor中的异常不重试:
+            assertThrows(IllegalArgumentException.class, () -> service.onlyIo(false));
+            assertEquals(6, stub.calls.get());
+            assertEquals(1, ctx.getBean(ResilienceRegistry.class).getRetry("StubService.onlyIo").getStats().failedWithoutRetry());
+        }
+    }
+
+    @Test
+    public void testBackoff() {
+        @SuppressWarnings("unchecked")
+        var policy = new RetryPolicy("backoff", 5, Duration.ofMillis(100), 2, Duration.ofMillis(300), 0, new Class[0], new Class[0]);
+        assertEquals(Duration.ofMillis(100).toNanos(), policy.backoffNanos(1));
+        assertEquals(Duration.ofMillis(200).toNanos(), policy.backoffNanos(2));
+        assertEquals(Duration.ofMillis(300).toNanos(), policy.backoffNanos(3));
+        @SuppressWarnings("unchecked")
+        var jittered = new RetryPolicy("jitter", 5, Duration.ofMillis(100), 1, Duration.ofMillis(1000), 0.5, new Class[0], new Class[0]);
+        for (int i = 0; i < 100; i++) {
+            long nanos = jittered.backoffNanos(1);
+            assertTrue(nanos >= Duration.ofMillis(50).toNanos() && nanos <= Duration.ofMillis(150).toNanos());
+        }
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(ResilientApplication.class, createPropertyResolver())) {
+            StubService service = ctx.getBean(StubService.class);
+            StubService stub = (StubService) ProxyResolver.getTarget(service);
+            CircuitBreaker breaker = ctx.getBean(ResilienceRegistry.class).getCircuitBreaker("StubService.call");
+            FakeClock clock = ctx.getBean(FakeClock.class);
+
+            assertEquals("ok", service.call(false));
+            assertEquals("ok", service.call(false));
+            assertThrows(IllegalStateException.class, () -> service.call(true));
+            assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+            // 4次中2次失败，达到50%:
+            assertThrows(IllegalStateException.class, () -> service.call(true));
+            assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+            var e = assertThrows(CircuitBreakerOpenException.class, () -> service.call(false));
+            assertEquals("StubService.call", e.getLimiterName());
+            assertEquals(4, stub.calls.get());
+            // openDuration未到时保持打开:
+            clock.advance(Duration.ofMillis(99));
+            assertThrows(CircuitBreakerOpenException.class, () -> service.call(false));
+            assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+
+            // 经过openDuration后半开，2次试探成功后关闭:
+            clock.advance(Duration.ofMillis(1));
+            assertEquals("ok", service.call(false));
+            assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+            assertEquals("ok", service.call(false));
+            assertEquals(CircuitBreakerState.CLOSED, breaker.getState());
+
+            CircuitBreakerStats stats = breaker.getStats();
+            assertEquals(0, stats.bufferedCalls());
+            assertEquals(-1, stats.failureRate());
+            assertEquals(4, stats.successful());
+            assertEquals(2, stats.failed());
+            assertEquals(2, stats.notPermitted());
+            assertEquals(1, stats.opened());
+        }
+    }
+
+    @Test
+    public void testHalfOpenFailure() {
+        var clock = new FakeClock();
+        var breaker = new CircuitBreaker("half-open", 50, 2, 2, Duration.ofMillis(50), 1, clock);
+        breaker.onError();
+        breaker.onError();
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        clock.advance(Duration.ofMillis(50));
+        breaker.acquirePermission();
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+        // 试探许可用完:
+        assertThrows(CircuitBreakerOpenException.class, breaker::acquirePermission);
+        // 试探失败，重新打开:
+        breaker.onError();
+        assertEquals(CircuitBreakerState.OPEN, breaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, breaker::acquirePermission);
+        assertEquals(2, breaker.getStats().opened());
+        // 重新打开后按新的打开时间计算:
+        clock.advance(Duration.ofMillis(49));
+        assertThrows(CircuitBreakerOpenException.class, breaker::acquirePermission);
+        clock.advance(Duration.ofMillis(1));
+        breaker.acquirePermission();
+        assertEquals(CircuitBreakerState.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testIgnoredException() {
+        try (var ctx = new AnnotationConfigApplicationContext(ResilientApplication.class, createPropertyResolver())) {
+            StubService service = ctx.getBean(StubService.class);
+            for (int i = 0; i < 20; i++) {
+                assertThrows(IllegalArgumentException.class, () -> service.validate("x"));
+            }
+            CircuitBreakerStats stats = ctx.getBean(ResilienceRegistry.class).getCircuitBreaker("invalid").getStats();
+            assertEquals(CircuitBreakerState.CLOSED, stats.state());
+            assertEquals(0f, stats.failureRate());
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
@@ -0,0 +1,28 @@
+package com.johntitor.koharu.aop.resilient;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.annotation.Primary;
+import com.johntitor.koharu.aop.resilience.ResilienceConfiguration;
+import com.johntitor.koharu.aop.resilience.ResilienceRegistry;
+
+@Configuration
+@ComponentScan
+@Import(ResilienceConfiguration.class)
+public class ResilientApplication {
+
+    @Bean
+    FakeClock fakeClock() {
+        return new FakeClock();
+    }
+
+    // 熔断器使用可控的时钟，测试不依赖真实的等待时间:
+    @Primary
+    @Bean
+    ResilienceRegistry clockedResilienceRegistry(@Autowired FakeClock clock) {
+        return new ResilienceRegistry(clock);
+    }
+}
@@ -0,0 +1,52 @@
+package com.johntitor.koharu.aop.resilient;
+
+import com.johntitor.koharu.annotation.CircuitBreaker;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Retry;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按需失败的下游服务
+ */
+@Component
+public class StubService {
+
+    // 接下来失败的次数:
+    public final AtomicInteger failures = new AtomicInteger();
+    public final AtomicInteger calls = new AtomicInteger();
+
+    @Retry(maxAttempts = 3, backoff = 10, multiplier = 2)
+    public String fetch(String key) throws IOException {
+        calls.incrementAndGet();
+        if (failures.getAndDecrement() > 0) {
+            throw new IOException("Connection reset");
+        }
+        return "value-" + key;
+    }
+
+    @Retry(maxAttempts = 5, backoff = 0, retryFor = IOException.class)
+    public String onlyIo(boolean io) throws IOException {
+        calls.incrementAndGet();
+        if (io) {
+            throw new IOException("Timeout");
+        }
+        throw new IllegalArgumentException("Bad request");
+    }
+
+    @CircuitBreaker(failureRateThreshold = 50, window = 4, minimumCalls = 4, openDuration = 100, halfOpenCalls = 2,
+            ignore = IllegalArgumentException.class)
+    public String call(boolean fail) {
+        calls.incrementAndGet();
+        if (fail) {
+            throw new IllegalStateException("Service unavailable");
+        }
+        return "ok";
+    }
+
+    @CircuitBreaker(value = "invalid", ignore = IllegalArgumentException.class)
+    public void validate(String s) {
+        throw new IllegalArgumentException("Invalid " + s);
+    }
+}
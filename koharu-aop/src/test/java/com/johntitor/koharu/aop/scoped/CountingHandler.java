@@ -0,0 +1,19 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.annotation.Component;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class CountingHandler implements InvocationHandler {
+
+    public final AtomicInteger invoked = new AtomicInteger();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        invoked.incrementAndGet();
+        return method.invoke(proxy, args);
+    }
+}
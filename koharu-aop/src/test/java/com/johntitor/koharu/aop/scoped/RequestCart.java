@@ -0,0 +1,21 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.annotation.Around;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Scope;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Scope(Scope.REQUEST)
+@Around("countingHandler")
+public class RequestCart {
+
+    private final List<String> items = new ArrayList<>();
+
+    public List<String> add(String item) {
+        items.add(item);
+        return List.copyOf(items);
+    }
+}
@@ -0,0 +1,16 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.aop.AroundProxyBeanPostProcessor;
+
+@Configuration
+@ComponentScan
+public class ScopedApplication {
+
+    @Bean
+    AroundProxyBeanPostProcessor createAroundProxyBeanPostProcessor() {
+        return new AroundProxyBeanPostProcessor();
+    }
+}
@@ -0,0 +1,100 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.aop.AopProxy;
+import com.johntitor.koharu.aop.AroundProxyBeanPostProcessor;
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.annotation.Scope;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.scope.ThreadScope;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScopedProxyTest {
+
+    @Test
+    public void testThreadScope() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(ScopedApplication.class, createPropertyResolver())) {
+            VisitService service = ctx.getBean(VisitService.class);
+            // 注入的是Scoped Proxy:
+            assertInstanceOf(AopProxy.class, service.getState());
+            assertSame(service.getState(), ctx.getBean(VisitState.class));
+            int created = VisitState.created.get();
+
+            assertEquals(List.of("/a"), service.visit("a"));
+            assertEquals(List.of("/a", "/b"), service.visit("b"));
+            VisitState current = (VisitState) ProxyResolver.getTarget(service.getState());
+            assertNotSame(service.getState(), current);
+            assertEquals(created + 1, VisitState.created.get());
+
+            // 其他线程使用独立的实例:
+            List<String> other = CompletableFuture.supplyAsync(() -> service.visit("c")).get();
+            assertEquals(List.of("/c"), other);
+            assertEquals(created + 2, VisitState.created.get());
+            assertSame(current, ProxyResolver.getTarget(service.getState()));
+
+            // 结束当前线程的作用域后调用destroy方法并重新创建:
+            int destroyed = VisitState.destroyed.get();
+            ThreadScope scope = (ThreadScope) ctx.getRegisteredScope(Scope.THREAD);
+            scope.destroy();
+            assertEquals(destroyed + 1, VisitState.destroyed.get());
+            assertEquals(List.of("/d"), service.visit("d"));
+            assertEquals(created + 3, VisitState.created.get());
+
+            // 关闭时销毁当前线程和其他线程中的实例:
+            ctx.close();
+            assertEquals(destroyed + 3, VisitState.destroyed.get());
+        }
+    }
+
+    @Test
+    public void testProxiedRequestScopeFromManyThreads() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(ScopedApplication.class, createPropertyResolver())) {
+            // 每个线程作为一个请求:
+            ctx.registerScope(Scope.REQUEST, new ThreadScope());
+            RequestCart cart = ctx.getBean(RequestCart.class);
+            CountingHandler handler = ctx.getBean(CountingHandler.class);
+            int threads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<List<String>>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    String name = "t" + i;
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        cart.add(name + "-a");
+                        return cart.add(name + "-b");
+                    }));
+                }
+                start.countDown();
+                for (int i = 0; i < threads; i++) {
+                    // 每个线程创建并使用自己的被代理实例:
+                    assertEquals(List.of("t" + i + "-a", "t" + i + "-b"), futures.get(i).get(5, TimeUnit.SECONDS));
+                }
+            } finally {
+                executor.shutdown();
+            }
+            assertEquals(threads * 2, handler.invoked.get());
+            // 非singleton的原始实例不会被BeanPostProcessor记录:
+            AroundProxyBeanPostProcessor processor = ctx.getBean(AroundProxyBeanPostProcessor.class);
+            Object bean = new Object();
+            assertSame(bean, processor.postProcessOnSetProperty(bean, "requestCart"));
+        }
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
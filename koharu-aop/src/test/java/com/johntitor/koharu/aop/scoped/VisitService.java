@@ -0,0 +1,22 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+
+import java.util.List;
+
+@Component
+public class VisitService {
+
+    @Autowired
+    VisitState state;
+
+    public List<String> visit(String page) {
+        state.visit(page);
+        return state.getPages();
+    }
+
+    public VisitState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,41 @@
+package com.johntitor.koharu.aop.scoped;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Scope;
+import com.johntitor.koharu.annotation.Value;
+import jakarta.annotation.PreDestroy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@Scope(Scope.THREAD)
+public class VisitState {
+
+    public static final AtomicInteger created = new AtomicInteger();
+    public static final AtomicInteger destroyed = new AtomicInteger();
+
+    // Scoped Proxy是子类，需要无参数构造方法:
+    @Value("${visit.prefix:/}")
+    String prefix;
+
+    private final List<String> pages = new ArrayList<>();
+
+    public VisitState() {
+        created.incrementAndGet();
+    }
+
+    public void visit(String page) {
+        pages.add(prefix + page);
+    }
+
+    public List<String> getPages() {
+        return pages;
+    }
+
+    @PreDestroy
+    void destroy() {
+        destroyed.incrementAndGet();
+    }
+}
@@ -0,0 +1,19 @@
+package com.johntitor.koharu.aop.timed;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Counted;
+import com.johntitor.koharu.annotation.Timed;
+
+@Component
+@Timed("inventory")
+public class InventoryService {
+
+    public int stock(String sku) {
+        return sku.length();
+    }
+
+    @Counted("inventory.check")
+    public boolean check(String sku) {
+        return !sku.isEmpty();
+    }
+}
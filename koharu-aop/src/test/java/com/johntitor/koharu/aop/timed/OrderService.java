@@ -0,0 +1,31 @@
+package com.johntitor.koharu.aop.timed;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Counted;
+import com.johntitor.koharu.annotation.Timed;
+
+@Component
+public class OrderService {
+
+    @Timed("order.place")
+    public long place(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Invalid amount: " + amount);
+        }
+        return amount * 2;
+    }
+
+    @Timed
+    public void sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Counted
+    public String status() {
+        return "OK";
+    }
+
+    public String plain() {
+        return "plain";
+    }
+}
@@ -0,0 +1,12 @@
+package com.johntitor.koharu.aop.timed;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.metrics.MetricsConfiguration;
+
+@Configuration
+@ComponentScan
+@Import(MetricsConfiguration.class)
+public class TimedApplication {
+}
@@ -0,0 +1,91 @@
+package com.johntitor.koharu.aop.timed;
+
+import com.johntitor.koharu.aop.metrics.LatencySnapshot;
+import com.johntitor.koharu.aop.metrics.LogHistogram;
+import com.johntitor.koharu.aop.metrics.MethodMetricsRegistry;
+import com.johntitor.koharu.aop.metrics.MethodMetricsSnapshot;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimedTest {
+
+    @Test
+    public void testTimed() throws Exception {
+        try (var ctx = new AnnotationConfigApplicationContext(TimedApplication.class, createPropertyResolver())) {
+            OrderService orderService = ctx.getBean(OrderService.class);
+            assertNotSame(OrderService.class, orderService.getClass());
+            MethodMetricsRegistry registry = ctx.getBean(MethodMetricsRegistry.class);
+
+            assertEquals(20, orderService.place(10));
+            assertEquals(40, orderService.place(20));
+            assertThrows(IllegalArgumentException.class, () -> orderService.place(0));
+            orderService.sleep(20);
+            assertEquals("OK", orderService.status());
+            assertEquals("plain", orderService.plain());
+
+            MethodMetricsSnapshot place = registry.get("order.place").snapshot();
+            assertEquals(3, place.count());
+            assertEquals(1, place.failures());
+            assertEquals(3, place.latency().count());
+
+            // 默认名称为SimpleClassName.methodName:
+            LatencySnapshot sleep = registry.get("OrderService.sleep").snapshot().latency();
+            assertEquals(1, sleep.count());
+            assertTrue(sleep.max() >= 20_000_000L, "max = " + sleep.max());
+
+            // @Counted不计时:
+            MethodMetricsSnapshot status = registry.get("OrderService.status").snapshot();
+            assertEquals(1, status.count());
+            assertNull(status.latency());
+            assertNull(registry.get("OrderService.plain"));
+        }
+    }
+
+    @Test
+    public void testClassLevel() {
+        try (var ctx = new AnnotationConfigApplicationContext(TimedApplication.class, createPropertyResolver())) {
+            InventoryService inventoryService = ctx.getBean(InventoryService.class);
+            MethodMetricsRegistry registry = ctx.getBean(MethodMetricsRegistry.class);
+            assertEquals(3, inventoryService.stock("abc"));
+            assertTrue(inventoryService.check("abc"));
+            // 类上的value作为名称前缀:
+            assertEquals(1, registry.get("inventory.stock").snapshot().latency().count());
+            // 方法上的@Counted优先:
+            assertNull(registry.get("inventory.check").snapshot().latency());
+            assertEquals(1, registry.get("inventory.check").snapshot().count());
+            List<String> names = registry.snapshot().stream().map(MethodMetricsSnapshot::name).toList();
+            assertEquals(List.of("OrderService.sleep", "OrderService.status", "inventory.check", "inventory.stock", "order.place"), names);
+        }
+    }
+
+    @Test
+    public void testHistogram() {
+        LogHistogram histogram = new LogHistogram();
+        assertSame(LatencySnapshot.EMPTY, histogram.snapshot());
+        // 1..1000微秒:
+        IntStream.rangeClosed(1, 1000).parallel().forEach(i -> histogram.record(i * 1000L));
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(1_000_000L, snapshot.max());
+        assertEquals(500_500.0, snapshot.mean(), 0.001);
+        assertWithin(500_000L, snapshot.p50());
+        assertWithin(990_000L, snapshot.p99());
+        assertEquals(1_000_000L, snapshot.p999());
+    }
+
+    // 相对误差在一个子桶以内:
+    void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 8, "expected ~" + expected + " but was " + actual);
+    }
+
+    PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(new Properties());
+    }
+}
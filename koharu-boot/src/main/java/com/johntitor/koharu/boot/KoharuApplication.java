@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.lang.management.ManagementFactory;
 import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.catalina.Context;
@@ -26,10 +27,17 @@ public class KoharuApplication {
 
     final Logger logger = LoggerFactory.getLogger(KoharuApplication.class);
 
+    // 优先级最低的默认属性:
+    private Map<String, String> defaultProperties = Map.of();
+
     public static void run(String webDir, String baseDir, Class<?> configClass, String... args) throws Exception {
         new KoharuApplication().start(webDir, baseDir, configClass, args);
     }
 
+    public void setDefaultProperties(Map<String, String> defaultProperties) {
+        this.defaultProperties = Map.copyOf(defaultProperties);
+    }
+
     public void start(String webDir, String baseDir, Class<?> configClass, String... args) throws Exception {
         printBanner();
 
@@ -41,7 +49,8 @@ public class KoharuApplication {
         final String pwd = Paths.get("").toAbsolutePath().toString();
         logger.info("Starting {} using Java {} with PID {} (started by {} in {})", configClass.getSimpleName(), javaVersion, pid, user, pwd);
 
-        var propertyResolver = WebUtils.createPropertyResolver();
+        // 命令行参数--key=value优先级最高:
+        var propertyResolver = WebUtils.createPropertyResolver(this.defaultProperties, args);
         var server = startTomcat(webDir, baseDir, configClass, propertyResolver);
 
         // started info:
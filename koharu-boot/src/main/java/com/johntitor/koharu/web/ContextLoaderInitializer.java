@@ -2,10 +2,13 @@ package com.johntitor.koharu.web;
 
 import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
 import com.johntitor.koharu.context.ApplicationContext;
+import com.johntitor.koharu.io.PropertyFileWatcher;
 import com.johntitor.koharu.io.PropertyResolver;
 import com.johntitor.koharu.web.utils.WebUtils;
 import jakarta.servlet.ServletContainerInitializer;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.ServletException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,5 +42,15 @@ public class ContextLoaderInitializer implements ServletContainerInitializer {
         WebUtils.registerFilters(ctx);
         // register DispatcherServlet:
         WebUtils.registerDispatcherServlet(ctx, this.propertyResolver);
+        // watch config file if enabled:
+        PropertyFileWatcher propertyFileWatcher = WebUtils.createPropertyFileWatcher(this.propertyResolver);
+        if (propertyFileWatcher != null) {
+            ctx.addListener(new ServletContextListener() {
+                @Override
+                public void contextDestroyed(ServletContextEvent sce) {
+                    propertyFileWatcher.close();
+                }
+            });
+        }
     }
 }
\ No newline at end of file
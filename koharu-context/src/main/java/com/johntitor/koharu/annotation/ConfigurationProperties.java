@@ -0,0 +1,30 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 把prefix下的配置绑定到record或POJO，并注册为Bean:
+ * <p>
+ * <code>
+ * &#64;ConfigurationProperties(prefix = "app.pool")
+ * public record PoolProperties(int maxSize, Duration timeout, List&lt;String&gt; hosts) {}
+ * </code>
+ * <p>
+ * 属性名按kebab-case查找，如maxSize对应app.pool.max-size。
+ * <p>
+ * 配置重新加载后绑定为新实例并整体替换，POJO通过koharu-aop的Proxy让已注入的引用看到新值。
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Component
+public @interface ConfigurationProperties {
+
+    /**
+     * Bean name. Default to simple class name with first-letter-lowercase.
+     */
+    String value() default "";
+
+    String prefix();
+
+}
@@ -0,0 +1,45 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定时执行的无参数方法，fixedRate、fixedDelay、cron三者必须且只能指定一个。
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scheduled {
+
+    /**
+     * 按固定频率执行，上一次执行未结束时跳过本次
+     */
+    long fixedRate() default -1;
+
+    /**
+     * 上一次执行结束后延迟指定时间再执行
+     */
+    long fixedDelay() default -1;
+
+    /**
+     * 秒 分 时 日 月 周，可省略秒，支持${...}
+     */
+    String cron() default "";
+
+    /**
+     * cron的时区，默认为系统时区
+     */
+    String zone() default "";
+
+    /**
+     * 首次执行前的延迟，不能用于cron
+     */
+    long initialDelay() default 0;
+
+    /**
+     * 每次执行随机增加0~jitter的延迟，避免多个实例同时执行
+     */
+    long jitter() default 0;
+
+    TimeUnit timeUnit() default TimeUnit.MILLISECONDS;
+}
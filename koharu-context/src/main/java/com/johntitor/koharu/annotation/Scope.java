@@ -0,0 +1,24 @@
+package com.johntitor.koharu.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Bean的作用域，默认singleton:
+ * <p>
+ * prototype每次获取或注入时创建新实例；request、session、thread等作用域的Bean注入到singleton时，
+ * 注入的是一个Scoped Proxy，每次方法调用时从作用域中获取当前的实例。
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scope {
+
+    String SINGLETON = "singleton";
+    String PROTOTYPE = "prototype";
+    String REQUEST = "request";
+    String SESSION = "session";
+    String THREAD = "thread";
+
+    String value();
+
+}
@@ -2,8 +2,18 @@ package com.johntitor.koharu.context;
 
 import com.johntitor.koharu.annotation.*;
 import com.johntitor.koharu.exception.*;
+import com.johntitor.koharu.io.PropertyChangeListener;
 import com.johntitor.koharu.io.PropertyResolver;
 import com.johntitor.koharu.io.ResourceResolver;
+import com.johntitor.koharu.properties.ConfigurationPropertiesBinder;
+import com.johntitor.koharu.scheduling.CronExpression;
+import com.johntitor.koharu.scheduling.CronTrigger;
+import com.johntitor.koharu.scheduling.PeriodicTrigger;
+import com.johntitor.koharu.scheduling.TaskScheduler;
+import com.johntitor.koharu.scheduling.Trigger;
+import com.johntitor.koharu.scope.BeanScope;
+import com.johntitor.koharu.scope.ScopedProxyFactory;
+import com.johntitor.koharu.scope.ThreadScope;
 import com.johntitor.koharu.utils.ClassUtils;
 import jakarta.annotation.Nullable;
 import jakarta.annotation.PostConstruct;
@@ -11,10 +21,17 @@ import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.function.BiConsumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class AnnotationConfigApplicationContext implements ConfigurableApplicationContext{
@@ -23,9 +40,25 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
 
     private Map<String, BeanDefinition> beans = new HashMap<String, BeanDefinition>();
     private Set<String> creatingBeanNames;
-    private List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
+    // 逆序视图，最后一个包装代理的BeanPostProcessor最先还原原始Bean:
+    private final List<BeanPostProcessor> reversedBeanPostProcessors = beanPostProcessors.reversed();
+    // 作用域名称 -> BeanScope，singleton和prototype由容器直接处理:
+    private final Map<String, BeanScope> scopes = new ConcurrentHashMap<>();
+    // 当前线程正在创建的非singleton Bean，用于检测循环依赖:
+    private final ThreadLocal<Set<String>> creatingScopedBeanNames = ThreadLocal.withInitial(HashSet::new);
+    // 存在@ConfigurationProperties时才创建:
+    private ConfigurationPropertiesBinder propertiesBinder;
+    // 重新绑定@ConfigurationProperties的监听器，关闭时取消订阅:
+    private final List<PropertyChangeListener> propertyChangeListeners = new ArrayList<>();
+    // 存在request/session/thread等作用域的Bean或@ConfigurationProperties的POJO时才加载:
+    private ScopedProxyFactory scopedProxyFactory;
+    // @ConfigurationProperties的POJO Bean名称 -> Proxy当前转发的实例，重新绑定时整体替换:
+    private final Map<String, AtomicReference<Object>> propertiesTargets = new ConcurrentHashMap<>();
 
     private final PropertyResolver propertyResolver;
+    // 存在@Scheduled方法时才创建:
+    private TaskScheduler taskScheduler;
 
     private final String SUFFIX = ".class";
     private final int SUFFIX_LENGTH = SUFFIX.length();
@@ -35,20 +68,42 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         ApplicationContextContainer.setApplicationContext(this);
 
         this.propertyResolver = propertyResolver;
+        registerScope(Scope.THREAD, new ThreadScope());
+
+        // 配置了koharu.context.snapshot时优先从快照恢复Bean的定义:
+        final Path snapshot = getSnapshotPath();
+        final long start = System.nanoTime();
+        final String classpathHash = snapshot == null ? null : BeanDefinitionSnapshot.classpathHash(getSnapshotPackages(configClass));
+        Map<String, BeanDefinition> restored = snapshot == null ? null : BeanDefinitionSnapshot.read(snapshot, classpathHash, configClass.getName());
+        if (restored != null) {
+            logger.info("restored {} bean definitions from snapshot in {} ms: {}", restored.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshot);
+            this.beans = restored;
+        } else {
+            // 扫描获取所有Bean的Class类型:
+            final Set<String> beanClassNames = scanForClassNames(configClass);
 
-        // 扫描获取所有Bean的Class类型:
-        final Set<String> beanClassNames = scanForClassNames(configClass);
-
-        // 创建Bean的定义:
-        this.beans = createBeanDefinitions(beanClassNames);
+            // 创建Bean的定义:
+            this.beans = createBeanDefinitions(beanClassNames);
+            logger.info("created {} bean definitions by component scan in {} ms.", this.beans.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
 
         createBeanInstances();
 
-        // 通过字段和set方法注入依赖:
-        this.beans.values().forEach(this::injectBean);
+        // 通过字段和set方法注入依赖，非singleton的Bean在每次创建时注入:
+        this.beans.values().stream().filter(BeanDefinition::isSingleton).forEach(this::injectBean);
 
         // 调用init方法:
-        this.beans.values().forEach(this::initBean);
+        this.beans.values().stream().filter(BeanDefinition::isSingleton).forEach(this::initBean);
+
+        // 调度@Scheduled方法:
+        registerScheduledTasks();
+
+        // 启动成功后才写入快照:
+        if (snapshot != null && restored == null) {
+            writeSnapshot(snapshot, classpathHash, configClass);
+        }
 
         if (logger.isDebugEnabled()) {
             this.beans.values().stream().sorted().forEach(def -> {
@@ -60,7 +115,17 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     @Override
     public void close() {
         logger.info("Closing {}...", this.getClass().getName());
-        this.beans.values().forEach(this::destroyBean);
+        // 先停止定时任务，再销毁任务依赖的Bean:
+        if (this.taskScheduler != null) {
+            this.taskScheduler.close();
+            this.taskScheduler = null;
+        }
+        this.propertyChangeListeners.forEach(this.propertyResolver::removeChangeListener);
+        this.propertyChangeListeners.clear();
+        this.propertiesTargets.clear();
+        this.beans.values().stream().filter(BeanDefinition::isSingleton).forEach(this::destroyBean);
+        // thread作用域没有结束事件，在关闭时销毁所有线程的实例:
+        this.scopes.values().stream().filter(ThreadScope.class::isInstance).map(ThreadScope.class::cast).forEach(ThreadScope::destroyAll);
         this.beans.clear();
         this.creatingBeanNames = null;
         this.beanPostProcessors.clear();
@@ -68,13 +133,48 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         ApplicationContextContainer.setApplicationContext(null);
     }
 
+    @Nullable
+    Path getSnapshotPath() {
+        String snapshot = this.propertyResolver.getProperty("koharu.context.snapshot");
+        return snapshot == null || snapshot.isBlank() ? null : Path.of(snapshot);
+    }
+
+    void writeSnapshot(Path snapshot, String classpathHash, Class<?> configClass) {
+        try {
+            BeanDefinitionSnapshot.write(snapshot, classpathHash, configClass.getName(), this.beans.values());
+            logger.info("saved {} bean definitions to snapshot: {}", this.beans.size(), snapshot);
+        } catch (IOException | RuntimeException e) {
+            // 快照只用于加速启动，写入失败不影响当前的Context:
+            logger.warn("Failed to save snapshot " + snapshot + ".", e);
+        }
+    }
+
+    String[] getScanPackages(Class<?> configClass) {
+        ComponentScan scan = ClassUtils.findAnnotation(configClass, ComponentScan.class);
+        return (scan != null && scan.value().length > 0) ? scan.value() : new String[]{configClass.getPackage().getName()};
+    }
+
+    /**
+     * 快照的classpath哈希需要检查的package，包括扫描的package和@Import的配置类所在的package
+     */
+    List<String> getSnapshotPackages(Class<?> configClass) {
+        List<String> packages = new ArrayList<>(List.of(getScanPackages(configClass)));
+        packages.add(configClass.getPackageName());
+        Import importConfig = configClass.getAnnotation(Import.class);
+        if (importConfig != null) {
+            for (Class<?> importConfigClass : importConfig.value()) {
+                packages.add(importConfigClass.getPackageName());
+            }
+        }
+        return packages;
+    }
+
     /**
      * Do component scan and return class names.
      */
     protected Set<String> scanForClassNames(Class<?> configClass) {
         // 获取要扫描的package名称:
-        ComponentScan scan = ClassUtils.findAnnotation(configClass, ComponentScan.class);
-        final String[] scanPackages = (scan != null && scan.value().length > 0) ? scan.value() : new String[]{configClass.getPackage().getName()};
+        final String[] scanPackages = getScanPackages(configClass);
         logger.info("component scan in packages: {}", Arrays.toString(scanPackages));
 
         Set<String> classNameSet = new HashSet<>();
@@ -82,12 +182,9 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             // 扫描package:
             logger.debug("scan package: {}", pkg);
             ResourceResolver rr = new ResourceResolver(pkg);
-            List<String> classList = rr.scan(res -> {
+            List<String> classList = rr.scan(SUFFIX, res -> {
                 String name = res.name();
-                if (name.endsWith(SUFFIX)) {
-                    return name.substring(0, name.length() - SUFFIX_LENGTH).replace("/", ".").replace("\\", ".");
-                }
-                return null;
+                return name.substring(0, name.length() - SUFFIX_LENGTH).replace("/", ".").replace("\\", ".");
             });
             if (logger.isDebugEnabled()) {
                 classList.forEach((className) -> {
@@ -137,9 +234,10 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
              *    - 注解类 (annotation)
              *    - 枚举类 (enum)
              *    - 接口 (interface)
-             *    - 记录 (record, Java 14+)
+             *    - 记录 (record, Java 14+)，@ConfigurationProperties 除外
              */
-            if (clazz.isAnnotation() || clazz.isEnum() || clazz.isInterface() || clazz.isRecord()) {
+            if (clazz.isAnnotation() || clazz.isEnum() || clazz.isInterface()
+                    || (clazz.isRecord() && !clazz.isAnnotationPresent(ConfigurationProperties.class))) {
                 continue;
             }
 
@@ -180,6 +278,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                         getSuitableConstructor(clazz),
                         getOrder(clazz),
                         clazz.isAnnotationPresent(Primary.class),
+                        getScope(clazz),
                         // 用户自定义的 init/destroy 方法名（此处先留空）
                         null, null,
                         // 生命周期回调方法
@@ -188,6 +287,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 );
 
                 // 6. 注册 BeanDefinition到defs中
+                checkScope(def);
                 addBeanDefinitions(defs, def);
                 logger.debug("define bean: {}", def);
 
@@ -299,6 +399,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                         method,                           // 对应的工厂方法
                         getOrder(method),                 // bean 初始化顺序
                         method.isAnnotationPresent(Primary.class), // 是否是主 Bean
+                        getScope(method),                 // 作用域
                         // init 方法，如果注解中指定为空则为 null
                         bean.initMethod().isEmpty() ? null : bean.initMethod(),
                         // destroy 方法，如果注解中指定为空则为 null
@@ -308,6 +409,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 );
 
                 // 将 BeanDefinition 注册到 defs map
+                checkScope(def);
                 addBeanDefinitions(defs, def);
 
                 // 打印调试日志，输出定义的 Bean 信息
@@ -331,6 +433,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     void createBeanInstances() {
         this.creatingBeanNames = new HashSet<>();
 
+        createScopedProxies();
         createConfigurationBeans();
         createBeanPostProcessorsBeans();
         createNormalBeans();
@@ -370,7 +473,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     void createNormalBeans() {
         this.beans.values().stream()
                 // filter bean definitions by not instantiation:
-                .filter(def -> def.getInstance() == null)
+                .filter(def -> def.getInstance() == null && def.isSingleton())
                 .sorted()
                 .forEach(def -> {
                     // 如果Bean未被创建(可能在其他Bean的构造方法注入前被创建):
@@ -401,10 +504,66 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             createFn = def.getFactoryMethod();
         }
 
+        // @ConfigurationProperties由配置绑定创建:
+        ConfigurationProperties properties = def.getFactoryName() == null ? def.getBeanClass().getAnnotation(ConfigurationProperties.class) : null;
+        if (properties != null) {
+            Object bound = getPropertiesBinder().bind(properties.prefix(), def.getBeanClass());
+            def.setInstance(createPropertiesProxy(def, bound));
+            // 配置重新加载后重新绑定:
+            PropertyChangeListener listener = changedKeys -> rebindProperties(def, properties.prefix());
+            this.propertyResolver.addChangeListener(properties.prefix(), listener);
+            this.propertyChangeListeners.add(listener);
+            return postProcessBeforeInitialization(def);
+        }
+
         // 创建参数:
+        Supplier<?>[] arguments = resolveArguments(def, createFn);
+        Object[] args = new Object[arguments.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = arguments[i].get();
+        }
+
+        // 创建Bean实例:
+        Object instance = null;
+        if (def.getFactoryName() == null) {
+            // 用构造方法创建:
+            try {
+                instance = def.getConstructor().newInstance(args);
+            } catch (Exception e) {
+                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+            }
+        } else {
+            // 用@Bean方法创建:
+            Object configInstance = getBean(def.getFactoryName());
+            try {
+                instance = def.getFactoryMethod().invoke(configInstance, args);
+            } catch (Exception e) {
+                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
+            }
+        }
+        def.setInstance(instance);
+        return postProcessBeforeInitialization(def);
+    }
+
+    private Object postProcessBeforeInitialization(BeanDefinition def) {
+        // 调用BeanPostProcessor处理Bean:
+        for (BeanPostProcessor processor : beanPostProcessors) {
+            Object processedInstance = processor.postProcessBeforeInitialization(def.getInstance(), def.getName());
+            // 如果一个BeanPostProcessor替换了原始Bean，则更新Bean的引用:
+            if (def.getInstance() != processedInstance) {
+                def.setInstance(processedInstance);
+            }
+        }
+        return def.getInstance();
+    }
+
+    /**
+     * 解析构造方法或@Bean方法的参数，@Value的值和@Autowired的BeanDefinition只解析一次
+     */
+    Supplier<?>[] resolveArguments(BeanDefinition def, Executable createFn) {
         final Parameter[] parameters = createFn.getParameters();
         final Annotation[][] parametersAnnos = createFn.getParameterAnnotations();
-        Object[] args = new Object[parameters.length];
+        Supplier<?>[] arguments = new Supplier<?>[parameters.length];
         for (int i = 0; i < parameters.length; i++) {
             final Parameter param = parameters[i];
             final Annotation[] paramAnnos = parametersAnnos[i];
@@ -430,8 +589,9 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             // 参数类型:
             final Class<?> type = param.getType();
             if (value != null) {
-                // 参数是@Value:
-                args[i] = this.propertyResolver.getRequiredProperty(value.value(), type);
+                // 参数是@Value，每次创建时读取，非singleton的Bean在配置重新加载后使用新值:
+                String key = value.value();
+                arguments[i] = () -> this.propertyResolver.getRequiredProperty(key, type);
             } else {
                 // 参数是@Autowired:
                 String name = autowired.name();
@@ -444,219 +604,191 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                             def.getName(), def.getBeanClass().getName()));
                 }
                 if (dependsOnDef != null) {
-                    // 获取依赖Bean:
-                    Object autowiredBeanInstance = dependsOnDef.getInstance();
-                    if (autowiredBeanInstance == null) {
+                    if (dependsOnDef.isSingleton() && dependsOnDef.getInstance() == null) {
                         // 当前依赖Bean尚未初始化，递归调用初始化该依赖Bean:
-                        autowiredBeanInstance = createBeanAsEarlySingleton(dependsOnDef);
+                        createBeanAsEarlySingleton(dependsOnDef);
                     }
-                    args[i] = autowiredBeanInstance;
+                    // prototype每次创建新实例，其他作用域注入Scoped Proxy:
+                    arguments[i] = () -> getBeanInstance(dependsOnDef);
                 } else {
-                    args[i] = null;
+                    arguments[i] = () -> null;
                 }
             }
         }
+        return arguments;
+    }
 
-        // 创建Bean实例:
-        Object instance = null;
-        if (def.getFactoryName() == null) {
-            // 用构造方法创建:
-            try {
-                instance = def.getConstructor().newInstance(args);
-            } catch (Exception e) {
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
-            }
-        } else {
-            // 用@Bean方法创建:
-            Object configInstance = getBean(def.getFactoryName());
-            try {
-                instance = def.getFactoryMethod().invoke(configInstance, args);
-            } catch (Exception e) {
-                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), e);
-            }
+    /**
+     * 为request/session/thread等作用域的Bean创建Scoped Proxy，作为注入和getBean()返回的实例
+     */
+    void createScopedProxies() {
+        this.beans.values().stream()
+                .filter(def -> !def.isSingleton() && !def.isPrototype())
+                .sorted()
+                .forEach(def -> {
+                    Object proxy = getScopedProxyFactory(def).createScopedProxy(def.getBeanClass(), () -> getScopedInstance(def));
+                    logger.debug("create scoped proxy for bean '{}' with scope '{}'.", def.getName(), def.getScope());
+                    def.setInstance(proxy);
+                });
+    }
+
+    private ScopedProxyFactory getScopedProxyFactory(BeanDefinition def) {
+        ScopedProxyFactory factory = findScopedProxyFactory(def.getBeanClass().getClassLoader());
+        if (factory == null) {
+            throw new BeanDefinitionException(String.format(
+                    "Cannot create scoped proxy for bean '%s' with scope '%s': no ScopedProxyFactory found, koharu-aop is required.",
+                    def.getName(), def.getScope()));
         }
-        def.setInstance(instance);
+        return factory;
+    }
 
-        // 调用BeanPostProcessor处理Bean:
-        for (BeanPostProcessor processor : beanPostProcessors) {
-            Object processedInstance = processor.postProcessBeforeInitialization(def.getInstance(), def.getName());
-            // 如果一个BeanPostProcessor替换了原始Bean，则更新Bean的引用:
-            if (def.getInstance() != processedInstance) {
-                def.setInstance(processedInstance);
-            }
+    @Nullable
+    private ScopedProxyFactory findScopedProxyFactory(ClassLoader classLoader) {
+        if (this.scopedProxyFactory == null) {
+            this.scopedProxyFactory = ServiceLoader.load(ScopedProxyFactory.class, classLoader).findFirst().orElse(null);
         }
-        return def.getInstance();
+        return this.scopedProxyFactory;
     }
 
     /**
-     * 注入依赖但不调用init方法
+     * Scoped Proxy每次方法调用时获取作用域中的当前实例
      */
-    void injectBean(BeanDefinition def) {
-        // 获取Bean实例，或被代理的原始实例:
-        final Object beanInstance = getProxiedInstance(def);
-        try {
-            injectProperties(def, def.getBeanClass(), beanInstance);
-        } catch (ReflectiveOperationException e) {
-            throw new BeanCreationException(e);
+    Object getScopedInstance(BeanDefinition def) {
+        BeanScope scope = this.scopes.get(def.getScope());
+        if (scope == null) {
+            throw new BeanCreationException(String.format("No scope registered with name '%s' for bean '%s'.", def.getScope(), def.getName()));
         }
+        return scope.get(def.getName(), () -> createScopedBean(def, scope));
     }
 
     /**
-     * 注入属性
+     * 创建非singleton的Bean: 通过缓存的BeanInstantiator创建实例，然后依次执行BeanPostProcessor、注入、init方法
      */
-    void injectProperties(BeanDefinition def, Class<?> clazz, Object bean) throws ReflectiveOperationException {
-        // 在当前类查找Field和Method并注入:
-        for (Field f : clazz.getDeclaredFields()) {
-            tryInjectProperties(def, clazz, bean, f);
+    Object createScopedBean(BeanDefinition def, @Nullable BeanScope scope) {
+        Set<String> creating = this.creatingScopedBeanNames.get();
+        if (!creating.add(def.getName())) {
+            throw new UnsatisfiedDependencyException(String.format("Circular dependency detected when create bean '%s'", def.getName()));
         }
-        for (Method m : clazz.getDeclaredMethods()) {
-            tryInjectProperties(def, clazz, bean, m);
+        try {
+            BeanInstantiator instantiator = def.getInstantiator();
+            if (instantiator == null) {
+                instantiator = createInstantiator(def);
+                def.setInstantiator(instantiator);
+            }
+            final Object instance;
+            try {
+                instance = instantiator.newInstance();
+            } catch (Throwable t) {
+                throw new BeanCreationException(String.format("Exception when create bean '%s': %s", def.getName(), def.getBeanClass().getName()), t);
+            }
+            if (!def.getBeanClass().isInstance(instance)) {
+                throw new BeanCreationException(String.format("Instance '%s' of Bean '%s' is not the expected type: %s", instance, def.getName(),
+                        def.getBeanClass().getName()));
+            }
+            Object bean = instance;
+            for (BeanPostProcessor processor : beanPostProcessors) {
+                bean = processor.postProcessScopedBeforeInitialization(bean, def.getName());
+            }
+            // 注入和init方法总是作用于原始实例:
+            for (InjectionMetadata.InjectionPoint point : def.getInjectionMetadata().getPoints()) {
+                inject(def, instance, point);
+            }
+            callMethod(instance, def.getInitMethod(), def.getInitMethodName());
+            for (BeanPostProcessor processor : beanPostProcessors) {
+                bean = processor.postProcessAfterInitialization(bean, def.getName());
+            }
+            // 作用域结束时调用destroy方法，prototype不管理销毁:
+            if (scope != null && (def.getDestroyMethod() != null || def.getDestroyMethodName() != null)) {
+                scope.registerDestructionCallback(def.getName(), () -> callMethod(instance, def.getDestroyMethod(), def.getDestroyMethodName()));
+            }
+            return bean;
+        } finally {
+            creating.remove(def.getName());
+            // 线程池中的线程可能长期存活，创建结束后清理ThreadLocal:
+            if (creating.isEmpty()) {
+                this.creatingScopedBeanNames.remove();
+            }
         }
-        // 在父类查找Field和Method并注入:
-        Class<?> superClazz = clazz.getSuperclass();
-        if (superClazz != null) {
-            injectProperties(def, superClazz, bean);
+    }
+
+    private BeanInstantiator createInstantiator(BeanDefinition def) {
+        if (def.getFactoryName() == null) {
+            return BeanInstantiator.forConstructor(def.getConstructor(), resolveArguments(def, def.getConstructor()));
         }
+        Supplier<?>[] arguments = resolveArguments(def, def.getFactoryMethod());
+        return BeanInstantiator.forFactoryMethod(getBean(def.getFactoryName()), def.getFactoryMethod(), arguments);
     }
 
     /**
-     * 注入单个属性
+     * prototype每次创建新实例，其他作用域返回已创建的实例或Scoped Proxy
      */
-    // ================== Field 注入 ==================
-    void tryInjectProperties(BeanDefinition def, Class<?> clazz, Object bean, Field field) throws ReflectiveOperationException {
-        Value value = field.getAnnotation(Value.class);
-        Autowired autowired = field.getAnnotation(Autowired.class);
-
-        if (value == null && autowired == null) {
-            return;
+    Object getBeanInstance(BeanDefinition def) {
+        if (def.isPrototype()) {
+            return createScopedBean(def, null);
         }
-
-        checkFieldOrMethod(field);
-        field.setAccessible(true);
-
-        doInject(def, clazz, bean,
-                field.getName(),
-                field.getType(),
-                value,
-                autowired,
-                (target, val) -> {
-                    try {
-                        field.set(target, val);
-                    } catch (IllegalAccessException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                "Field");
+        return def.getRequiredInstance();
     }
 
-    // ================== Method 注入 ==================
-    void tryInjectProperties(BeanDefinition def, Class<?> clazz, Object bean, Method method) throws ReflectiveOperationException {
-        Value value = method.getAnnotation(Value.class);
-        Autowired autowired = method.getAnnotation(Autowired.class);
-
-        if (value == null && autowired == null) {
-            return;
-        }
-
-        checkFieldOrMethod(method);
-        if (method.getParameterCount() != 1) {
-            throw new BeanDefinitionException(String.format(
-                    "Cannot inject a non-setter method %s for bean '%s': %s",
-                    method.getName(), def.getName(), def.getBeanClass().getName()));
+    @Override
+    public void registerScope(String name, BeanScope scope) {
+        if (Scope.SINGLETON.equals(name) || Scope.PROTOTYPE.equals(name)) {
+            throw new IllegalArgumentException("Cannot replace built-in scope: " + name);
         }
-        method.setAccessible(true);
-
-        doInject(def, clazz, bean,
-                method.getName(),
-                method.getParameterTypes()[0],
-                value,
-                autowired,
-                (target, val) -> {
-                    try {
-                        method.invoke(target, val);
-                    } catch (IllegalAccessException | InvocationTargetException e) {
-                        throw new RuntimeException(e);
-                    }
-                },
-                "Method");
+        this.scopes.put(name, scope);
     }
 
-
-    // ================== 公共注入逻辑 ==================
+    @Nullable
+    @Override
+    public BeanScope getRegisteredScope(String name) {
+        return this.scopes.get(name);
+    }
 
     /**
-     * 处理 @Value 和 @Autowired 注入逻辑的公共方法。
-     *
-     * @param def            BeanDefinition 定义
-     * @param clazz          当前正在注入的类
-     * @param bean           需要注入属性的实例对象
-     * @param accessibleName 可注入成员名称（field 名称或 method 名称）
-     * @param accessibleType 可注入成员类型（field 类型或 setter 参数类型）
-     * @param value          @Value 注解（可能为 null）
-     * @param autowired      @Autowired 注解（可能为 null）
-     * @param injector       最终执行注入的动作 (targetBean, value) -> {}
-     * @param injectType     执行任务类型
+     * 注入依赖但不调用init方法
      */
-    private void doInject(BeanDefinition def, Class<?> clazz, Object bean,
-                          String accessibleName, Class<?> accessibleType,
-                          Value value, Autowired autowired,
-                          BiConsumer<Object, Object> injector,
-                          String injectType) throws ReflectiveOperationException {
-
-        // 如果没有注解，直接返回
-        if (value == null && autowired == null) {
-            return;
-        }
-
-        // 同时存在 @Value 和 @Autowired 属于非法用法
-        if (value != null && autowired != null) {
-            throw new BeanCreationException(String.format(
-                    "Cannot specify both @Autowired and @Value when inject %s.%s for bean '%s': %s",
-                    clazz.getSimpleName(), accessibleName, def.getName(), def.getBeanClass().getName()));
+    void injectBean(BeanDefinition def) {
+        // 获取Bean实例，或被代理的原始实例:
+        final Object beanInstance = getProxiedInstance(def);
+        // 注入点按Class缓存或从快照恢复，检查只在第一次解析时进行:
+        for (InjectionMetadata.InjectionPoint point : def.getInjectionMetadata().getPoints()) {
+            inject(def, beanInstance, point);
         }
+    }
 
+    /**
+     * 注入单个属性
+     */
+    void inject(BeanDefinition def, Object bean, InjectionMetadata.InjectionPoint point) {
+        Object injected;
         // @Value 注入配置属性
-        if (value != null) {
-            Object propValue = this.propertyResolver.getRequiredProperty(value.value(), accessibleType);
-            logger.debug("{} Injection via @Value: {}.{} = {}", injectType, def.getBeanClass().getName(), accessibleName, propValue);
-            injector.accept(bean, propValue);
-        }
-
-        // @Autowired 注入依赖 Bean
-        if (autowired != null) {
+        if (point.value() != null) {
+            injected = this.propertyResolver.getRequiredProperty(point.value().value(), point.type());
+            logger.debug("{} Injection via @Value: {}.{} = {}", point.kind(), def.getBeanClass().getName(), point.name(), injected);
+        } else {
+            // @Autowired 注入依赖 Bean
+            Autowired autowired = point.autowired();
             String name = autowired.name();
-            boolean required = autowired.value();
-            Object depends = name.isEmpty() ? findBean(accessibleType) : findBean(name, accessibleType);
-
+            BeanDefinition dependsOnDef = name.isEmpty() ? findBeanDefinition(point.type()) : findBeanDefinition(name, point.type());
             // 必须依赖缺失则抛异常
-            if (required && depends == null) {
-                throw new UnsatisfiedDependencyException(String.format(
-                        "Dependency bean not found when inject %s.%s for bean '%s': %s",
-                        clazz.getSimpleName(), accessibleName, def.getName(), def.getBeanClass().getName()));
-            }
-
-            // 找到依赖则注入
-            if (depends != null) {
-                logger.debug("{} Injection via @Autowired: {}.{} = {}", injectType, def.getBeanClass().getName(), accessibleName, depends);
-                injector.accept(bean, depends);
+            if (dependsOnDef == null) {
+                if (autowired.value()) {
+                    throw new UnsatisfiedDependencyException(String.format(
+                            "Dependency bean not found when inject %s.%s for bean '%s': %s",
+                            point.declaringClass().getSimpleName(), point.name(), def.getName(), def.getBeanClass().getName()));
+                }
+                return;
             }
+            injected = getBeanInstance(dependsOnDef);
+            // 只输出Bean名称，Scoped Proxy的toString()会在作用域中创建实例:
+            logger.debug("{} Injection via @Autowired: {}.{} = bean '{}'", point.kind(), def.getBeanClass().getName(), point.name(), dependsOnDef.getName());
         }
-    }
-
-
-    void checkFieldOrMethod(Member m) {
-        int mod = m.getModifiers();
-        if (Modifier.isStatic(mod)) {
-            throw new BeanDefinitionException("Cannot inject static field: " + m);
-        }
-        if (Modifier.isFinal(mod)) {
-            if (m instanceof Field field) {
-                throw new BeanDefinitionException("Cannot inject final field: " + field);
-            }
-            if (m instanceof Method method) {
-                logger.warn(
-                        "Inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
-            }
+        try {
+            point.setter().invokeExact(bean, injected);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new BeanCreationException(String.format("Cannot inject %s.%s for bean '%s'.",
+                    point.declaringClass().getSimpleName(), point.name(), def.getName()), t);
         }
     }
 
@@ -712,22 +844,178 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
     }
 
+    /**
+     * 查找所有Bean的@Scheduled方法并交给TaskScheduler调度
+     */
+    void registerScheduledTasks() {
+        for (BeanDefinition def : this.beans.values().stream().filter(BeanDefinition::isSingleton).sorted().toList()) {
+            // 在原始实例的Class中查找@Scheduled:
+            Object beanInstance = getProxiedInstance(def);
+            for (Class<?> clazz = beanInstance.getClass(); clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+                for (Method method : clazz.getDeclaredMethods()) {
+                    Scheduled scheduled = method.getAnnotation(Scheduled.class);
+                    if (scheduled != null) {
+                        scheduleMethod(def, beanInstance, method, scheduled);
+                    }
+                }
+            }
+        }
+    }
+
+    void scheduleMethod(BeanDefinition def, Object beanInstance, Method method, Scheduled scheduled) {
+        String name = def.getName() + "." + method.getName();
+        if (method.getParameterCount() > 0 || Modifier.isStatic(method.getModifiers())) {
+            throw new BeanDefinitionException("@Scheduled method " + name + " must be non-static and have no parameters.");
+        }
+        Trigger trigger = createTrigger(name, scheduled);
+        // public方法通过Proxy调用，使拦截器生效，其他方法直接调用原始实例:
+        Object target = Modifier.isPublic(method.getModifiers()) ? def.getInstance() : beanInstance;
+        method.setAccessible(true);
+        Runnable action = () -> {
+            try {
+                method.invoke(target);
+            } catch (InvocationTargetException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : new NestedRuntimeException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new NestedRuntimeException(e);
+            }
+        };
+        getTaskScheduler(true).schedule(name, action, trigger, Duration.ofNanos(scheduled.timeUnit().toNanos(scheduled.jitter())));
+    }
+
+    Trigger createTrigger(String name, Scheduled scheduled) {
+        TimeUnit unit = scheduled.timeUnit();
+        boolean hasCron = !scheduled.cron().isEmpty();
+        int kinds = (scheduled.fixedRate() >= 0 ? 1 : 0) + (scheduled.fixedDelay() >= 0 ? 1 : 0) + (hasCron ? 1 : 0);
+        if (kinds != 1) {
+            throw new BeanDefinitionException("@Scheduled method " + name + " must specify exactly one of fixedRate, fixedDelay and cron.");
+        }
+        try {
+            if (hasCron) {
+                if (scheduled.initialDelay() != 0) {
+                    throw new BeanDefinitionException("@Scheduled method " + name + " does not support initialDelay with cron.");
+                }
+                // cron支持${...}:
+                String cron = this.propertyResolver.getProperty(scheduled.cron());
+                ZoneId zone = scheduled.zone().isEmpty() ? ZoneId.systemDefault() : ZoneId.of(scheduled.zone());
+                return new CronTrigger(CronExpression.parse(cron), zone);
+            }
+            Duration initialDelay = Duration.ofNanos(unit.toNanos(scheduled.initialDelay()));
+            return scheduled.fixedRate() >= 0
+                    ? PeriodicTrigger.fixedRate(Duration.ofNanos(unit.toNanos(scheduled.fixedRate())), initialDelay)
+                    : PeriodicTrigger.fixedDelay(Duration.ofNanos(unit.toNanos(scheduled.fixedDelay())), initialDelay);
+        } catch (RuntimeException e) {
+            if (e instanceof BeanDefinitionException) {
+                throw e;
+            }
+            throw new BeanDefinitionException("Invalid @Scheduled on method " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 优先使用TaskScheduler类型的Bean，否则按koharu.scheduling.*创建
+     */
+    TaskScheduler getTaskScheduler(boolean create) {
+        if (this.taskScheduler == null && create) {
+            BeanDefinition def = findBeanDefinition(TaskScheduler.class);
+            if (def != null) {
+                this.taskScheduler = (TaskScheduler) def.getInstance();
+            } else {
+                this.taskScheduler = new TaskScheduler("scheduler",
+                        this.propertyResolver.getProperty("koharu.scheduling.pool-size", int.class, 1),
+                        this.propertyResolver.getProperty("koharu.scheduling.virtual-threads", boolean.class, false),
+                        Duration.ofMillis(this.propertyResolver.getProperty("koharu.scheduling.await-termination", long.class, 30000L)));
+            }
+        }
+        return this.taskScheduler;
+    }
+
+    /**
+     * 绑定@ConfigurationProperties的Binder，也可以用于在运行时绑定其他前缀
+     */
+    public ConfigurationPropertiesBinder getPropertiesBinder() {
+        if (this.propertiesBinder == null) {
+            this.propertiesBinder = new ConfigurationPropertiesBinder(this.propertyResolver);
+        }
+        return this.propertiesBinder;
+    }
+
+    /**
+     * POJO通过Scoped Proxy注入，重新绑定时只替换Proxy背后的实例:
+     * <p>
+     * 没有ScopedProxyFactory(未引入koharu-aop)或类型无法代理时返回绑定的实例本身。
+     */
+    private Object createPropertiesProxy(BeanDefinition def, Object bound) {
+        if (def.getBeanClass().isRecord()) {
+            return bound;
+        }
+        ScopedProxyFactory factory = findScopedProxyFactory(def.getBeanClass().getClassLoader());
+        if (factory == null) {
+            return bound;
+        }
+        AtomicReference<Object> target = new AtomicReference<>(bound);
+        try {
+            Object proxy = factory.createScopedProxy(def.getBeanClass(), target::get);
+            this.propertiesTargets.put(def.getName(), target);
+            return proxy;
+        } catch (RuntimeException e) {
+            logger.warn("Cannot create proxy for @ConfigurationProperties bean '{}', re-bound values are only visible via getBean(): {}", def.getName(), e.getMessage());
+            return bound;
+        }
+    }
+
+    /**
+     * prefix下的属性变化后重新绑定@ConfigurationProperties的Bean:
+     * <p>
+     * 每次都绑定为新实例，再一次性发布，读取方不需要加锁，单次方法调用看到的总是某一次完整绑定的结果，
+     * 删除的key恢复为默认值。
+     * POJO通过Proxy注入时替换Proxy背后的实例，已注入的引用在下次方法调用时看到新值(需要通过方法而不是字段读取)；
+     * record以及无法代理的POJO通过volatile字段发布，getBean()返回新实例，已注入的引用仍然是旧值。
+     * 绑定失败时保留原值。
+     */
+    void rebindProperties(BeanDefinition def, String prefix) {
+        try {
+            Object rebound = getPropertiesBinder().bind(prefix, def.getBeanClass());
+            AtomicReference<Object> target = this.propertiesTargets.get(def.getName());
+            if (target != null) {
+                target.set(rebound);
+            } else if (getProxiedInstance(def) != def.getInstance()) {
+                logger.warn("Cannot re-bind @ConfigurationProperties bean '{}' because it was replaced by BeanPostProcessor.", def.getName());
+                return;
+            } else {
+                def.setInstance(rebound);
+            }
+            logger.info("re-bind @ConfigurationProperties bean '{}' with prefix '{}'.", def.getName(), prefix);
+        } catch (PropertyBindingException e) {
+            logger.warn("Failed to re-bind @ConfigurationProperties bean '" + def.getName() + "', keep current values.", e);
+        }
+    }
+
+    /**
+     * 调度@Scheduled方法的TaskScheduler，没有@Scheduled方法时返回null
+     */
+    @Nullable
+    public TaskScheduler getTaskScheduler() {
+        return getTaskScheduler(false);
+    }
+
     /**
      * 获取用于属性注入的原始对象实例。
+     * <p>
+     * 还原结果记录在BeanDefinition中，实例未被替换时injectBean、initBean、destroyBean不再重复询问BeanPostProcessor。
      */
     private Object getProxiedInstance(BeanDefinition def) {
         // 从 BeanDefinition 中获取当前的 Bean 实例
         // 注意：此时可能是代理对象，而不是原始对象
-        Object beanInstance = def.getInstance();
+        final Object proxied = def.getInstance();
+        Object beanInstance = def.findOriginalInstance(proxied);
+        if (beanInstance != null) {
+            return beanInstance;
+        }
+        beanInstance = proxied;
 
         // 如果Proxy改变了原始Bean，又希望注入到原始Bean，则由BeanPostProcessor指定原始Bean:
-        // 拷贝一份 BeanPostProcessor 列表，并反转顺序
-        // 这样保证：最后一个包装代理的 Processor，最先有机会恢复原始对象
-        List<BeanPostProcessor> reversedBeanPostProcessors = new ArrayList<>(this.beanPostProcessors);
-        Collections.reverse(reversedBeanPostProcessors);
-
-        // 遍历所有 BeanPostProcessor，看是否需要恢复成原始 Bean
-        for (BeanPostProcessor beanPostProcessor : reversedBeanPostProcessors) {
+        for (BeanPostProcessor beanPostProcessor : this.reversedBeanPostProcessors) {
             // 调用 postProcessOnSetProperty 让 BPP 有机会替换实例
             Object restoredInstance = beanPostProcessor.postProcessOnSetProperty(beanInstance, def.getName());
 
@@ -741,8 +1029,8 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
                 beanInstance = restoredInstance;
             }
         }
-        // 返回最终用于属性注入的实例
-        // （可能仍然是代理，也可能被还原为原始 Bean）
+        // 记录原始实例和对应的Proxy，BeanPostProcessor替换实例后会重新还原:
+        def.setOriginalInstance(proxied, beanInstance);
         return beanInstance;
     }
 
@@ -784,6 +1072,38 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         return order == null ? Integer.MAX_VALUE : order.value();
     }
 
+    /**
+     * Get scope by:
+     * <p>
+     * <code>
+     * &#64;Scope("prototype")
+     * &#64;Component
+     * public class Hello {}
+     * </code>
+     */
+    String getScope(AnnotatedElement element) {
+        Scope scope = element.getAnnotation(Scope.class);
+        return scope == null ? Scope.SINGLETON : scope.value();
+    }
+
+    /**
+     * @Configuration和BeanPostProcessor只能是singleton
+     */
+    void checkScope(BeanDefinition def) {
+        if (def.getScope().isBlank()) {
+            throw new BeanDefinitionException("Invalid empty scope for bean '" + def.getName() + "'.");
+        }
+        if (!def.isSingleton() && (isConfigurationDefinition(def) || isBeanPostProcessorDefinition(def)
+                || def.getBeanClass().isAnnotationPresent(ConfigurationProperties.class))) {
+            throw new BeanDefinitionException(String.format("Bean '%s' must be singleton but scope is '%s'.", def.getName(), def.getScope()));
+        }
+    }
+
+    @Override
+    public PropertyResolver getPropertyResolver() {
+        return this.propertyResolver;
+    }
+
     /**
      * 根据Name查找BeanDefinition，如果Name不存在，返回null
      */
@@ -857,7 +1177,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             throw new NoSuchBeanDefinitionException(String.format("No bean defined with name '%s'.", name));
         }
-        return (T) def.getRequiredInstance();
+        return (T) getBeanInstance(def);
     }
 
     /**
@@ -884,7 +1204,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         }
         List<T> list = new ArrayList<>(defs.size());
         for (var def : defs) {
-            list.add((T) def.getRequiredInstance());
+            list.add((T) getBeanInstance(def));
         }
         return list;
     }
@@ -899,7 +1219,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             throw new NoSuchBeanDefinitionException(String.format("No bean defined with type '%s'.", requiredType));
         }
-        return (T) def.getRequiredInstance();
+        return (T) getBeanInstance(def);
     }
 
     /**
@@ -919,7 +1239,7 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             return null;
         }
-        return (T) def.getRequiredInstance();
+        return (T) getBeanInstance(def);
     }
 
     @Nullable
@@ -929,13 +1249,13 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         if (def == null) {
             return null;
         }
-        return (T) def.getRequiredInstance();
+        return (T) getBeanInstance(def);
     }
 
     @Nullable
     @SuppressWarnings("unchecked")
     protected <T> List<T> findBeans(Class<T> requiredType) {
-        return findBeanDefinitions(requiredType).stream().map(def -> (T) def.getRequiredInstance()).collect(Collectors.toList());
+        return findBeanDefinitions(requiredType).stream().map(def -> (T) getBeanInstance(def)).collect(Collectors.toList());
     }
 
 
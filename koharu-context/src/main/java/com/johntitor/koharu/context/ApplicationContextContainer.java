@@ -8,10 +8,13 @@ import java.util.Objects;
 public class ApplicationContextContainer {
 
     private static ApplicationContext applicationContext = null;
+    // 绑定到当前线程的ApplicationContext，优先于全局的ApplicationContext:
+    private static final ThreadLocal<ApplicationContext> threadApplicationContext = new ThreadLocal<>();
 
     @Nullable
     public static ApplicationContext getApplicationContext() {
-        return applicationContext;
+        ApplicationContext ctx = threadApplicationContext.get();
+        return ctx != null ? ctx : applicationContext;
     }
 
     @Nonnull
@@ -23,4 +26,18 @@ public class ApplicationContextContainer {
         applicationContext = ctx;
     }
 
+    /**
+     * 把ApplicationContext绑定到当前线程，用于在其他线程中执行的任务，返回之前绑定的ApplicationContext，传入null解除绑定
+     */
+    @Nullable
+    public static ApplicationContext bindToThread(@Nullable ApplicationContext ctx) {
+        ApplicationContext previous = threadApplicationContext.get();
+        if (ctx == null) {
+            threadApplicationContext.remove();
+        } else {
+            threadApplicationContext.set(ctx);
+        }
+        return previous;
+    }
+
 }
@@ -1,5 +1,6 @@
 package com.johntitor.koharu.context;
 
+import com.johntitor.koharu.annotation.Scope;
 import com.johntitor.koharu.exception.BeanCreationException;
 import jakarta.annotation.Nullable;
 
@@ -14,8 +15,11 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private String name;
     // Bean的声明类型:
     private Class<?> beanClass;
-    // Bean的实例:
-    private Object instance = null;
+    // Bean的实例，重新绑定@ConfigurationProperties的record时在其他线程替换:
+    private volatile Object instance = null;
+    // 由BeanPostProcessor从proxiedInstance还原的原始实例，用于注入和init/destroy:
+    private Object originalInstance = null;
+    private Object proxiedInstance = null;
     // 构造方法/null:
     private Constructor<?> constructor;
     // 工厂方法名称/null:
@@ -26,6 +30,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private int order;
     // 是否标识@Primary:
     private boolean primary;
+    // 作用域，默认singleton:
+    private String scope;
+    // 非singleton的Bean每次创建实例时使用，首次创建时生成:
+    private BeanInstantiator instantiator;
+    // 注入点，从快照恢复时直接设置，否则首次使用时按Class解析:
+    private InjectionMetadata injectionMetadata;
 
     // 方法名和方法二者只能存在一个
     //init/destroy方法名
@@ -37,7 +47,7 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
     private Method destroyMethod;
 
 
-    public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean primary, String initMethodName,
+    public BeanDefinition(String name, Class<?> beanClass, Constructor<?> constructor, int order, boolean primary, String scope, String initMethodName,
                           String destroyMethodName, Method initMethod, Method destroyMethod) {
         this.name = name;
         this.beanClass = beanClass;
@@ -46,11 +56,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.factoryMethod = null;
         this.order = order;
         this.primary = primary;
+        this.scope = scope;
         constructor.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
 
-    public BeanDefinition(String name, Class<?> beanClass, String factoryName, Method factoryMethod, int order, boolean primary, String initMethodName,
+    public BeanDefinition(String name, Class<?> beanClass, String factoryName, Method factoryMethod, int order, boolean primary, String scope, String initMethodName,
                           String destroyMethodName, Method initMethod, Method destroyMethod) {
         this.name = name;
         this.beanClass = beanClass;
@@ -59,6 +70,7 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.factoryMethod = factoryMethod;
         this.order = order;
         this.primary = primary;
+        this.scope = scope;
         factoryMethod.setAccessible(true);
         setInitAndDestroyMethod(initMethodName, destroyMethodName, initMethod, destroyMethod);
     }
@@ -97,6 +109,35 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         return this.instance;
     }
 
+    /**
+     * 上一次还原的原始实例，未还原时返回null
+     */
+    @Nullable
+    public Object getOriginalInstance() {
+        return originalInstance;
+    }
+
+    /**
+     * 被还原的实例，通常是BeanPostProcessor返回的Proxy
+     */
+    @Nullable
+    public Object getProxiedInstance() {
+        return proxiedInstance;
+    }
+
+    /**
+     * 当前实例已还原过时返回原始实例，否则返回null
+     */
+    @Nullable
+    Object findOriginalInstance(Object proxied) {
+        return this.proxiedInstance == proxied ? this.originalInstance : null;
+    }
+
+    void setOriginalInstance(Object proxied, Object original) {
+        this.proxiedInstance = proxied;
+        this.originalInstance = original;
+    }
+
     @Nullable
     public Constructor<?> getConstructor() {
         return constructor;
@@ -120,6 +161,41 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         return primary;
     }
 
+    public String getScope() {
+        return scope;
+    }
+
+    public boolean isSingleton() {
+        return Scope.SINGLETON.equals(scope);
+    }
+
+    public boolean isPrototype() {
+        return Scope.PROTOTYPE.equals(scope);
+    }
+
+    @Nullable
+    BeanInstantiator getInstantiator() {
+        return instantiator;
+    }
+
+    void setInstantiator(BeanInstantiator instantiator) {
+        this.instantiator = instantiator;
+    }
+
+    InjectionMetadata getInjectionMetadata() {
+        InjectionMetadata metadata = this.injectionMetadata;
+        if (metadata == null) {
+            // 并发时可能重复查找，结果相同:
+            metadata = InjectionMetadata.forClass(this.beanClass);
+            this.injectionMetadata = metadata;
+        }
+        return metadata;
+    }
+
+    void setInjectionMetadata(InjectionMetadata injectionMetadata) {
+        this.injectionMetadata = injectionMetadata;
+    }
+
     @Nullable
     public String getInitMethodName() {
         return initMethodName;
@@ -157,11 +233,12 @@ public class BeanDefinition implements Comparable<BeanDefinition> {
         this.instance = instance;
     }
 
+    // Scoped Proxy的toString()会在作用域中创建实例，因此不输出:
     @Override
     public String toString() {
         return "BeanDefinition [name=" + name + ", beanClass=" + beanClass.getName() + ", factory=" + getCreateDetail() + ", init-method="
                 + (initMethod == null ? "null" : initMethod.getName()) + ", destroy-method=" + (destroyMethod == null ? "null" : destroyMethod.getName())
-                + ", primary=" + primary + ", instance=" + instance + "]";
+                + ", primary=" + primary + ", scope=" + scope + ", instance=" + (isSingleton() ? instance : scope) + "]";
     }
 
     @Override
@@ -0,0 +1,382 @@
+package com.johntitor.koharu.context;
+
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * 把解析后的BeanDefinition保存为二进制快照，下次启动时跳过扫描和注解解析:
+ * <p>
+ * 快照记录每个Bean的名称、构造方法或@Bean方法的签名、order、primary、scope、init/destroy方法，以及Bean类的注入点。
+ * 所有字符串写入一张字符串表，其他位置只记录序号。快照中的classpath哈希与当前不一致时视为失效，重新扫描并覆盖快照。
+ */
+final class BeanDefinitionSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(BeanDefinitionSnapshot.class);
+
+    private static final int MAGIC = 0x4B424453; // "KBDS"
+    private static final int VERSION = 1;
+
+    private static final byte BY_CONSTRUCTOR = 0;
+    private static final byte BY_FACTORY_METHOD = 1;
+
+    private static final Map<String, Class<?>> PRIMITIVES = Map.of(
+            "boolean", boolean.class, "byte", byte.class, "short", short.class, "char", char.class,
+            "int", int.class, "long", long.class, "float", float.class, "double", double.class);
+
+    private BeanDefinitionSnapshot() {
+    }
+
+    /**
+     * 写入快照，先写临时文件再替换，不会留下写了一半的快照
+     */
+    static void write(Path file, String classpathHash, String configClassName, Collection<BeanDefinition> defs) throws IOException {
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(8192);
+        DataOutputStream out = new DataOutputStream(body);
+        List<BeanDefinition> sorted = defs.stream().sorted(Comparator.comparing(BeanDefinition::getName)).toList();
+        out.writeInt(sorted.size());
+        Map<Class<?>, InjectionMetadata> beanClasses = new LinkedHashMap<>();
+        for (BeanDefinition def : sorted) {
+            writeDefinition(out, strings, def);
+            beanClasses.putIfAbsent(def.getBeanClass(), def.getInjectionMetadata());
+        }
+        // 注入点:
+        List<InjectionMetadata> metadata = new ArrayList<>();
+        List<Class<?>> injectedClasses = new ArrayList<>();
+        for (Map.Entry<Class<?>, InjectionMetadata> entry : beanClasses.entrySet()) {
+            if (entry.getValue().getPoints().length > 0) {
+                injectedClasses.add(entry.getKey());
+                metadata.add(entry.getValue());
+            }
+        }
+        out.writeInt(injectedClasses.size());
+        for (int i = 0; i < injectedClasses.size(); i++) {
+            out.writeInt(strings.index(injectedClasses.get(i).getName()));
+            InjectionMetadata.InjectionPoint[] points = metadata.get(i).getPoints();
+            out.writeInt(points.length);
+            for (InjectionMetadata.InjectionPoint point : points) {
+                out.writeInt(strings.index(point.declaringClass().getName()));
+                out.writeBoolean("Field".equals(point.kind()));
+                out.writeInt(strings.index(point.name()));
+                out.writeInt(strings.index(point.type().getName()));
+            }
+        }
+        out.flush();
+
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeUTF(classpathHash);
+                output.writeUTF(configClassName);
+                strings.writeTo(output);
+                body.writeTo(output);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeDefinition(DataOutputStream out, StringTable strings, BeanDefinition def) throws IOException {
+        out.writeInt(strings.index(def.getName()));
+        if (def.getFactoryName() == null) {
+            Constructor<?> ctor = def.getConstructor();
+            out.writeByte(BY_CONSTRUCTOR);
+            out.writeInt(strings.index(ctor.getDeclaringClass().getName()));
+            writeParameterTypes(out, strings, ctor.getParameterTypes());
+        } else {
+            Method method = def.getFactoryMethod();
+            out.writeByte(BY_FACTORY_METHOD);
+            out.writeInt(strings.index(def.getFactoryName()));
+            out.writeInt(strings.index(method.getDeclaringClass().getName()));
+            out.writeInt(strings.index(method.getName()));
+            writeParameterTypes(out, strings, method.getParameterTypes());
+        }
+        out.writeInt(def.getOrder());
+        out.writeBoolean(def.isPrimary());
+        out.writeInt(strings.index(def.getScope()));
+        out.writeInt(strings.indexOrNull(def.getInitMethodName()));
+        out.writeInt(strings.indexOrNull(def.getDestroyMethodName()));
+        writeMethod(out, strings, def.getInitMethod());
+        writeMethod(out, strings, def.getDestroyMethod());
+    }
+
+    private static void writeParameterTypes(DataOutputStream out, StringTable strings, Class<?>[] types) throws IOException {
+        out.writeByte(types.length);
+        for (Class<?> type : types) {
+            out.writeInt(strings.index(type.getName()));
+        }
+    }
+
+    // @PostConstruct和@PreDestroy方法没有参数:
+    private static void writeMethod(DataOutputStream out, StringTable strings, Method method) throws IOException {
+        if (method == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(strings.index(method.getDeclaringClass().getName()));
+            out.writeInt(strings.index(method.getName()));
+        }
+    }
+
+    /**
+     * 读取快照，文件不存在、classpath或配置类不匹配、类或方法已不存在时返回null
+     */
+    @Nullable
+    static Map<String, BeanDefinition> read(Path file, String classpathHash, String configClassName) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.info("ignore snapshot {}: unsupported format.", file);
+                return null;
+            }
+            if (!classpathHash.equals(in.readUTF()) || !configClassName.equals(in.readUTF())) {
+                logger.info("ignore snapshot {}: classpath or configuration changed.", file);
+                return null;
+            }
+            String[] strings = StringTable.readFrom(in);
+            int count = in.readInt();
+            Map<String, BeanDefinition> defs = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                BeanDefinition def = readDefinition(in, strings);
+                defs.put(def.getName(), def);
+            }
+            int injectedCount = in.readInt();
+            Map<Class<?>, InjectionMetadata> restored = new HashMap<>(injectedCount * 2);
+            for (int i = 0; i < injectedCount; i++) {
+                Class<?> beanClass = loadClass(strings[in.readInt()]);
+                Member[] members = new Member[in.readInt()];
+                for (int j = 0; j < members.length; j++) {
+                    Class<?> declaringClass = loadClass(strings[in.readInt()]);
+                    boolean field = in.readBoolean();
+                    String name = strings[in.readInt()];
+                    Class<?> type = loadClass(strings[in.readInt()]);
+                    members[j] = field ? declaringClass.getDeclaredField(name) : declaringClass.getDeclaredMethod(name, type);
+                }
+                restored.put(beanClass, InjectionMetadata.restore(members));
+            }
+            // 注入点只设置到本次恢复的BeanDefinition，快照中没有记录的Bean没有注入点:
+            for (BeanDefinition def : defs.values()) {
+                def.setInjectionMetadata(restored.getOrDefault(def.getBeanClass(), InjectionMetadata.EMPTY));
+            }
+            return defs;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            logger.warn("ignore invalid snapshot " + file + ".", e);
+            return null;
+        }
+    }
+
+    private static BeanDefinition readDefinition(DataInputStream in, String[] strings) throws IOException, ReflectiveOperationException {
+        String name = strings[in.readInt()];
+        byte kind = in.readByte();
+        if (kind == BY_CONSTRUCTOR) {
+            Class<?> beanClass = loadClass(strings[in.readInt()]);
+            Constructor<?> ctor = beanClass.getDeclaredConstructor(readParameterTypes(in, strings));
+            int order = in.readInt();
+            boolean primary = in.readBoolean();
+            String scope = strings[in.readInt()];
+            return new BeanDefinition(name, beanClass, ctor, order, primary, scope, readNullable(in, strings), readNullable(in, strings),
+                    readMethod(in, strings), readMethod(in, strings));
+        }
+        String factoryName = strings[in.readInt()];
+        Class<?> declaringClass = loadClass(strings[in.readInt()]);
+        String methodName = strings[in.readInt()];
+        Method method = declaringClass.getDeclaredMethod(methodName, readParameterTypes(in, strings));
+        int order = in.readInt();
+        boolean primary = in.readBoolean();
+        String scope = strings[in.readInt()];
+        return new BeanDefinition(name, method.getReturnType(), factoryName, method, order, primary, scope, readNullable(in, strings),
+                readNullable(in, strings), readMethod(in, strings), readMethod(in, strings));
+    }
+
+    private static Class<?>[] readParameterTypes(DataInputStream in, String[] strings) throws IOException, ClassNotFoundException {
+        Class<?>[] types = new Class<?>[in.readByte()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = loadClass(strings[in.readInt()]);
+        }
+        return types;
+    }
+
+    @Nullable
+    private static String readNullable(DataInputStream in, String[] strings) throws IOException {
+        int index = in.readInt();
+        return index < 0 ? null : strings[index];
+    }
+
+    @Nullable
+    private static Method readMethod(DataInputStream in, String[] strings) throws IOException, ReflectiveOperationException {
+        int index = in.readInt();
+        if (index < 0) {
+            return null;
+        }
+        return loadClass(strings[index]).getDeclaredMethod(strings[in.readInt()]);
+    }
+
+    private static Class<?> loadClass(String name) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        return primitive != null ? primitive : Class.forName(name);
+    }
+
+    /**
+     * classpath的哈希，包括每个jar的路径、大小和修改时间，以及目录中扫描的package下.class文件的相对路径、大小和修改时间:
+     * <p>
+     * 目录只遍历扫描的package，不遍历整个输出目录，jar只读取文件属性，不打开jar。
+     */
+    static String classpathHash(Collection<String> packages) {
+        try {
+            return classpathHash(classpathEntries(), packages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String classpathHash(List<Path> entries, Collection<String> packages) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        List<String> packagePaths = packages.stream().map(pkg -> pkg.replace('.', '/')).distinct().sorted().toList();
+        try {
+            for (Path entry : entries) {
+                update(md, entry.toString());
+                BasicFileAttributes attrs;
+                try {
+                    attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    for (String packagePath : packagePaths) {
+                        Path dir = entry.resolve(packagePath);
+                        if (Files.isDirectory(dir)) {
+                            updateClassFiles(md, entry, dir);
+                        }
+                    }
+                } else if (attrs.isRegularFile()) {
+                    update(md, stamp(attrs));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    // 遍历时直接使用目录项的属性，每个文件不再单独读取大小和修改时间:
+    private static void updateClassFiles(MessageDigest md, Path entry, Path dir) throws IOException {
+        SortedMap<String, String> files = new TreeMap<>();
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && file.getFileName().toString().endsWith(".class")) {
+                    files.put(entry.relativize(file).toString(), stamp(attrs));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            update(md, file.getKey());
+            update(md, file.getValue());
+        }
+    }
+
+    private static String stamp(BasicFileAttributes attrs) {
+        return attrs.size() + ":" + attrs.lastModifiedTime().toMillis();
+    }
+
+    /**
+     * classpath的所有条目:
+     * <p>
+     * 只有一个jar时(例如java -jar或surefire的booter)按清单的Class-Path展开，本身不参与计算；
+     * 有多个条目时不打开jar读取清单，清单的变化已体现在jar的大小和修改时间中。
+     */
+    static List<Path> classpathEntries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        for (String s : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+            if (!s.isEmpty()) {
+                entries.add(Path.of(s).toAbsolutePath());
+            }
+        }
+        if (entries.size() == 1 && entries.get(0).toString().endsWith(".jar") && Files.isRegularFile(entries.get(0))) {
+            Path path = entries.get(0);
+            String manifestClassPath = null;
+            try (JarFile jar = new JarFile(path.toFile(), false)) {
+                Manifest manifest = jar.getManifest();
+                if (manifest != null) {
+                    manifestClassPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                }
+            }
+            if (manifestClassPath != null) {
+                entries.clear();
+                for (String url : manifestClassPath.trim().split("\\s+")) {
+                    entries.add(Path.of(path.getParent().toUri().resolve(url)));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static void update(MessageDigest md, String s) {
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        md.update((byte) 0);
+    }
+
+    private static final class StringTable {
+
+        private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+        int index(String s) {
+            return this.indexes.computeIfAbsent(s, k -> this.indexes.size());
+        }
+
+        int indexOrNull(@Nullable String s) {
+            return s == null ? -1 : index(s);
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(this.indexes.size());
+            for (String s : this.indexes.keySet()) {
+                out.writeUTF(s);
+            }
+        }
+
+        static String[] readFrom(DataInputStream in) throws IOException {
+            String[] strings = new String[in.readInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readUTF();
+            }
+            return strings;
+        }
+    }
+}
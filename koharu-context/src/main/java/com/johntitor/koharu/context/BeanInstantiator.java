@@ -0,0 +1,63 @@
+package com.johntitor.koharu.context;
+
+import com.johntitor.koharu.exception.BeanCreationException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * 非singleton的Bean的实例化器:
+ * <p>
+ * 构造方法或@Bean方法在首次创建时转换为(Object[])Object的MethodHandle，由JVM生成并编译调用代码，
+ * @Autowired依赖的BeanDefinition只在生成时查找一次，@Value在每次创建时从当前的属性中读取，之后从Supplier取得参数值。
+ */
+final class BeanInstantiator {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+    private final MethodHandle invoker;
+    private final Supplier<?>[] arguments;
+
+    private BeanInstantiator(MethodHandle invoker, Supplier<?>[] arguments) {
+        this.invoker = invoker;
+        this.arguments = arguments;
+    }
+
+    static BeanInstantiator forConstructor(Constructor<?> constructor, Supplier<?>[] arguments) {
+        try {
+            MethodHandle handle = lookup(constructor.getDeclaringClass()).unreflectConstructor(constructor);
+            return new BeanInstantiator(spread(handle, arguments.length), arguments);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access constructor " + constructor, e);
+        }
+    }
+
+    static BeanInstantiator forFactoryMethod(Object factoryBean, Method factoryMethod, Supplier<?>[] arguments) {
+        try {
+            MethodHandle handle = lookup(factoryMethod.getDeclaringClass()).unreflect(factoryMethod).bindTo(factoryBean);
+            return new BeanInstantiator(spread(handle, arguments.length), arguments);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access factory method " + factoryMethod, e);
+        }
+    }
+
+    Object newInstance() throws Throwable {
+        Object[] args = new Object[arguments.length];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = arguments[i].get();
+        }
+        return (Object) invoker.invokeExact(args);
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> clazz) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+    }
+
+    private static MethodHandle spread(MethodHandle handle, int parameterCount) {
+        return handle.asType(handle.type().generic()).asSpreader(Object[].class, parameterCount).asType(INVOKER_TYPE);
+    }
+}
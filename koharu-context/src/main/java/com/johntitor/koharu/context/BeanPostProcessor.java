@@ -14,6 +14,14 @@ public interface BeanPostProcessor {
         return bean;
     }
 
+    /**
+     * Invoked after a prototype or scoped bean is created, instead of postProcessBeforeInitialization().
+     * 非singleton的Bean可能在任意线程中创建，注入和init方法总是作用于原始实例，实现不应按beanName记录实例。
+     */
+    default Object postProcessScopedBeforeInitialization(Object bean, String beanName) {
+        return postProcessBeforeInitialization(bean, beanName);
+    }
+
     /**
      * Invoked after bean.init() called.
      * 对象初始化后代理对象
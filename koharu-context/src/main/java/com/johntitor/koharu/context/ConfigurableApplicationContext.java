@@ -1,5 +1,7 @@
 package com.johntitor.koharu.context;
 
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.scope.BeanScope;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
@@ -18,4 +20,14 @@ public interface ConfigurableApplicationContext extends ApplicationContext {
 
     @Nullable
     BeanDefinition findBeanDefinition(String name, Class<?> requiredType);
+
+    PropertyResolver getPropertyResolver();
+
+    /**
+     * 注册@Scope使用的作用域，如request、session
+     */
+    void registerScope(String name, BeanScope scope);
+
+    @Nullable
+    BeanScope getRegisteredScope(String name);
 }
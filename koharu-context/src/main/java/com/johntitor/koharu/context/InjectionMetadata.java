@@ -0,0 +1,171 @@
+package com.johntitor.koharu.context;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Value;
+import com.johntitor.koharu.exception.BeanCreationException;
+import com.johntitor.koharu.exception.BeanDefinitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个Class的@Value和@Autowired注入点:
+ * <p>
+ * 每个Class只解析一次字段和方法，检查注解用法并生成(Object, Object)void的MethodHandle，
+ * 注入时不再遍历getDeclaredFields()/getDeclaredMethods()，也不再调用setAccessible()。
+ * 父类的注入点同样被缓存并复用，顺序为子类在前，每个类中字段在前、方法在后。
+ */
+final class InjectionMetadata {
+
+    private static final Logger logger = LoggerFactory.getLogger(InjectionMetadata.class);
+
+    // 不阻止Class被卸载:
+    private static final ClassValue<InjectionMetadata> cache = new ClassValue<>() {
+        @Override
+        protected InjectionMetadata computeValue(Class<?> type) {
+            return build(type);
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    static final InjectionMetadata EMPTY = new InjectionMetadata(new InjectionPoint[0]);
+
+    private final InjectionPoint[] points;
+
+    private InjectionMetadata(InjectionPoint[] points) {
+        this.points = points;
+    }
+
+    static InjectionMetadata forClass(Class<?> clazz) {
+        return cache.get(clazz);
+    }
+
+    InjectionPoint[] getPoints() {
+        return points;
+    }
+
+    /**
+     * 按快照记录的成员(包括父类的成员，顺序与build()相同)恢复注入点，跳过遍历全部字段和方法:
+     * <p>
+     * 结果不放入全局缓存，由调用方设置到对应的BeanDefinition。
+     */
+    static InjectionMetadata restore(Member[] members) {
+        Map<Class<?>, MethodHandles.Lookup> lookups = new HashMap<>();
+        InjectionPoint[] points = new InjectionPoint[members.length];
+        for (int i = 0; i < members.length; i++) {
+            Member member = members[i];
+            MethodHandles.Lookup lookup = lookups.computeIfAbsent(member.getDeclaringClass(), InjectionMetadata::lookup);
+            InjectionPoint point = member instanceof Field field ? fieldPoint(lookup, field) : methodPoint(lookup, (Method) member);
+            if (point == null) {
+                throw new IllegalStateException("Missing @Value or @Autowired on " + member);
+            }
+            points[i] = point;
+        }
+        return new InjectionMetadata(points);
+    }
+
+    private static InjectionMetadata build(Class<?> clazz) {
+        List<InjectionPoint> list = new ArrayList<>();
+        MethodHandles.Lookup lookup = null;
+        for (Field field : clazz.getDeclaredFields()) {
+            if (field.isAnnotationPresent(Value.class) || field.isAnnotationPresent(Autowired.class)) {
+                lookup = lookup != null ? lookup : lookup(clazz);
+                list.add(fieldPoint(lookup, field));
+            }
+        }
+        for (Method method : clazz.getDeclaredMethods()) {
+            if (method.isAnnotationPresent(Value.class) || method.isAnnotationPresent(Autowired.class)) {
+                lookup = lookup != null ? lookup : lookup(clazz);
+                list.add(methodPoint(lookup, method));
+            }
+        }
+        // 追加父类的注入点:
+        Class<?> superClazz = clazz.getSuperclass();
+        if (superClazz != null && superClazz != Object.class) {
+            for (InjectionPoint point : forClass(superClazz).points) {
+                list.add(point);
+            }
+        }
+        return list.isEmpty() ? EMPTY : new InjectionMetadata(list.toArray(InjectionPoint[]::new));
+    }
+
+    private static InjectionPoint fieldPoint(MethodHandles.Lookup lookup, Field field) {
+        Value value = field.getAnnotation(Value.class);
+        Autowired autowired = field.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        Class<?> clazz = field.getDeclaringClass();
+        check(clazz, field, value, autowired);
+        try {
+            MethodHandle setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            return new InjectionPoint(clazz, field.getName(), field.getType(), "Field", value, autowired, setter);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access field " + field, e);
+        }
+    }
+
+    private static InjectionPoint methodPoint(MethodHandles.Lookup lookup, Method method) {
+        Value value = method.getAnnotation(Value.class);
+        Autowired autowired = method.getAnnotation(Autowired.class);
+        if (value == null && autowired == null) {
+            return null;
+        }
+        Class<?> clazz = method.getDeclaringClass();
+        check(clazz, method, value, autowired);
+        if (method.getParameterCount() != 1) {
+            throw new BeanDefinitionException(String.format("Cannot inject a non-setter method %s: %s", method.getName(), clazz.getName()));
+        }
+        try {
+            // 忽略setter的返回值:
+            MethodHandle setter = lookup.unreflect(method).asType(SETTER_TYPE);
+            return new InjectionPoint(clazz, method.getName(), method.getParameterTypes()[0], "Method", value, autowired, setter);
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access method " + method, e);
+        }
+    }
+
+    private static void check(Class<?> clazz, Member m, Value value, Autowired autowired) {
+        int mod = m.getModifiers();
+        if (Modifier.isStatic(mod)) {
+            throw new BeanDefinitionException("Cannot inject static field: " + m);
+        }
+        if (Modifier.isFinal(mod)) {
+            if (m instanceof Field field) {
+                throw new BeanDefinitionException("Cannot inject final field: " + field);
+            }
+            logger.warn("Inject final method should be careful because it is not called on target bean when bean is proxied and may cause NullPointerException.");
+        }
+        // 同时存在 @Value 和 @Autowired 属于非法用法
+        if (value != null && autowired != null) {
+            throw new BeanCreationException(String.format("Cannot specify both @Autowired and @Value when inject %s.%s: %s",
+                    clazz.getSimpleName(), m.getName(), clazz.getName()));
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> clazz) {
+        try {
+            return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new BeanCreationException("Cannot access class " + clazz.getName(), e);
+        }
+    }
+
+    /**
+     * 一个注入点，setter的类型为(Object bean, Object value)void
+     */
+    record InjectionPoint(Class<?> declaringClass, String name, Class<?> type, String kind,
+                          Value value, Autowired autowired, MethodHandle setter) {
+    }
+}
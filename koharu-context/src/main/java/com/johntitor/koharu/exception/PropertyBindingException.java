@@ -0,0 +1,23 @@
+package com.johntitor.koharu.exception;
+
+/**
+ * 绑定@ConfigurationProperties失败，path为完整的属性路径，如app.pool.hosts[1]
+ */
+public class PropertyBindingException extends BeansException {
+
+    private final String path;
+
+    public PropertyBindingException(String path, String message) {
+        super(message);
+        this.path = path;
+    }
+
+    public PropertyBindingException(String path, String message, Throwable cause) {
+        super(message, cause);
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -0,0 +1,15 @@
+package com.johntitor.koharu.io;
+
+import java.util.Set;
+
+/**
+ * 属性变化的监听器，由PropertyResolver在替换快照后调用
+ */
+@FunctionalInterface
+public interface PropertyChangeListener {
+
+    /**
+     * @param changedKeys 订阅的前缀下变化的key，通过PropertyResolver读取的已经是新值
+     */
+    void onPropertiesChanged(Set<String> changedKeys);
+}
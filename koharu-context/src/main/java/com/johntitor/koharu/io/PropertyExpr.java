@@ -1,4 +0,0 @@
-package com.johntitor.koharu.io;
-
-public record PropertyExpr(String key, String defaultValue) {
-}
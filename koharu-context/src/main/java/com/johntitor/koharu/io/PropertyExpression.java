@@ -0,0 +1,114 @@
+package com.johntitor.koharu.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译后的属性表达式:
+ * <p>
+ * 文本中可以混合任意个${key}和${key:default}，key和default中可以继续嵌套，如"jdbc:${db.host}:${db.port:3306}/${db.${env}.name}"。
+ * 表达式只在编译时扫描一次，求值时只遍历编译结果，不再做字符串查找和截取。
+ */
+final class PropertyExpression {
+
+    // 不含占位符时的文本，否则为null:
+    private final String literal;
+    private final Part[] parts;
+
+    private PropertyExpression(String literal, Part[] parts) {
+        this.literal = literal;
+        this.parts = parts;
+    }
+
+    sealed interface Part permits Literal, Placeholder {
+    }
+
+    record Literal(String text) implements Part {
+    }
+
+    /**
+     * ${key}或${key:default}，defaultValue为null表示没有默认值
+     */
+    record Placeholder(PropertyExpression key, PropertyExpression defaultValue) implements Part {
+    }
+
+    static PropertyExpression compile(String text) {
+        if (!text.contains("${")) {
+            return new PropertyExpression(text, null);
+        }
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int pos = 0;
+        while (pos < text.length()) {
+            int start = text.indexOf("${", pos);
+            int end = start < 0 ? -1 : findPlaceholderEnd(text, start + 2);
+            // 没有完整的占位符时，剩余部分作为普通文本:
+            if (end < 0) {
+                literal.append(text, pos, text.length());
+                break;
+            }
+            literal.append(text, pos, start);
+            if (!literal.isEmpty()) {
+                parts.add(new Literal(literal.toString()));
+                literal.setLength(0);
+            }
+            String content = text.substring(start + 2, end);
+            int colon = findDefaultSeparator(content);
+            String key = colon < 0 ? content : content.substring(0, colon);
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("Invalid key: " + text);
+            }
+            parts.add(new Placeholder(compile(key), colon < 0 ? null : compile(content.substring(colon + 1))));
+            pos = end + 1;
+        }
+        if (!literal.isEmpty()) {
+            parts.add(new Literal(literal.toString()));
+        }
+        return new PropertyExpression(null, parts.toArray(Part[]::new));
+    }
+
+    // 返回与开始位置匹配的'}'，嵌套的${和{都需要匹配:
+    private static int findPlaceholderEnd(String text, int from) {
+        int depth = 0;
+        for (int i = from; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch == '{') {
+                depth++;
+            } else if (ch == '}') {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    // 不在嵌套占位符中的第一个':':
+    private static int findDefaultSeparator(String content) {
+        int depth = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char ch = content.charAt(i);
+            if (ch == '{') {
+                depth++;
+            } else if (ch == '}') {
+                depth--;
+            } else if (ch == ':' && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isLiteral() {
+        return literal != null;
+    }
+
+    String literal() {
+        return literal;
+    }
+
+    Part[] parts() {
+        return parts;
+    }
+}
@@ -0,0 +1,113 @@
+package com.johntitor.koharu.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 通过WatchService监听配置文件，任一文件变化后重新加载属性来源并替换PropertyResolver的属性:
+ * <p>
+ * 编辑器保存时通常连续产生多个事件，收到事件后等待DEBOUNCE_MILLIS内没有新事件再加载。
+ * 加载失败(例如文件只写了一半)时保留当前属性，等待下一次变化。
+ */
+public class PropertyFileWatcher implements AutoCloseable {
+
+    static final long DEBOUNCE_MILLIS = 200;
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final PropertyResolver propertyResolver;
+    private final Set<Path> files;
+    private final Supplier<List<PropertySource>> loader;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * @param files  监听的文件
+     * @param loader 返回重新加载后的全部属性来源
+     */
+    public PropertyFileWatcher(PropertyResolver propertyResolver, Collection<Path> files, Supplier<List<PropertySource>> loader) {
+        this.propertyResolver = propertyResolver;
+        this.files = files.stream().map(Path::toAbsolutePath).collect(Collectors.toUnmodifiableSet());
+        this.loader = loader;
+        try {
+            this.watchService = FileSystems.getDefault().newWatchService();
+            // 监听所在目录，文件被替换(先删除再创建)时仍然有效:
+            for (Path dir : this.files.stream().map(Path::getParent).collect(Collectors.toSet())) {
+                dir.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.thread = new Thread(this::watch, "koharu-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.info("watching config files: {}", this.files);
+    }
+
+    void watch() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                boolean changed = pollChanged(key);
+                if (changed) {
+                    // 合并连续的事件:
+                    while ((key = this.watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        pollChanged(key);
+                    }
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            logger.info("stop watching config files: {}", this.files);
+        }
+    }
+
+    private boolean pollChanged(WatchKey key) {
+        boolean changed = false;
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || this.files.contains(dir.resolve((Path) event.context()))) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    void reload() {
+        List<PropertySource> sources;
+        try {
+            sources = this.loader.get();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load config files " + this.files + ", keep current properties.", e);
+            return;
+        }
+        this.propertyResolver.reload(sources);
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.watchService.close();
+        } catch (IOException e) {
+            logger.warn("Exception when close watch service.", e);
+        }
+        this.thread.interrupt();
+    }
+}
@@ -1,33 +1,162 @@
 package com.johntitor.koharu.io;
 
+import com.johntitor.koharu.properties.DataSize;
 import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 public class PropertyResolver {
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private Map<String, String> properties = new HashMap<>();
+    // 当前的属性快照，重新加载时整体替换，读取时不加锁:
+    private volatile Snapshot snapshot;
 
     private Map<Class<?>, Function<String, Object>> converters = new HashMap<>();
 
-    public PropertyResolver(Properties props) {
-        this.properties.putAll(System.getenv());
-        Set<String> names = props.stringPropertyNames();
-        for (String name : names) {
-            this.properties.put(name, props.getProperty(name));
+    // 含占位符的表达式 -> 编译结果，与属性值无关，可以跨快照共享；表达式可能来自运行时传入的字符串，超过上限后不再缓存:
+    static final int MAX_CACHED_EXPRESSIONS = 1024;
+    private final Map<String, PropertyExpression> expressions = new ConcurrentHashMap<>();
+
+    // 按前缀订阅的属性变化监听器:
+    private final List<ChangeListenerRegistration> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 不可变的属性快照，转换后的值缓存在快照中，替换快照后旧的缓存随之失效
+     */
+    private static final class Snapshot {
+
+        // 从低到高的属性来源:
+        final List<PropertySource> sources;
+        // 合并后的属性，查找时不再逐层查找:
+        final Map<String, String> properties;
+        // key -> 最终生效的来源名称:
+        final Map<String, String> origins;
+        // 从高到低的宽松来源(环境变量)，合并后的属性中不存在的key在查询时按环境变量名称查找:
+        final List<PropertySource> relaxedSources;
+        // 类型 -> (key -> 转换后的值)，只缓存快照中存在的key，因此大小不超过属性个数:
+        final Map<Class<?>, Map<String, Object>> typedValues = new ConcurrentHashMap<>();
+
+        Snapshot(List<PropertySource> sources) {
+            this.sources = List.copyOf(sources);
+            Map<String, String> properties = new HashMap<>();
+            Map<String, String> origins = new HashMap<>();
+            List<PropertySource> relaxedSources = new ArrayList<>();
+            for (PropertySource source : this.sources) {
+                if (source.relaxed()) {
+                    mergeRelaxed(source, properties, origins);
+                    relaxedSources.add(0, source);
+                } else {
+                    properties.putAll(source.properties());
+                    source.properties().keySet().forEach(key -> origins.put(key, source.name()));
+                }
+            }
+            this.properties = Collections.unmodifiableMap(properties);
+            this.origins = origins;
+            this.relaxedSources = List.copyOf(relaxedSources);
+        }
+
+        // 环境变量按名称覆盖低层中对应的key，没有对应的key时只保留原始名称:
+        private static void mergeRelaxed(PropertySource source, Map<String, String> properties, Map<String, String> origins) {
+            Map<String, List<String>> index = new HashMap<>();
+            for (String key : properties.keySet()) {
+                index.computeIfAbsent(PropertySource.toEnvironmentName(key), k -> new ArrayList<>(1)).add(key);
+            }
+            source.properties().forEach((name, value) -> {
+                // 原始名称总是可用，例如${HOME}:
+                properties.put(name, value);
+                origins.put(name, source.name());
+                List<String> keys = index.get(name.toUpperCase());
+                if (keys != null) {
+                    for (String key : keys) {
+                        properties.put(key, value);
+                        origins.put(key, source.name());
+                    }
+                }
+            });
+        }
+
+        /**
+         * 查找key的值，不存在时按环境变量名称查找宽松来源，例如feature.flag查找FEATURE_FLAG
+         */
+        @Nullable
+        String get(String key) {
+            String value = this.properties.get(key);
+            if (value == null && !this.relaxedSources.isEmpty()) {
+                PropertySource source = findRelaxed(key);
+                if (source != null) {
+                    value = source.properties().get(PropertySource.toEnvironmentName(key));
+                }
+            }
+            return value;
+        }
+
+        @Nullable
+        String getOrigin(String key) {
+            String origin = this.origins.get(key);
+            if (origin == null && !this.properties.containsKey(key) && !this.relaxedSources.isEmpty()) {
+                PropertySource source = findRelaxed(key);
+                if (source != null) {
+                    origin = source.name();
+                }
+            }
+            return origin;
+        }
+
+        @Nullable
+        private PropertySource findRelaxed(String key) {
+            String name = PropertySource.toEnvironmentName(key);
+            for (PropertySource source : this.relaxedSources) {
+                if (source.properties().containsKey(name)) {
+                    return source;
+                }
+            }
+            return null;
+        }
+
+        Map<String, Object> values(Class<?> type) {
+            return this.typedValues.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+        }
+    }
+
+    record ChangeListenerRegistration(String prefix, PropertyChangeListener listener) {
+
+        boolean matches(String key) {
+            if (prefix.isEmpty() || key.equals(prefix)
+                    || (key.startsWith(prefix) && (key.charAt(prefix.length()) == '.' || key.charAt(prefix.length()) == '['))) {
+                return true;
+            }
+            // 没有对应key的环境变量以原始名称变化，例如prefix为app.feature时的APP_FEATURE_LIMIT:
+            String name = PropertySource.toEnvironmentName(prefix);
+            return key.equals(PropertySource.toEnvironmentName(key))
+                    && (key.equals(name) || (key.startsWith(name) && key.charAt(name.length()) == '_'));
         }
+    }
+
+    /**
+     * 使用props，环境变量优先于props
+     */
+    public PropertyResolver(Properties props) {
+        this(defaultSources(props));
+    }
+
+    /**
+     * 按从低到高的顺序合并属性来源，后面的来源覆盖前面的来源
+     */
+    public PropertyResolver(List<PropertySource> sources) {
+        this.snapshot = new Snapshot(sources);
 
         if (logger.isDebugEnabled()) {
-            List<String> keys = new ArrayList<>(this.properties.keySet());
+            List<String> keys = new ArrayList<>(this.snapshot.properties.keySet());
             Collections.sort(keys);
             for (String key : keys) {
-                logger.debug("PropertyResovler: {} = {}", key, this.properties.get(key));
+                logger.debug("PropertyResovler: {} = {} ({})", key, this.snapshot.properties.get(key), this.snapshot.origins.get(key));
             }
         }
 
@@ -58,34 +187,156 @@ public class PropertyResolver {
         converters.put(LocalTime.class, LocalTime::parse);
         converters.put(LocalDateTime.class, LocalDateTime::parse);
         converters.put(ZonedDateTime.class, ZonedDateTime::parse);
-        converters.put(Duration.class, Duration::parse);
+        converters.put(Duration.class, PropertyResolver::parseDuration);
+        converters.put(DataSize.class, DataSize::parse);
         converters.put(ZoneId.class, ZoneId::of);
     }
 
+    private static List<PropertySource> defaultSources(Properties props) {
+        return List.of(PropertySource.of("properties", props), PropertySource.systemEnvironment());
+    }
+
+    /**
+     * 用props和环境变量替换全部属性来源
+     */
+    public Set<String> reload(Properties props) {
+        return reload(defaultSources(props));
+    }
+
+    /**
+     * 用新的属性来源替换全部属性，并通知订阅了变化的key的监听器
+     * <p>
+     * 新快照整体替换旧快照，读取方要么看到全部旧值，要么看到全部新值；多个reload之间串行执行。
+     *
+     * @return 变化的key，包括新增、删除、修改，以及因引用的属性变化而解析结果变化的key
+     */
+    public synchronized Set<String> reload(List<PropertySource> sources) {
+        Snapshot oldSnapshot = this.snapshot;
+        Snapshot newSnapshot = new Snapshot(sources);
+        Set<String> changedKeys = diff(oldSnapshot, newSnapshot);
+        this.snapshot = newSnapshot;
+        if (changedKeys.isEmpty()) {
+            return changedKeys;
+        }
+        logger.info("properties reloaded, {} key(s) changed: {}", changedKeys.size(), changedKeys);
+        for (ChangeListenerRegistration registration : this.changeListeners) {
+            Set<String> keys = new TreeSet<>();
+            for (String key : changedKeys) {
+                if (registration.matches(key)) {
+                    keys.add(key);
+                }
+            }
+            if (!keys.isEmpty()) {
+                try {
+                    registration.listener().onPropertiesChanged(Collections.unmodifiableSet(keys));
+                } catch (RuntimeException e) {
+                    logger.warn("Exception when notify property change listener: " + registration.listener(), e);
+                }
+            }
+        }
+        return changedKeys;
+    }
+
+    /**
+     * 订阅prefix下的属性变化，prefix为空字符串时订阅全部属性
+     */
+    public void addChangeListener(String prefix, PropertyChangeListener listener) {
+        this.changeListeners.add(new ChangeListenerRegistration(Objects.requireNonNull(prefix), Objects.requireNonNull(listener)));
+    }
+
+    public void removeChangeListener(PropertyChangeListener listener) {
+        this.changeListeners.removeIf(registration -> registration.listener() == listener);
+    }
+
+    private Set<String> diff(Snapshot oldSnapshot, Snapshot newSnapshot) {
+        Set<String> changed = new TreeSet<>();
+        Set<String> keys = new HashSet<>(oldSnapshot.properties.keySet());
+        keys.addAll(newSnapshot.properties.keySet());
+        for (String key : keys) {
+            if (!Objects.equals(oldSnapshot.properties.get(key), newSnapshot.properties.get(key))) {
+                changed.add(key);
+            }
+        }
+        // 值中含占位符的key，引用的属性变化时解析结果也会变化:
+        for (Map.Entry<String, String> entry : newSnapshot.properties.entrySet()) {
+            String key = entry.getKey();
+            if (!changed.contains(key) && entry.getValue().contains("${")
+                    && !Objects.equals(tryResolve(oldSnapshot, key), tryResolve(newSnapshot, key))) {
+                changed.add(key);
+            }
+        }
+        return changed;
+    }
+
+    @Nullable
+    private String tryResolve(Snapshot snapshot, String key) {
+        try {
+            return resolve(snapshot, key);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 当前从低到高的属性来源
+     */
+    public List<PropertySource> getPropertySources() {
+        return this.snapshot.sources;
+    }
+
+    /**
+     * key最终生效的来源名称，不存在时返回null
+     */
+    @Nullable
+    public String getPropertyOrigin(String key) {
+        return this.snapshot.getOrigin(key);
+    }
+
+    /**
+     * key是否存在，包括按环境变量名称查找到的值
+     */
     public boolean containsProperty(String key) {
-        return this.properties.containsKey(key);
+        return this.snapshot.get(key) != null;
+    }
+
+    /**
+     * 所有属性的key，环境变量只包含原始名称和覆盖的低层key，不包含按宽松名称查找的key
+     */
+    public Set<String> getPropertyNames() {
+        return this.snapshot.properties.keySet();
+    }
+
+    /**
+     * 是否可以把字符串转换为type，枚举总是可以转换
+     */
+    public boolean isConvertible(Class<?> type) {
+        return type.isEnum() || this.converters.containsKey(type);
     }
 
     @Nullable
     public String getProperty(String key) {
-        // 两个作用 1.判断取值形式 2.获取keyExpr对象
-        PropertyExpr keyExpr = parsePropertyExpr(key);
-        // 常规字符串形式
-        if (keyExpr == null) {
-            String value = this.properties.get(key);
-            return value == null ? null : parseValue(value);
+        return getProperty(this.snapshot, key);
+    }
+
+    @Nullable
+    private String getProperty(Snapshot snapshot, String key) {
+        // 不存在的key和表达式不缓存，避免任意字符串撑大缓存:
+        if (!snapshot.properties.containsKey(key)) {
+            return resolve(snapshot, key);
         }
-        // ${abc.xyz}形式
-        if (keyExpr.defaultValue() != null) {
-            return getProperty(keyExpr.key(), keyExpr.defaultValue());
-        } else {
-            return getRequiredProperty(keyExpr.key());
+        Map<String, Object> strings = snapshot.values(String.class);
+        Object value = strings.get(key);
+        if (value == null) {
+            value = resolve(snapshot, key);
+            strings.put(key, value);
         }
+        return (String) value;
     }
 
     public String getProperty(String key, String defaultValue) {
-        String value = getProperty(key);
-        return value == null ? parseValue(defaultValue) : value;
+        Snapshot snapshot = this.snapshot;
+        String value = getProperty(snapshot, key);
+        return value == null ? evaluate(snapshot, compile(defaultValue), new ArrayList<>()) : value;
     }
 
     public String getRequiredProperty(String key) {
@@ -94,14 +345,28 @@ public class PropertyResolver {
     }
 
     @Nullable
+    @SuppressWarnings("unchecked")
     public <T> T getProperty(String key, Class<T> targetType) {
-        String value = getProperty(key);
-        return value == null ? null : convert(value,targetType);
+        Snapshot snapshot = this.snapshot;
+        if (targetType == String.class) {
+            return (T) getProperty(snapshot, key);
+        }
+        if (!snapshot.properties.containsKey(key)) {
+            String s = getProperty(snapshot, key);
+            return s == null ? null : convert(s, targetType);
+        }
+        Map<String, Object> typed = snapshot.values(targetType);
+        Object value = typed.get(key);
+        if (value == null) {
+            value = convert(getProperty(snapshot, key), targetType);
+            typed.put(key, value);
+        }
+        return (T) value;
     }
 
     public <T> T getProperty(String key, Class<T> targetType, T defaultValue) {
-        String value = getProperty(key);
-        return value == null ? defaultValue : convert(value,targetType);
+        T value = getProperty(key, targetType);
+        return value == null ? defaultValue : value;
     }
 
     public <T> T getRequiredProperty(String key, Class<T> targetType) {
@@ -109,49 +374,126 @@ public class PropertyResolver {
         return Objects.requireNonNull(value, "Property '" + key + "' not found.");
     }
 
-    @SuppressWarnings("unchecked")
-    <T> T convert(String value,Class<?> clazz) {
+    /**
+     * 把字符串转换为clazz类型，不支持的类型抛出IllegalArgumentException
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> T convert(String value, Class<T> clazz) {
         Function<String, Object> fn = this.converters.get(clazz);
+        if (fn == null && clazz.isEnum()) {
+            // 枚举忽略大小写，允许用'-'代替'_':
+            return (T) Enum.valueOf((Class<Enum>) clazz, value.strip().replace('-', '_').toUpperCase());
+        }
         if (fn == null) {
             throw new IllegalArgumentException("Unsupported value type: " + clazz.getName());
         }
         return (T) fn.apply(value);
     }
 
+    /**
+     * 支持ISO-8601格式(PT30S)，或数字加单位ns、us、ms、s、m、h、d，只有数字时为毫秒
+     */
+    static Duration parseDuration(String value) {
+        String s = value.strip();
+        if (s.startsWith("P") || s.startsWith("p") || s.startsWith("-P")) {
+            return Duration.parse(s);
+        }
+        int n = 0;
+        while (n < s.length() && (Character.isDigit(s.charAt(n)) || (n == 0 && s.charAt(n) == '-'))) {
+            n++;
+        }
+        long amount = Long.parseLong(s.substring(0, n));
+        return switch (s.substring(n).strip().toLowerCase()) {
+            case "", "ms" -> Duration.ofMillis(amount);
+            case "ns" -> Duration.ofNanos(amount);
+            case "us" -> Duration.ofNanos(Math.multiplyExact(amount, 1000L));
+            case "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            case "h" -> Duration.ofHours(amount);
+            case "d" -> Duration.ofDays(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + value);
+        };
+    }
 
-    PropertyExpr parsePropertyExpr(String key) {
-        // 是否为${abc.xyz}形式
-        if (key.startsWith("${") && key.endsWith("}")) {
-            // 是否存在defaultValue?
-            int n = key.indexOf(':');
-            if (n == (-1)) {
-                // no default value: ${key}
-                String k = notEmpty(key.substring(2, key.length() - 1));
-                return new PropertyExpr(k, null);
-            } else {
-                // has default value: ${key:default}
-                String k = notEmpty(key.substring(2, n));
-                return new PropertyExpr(k, key.substring(n + 1, key.length() - 1));
+    /**
+     * 普通key直接查找并解析值中的占位符，含${...}的key作为表达式求值
+     */
+    @Nullable
+    private String resolve(Snapshot snapshot, String key) {
+        PropertyExpression expr = compile(key);
+        if (!expr.isLiteral()) {
+            return evaluate(snapshot, expr, new ArrayList<>());
+        }
+        String value = snapshot.get(key);
+        if (value == null) {
+            return null;
+        }
+        List<String> resolving = new ArrayList<>();
+        resolving.add(key);
+        return evaluate(snapshot, compile(value), resolving);
+    }
+
+    PropertyExpression compile(String expr) {
+        // 不含占位符时编译只是包装，不需要缓存:
+        if (!expr.contains("${")) {
+            return PropertyExpression.compile(expr);
+        }
+        PropertyExpression compiled = this.expressions.get(expr);
+        if (compiled == null) {
+            compiled = PropertyExpression.compile(expr);
+            if (this.expressions.size() < MAX_CACHED_EXPRESSIONS) {
+                this.expressions.putIfAbsent(expr, compiled);
             }
         }
-        return null;
+        return compiled;
     }
 
-    String parseValue(String value) {
-        // 判断value是否为${abc.xyz}形式
-        //      否：直接返回
-        //      是：解析值
-        PropertyExpr expr = parsePropertyExpr(value);
-        if (expr == null) {
-            return value;
+    int cachedExpressionCount() {
+        return this.expressions.size();
+    }
+
+    /**
+     * 对编译后的表达式求值，resolving为正在解析的key，用于检测循环引用
+     */
+    private String evaluate(Snapshot snapshot, PropertyExpression expr, List<String> resolving) {
+        if (expr.isLiteral()) {
+            return expr.literal();
+        }
+        PropertyExpression.Part[] parts = expr.parts();
+        // 只有一个占位符时直接返回其值:
+        if (parts.length == 1 && parts[0] instanceof PropertyExpression.Placeholder p) {
+            return resolvePlaceholder(snapshot, p, resolving);
         }
-        if (expr.defaultValue() != null) {
-            return getProperty(expr.key(), expr.defaultValue());
-        } else {
-            return getRequiredProperty(expr.key());
+        StringBuilder sb = new StringBuilder();
+        for (PropertyExpression.Part part : parts) {
+            if (part instanceof PropertyExpression.Literal literal) {
+                sb.append(literal.text());
+            } else {
+                sb.append(resolvePlaceholder(snapshot, (PropertyExpression.Placeholder) part, resolving));
+            }
         }
+        return sb.toString();
     }
 
+    private String resolvePlaceholder(Snapshot snapshot, PropertyExpression.Placeholder placeholder, List<String> resolving) {
+        String key = notEmpty(evaluate(snapshot, placeholder.key(), resolving));
+        String value = snapshot.get(key);
+        if (value == null) {
+            if (placeholder.defaultValue() == null) {
+                throw new NullPointerException("Property '" + key + "' not found.");
+            }
+            return evaluate(snapshot, placeholder.defaultValue(), resolving);
+        }
+        if (resolving.contains(key)) {
+            throw new IllegalArgumentException("Circular placeholder reference: " + String.join(" -> ", resolving) + " -> " + key);
+        }
+        resolving.add(key);
+        try {
+            return evaluate(snapshot, compile(value), resolving);
+        } finally {
+            resolving.remove(resolving.size() - 1);
+        }
+    }
 
     String notEmpty(String key) {
         if (key.isEmpty()) {
@@ -0,0 +1,78 @@
+package com.johntitor.koharu.io;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * 一层命名的属性来源，name同时作为每个key的来源信息:
+ * <p>
+ * relaxed为true时(环境变量)，SERVER_PORT覆盖低层中的server.port；没有对应key时不添加别名，查询server.port时再按SERVER_PORT查找。
+ */
+public record PropertySource(String name, Map<String, String> properties, boolean relaxed) {
+
+    public static final String DEFAULTS = "defaults";
+    public static final String SYSTEM_ENVIRONMENT = "systemEnvironment";
+    public static final String SYSTEM_PROPERTIES = "systemProperties";
+    public static final String COMMAND_LINE_ARGS = "commandLineArgs";
+
+    public PropertySource(String name, Map<String, String> properties) {
+        this(name, properties, false);
+    }
+
+    public PropertySource {
+        properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+    }
+
+    public static PropertySource of(String name, Properties props) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String key : props.stringPropertyNames()) {
+            map.put(key, props.getProperty(key));
+        }
+        return new PropertySource(name, map);
+    }
+
+    public static PropertySource systemEnvironment() {
+        return new PropertySource(SYSTEM_ENVIRONMENT, System.getenv(), true);
+    }
+
+    public static PropertySource systemProperties() {
+        return of(SYSTEM_PROPERTIES, System.getProperties());
+    }
+
+    /**
+     * 解析--key=value形式的参数，--flag等同于--flag=true，其他参数忽略
+     */
+    public static PropertySource commandLineArgs(String... args) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.length() > 2) {
+                int n = arg.indexOf('=');
+                if (n < 0) {
+                    map.put(arg.substring(2), "true");
+                } else if (n > 2) {
+                    map.put(arg.substring(2, n), arg.substring(n + 1));
+                }
+            }
+        }
+        return new PropertySource(COMMAND_LINE_ARGS, map);
+    }
+
+    /**
+     * key对应的环境变量名称: server.max-pool-size -> SERVER_MAXPOOLSIZE, app.hosts[0] -> APP_HOSTS_0
+     */
+    static String toEnvironmentName(String key) {
+        StringBuilder sb = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char ch = key.charAt(i);
+            switch (ch) {
+                case '.', '[' -> sb.append('_');
+                case '-', ']' -> {
+                }
+                default -> sb.append(Character.toUpperCase(ch));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -9,19 +9,31 @@ import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.Function;
-
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 扫描classpath中basePackage下的资源:
+ * <p>
+ * 目录通过Files.walk扫描；jar通过ZipFile只打开一次并遍历中央目录，不创建FileSystem，扫描完成后关闭。
+ * 嵌套的jar(如app.jar!/BOOT-INF/lib/x.jar!/pkg)通过JarInputStream顺序读取。
+ * 多个classpath位置并行扫描，结果按classpath顺序合并，因此mapper必须是线程安全的。
+ */
 public class ResourceResolver {
 
     protected final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private static final String JAR_SEPARATOR = "!/";
+
     private String basePackage;
 
     public ResourceResolver(String basePackage) {
@@ -29,63 +41,118 @@ public class ResourceResolver {
     }
 
     public <R> List<R> scan(Function<Resource, R> mapper) {
+        return scan("", mapper);
+    }
+
+    /**
+     * 只扫描名称以suffix结尾的资源，例如".class"
+     */
+    public <R> List<R> scan(String suffix, Function<Resource, R> mapper) {
         String basePackagePath = this.basePackage.replace('.', '/');
+        List<URL> roots;
         try {
-            List<R> collector = new ArrayList<>();
-            scan(basePackagePath,collector,mapper);
-            return collector;
-        }catch (IOException e) {
+            roots = Collections.list(getContextClassLoader().getResources(basePackagePath));
+        } catch (IOException e) {
             throw new UncheckedIOException(e);
-        } catch (URISyntaxException e) {
-            throw new RuntimeException(e);
         }
+        logger.debug("Scanning resources from {} in {} location(s)", basePackagePath, roots.size());
+        Stream<URL> stream = roots.size() > 1 ? roots.parallelStream() : roots.stream();
+        return stream.flatMap(url -> scanRoot(url, basePackagePath, suffix, mapper).stream()).collect(Collectors.toCollection(ArrayList::new));
     }
 
-    private <R> void scan(String basePackagePath, List<R> collector, Function<Resource,R> mapper) throws IOException, URISyntaxException {
-        logger.debug("Scanning resources from {}", basePackagePath);
-        Enumeration<URL> en = getContextClassLoader().getResources(basePackagePath);
-        while (en.hasMoreElements()) {
-            URL url = en.nextElement();
-            URI uri = url.toURI();
-            String fullPath  =removeTrailingSlash(uriToString(uri));
-
-            String baseDir  = fullPath.substring(0, fullPath.length() - basePackagePath.length());
-            baseDir = removeTrailingSlash(baseDir);
-            if (baseDir.startsWith("file:")) {
-                baseDir = baseDir.substring(5);
+    <R> List<R> scanRoot(URL url, String basePackagePath, String suffix, Function<Resource, R> mapper) {
+        List<R> collector = new ArrayList<>();
+        try {
+            switch (url.getProtocol()) {
+                case "file" -> scanDirectory(Paths.get(url.toURI()), basePackagePath, suffix, collector, mapper);
+                case "jar" -> scanJar(url.toString(), suffix, collector, mapper);
+                default -> logger.warn("Unsupported resource location: {}", url);
             }
-
-            boolean isJarResource = fullPath.startsWith("jar:");
-            Path scanTarget = isJarResource ? jarUriToPath(basePackagePath, uri) : Paths.get(uri);
-
-            scanFile(isJarResource, baseDir, scanTarget, collector, mapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid resource location: " + url, e);
         }
+        return collector;
     }
 
-    <R> void scanFile(boolean isJarResource, String baseDir, Path scanTarget, List<R> collector, Function<Resource, R> mapper) throws IOException{
-        Files.walk(scanTarget).filter(Files::isRegularFile).forEach(file->{
-            Resource res = buildResource(isJarResource,baseDir,file);
-            logger.debug("Found resource {}", res);
-            R r = mapper.apply(res);
-            if (r != null) {
-                collector.add(r);
+    <R> void scanDirectory(Path dir, String basePackagePath, String suffix, List<R> collector, Function<Resource, R> mapper) throws IOException {
+        // classpath根目录:
+        Path baseDir = dir;
+        for (int i = basePackagePath.isEmpty() ? 0 : basePackagePath.split("/").length; i > 0; i--) {
+            baseDir = baseDir.getParent();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.toString().endsWith(suffix) && Files.isRegularFile(file)) {
+                    String name = baseDir.relativize(file).toString().replace('\\', '/');
+                    addResource(new Resource("file:" + file, name), collector, mapper);
+                }
             }
-        });
+        }
     }
 
-    private Resource buildResource(boolean isJarResource, String baseDir, Path file) {
-        if (isJarResource) {
-            String name = removeLeadingSlash(file.toString());
-            String path = baseDir + name;
-            return new Resource(path, name);
-        } else {
-            String path = file.toString();
-            String name = removeLeadingSlash(path.substring(baseDir.length()));
-            return new Resource("file:" + path, name);
+    /**
+     * location形如jar:file:/x.jar!/pkg，或嵌套的jar:file:/app.jar!/BOOT-INF/lib/x.jar!/pkg，pkg为空时扫描jar的根目录
+     */
+    <R> void scanJar(String location, String suffix, List<R> collector, Function<Resource, R> mapper) throws IOException, URISyntaxException {
+        // 保留末尾的空字符串，jar:file:/x.jar!/表示空package:
+        String[] parts = location.substring("jar:".length()).split(JAR_SEPARATOR, -1);
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid jar location: " + location);
+        }
+        Path jarFile = Paths.get(new URI(parts[0]));
+        String packagePath = removeTrailingSlash(parts[parts.length - 1]);
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        String basePath = location.substring(0, location.length() - parts[parts.length - 1].length());
+        try (ZipFile zip = new ZipFile(jarFile.toFile())) {
+            if (parts.length == 2) {
+                for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements(); ) {
+                    ZipEntry entry = en.nextElement();
+                    addJarEntry(entry, prefix, suffix, basePath, collector, mapper);
+                }
+            } else if (parts.length == 3 && parts[1].endsWith(".jar")) {
+                ZipEntry nested = zip.getEntry(parts[1]);
+                if (nested == null) {
+                    throw new IllegalArgumentException("Nested jar not found: " + location);
+                }
+                try (JarInputStream input = new JarInputStream(zip.getInputStream(nested), false)) {
+                    for (JarEntry entry = input.getNextJarEntry(); entry != null; entry = input.getNextJarEntry()) {
+                        addJarEntry(entry, prefix, suffix, basePath, collector, mapper);
+                    }
+                }
+            } else if (parts.length == 3) {
+                // 目录形式的嵌套，如app.jar!/BOOT-INF/classes!/pkg:
+                String dirPrefix = removeTrailingSlash(parts[1]) + "/";
+                for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements(); ) {
+                    ZipEntry entry = en.nextElement();
+                    if (entry.getName().startsWith(dirPrefix)) {
+                        String name = entry.getName().substring(dirPrefix.length());
+                        if (!entry.isDirectory() && name.startsWith(prefix) && name.endsWith(suffix)) {
+                            addResource(new Resource(basePath + name, name), collector, mapper);
+                        }
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported jar location: " + location);
+            }
         }
     }
 
+    private <R> void addJarEntry(ZipEntry entry, String prefix, String suffix, String basePath, List<R> collector, Function<Resource, R> mapper) {
+        String name = entry.getName();
+        if (!entry.isDirectory() && name.startsWith(prefix) && name.endsWith(suffix)) {
+            addResource(new Resource(basePath + name, name), collector, mapper);
+        }
+    }
 
+    private <R> void addResource(Resource res, List<R> collector, Function<Resource, R> mapper) {
+        logger.debug("Found resource {}", res);
+        R r = mapper.apply(res);
+        if (r != null) {
+            collector.add(r);
+        }
+    }
 
     ClassLoader getContextClassLoader(){
         ClassLoader cl = Thread.currentThread().getContextClassLoader();
@@ -95,14 +162,6 @@ public class ResourceResolver {
         return cl;
     }
 
-    String uriToString(URI uri) {
-        return URLDecoder.decode(uri.toString(), StandardCharsets.UTF_8);
-    }
-
-    Path jarUriToPath(String basePackagePath, URI jarUri) throws IOException {
-        return FileSystems.newFileSystem(jarUri, Map.of()).getPath(basePackagePath);
-    }
-
     private String removeTrailingSlash(String s) {
         if (s.endsWith("/") || s.endsWith("\\")) {
             s = s.substring(0, s.length() - 1);
@@ -110,11 +169,4 @@ public class ResourceResolver {
         return s;
     }
 
-    private String removeLeadingSlash(String s) {
-        if (s.startsWith("/") || s.startsWith("\\")) {
-            s = s.substring(1);
-        }
-        return s;
-    }
-
 }
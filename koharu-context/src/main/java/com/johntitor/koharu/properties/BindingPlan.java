@@ -0,0 +1,169 @@
+package com.johntitor.koharu.properties;
+
+import jakarta.annotation.Nonnull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一个类型的绑定计划:
+ * <p>
+ * record通过规范构造方法创建，POJO通过无参数构造方法创建后调用setter或设置字段。
+ * 每个类型只反射解析一次，构造方法和setter转换为MethodHandle。
+ */
+final class BindingPlan {
+
+    // 不阻止Class被卸载:
+    private static final ClassValue<BindingPlan> cache = new ClassValue<>() {
+        @Override
+        protected BindingPlan computeValue(Class<?> type) {
+            return build(type);
+        }
+    };
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    final Class<?> type;
+    final boolean record;
+    final BoundProperty[] properties;
+    // record: (Object[])Object，POJO: ()Object
+    private final MethodHandle constructor;
+
+    private BindingPlan(Class<?> type, boolean record, BoundProperty[] properties, MethodHandle constructor) {
+        this.type = type;
+        this.record = record;
+        this.properties = properties;
+        this.constructor = constructor;
+    }
+
+    /**
+     * 一个可绑定的属性，name为Java名称，propertyName为kebab-case名称，record的setter为null
+     */
+    record BoundProperty(String name, String propertyName, Type genericType, Class<?> rawType, boolean required, MethodHandle setter) {
+
+        Object defaultValue() {
+            // 基本类型缺失时使用0或false:
+            return rawType.isPrimitive() ? Array.get(Array.newInstance(rawType, 1), 0) : null;
+        }
+    }
+
+    static BindingPlan forType(Class<?> type) {
+        return cache.get(type);
+    }
+
+    Object create(Object[] values) throws Throwable {
+        if (record) {
+            return (Object) constructor.invokeExact(values);
+        }
+        Object bean = (Object) constructor.invokeExact();
+        apply(bean, values);
+        return bean;
+    }
+
+    /**
+     * 把不为null的值设置到POJO
+     */
+    void apply(Object bean, Object[] values) throws Throwable {
+        for (int i = 0; i < properties.length; i++) {
+            if (values[i] != null) {
+                properties[i].setter().invokeExact(bean, values[i]);
+            }
+        }
+    }
+
+    private static BindingPlan build(Class<?> type) {
+        if (type.isInterface() || type.isPrimitive() || type.isArray() || Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Cannot bind properties to type " + type.getName());
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            return type.isRecord() ? buildRecord(type, lookup) : buildBean(type, lookup);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot bind properties to type " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static BindingPlan buildRecord(Class<?> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        BoundProperty[] properties = new BoundProperty[components.length];
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent rc = components[i];
+            parameterTypes[i] = rc.getType();
+            properties[i] = new BoundProperty(rc.getName(), toKebabCase(rc.getName()), rc.getGenericType(), rc.getType(),
+                    rc.isAnnotationPresent(Nonnull.class), null);
+        }
+        Constructor<?> ctor = type.getDeclaredConstructor(parameterTypes);
+        MethodHandle handle = lookup.unreflectConstructor(ctor);
+        handle = handle.asType(handle.type().generic()).asSpreader(Object[].class, components.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        return new BindingPlan(type, true, properties, handle);
+    }
+
+    private static BindingPlan buildBean(Class<?> type, MethodHandles.Lookup lookup) throws ReflectiveOperationException {
+        Constructor<?> ctor = type.getDeclaredConstructor();
+        MethodHandle handle = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        List<BoundProperty> list = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field f : c.getDeclaredFields()) {
+                int mod = f.getModifiers();
+                // 子类字段覆盖父类同名字段:
+                if (Modifier.isStatic(mod) || Modifier.isFinal(mod) || f.isSynthetic() || !names.add(f.getName())) {
+                    continue;
+                }
+                // 优先使用public setter:
+                MethodHandle setter;
+                Method m = findSetter(type, f);
+                if (m != null) {
+                    setter = lookup.unreflect(m);
+                } else {
+                    setter = MethodHandles.privateLookupIn(c, MethodHandles.lookup()).unreflectSetter(f);
+                }
+                list.add(new BoundProperty(f.getName(), toKebabCase(f.getName()), f.getGenericType(), f.getType(),
+                        f.isAnnotationPresent(Nonnull.class), setter.asType(SETTER_TYPE)));
+            }
+        }
+        return new BindingPlan(type, false, list.toArray(BoundProperty[]::new), handle);
+    }
+
+    private static Method findSetter(Class<?> type, Field f) {
+        String name = "set" + Character.toUpperCase(f.getName().charAt(0)) + f.getName().substring(1);
+        try {
+            return type.getMethod(name, f.getType());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * maxPoolSize -> max-pool-size
+     */
+    static String toKebabCase(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (Character.isUpperCase(ch)) {
+                if (i > 0) {
+                    sb.append('-');
+                }
+                sb.append(Character.toLowerCase(ch));
+            } else {
+                sb.append(ch);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,221 @@
+package com.johntitor.koharu.properties;
+
+import com.johntitor.koharu.exception.PropertyBindingException;
+import com.johntitor.koharu.io.PropertyResolver;
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.*;
+
+/**
+ * 把PropertyResolver中prefix下的属性绑定到record或POJO:
+ * <p>
+ * 支持PropertyResolver可以转换的类型(包括枚举、Duration、DataSize)、嵌套对象、List/Set和Map&lt;String, ?&gt;。
+ * 集合写作key[0]、key[1]，或逗号分隔的单个值；Map的key为prefix之后的部分。
+ * 绑定失败时抛出PropertyBindingException，包含完整的属性路径。
+ */
+public class ConfigurationPropertiesBinder {
+
+    private final PropertyResolver propertyResolver;
+
+    public ConfigurationPropertiesBinder(PropertyResolver propertyResolver) {
+        this.propertyResolver = propertyResolver;
+    }
+
+    public <T> T bind(String prefix, Class<T> type) {
+        // 有序的key，用于查找prefix下的属性:
+        NavigableSet<String> names = new TreeSet<>(this.propertyResolver.getPropertyNames());
+        Object bound = bindObject(names, prefix, type, true);
+        return type.cast(bound);
+    }
+
+    @Nullable
+    Object bindValue(NavigableSet<String> names, String path, Type type) {
+        Class<?> raw = rawClass(type);
+        if (raw == Object.class) {
+            raw = String.class;
+        }
+        if (this.propertyResolver.isConvertible(raw)) {
+            // 单个值也按环境变量名称查找:
+            if (!names.contains(path) && !this.propertyResolver.containsProperty(path)) {
+                return null;
+            }
+            try {
+                return this.propertyResolver.getProperty(path, raw);
+            } catch (RuntimeException e) {
+                throw new PropertyBindingException(path,
+                        String.format("Failed to bind property '%s' to %s: %s", path, raw.getName(), e.getMessage()), e);
+            }
+        }
+        if (Collection.class.isAssignableFrom(raw)) {
+            return bindCollection(names, path, raw, typeArgument(type, 0));
+        }
+        if (Map.class.isAssignableFrom(raw)) {
+            if (rawClass(typeArgument(type, 0)) != String.class && rawClass(typeArgument(type, 0)) != Object.class) {
+                throw new PropertyBindingException(path, String.format("Cannot bind property '%s': map key must be String.", path));
+            }
+            return bindMap(names, path, typeArgument(type, 1));
+        }
+        return bindObject(names, path, raw, false);
+    }
+
+    @Nullable
+    Object bindObject(NavigableSet<String> names, String path, Class<?> type, boolean root) {
+        // 嵌套对象没有任何属性时为null:
+        if (!root && !hasChildren(names, path)) {
+            return null;
+        }
+        BindingPlan plan = planFor(path, type);
+        Object[] values = bindProperties(names, path, plan);
+        try {
+            return plan.create(values);
+        } catch (RuntimeException | Error e) {
+            throw new PropertyBindingException(path, String.format("Cannot create %s for property '%s': %s", type.getName(), path, e), e);
+        } catch (Throwable t) {
+            throw new PropertyBindingException(path, String.format("Cannot create %s for property '%s'.", type.getName(), path), t);
+        }
+    }
+
+    private static BindingPlan planFor(String path, Class<?> type) {
+        try {
+            return BindingPlan.forType(type);
+        } catch (IllegalArgumentException e) {
+            throw new PropertyBindingException(path, String.format("Cannot bind property '%s': %s", path, e.getMessage()), e);
+        }
+    }
+
+    private Object[] bindProperties(NavigableSet<String> names, String path, BindingPlan plan) {
+        Object[] values = new Object[plan.properties.length];
+        for (int i = 0; i < values.length; i++) {
+            BindingPlan.BoundProperty property = plan.properties[i];
+            String childPath = path + "." + property.propertyName();
+            // 也接受与Java名称相同的key:
+            if (!names.contains(childPath) && !hasChildren(names, childPath)) {
+                String camelPath = path + "." + property.name();
+                if (names.contains(camelPath) || hasChildren(names, camelPath)) {
+                    childPath = camelPath;
+                }
+            }
+            Object value = bindValue(names, childPath, property.genericType());
+            if (value == null) {
+                if (property.required()) {
+                    throw new PropertyBindingException(childPath,
+                            String.format("Required property '%s' is missing when bind %s.", childPath, plan.type.getName()));
+                }
+                if (plan.record) {
+                    value = property.defaultValue();
+                }
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    Collection<Object> bindCollection(NavigableSet<String> names, String path, Class<?> collectionType, Type elementType) {
+        Collection<Object> collection = Set.class.isAssignableFrom(collectionType) ? new LinkedHashSet<>() : new ArrayList<>();
+        // key[0], key[1].name, ...
+        SortedSet<Integer> indices = new TreeSet<>();
+        for (String name : names.subSet(path + "[", path + "\\")) {
+            int end = name.indexOf(']', path.length() + 1);
+            if (end > 0) {
+                String index = name.substring(path.length() + 1, end);
+                try {
+                    indices.add(Integer.parseInt(index));
+                } catch (NumberFormatException e) {
+                    throw new PropertyBindingException(name, String.format("Invalid index '%s' in property '%s'.", index, name), e);
+                }
+            }
+        }
+        if (!indices.isEmpty()) {
+            for (int index : indices) {
+                Object element = bindValue(names, path + "[" + index + "]", elementType);
+                if (element != null) {
+                    collection.add(element);
+                }
+            }
+        } else if (names.contains(path)) {
+            // 逗号分隔的单个值:
+            Class<?> elementClass = rawClass(elementType);
+            Class<?> raw = elementClass == Object.class ? String.class : elementClass;
+            String value = this.propertyResolver.getProperty(path);
+            String[] items = value.isBlank() ? new String[0] : value.split(",");
+            for (int i = 0; i < items.length; i++) {
+                String elementPath = path + "[" + i + "]";
+                try {
+                    collection.add(this.propertyResolver.convert(items[i].strip(), raw));
+                } catch (RuntimeException e) {
+                    throw new PropertyBindingException(elementPath,
+                            String.format("Failed to bind property '%s' to %s: %s", elementPath, raw.getName(), e.getMessage()), e);
+                }
+            }
+        } else {
+            return null;
+        }
+        return collection instanceof Set ? Collections.unmodifiableSet((Set<Object>) collection) : Collections.unmodifiableList((List<Object>) collection);
+    }
+
+    @Nullable
+    Map<String, Object> bindMap(NavigableSet<String> names, String path, Type valueType) {
+        Class<?> raw = rawClass(valueType);
+        boolean scalar = raw == Object.class || this.propertyResolver.isConvertible(raw);
+        // 值为简单类型时key为prefix之后的全部，否则为下一段:
+        Set<String> keys = new LinkedHashSet<>();
+        for (String name : names.subSet(path + ".", path + "/")) {
+            String rest = name.substring(path.length() + 1);
+            if (!scalar) {
+                int end = indexOfSeparator(rest);
+                rest = end < 0 ? rest : rest.substring(0, end);
+            }
+            keys.add(rest);
+        }
+        if (keys.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (String key : keys) {
+            Object value = bindValue(names, path + "." + key, valueType);
+            if (value != null) {
+                map.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static boolean hasChildren(NavigableSet<String> names, String path) {
+        return !names.subSet(path + ".", path + "/").isEmpty() || !names.subSet(path + "[", path + "\\").isEmpty();
+    }
+
+    private static int indexOfSeparator(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '.' || ch == '[') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType pt && pt.getActualTypeArguments().length > index) {
+            return pt.getActualTypeArguments()[index];
+        }
+        return Object.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) {
+            return c;
+        }
+        if (type instanceof ParameterizedType pt) {
+            return (Class<?>) pt.getRawType();
+        }
+        if (type instanceof WildcardType wt && wt.getUpperBounds().length > 0) {
+            return rawClass(wt.getUpperBounds()[0]);
+        }
+        return Object.class;
+    }
+}
@@ -0,0 +1,68 @@
+package com.johntitor.koharu.properties;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 数据大小，配置中写作"512B"、"64KB"、"10MB"、"1GB"、"2TB"，单位按1024换算，没有单位时为字节
+ */
+public record DataSize(long bytes) implements Comparable<DataSize> {
+
+    private static final Pattern PATTERN = Pattern.compile("^\\s*(\\d+)\\s*([KMGT]?B)?\\s*$", Pattern.CASE_INSENSITIVE);
+
+    public DataSize {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Data size must not be negative: " + bytes);
+        }
+    }
+
+    public static DataSize ofBytes(long bytes) {
+        return new DataSize(bytes);
+    }
+
+    public static DataSize ofKilobytes(long kilobytes) {
+        return new DataSize(Math.multiplyExact(kilobytes, 1024L));
+    }
+
+    public static DataSize ofMegabytes(long megabytes) {
+        return new DataSize(Math.multiplyExact(megabytes, 1024L * 1024));
+    }
+
+    public static DataSize ofGigabytes(long gigabytes) {
+        return new DataSize(Math.multiplyExact(gigabytes, 1024L * 1024 * 1024));
+    }
+
+    public static DataSize parse(String text) {
+        Matcher m = PATTERN.matcher(text);
+        if (!m.matches()) {
+            throw new IllegalArgumentException("Invalid data size: " + text);
+        }
+        long amount = Long.parseLong(m.group(1));
+        String unit = m.group(2) == null ? "B" : m.group(2).toUpperCase();
+        return switch (unit) {
+            case "KB" -> ofKilobytes(amount);
+            case "MB" -> ofMegabytes(amount);
+            case "GB" -> ofGigabytes(amount);
+            case "TB" -> new DataSize(Math.multiplyExact(amount, 1024L * 1024 * 1024 * 1024));
+            default -> ofBytes(amount);
+        };
+    }
+
+    public long toKilobytes() {
+        return bytes / 1024;
+    }
+
+    public long toMegabytes() {
+        return bytes / (1024 * 1024);
+    }
+
+    @Override
+    public int compareTo(DataSize o) {
+        return Long.compare(this.bytes, o.bytes);
+    }
+
+    @Override
+    public String toString() {
+        return bytes + "B";
+    }
+}
@@ -0,0 +1,159 @@
+package com.johntitor.koharu.scheduling;
+
+import jakarta.annotation.Nullable;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * cron表达式: 秒 分 时 日 月 周，省略秒时按0秒执行。
+ * <p>
+ * 每个字段支持*、?、数字、范围a-b、步长/n和逗号分隔的列表，月和周支持JAN-DEC、SUN-SAT，周的0和7都表示周日。
+ * 日和周同时满足时才匹配。
+ */
+public final class CronExpression {
+
+    private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC" };
+    private static final String[] DAYS = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+    // 找不到下次执行时间时最多向后搜索的年数:
+    private static final int MAX_YEARS = 5;
+
+    private final String expression;
+    // 每个字段用位图表示，第i位为1表示取值i匹配:
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+
+    private CronExpression(String expression, long seconds, long minutes, long hours, long daysOfMonth, long months, long daysOfWeek) {
+        this.expression = expression;
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+    }
+
+    public static CronExpression parse(String expression) {
+        String[] fields = expression.strip().split("\\s+");
+        if (fields.length == 5) {
+            // 省略秒:
+            String[] withSeconds = new String[6];
+            withSeconds[0] = "0";
+            System.arraycopy(fields, 0, withSeconds, 1, 5);
+            fields = withSeconds;
+        } else if (fields.length != 6) {
+            throw new IllegalArgumentException("Invalid cron expression '" + expression + "': must consist of 5 or 6 fields.");
+        }
+        try {
+            long daysOfWeek = parseField(fields[5], 0, 7, DAYS, 0);
+            // 7和0都表示周日:
+            if ((daysOfWeek & (1L << 7)) != 0) {
+                daysOfWeek = (daysOfWeek | 1L) & ~(1L << 7);
+            }
+            return new CronExpression(expression.strip(),
+                    parseField(fields[0], 0, 59, null, 0),
+                    parseField(fields[1], 0, 59, null, 0),
+                    parseField(fields[2], 0, 23, null, 0),
+                    parseField(fields[3], 1, 31, null, 0),
+                    parseField(fields[4], 1, 12, MONTHS, 1),
+                    daysOfWeek);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cron expression '" + expression + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, int nameOffset) {
+        long bits = 0;
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), null, 0);
+                range = part.substring(0, slash);
+                if (step <= 0) {
+                    throw new IllegalArgumentException("step must be positive in '" + part + "'.");
+                }
+            }
+            int start;
+            int end;
+            if (range.equals("*") || range.equals("?")) {
+                start = min;
+                end = max;
+            } else {
+                int dash = range.indexOf('-');
+                if (dash > 0) {
+                    start = parseValue(range.substring(0, dash), names, nameOffset);
+                    end = parseValue(range.substring(dash + 1), names, nameOffset);
+                } else {
+                    start = parseValue(range, names, nameOffset);
+                    // 5/15表示从5开始每15:
+                    end = slash >= 0 ? max : start;
+                }
+            }
+            if (start < min || end > max || start > end) {
+                throw new IllegalArgumentException("'" + part + "' is out of range " + min + "-" + max + ".");
+            }
+            for (int i = start; i <= end; i += step) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    private static int parseValue(String value, String[] names, int nameOffset) {
+        if (names != null) {
+            String upper = value.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upper)) {
+                    return i + nameOffset;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + value + "' is not a number.");
+        }
+    }
+
+    /**
+     * 严格晚于after的下次执行时间，5年内没有匹配的时间时返回null
+     */
+    @Nullable
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime t = after.withNano(0).plusSeconds(1);
+        int maxYear = t.getYear() + MAX_YEARS;
+        while (t.getYear() <= maxYear) {
+            // 从大到小逐个字段匹配，不匹配时跳到该字段的下一个值并清零更小的字段:
+            if (!matches(months, t.getMonthValue())) {
+                t = t.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!matches(daysOfMonth, t.getDayOfMonth()) || !matches(daysOfWeek, t.getDayOfWeek().getValue() % 7)) {
+                t = t.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!matches(hours, t.getHour())) {
+                t = t.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!matches(minutes, t.getMinute())) {
+                t = t.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            } else if (!matches(seconds, t.getSecond())) {
+                t = t.plusSeconds(1);
+            } else {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(long bits, int value) {
+        return (bits & (1L << value)) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return this.expression;
+    }
+}
@@ -0,0 +1,29 @@
+package com.johntitor.koharu.scheduling;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+public class CronTrigger implements Trigger {
+
+    private final CronExpression expression;
+    private final ZoneId zone;
+
+    public CronTrigger(CronExpression expression, ZoneId zone) {
+        this.expression = expression;
+        this.zone = zone;
+    }
+
+    @Override
+    public Instant nextExecution(Instant lastScheduled, Instant lastCompleted, Instant now) {
+        // 执行落后时从当前时间开始计算，不补执行错过的时间:
+        Instant base = lastScheduled == null || lastScheduled.isBefore(now) ? now : lastScheduled;
+        ZonedDateTime next = expression.next(base.atZone(zone));
+        return next == null ? null : next.toInstant();
+    }
+
+    @Override
+    public String toString() {
+        return "cron(" + expression + ")";
+    }
+}
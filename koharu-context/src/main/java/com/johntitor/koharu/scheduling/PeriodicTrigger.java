@@ -0,0 +1,62 @@
+package com.johntitor.koharu.scheduling;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * fixedRate或fixedDelay
+ */
+public class PeriodicTrigger implements Trigger {
+
+    private final Duration period;
+    private final Duration initialDelay;
+    private final boolean fixedRate;
+
+    private PeriodicTrigger(Duration period, Duration initialDelay, boolean fixedRate) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        if (initialDelay.isNegative()) {
+            throw new IllegalArgumentException("Initial delay must not be negative: " + initialDelay);
+        }
+        this.period = period;
+        this.initialDelay = initialDelay;
+        this.fixedRate = fixedRate;
+    }
+
+    public static PeriodicTrigger fixedRate(Duration period, Duration initialDelay) {
+        return new PeriodicTrigger(period, initialDelay, true);
+    }
+
+    public static PeriodicTrigger fixedDelay(Duration delay, Duration initialDelay) {
+        return new PeriodicTrigger(delay, initialDelay, false);
+    }
+
+    @Override
+    public Instant nextExecution(Instant lastScheduled, Instant lastCompleted, Instant now) {
+        if (lastScheduled == null) {
+            return now.plus(initialDelay);
+        }
+        if (!fixedRate) {
+            return lastCompleted.plus(period);
+        }
+        Instant next = lastScheduled.plus(period);
+        if (next.isBefore(now)) {
+            // 已错过的周期不再补执行，保持原有的执行相位:
+            long periodNanos = period.toNanos();
+            long missed = Duration.between(next, now).toNanos() / periodNanos + 1;
+            next = next.plusNanos(missed * periodNanos);
+        }
+        return next;
+    }
+
+    @Override
+    public boolean isRelativeToCompletion() {
+        return !fixedRate;
+    }
+
+    @Override
+    public String toString() {
+        return (fixedRate ? "fixedRate(" : "fixedDelay(") + period + ")";
+    }
+}
@@ -0,0 +1,157 @@
+package com.johntitor.koharu.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 由TaskScheduler调度的一个定时任务:
+ * <p>
+ * 每次只调度下一次执行，执行时间由Trigger计算。上一次执行未结束时跳过本次执行，保证同一任务不会并发执行。
+ */
+public class ScheduledTask {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final Runnable action;
+    private final Trigger trigger;
+    private final long jitterNanos;
+    private final TaskScheduler scheduler;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean cancelled;
+    private volatile ScheduledFuture<?> future;
+    private volatile Instant lastScheduled;
+
+    // 统计:
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder totalDuration = new LongAdder();
+    private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+    private volatile long lastStart;
+    private volatile long lastDuration;
+
+    ScheduledTask(String name, Runnable action, Trigger trigger, Duration jitter, TaskScheduler scheduler) {
+        this.name = name;
+        this.action = action;
+        this.trigger = trigger;
+        this.jitterNanos = jitter.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 计算并调度下一次执行
+     */
+    void schedule(Instant lastCompleted) {
+        if (cancelled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant next = trigger.nextExecution(lastScheduled, lastCompleted, now);
+        if (next == null) {
+            logger.info("scheduled task {} has no next execution time.", name);
+            cancelled = true;
+            return;
+        }
+        lastScheduled = next;
+        long delay = Math.max(0, Duration.between(now, next).toNanos());
+        if (jitterNanos > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+        }
+        try {
+            future = scheduler.schedule(this::fire, delay);
+        } catch (RejectedExecutionException e) {
+            // TaskScheduler已关闭:
+            cancelled = true;
+        }
+    }
+
+    private void fire() {
+        if (cancelled) {
+            return;
+        }
+        if (!trigger.isRelativeToCompletion()) {
+            // fixedRate和cron在开始执行时调度下一次:
+            schedule(null);
+        }
+        if (!running.compareAndSet(false, true)) {
+            skipped.increment();
+            logger.debug("skip scheduled task {} because previous execution is still running.", name);
+            return;
+        }
+        try {
+            scheduler.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    private void run() {
+        lastStart = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (Throwable t) {
+            failures.increment();
+            logger.error("scheduled task {} failed.", name, t);
+        } finally {
+            long duration = System.nanoTime() - start;
+            runs.increment();
+            totalDuration.add(duration);
+            maxDuration.accumulate(duration);
+            lastDuration = duration;
+            running.set(false);
+        }
+        if (trigger.isRelativeToCompletion()) {
+            schedule(Instant.now());
+        }
+    }
+
+    /**
+     * 取消后续执行，不中断正在执行的任务
+     */
+    public void cancel() {
+        cancelled = true;
+        ScheduledFuture<?> f = future;
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Trigger getTrigger() {
+        return trigger;
+    }
+
+    public ScheduledTaskStats getStats() {
+        long count = runs.sum();
+        return new ScheduledTaskStats(name, trigger.toString(), count, failures.sum(), skipped.sum(), running.get(),
+                lastStart, lastDuration, count == 0 ? 0 : totalDuration.sum() / count, maxDuration.get());
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledTask[" + name + ", " + trigger + "]";
+    }
+}
@@ -0,0 +1,8 @@
+package com.johntitor.koharu.scheduling;
+
+/**
+ * 定时任务的执行统计，时间单位为纳秒，lastStart为epoch毫秒
+ */
+public record ScheduledTaskStats(String name, String trigger, long runs, long failures, long skipped, boolean running,
+                                 long lastStart, long lastDuration, long meanDuration, long maxDuration) {
+}
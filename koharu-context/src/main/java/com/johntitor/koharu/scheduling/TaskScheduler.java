@@ -0,0 +1,120 @@
+package com.johntitor.koharu.scheduling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 所有定时任务共享的调度器:
+ * <p>
+ * ScheduledThreadPoolExecutor只负责计时，启用虚拟线程时每次执行在新的虚拟线程中运行，否则直接在调度线程中运行。
+ * close()时取消所有未开始的执行，等待正在执行的任务结束，超时后中断。
+ */
+public class TaskScheduler implements AutoCloseable {
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService workers;
+    private final Duration awaitTermination;
+    private final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public TaskScheduler(String name, int poolSize, boolean virtualThreads, Duration awaitTermination) {
+        this.name = name;
+        this.awaitTermination = awaitTermination;
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, name + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.scheduler = new ScheduledThreadPoolExecutor(poolSize, factory);
+        // 取消的任务立即从队列移除，关闭后不再执行已调度的任务:
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.workers = virtualThreads ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-worker-", 1).factory()) : null;
+    }
+
+    /**
+     * 注册并开始调度一个任务
+     */
+    public ScheduledTask schedule(String taskName, Runnable action, Trigger trigger, Duration jitter) {
+        if (closed) {
+            throw new IllegalStateException("TaskScheduler " + name + " is closed.");
+        }
+        ScheduledTask task = new ScheduledTask(taskName, action, trigger, jitter, this);
+        tasks.add(task);
+        logger.info("schedule task {} with {}.", taskName, trigger);
+        task.schedule(null);
+        return task;
+    }
+
+    ScheduledFuture<?> schedule(Runnable command, long delayNanos) {
+        return scheduler.schedule(command, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void execute(Runnable command) {
+        if (workers == null) {
+            command.run();
+        } else {
+            workers.execute(command);
+        }
+    }
+
+    public List<ScheduledTask> getTasks() {
+        return List.copyOf(tasks);
+    }
+
+    public List<ScheduledTaskStats> getTaskStats() {
+        return tasks.stream().map(ScheduledTask::getStats).toList();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        logger.info("Closing TaskScheduler {}...", name);
+        tasks.forEach(ScheduledTask::cancel);
+        scheduler.shutdown();
+        if (workers != null) {
+            workers.shutdown();
+        }
+        // 等待正在执行的任务结束:
+        long deadline = System.nanoTime() + awaitTermination.toNanos();
+        try {
+            if (!scheduler.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                logger.warn("TaskScheduler {} did not terminate in {} ms, interrupt running tasks.", name, awaitTermination.toMillis());
+                scheduler.shutdownNow();
+            }
+            if (workers != null && !workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                logger.warn("TaskScheduler {} workers did not terminate in {} ms, interrupt running tasks.", name, awaitTermination.toMillis());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            if (workers != null) {
+                workers.shutdownNow();
+            }
+            Thread.currentThread().interrupt();
+        }
+        logger.info("TaskScheduler {} closed.", name);
+    }
+}
@@ -0,0 +1,28 @@
+package com.johntitor.koharu.scheduling;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Instant;
+
+/**
+ * 计算定时任务的下次执行时间
+ */
+public interface Trigger {
+
+    /**
+     * 下次执行时间，返回null表示不再执行
+     *
+     * @param lastScheduled 上次计划执行的时间，首次为null
+     * @param lastCompleted 上次执行结束的时间，只有isRelativeToCompletion()为true时才有值
+     * @param now           当前时间
+     */
+    @Nullable
+    Instant nextExecution(@Nullable Instant lastScheduled, @Nullable Instant lastCompleted, Instant now);
+
+    /**
+     * 为true时在每次执行结束后计算下次执行时间，否则在每次开始执行时计算
+     */
+    default boolean isRelativeToCompletion() {
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.johntitor.koharu.scope;
+
+import jakarta.annotation.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * 保存某个作用域内Bean实例的容器，如request、session、thread
+ */
+public interface BeanScope {
+
+    /**
+     * 返回作用域中的实例，不存在时由factory创建并保存
+     */
+    Object get(String name, Supplier<?> factory);
+
+    /**
+     * 从作用域中删除实例并返回，不存在时返回null
+     */
+    @Nullable
+    Object remove(String name);
+
+    /**
+     * 作用域结束时调用callback，用于执行Bean的destroy方法
+     */
+    void registerDestructionCallback(String name, Runnable callback);
+}
@@ -0,0 +1,13 @@
+package com.johntitor.koharu.scope;
+
+import java.util.function.Supplier;
+
+/**
+ * 创建Scoped Proxy，Proxy的每次方法调用都转发给targetSource返回的当前实例:
+ * <p>
+ * 由koharu-aop通过ServiceLoader提供实现。
+ */
+public interface ScopedProxyFactory {
+
+    Object createScopedProxy(Class<?> beanClass, Supplier<?> targetSource);
+}
@@ -0,0 +1,103 @@
+package com.johntitor.koharu.scope;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 每个线程持有独立实例的作用域，调用destroy()结束当前线程的作用域，
+ * 关闭ApplicationContext时调用destroyAll()销毁所有线程中尚未结束的实例
+ */
+public class ThreadScope implements BeanScope {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // 记录所有线程的实例，关闭时在其他线程中调用destroy方法:
+    private final Set<ThreadBeans> allThreadBeans = ConcurrentHashMap.newKeySet();
+
+    private final ThreadLocal<ThreadBeans> threadBeans = ThreadLocal.withInitial(() -> {
+        ThreadBeans beans = new ThreadBeans();
+        allThreadBeans.add(beans);
+        return beans;
+    });
+
+    @Override
+    public Object get(String name, Supplier<?> factory) {
+        Map<String, Object> instances = threadBeans.get().instances;
+        Object instance = instances.get(name);
+        if (instance == null) {
+            // 不使用computeIfAbsent，factory中可能创建其他thread作用域的Bean:
+            instance = factory.get();
+            instances.put(name, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        ThreadBeans beans = threadBeans.get();
+        synchronized (beans) {
+            beans.callbacks.remove(name);
+        }
+        return beans.instances.remove(name);
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        ThreadBeans beans = threadBeans.get();
+        synchronized (beans) {
+            beans.callbacks.put(name, callback);
+        }
+    }
+
+    /**
+     * 销毁当前线程的所有实例
+     */
+    public void destroy() {
+        ThreadBeans beans = threadBeans.get();
+        threadBeans.remove();
+        destroy(beans);
+    }
+
+    /**
+     * 销毁所有线程的实例，由ApplicationContext关闭时调用，此后其他线程不应再访问该作用域
+     */
+    public void destroyAll() {
+        threadBeans.remove();
+        for (ThreadBeans beans : allThreadBeans) {
+            destroy(beans);
+        }
+    }
+
+    private void destroy(ThreadBeans beans) {
+        // 每个线程的实例只销毁一次:
+        if (!allThreadBeans.remove(beans)) {
+            return;
+        }
+        List<Runnable> callbacks;
+        synchronized (beans) {
+            callbacks = new ArrayList<>(beans.callbacks.values());
+            beans.callbacks.clear();
+        }
+        for (int i = callbacks.size() - 1; i >= 0; i--) {
+            try {
+                callbacks.get(i).run();
+            } catch (RuntimeException e) {
+                logger.warn("destruction callback failed in thread scope.", e);
+            }
+        }
+    }
+
+    private static class ThreadBeans {
+        final Map<String, Object> instances = new HashMap<>();
+        final Map<String, Runnable> callbacks = new LinkedHashMap<>();
+    }
+}
@@ -1,12 +1,16 @@
 package com.johntitor.koharu.utils;
 
 import com.johntitor.koharu.io.InputStreamCallback;
+import jakarta.annotation.Nullable;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
 public class ClassPathUtils {
 
@@ -32,6 +36,32 @@ public class ClassPathUtils {
         });
     }
 
+    public static boolean exists(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        return getContextClassLoader().getResource(path) != null;
+    }
+
+    /**
+     * classpath中的资源在文件系统中时返回其路径，在jar中或不存在时返回null
+     */
+    @Nullable
+    public static Path findFile(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        URL url = getContextClassLoader().getResource(path);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
     static ClassLoader getContextClassLoader() {
         ClassLoader cl = null;
         cl = Thread.currentThread().getContextClassLoader();
@@ -0,0 +1,229 @@
+package com.johntitor.koharu.utils;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于SnakeYAML事件把YAML直接展开为扁平的key，不构造中间的嵌套Map:
+ * <p>
+ * 映射展开为a.b，列表展开为a.b[0]，所有值都作为字符串，空值和!!null为空字符串。
+ * 多个文档依次合并，后面的文档覆盖前面的key，空文档被忽略。支持锚点、别名和合并key(&lt;&lt;)，合并key应写在其他key之前。
+ */
+final class YamlFlattener {
+
+    private static final String NULL_TAG = "tag:yaml.org,2002:null";
+    private static final String MERGE_KEY = "<<";
+
+    private final Map<String, Object> plain = new LinkedHashMap<>();
+    // 当前key，进入和离开节点时只截断长度，不创建新字符串:
+    private final StringBuilder path = new StringBuilder(128);
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    // 锚点 -> 以锚点所在位置为起点的(后缀, 值):
+    private final Map<String, List<String[]>> anchors = new HashMap<>();
+    private final List<Recording> recordings = new ArrayList<>();
+
+    private static final class Frame {
+
+        final boolean mapping;
+        // 进入节点时path的长度:
+        final int base;
+        final Recording recording;
+        int index = 0;
+        boolean expectKey = true;
+        boolean merging = false;
+
+        Frame(boolean mapping, int base, Recording recording) {
+            this.mapping = mapping;
+            this.base = base;
+            this.recording = recording;
+        }
+    }
+
+    private record Recording(String anchor, int base, List<String[]> entries) {
+    }
+
+    private YamlFlattener() {
+    }
+
+    static Map<String, Object> flatten(Reader reader) {
+        var loaderOptions = new LoaderOptions();
+        // 配置文件可能很大，不限制长度:
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+        Parser parser = new ParserImpl(new StreamReader(reader), loaderOptions);
+        YamlFlattener flattener = new YamlFlattener();
+        for (Event event = parser.getEvent(); !event.is(Event.ID.StreamEnd); event = parser.getEvent()) {
+            flattener.onEvent(event);
+        }
+        return flattener.plain;
+    }
+
+    void onEvent(Event event) {
+        switch (event.getEventId()) {
+            case DocumentStart -> {
+                // 锚点只在文档内有效:
+                this.anchors.clear();
+                this.path.setLength(0);
+            }
+            case MappingStart, SequenceStart -> {
+                CollectionStartEvent start = (CollectionStartEvent) event;
+                boolean mapping = event.is(Event.ID.MappingStart);
+                Frame parent = this.frames.peek();
+                if (parent != null && parent.mapping && parent.expectKey) {
+                    throw new IllegalArgumentException("Unsupported complex key at " + event.getStartMark());
+                }
+                enterValue(parent);
+                Recording recording = null;
+                if (start.getAnchor() != null) {
+                    recording = new Recording(start.getAnchor(), this.path.length(), new ArrayList<>());
+                    this.recordings.add(recording);
+                }
+                Frame frame = new Frame(mapping, this.path.length(), recording);
+                // <<: [*a, *b]，合并的映射base与目标映射相同，直接展开到目标映射:
+                if (parent != null && parent.merging && !mapping) {
+                    frame.merging = true;
+                }
+                this.frames.push(frame);
+            }
+            case MappingEnd, SequenceEnd -> {
+                Frame frame = this.frames.pop();
+                if (frame.recording != null) {
+                    this.recordings.remove(frame.recording);
+                    this.anchors.put(frame.recording.anchor(), frame.recording.entries());
+                }
+                leaveValue(this.frames.peek());
+            }
+            case Scalar -> {
+                ScalarEvent scalar = (ScalarEvent) event;
+                Frame frame = this.frames.peek();
+                if (frame != null && frame.mapping && frame.expectKey) {
+                    enterKey(frame, scalar.getValue());
+                    return;
+                }
+                String value = NULL_TAG.equals(scalar.getTag()) ? "" : scalar.getValue();
+                // 空文档(如a: 1之后的---)是顶层的空值，直接忽略:
+                if (frame == null && value.isEmpty()) {
+                    return;
+                }
+                enterValue(frame);
+                if (scalar.getAnchor() != null) {
+                    List<String[]> entries = new ArrayList<>(1);
+                    entries.add(new String[]{"", value});
+                    this.anchors.put(scalar.getAnchor(), entries);
+                }
+                put(value);
+                leaveValue(frame);
+            }
+            case Alias -> {
+                String anchor = ((NodeEvent) event).getAnchor();
+                List<String[]> entries = this.anchors.get(anchor);
+                if (entries == null) {
+                    throw new IllegalArgumentException("Undefined alias '" + anchor + "' at " + event.getStartMark());
+                }
+                Frame frame = this.frames.peek();
+                if (frame != null && frame.mapping && frame.expectKey) {
+                    throw new IllegalArgumentException("Unsupported alias as key at " + event.getStartMark());
+                }
+                if (frame != null && frame.merging) {
+                    merge(frame, entries);
+                    return;
+                }
+                enterValue(frame);
+                replay(entries);
+                leaveValue(frame);
+            }
+            default -> {
+                // StreamStart, DocumentEnd, Comment
+            }
+        }
+    }
+
+    private void enterKey(Frame frame, String key) {
+        this.path.setLength(frame.base);
+        if (MERGE_KEY.equals(key)) {
+            frame.merging = true;
+        } else {
+            if (frame.base > 0) {
+                this.path.append('.');
+            }
+            this.path.append(key);
+        }
+        frame.expectKey = false;
+    }
+
+    // 定位到下一个值的key，映射的key已在enterKey中追加:
+    private void enterValue(Frame frame) {
+        if (frame != null && !frame.mapping && !frame.merging) {
+            this.path.setLength(frame.base);
+            this.path.append('[').append(frame.index++).append(']');
+        }
+    }
+
+    private void leaveValue(Frame frame) {
+        if (frame != null) {
+            this.path.setLength(frame.base);
+            if (frame.mapping) {
+                frame.expectKey = true;
+                frame.merging = false;
+            }
+        }
+    }
+
+    // 合并到merging所在的映射，映射的锚点记录的后缀以'.'开头:
+    private void merge(Frame frame, List<String[]> entries) {
+        Frame target = frame.mapping ? frame : secondFrame();
+        this.path.setLength(target.base);
+        for (String[] entry : entries) {
+            String suffix = entry[0];
+            if (target.base == 0 && suffix.startsWith(".")) {
+                suffix = suffix.substring(1);
+            }
+            int length = this.path.length();
+            this.path.append(suffix);
+            put(entry[1]);
+            this.path.setLength(length);
+        }
+        leaveValue(frame);
+    }
+
+    private Frame secondFrame() {
+        var it = this.frames.iterator();
+        it.next();
+        return it.next();
+    }
+
+    private void replay(List<String[]> entries) {
+        int length = this.path.length();
+        for (String[] entry : entries) {
+            this.path.append(entry[0]);
+            put(entry[1]);
+            this.path.setLength(length);
+        }
+    }
+
+    private void put(String value) {
+        String key = this.path.toString();
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("YAML document must be a mapping.");
+        }
+        this.plain.put(key, value);
+        for (Recording recording : this.recordings) {
+            recording.entries().add(new String[]{key.substring(recording.base()), value});
+        }
+    }
+}
@@ -4,48 +4,54 @@ import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.reader.UnicodeReader;
 import org.yaml.snakeyaml.representer.Representer;
 import org.yaml.snakeyaml.resolver.Resolver;
 
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class YamlUtils {
 
     @SuppressWarnings("unchecked")
     public static Map<String, Object> loadYaml(String path) {
-        var loaderOptions = new LoaderOptions();
-        var dumperOptions = new DumperOptions();
-        var representer = new Representer(dumperOptions);
-        var resolver = new NoImplicitResolver();
-        var yaml = new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
+        var yaml = createYaml();
         return ClassPathUtils.readInputStream(path, (input) -> {
             return (Map<String, Object>) yaml.load(input);
         });
     }
 
+    /**
+     * 加载并展开为扁平的key，例如a.b、a.list[0]，值均为字符串
+     */
     public static Map<String, Object> loadYamlAsPlainMap(String path) {
-        Map<String, Object> data = loadYaml(path);
-        Map<String, Object> plain = new LinkedHashMap<>();
-        convertTo(data, "", plain);
-        return plain;
+        return ClassPathUtils.readInputStream(path, (input) -> {
+            return YamlFlattener.flatten(new UnicodeReader(input));
+        });
     }
 
-    static void convertTo(Map<String, Object> source, String prefix, Map<String, Object> plain) {
-        for (String key : source.keySet()) {
-            Object value = source.get(key);
-            if (value instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> subMap = (Map<String, Object>) value;
-                convertTo(subMap, prefix + key + ".", plain);
-            } else if (value instanceof List) {
-                plain.put(prefix + key, value);
-            } else {
-                plain.put(prefix + key, value.toString());
-            }
+    /**
+     * 从文件系统加载，用于监听配置文件变化后重新加载
+     */
+    public static Map<String, Object> loadYamlAsPlainMap(Path file) {
+        try (InputStream input = Files.newInputStream(file)) {
+            return YamlFlattener.flatten(new UnicodeReader(input));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
+
+    static Yaml createYaml() {
+        var loaderOptions = new LoaderOptions();
+        var dumperOptions = new DumperOptions();
+        var representer = new Representer(dumperOptions);
+        var resolver = new NoImplicitResolver();
+        return new Yaml(new Constructor(loaderOptions), representer, dumperOptions, loaderOptions, resolver);
+    }
 }
 
 /**
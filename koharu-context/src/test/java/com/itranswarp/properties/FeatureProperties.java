@@ -0,0 +1,26 @@
+package com.itranswarp.properties;
+
+import com.johntitor.koharu.annotation.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.feature")
+public class FeatureProperties {
+
+    private boolean enabled;
+    private int limit = 10;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
@@ -0,0 +1,10 @@
+package com.itranswarp.properties;
+
+import com.johntitor.koharu.annotation.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "app.mail")
+public record MailProperties(String host, int port, Duration timeout, List<String> recipients) {
+}
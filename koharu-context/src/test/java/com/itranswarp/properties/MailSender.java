@@ -0,0 +1,14 @@
+package com.itranswarp.properties;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+
+@Component
+public class MailSender {
+
+    public final MailProperties properties;
+
+    public MailSender(@Autowired MailProperties properties) {
+        this.properties = properties;
+    }
+}
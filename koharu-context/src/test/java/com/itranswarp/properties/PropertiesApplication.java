@@ -0,0 +1,8 @@
+package com.itranswarp.properties;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+
+@ComponentScan
+public class PropertiesApplication {
+
+}
@@ -0,0 +1,30 @@
+package com.itranswarp.prototype;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Scope;
+import com.johntitor.koharu.annotation.Value;
+import jakarta.annotation.PostConstruct;
+
+@Component
+@Scope(Scope.PROTOTYPE)
+public class CommandBean {
+
+    public final String title;
+    public final int id;
+
+    @Autowired
+    public SequenceBean sequence;
+
+    public boolean initialized;
+
+    public CommandBean(@Value("${app.title}") String title, @Autowired SequenceBean sequence) {
+        this.title = title;
+        this.id = sequence.next.incrementAndGet();
+    }
+
+    @PostConstruct
+    void init() {
+        this.initialized = true;
+    }
+}
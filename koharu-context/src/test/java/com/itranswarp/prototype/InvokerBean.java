@@ -0,0 +1,17 @@
+package com.itranswarp.prototype;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+
+@Component
+public class InvokerBean {
+
+    public final CommandBean first;
+
+    @Autowired
+    public CommandBean second;
+
+    public InvokerBean(@Autowired CommandBean first) {
+        this.first = first;
+    }
+}
@@ -0,0 +1,8 @@
+package com.itranswarp.prototype;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+
+@ComponentScan
+public class PrototypeApplication {
+
+}
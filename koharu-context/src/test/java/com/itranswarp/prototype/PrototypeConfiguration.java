@@ -0,0 +1,16 @@
+package com.itranswarp.prototype;
+
+import com.johntitor.koharu.annotation.Bean;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Scope;
+import com.johntitor.koharu.annotation.Value;
+
+@Configuration
+public class PrototypeConfiguration {
+
+    @Bean
+    @Scope(Scope.PROTOTYPE)
+    StringBuilder buffer(@Value("${app.version}") String version) {
+        return new StringBuilder(version);
+    }
+}
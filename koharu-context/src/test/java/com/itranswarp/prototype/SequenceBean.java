@@ -0,0 +1,11 @@
+package com.itranswarp.prototype;
+
+import com.johntitor.koharu.annotation.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class SequenceBean {
+
+    public final AtomicInteger next = new AtomicInteger();
+}
@@ -0,0 +1,8 @@
+package com.itranswarp.scheduled;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+
+@ComponentScan
+public class ScheduledApplication {
+
+}
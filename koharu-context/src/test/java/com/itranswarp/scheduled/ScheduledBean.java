@@ -0,0 +1,46 @@
+package com.itranswarp.scheduled;
+
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Scheduled;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class ScheduledBean {
+
+    public final AtomicInteger rateCount = new AtomicInteger();
+    public final AtomicInteger delayCount = new AtomicInteger();
+    public final AtomicInteger concurrent = new AtomicInteger();
+    public final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    public final CountDownLatch rateStarted = new CountDownLatch(1);
+    public final CountDownLatch rateRelease = new CountDownLatch(1);
+    public final CountDownLatch rateRuns = new CountDownLatch(2);
+    public final CountDownLatch delayRuns = new CountDownLatch(2);
+
+    @Scheduled(fixedRate = 10)
+    public void rate() throws InterruptedException {
+        int n = concurrent.incrementAndGet();
+        maxConcurrent.accumulateAndGet(n, Math::max);
+        rateCount.incrementAndGet();
+        rateStarted.countDown();
+        try {
+            // 第一次执行阻塞到测试释放，期间的触发被跳过:
+            rateRelease.await();
+        } finally {
+            concurrent.decrementAndGet();
+            rateRuns.countDown();
+        }
+    }
+
+    @Scheduled(fixedDelay = 5, initialDelay = 20, jitter = 5)
+    void delay() {
+        delayCount.incrementAndGet();
+        delayRuns.countDown();
+    }
+
+    @Scheduled(cron = "${scheduled.cron:0 0 0 1 1 ?}")
+    void yearly() {
+    }
+}
@@ -2,6 +2,13 @@ package com.johntitor.koharu.context;
 
 import com.itranswarp.imported.LocalDateConfiguration;
 import com.itranswarp.imported.ZonedDateConfiguration;
+import com.itranswarp.properties.FeatureProperties;
+import com.itranswarp.properties.MailProperties;
+import com.itranswarp.properties.MailSender;
+import com.itranswarp.properties.PropertiesApplication;
+import com.itranswarp.prototype.CommandBean;
+import com.itranswarp.prototype.InvokerBean;
+import com.itranswarp.prototype.PrototypeApplication;
 import com.itranswarp.scan.ScanApplication;
 import com.itranswarp.scan.annotation.CustomAnnotationBean;
 import com.itranswarp.scan.convert.ValueConverterBean;
@@ -18,11 +25,24 @@ import com.itranswarp.scan.proxy.SecondProxyBean;
 import com.itranswarp.scan.sub1.Sub1Bean;
 import com.itranswarp.scan.sub1.sub2.Sub2Bean;
 import com.itranswarp.scan.sub1.sub2.sub3.Sub3Bean;
+import com.itranswarp.scheduled.ScheduledApplication;
+import com.itranswarp.scheduled.ScheduledBean;
+import com.johntitor.koharu.scheduling.ScheduledTaskStats;
 import com.johntitor.koharu.io.PropertyResolver;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -138,13 +158,253 @@ public class AnnotationConfigApplicationContextTest {
         var inject2 = ctx.getBean(InjectProxyOnConstructorBean.class);
         assertSame(proxy, inject1.injected);
         assertSame(proxy, inject2.injected);
+
+        // BeanDefinition记录还原的原始实例:
+        var def = ctx.findBeanDefinition("originBean");
+        assertSame(proxy, def.getProxiedInstance());
+        assertSame(OriginBean.class, def.getOriginalInstance().getClass());
+        assertEquals("Scan App", ((OriginBean) def.getOriginalInstance()).name);
+    }
+
+
+    @Test
+    public void testScheduled() throws InterruptedException {
+        var ctx = new AnnotationConfigApplicationContext(ScheduledApplication.class, createPropertyResolver());
+        var bean = ctx.getBean(ScheduledBean.class);
+        var scheduler = ctx.getTaskScheduler();
+        assertNotNull(scheduler);
+        assertEquals(3, scheduler.getTasks().size());
+        var rateTask = scheduler.getTasks().stream().filter(t -> t.getName().equals("scheduledBean.rate")).findFirst().orElseThrow();
+
+        // 第一次执行未结束时，后续的触发被跳过而不是并发执行:
+        assertTrue(bean.rateStarted.await(5, TimeUnit.SECONDS));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (rateTask.getStats().skipped() == 0) {
+            assertTrue(System.nanoTime() < deadline, "no skipped execution");
+            Thread.sleep(1);
+        }
+        assertEquals(1, bean.rateCount.get());
+        assertTrue(rateTask.isRunning());
+        bean.rateRelease.countDown();
+        assertTrue(bean.rateRuns.await(5, TimeUnit.SECONDS));
+        assertTrue(bean.delayRuns.await(5, TimeUnit.SECONDS));
+
+        // 关闭时等待正在执行的任务结束，之后不再执行:
+        ctx.close();
+        assertTrue(scheduler.isClosed());
+        assertNull(ctx.getTaskScheduler());
+        assertTrue(scheduler.getTasks().stream().noneMatch(t -> t.isRunning()));
+        int rate = bean.rateCount.get();
+        assertEquals(1, bean.maxConcurrent.get());
+        assertTrue(rate > 1);
+        assertTrue(bean.delayCount.get() > 1);
+
+        var stats = scheduler.getTaskStats().stream().collect(java.util.stream.Collectors.toMap(ScheduledTaskStats::name, s -> s));
+        ScheduledTaskStats rateStats = stats.get("scheduledBean.rate");
+        assertEquals(rate, rateStats.runs());
+        assertTrue(rateStats.skipped() > 0);
+        assertEquals(0, rateStats.failures());
+        assertTrue(rateStats.maxDuration() > 0);
+        assertEquals(bean.delayCount.get(), stats.get("scheduledBean.delay").runs());
+        assertEquals("fixedDelay(PT0.005S)", stats.get("scheduledBean.delay").trigger());
+        assertEquals(0, stats.get("scheduledBean.yearly").runs());
+    }
+
+    @Test
+    public void testPrototype() {
+        var ctx = new AnnotationConfigApplicationContext(PrototypeApplication.class, createPropertyResolver());
+        // 注入到singleton的prototype各自独立:
+        var invoker = ctx.getBean(InvokerBean.class);
+        assertNotSame(invoker.first, invoker.second);
+        assertNotEquals(invoker.first.id, invoker.second.id);
+        // 每次getBean()创建新实例，并完成注入和init:
+        var c1 = ctx.getBean(CommandBean.class);
+        var c2 = ctx.getBean("commandBean", CommandBean.class);
+        assertNotSame(c1, c2);
+        assertEquals(c1.id + 1, c2.id);
+        assertEquals("Scan App", c2.title);
+        assertSame(ctx.getBean("sequenceBean"), c2.sequence);
+        assertTrue(c2.initialized);
+        // @Bean方法:
+        StringBuilder b1 = ctx.getBean("buffer");
+        StringBuilder b2 = ctx.getBean("buffer");
+        assertNotSame(b1, b2);
+        assertEquals("v1.0", b2.toString());
+        ctx.close();
+    }
+
+    @Test
+    public void testPrototypeAfterReload() {
+        var ps = createProperties();
+        var pr = new PropertyResolver(ps);
+        var ctx = new AnnotationConfigApplicationContext(PrototypeApplication.class, pr);
+        assertEquals("Scan App", ctx.getBean(CommandBean.class).title);
+        assertEquals("v1.0", ctx.getBean("buffer").toString());
+        // 重新加载后创建的实例使用新的@Value:
+        ps.put("app.title", "Reloaded App");
+        ps.put("app.version", "v2.0");
+        pr.reload(ps);
+        assertEquals("Reloaded App", ctx.getBean(CommandBean.class).title);
+        assertEquals("v2.0", ctx.getBean("buffer").toString());
+        // 已创建的singleton不受影响:
+        assertEquals("Scan App", ctx.getBean(InvokerBean.class).first.title);
+        ctx.close();
+    }
+
+    @Test
+    public void testConfigurationProperties() {
+        var ctx = new AnnotationConfigApplicationContext(PropertiesApplication.class, createPropertyResolver());
+        MailProperties mail = ctx.getBean("mailProperties");
+        assertSame(mail, ctx.getBean(MailSender.class).properties);
+        assertEquals("smtp.example.com", mail.host());
+        assertEquals(25, mail.port());
+        assertEquals(Duration.ofSeconds(5), mail.timeout());
+        assertEquals(List.of("bart@example.com", "lisa@example.com"), mail.recipients());
+        ctx.close();
+    }
+
+    @Test
+    public void testReloadConfigurationProperties() throws Exception {
+        var ps = createProperties();
+        var pr = new PropertyResolver(ps);
+        var ctx = new AnnotationConfigApplicationContext(PropertiesApplication.class, pr);
+        FeatureProperties feature = ctx.getBean(FeatureProperties.class);
+        assertTrue(feature.isEnabled());
+        assertEquals(10, feature.getLimit());
+        MailProperties mail = ctx.getBean(MailProperties.class);
+
+        ps.put("app.feature.enabled", "false");
+        ps.put("app.feature.limit", "50");
+        ps.put("app.mail.port", "587");
+        assertEquals(Set.of("app.feature.enabled", "app.feature.limit", "app.mail.port"), pr.reload(ps));
+        // 没有koharu-aop时POJO绑定为新实例，getBean()返回新实例，已获取的实例不变:
+        FeatureProperties rebound = ctx.getBean(FeatureProperties.class);
+        assertNotSame(feature, rebound);
+        assertTrue(feature.isEnabled());
+        assertFalse(rebound.isEnabled());
+        assertEquals(50, rebound.getLimit());
+        // record替换为新实例:
+        assertEquals(25, mail.port());
+        assertEquals(587, ctx.getBean(MailProperties.class).port());
+
+        // 绑定失败时保留原值:
+        ps.put("app.feature.limit", "many");
+        pr.reload(ps);
+        assertSame(rebound, ctx.getBean(FeatureProperties.class));
+        assertEquals(50, rebound.getLimit());
+
+        // 删除的key恢复为默认值:
+        ps.remove("app.feature.limit");
+        pr.reload(ps);
+        assertEquals(10, ctx.getBean(FeatureProperties.class).getLimit());
+
+        // 关闭后不再重新绑定:
+        BeanDefinition def = ctx.findBeanDefinition(FeatureProperties.class);
+        Object last = def.getInstance();
+        ctx.close();
+        ps.put("app.feature.enabled", "true");
+        pr.reload(ps);
+        assertSame(last, def.getInstance());
+    }
+
+    @Test
+    public void testSnapshot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("context.snapshot");
+        var ps = createProperties();
+        ps.put("koharu.context.snapshot", file.toString());
+
+        // 第一次启动时扫描并写入快照:
+        var ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps));
+        Map<String, String> scanned = describe(ctx.findBeanDefinitions(Object.class));
+        List<String> packages = ctx.getSnapshotPackages(ScanApplication.class);
+        ctx.close();
+        assertTrue(Files.isRegularFile(file));
+
+        String hash = BeanDefinitionSnapshot.classpathHash(packages);
+        Map<String, BeanDefinition> defs = BeanDefinitionSnapshot.read(file, hash, ScanApplication.class.getName());
+        assertNotNull(defs);
+        assertEquals(scanned, describe(defs.values()));
+        // 恢复的注入点设置到BeanDefinition，Class的注入点已解析过时也不会被丢弃:
+        BeanDefinition restoredDef = defs.values().stream().filter(def -> def.getBeanClass() == InjectProxyOnPropertyBean.class).findFirst().orElseThrow();
+        InjectionMetadata parsed = InjectionMetadata.forClass(InjectProxyOnPropertyBean.class);
+        assertNotSame(parsed, restoredDef.getInjectionMetadata());
+        assertEquals(Arrays.stream(parsed.getPoints()).map(InjectionMetadata.InjectionPoint::name).toList(),
+                Arrays.stream(restoredDef.getInjectionMetadata().getPoints()).map(InjectionMetadata.InjectionPoint::name).toList());
+        // classpath或配置类不同时快照失效:
+        assertNull(BeanDefinitionSnapshot.read(file, "0" + hash, ScanApplication.class.getName()));
+        assertNull(BeanDefinitionSnapshot.read(file, hash, PropertiesApplication.class.getName()));
+
+        // 从快照恢复后行为一致:
+        ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps));
+        assertEquals(scanned, describe(ctx.findBeanDefinitions(Object.class)));
+        assertEquals("Scan App / v1.0", ctx.getBean(AnnotationInitBean.class).appName);
+        assertEquals("Scan App / v1.0", ctx.getBean(SpecifyInitBean.class).appName);
+        OriginBean proxy = ctx.getBean(OriginBean.class);
+        assertSame(SecondProxyBean.class, proxy.getClass());
+        assertSame(proxy, ctx.getBean(InjectProxyOnPropertyBean.class).injected);
+        assertSame(proxy, ctx.getBean(InjectProxyOnConstructorBean.class).injected);
+        ctx.close();
+
+        // 损坏的快照被忽略并重新写入:
+        Files.write(file, new byte[]{1, 2, 3});
+        ctx = new AnnotationConfigApplicationContext(ScanApplication.class, new PropertyResolver(ps));
+        assertEquals(scanned, describe(ctx.findBeanDefinitions(Object.class)));
+        ctx.close();
+        assertNotNull(BeanDefinitionSnapshot.read(file, hash, ScanApplication.class.getName()));
     }
 
+    @Test
+    public void testSnapshotClasspathHash(@TempDir Path dir) throws Exception {
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        Path scanned = Files.createDirectories(classes.resolve("com/example/app"));
+        Path other = Files.createDirectories(classes.resolve("com/example/other"));
+        Files.write(scanned.resolve("AppBean.class"), new byte[]{1});
+        Files.write(other.resolve("OtherBean.class"), new byte[]{1});
+        Path jar = Files.write(dir.resolve("lib.jar"), new byte[]{1});
+        List<Path> entries = List.of(classes, jar);
+        List<String> packages = List.of("com.example.app");
+        String hash = BeanDefinitionSnapshot.classpathHash(entries, packages);
+        assertEquals(hash, BeanDefinitionSnapshot.classpathHash(entries, packages));
+
+        // 扫描的package之外的文件不参与计算:
+        Files.write(other.resolve("OtherBean.class"), new byte[]{1, 2});
+        Files.write(scanned.resolve("README.txt"), new byte[]{1});
+        assertEquals(hash, BeanDefinitionSnapshot.classpathHash(entries, packages));
+
+        // 扫描的package下的.class文件或jar变化时哈希变化:
+        Files.write(scanned.resolve("AppBean.class"), new byte[]{1, 2});
+        String changed = BeanDefinitionSnapshot.classpathHash(entries, packages);
+        assertNotEquals(hash, changed);
+        Files.createDirectories(scanned.resolve("sub"));
+        Files.write(scanned.resolve("sub/SubBean.class"), new byte[]{1});
+        assertNotEquals(changed, BeanDefinitionSnapshot.classpathHash(entries, packages));
+        changed = BeanDefinitionSnapshot.classpathHash(entries, packages);
+        Files.write(jar, new byte[]{1, 2});
+        assertNotEquals(changed, BeanDefinitionSnapshot.classpathHash(entries, packages));
+    }
+
+    Map<String, String> describe(Collection<BeanDefinition> defs) {
+        return defs.stream().collect(Collectors.toMap(BeanDefinition::getName,
+                def -> def.getBeanClass().getName() + " " + def.getConstructor() + " " + def.getFactoryName() + " " + def.getFactoryMethod()
+                        + " " + def.getOrder() + " " + def.isPrimary() + " " + def.getScope() + " " + def.getInitMethodName() + " "
+                        + def.getDestroyMethodName() + " " + def.getInitMethod() + " " + def.getDestroyMethod()));
+    }
 
     PropertyResolver createPropertyResolver() {
+        return new PropertyResolver(createProperties());
+    }
+
+    Properties createProperties() {
         var ps = new Properties();
         ps.put("app.title", "Scan App");
         ps.put("app.version", "v1.0");
+        ps.put("app.mail.host", "smtp.example.com");
+        ps.put("app.mail.port", "25");
+        ps.put("app.mail.timeout", "5s");
+        ps.put("app.mail.recipients[0]", "bart@example.com");
+        ps.put("app.mail.recipients[1]", "lisa@example.com");
+        ps.put("app.feature.enabled", "true");
+        ps.put("koharu.scheduling.virtual-threads", "true");
         ps.put("jdbc.url", "jdbc:hsqldb:file:testdb.tmp");
         ps.put("jdbc.username", "sa");
         ps.put("jdbc.password", "");
@@ -161,7 +421,6 @@ public class AnnotationConfigApplicationContextTest {
         ps.put("convert.zoneddatetime", "2023-03-29T20:45:01+08:00[Asia/Shanghai]");
         ps.put("convert.duration", "P2DT3H4M");
         ps.put("convert.zoneid", "Asia/Shanghai");
-        var pr = new PropertyResolver(ps);
-        return pr;
+        return ps;
     }
 }
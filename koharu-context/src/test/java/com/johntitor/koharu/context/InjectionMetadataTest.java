@@ -0,0 +1,86 @@
+package com.johntitor.koharu.context;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Value;
+import com.johntitor.koharu.exception.BeanCreationException;
+import com.johntitor.koharu.exception.BeanDefinitionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InjectionMetadataTest {
+
+    static class BaseBean {
+        @Value("${app.title}")
+        private String title;
+    }
+
+    static class ChildBean extends BaseBean {
+        @Value("${app.version}")
+        private int version;
+
+        String name;
+
+        @Autowired
+        private String setName(String name) {
+            this.name = name;
+            return name;
+        }
+    }
+
+    static class StaticFieldBean {
+        @Autowired
+        static String name;
+    }
+
+    static class FinalFieldBean {
+        @Value("${app.title}")
+        final String title = "";
+    }
+
+    static class BothBean {
+        @Value("${app.title}")
+        @Autowired
+        String title;
+    }
+
+    static class NonSetterBean {
+        @Autowired
+        void set(String a, String b) {
+        }
+    }
+
+    @Test
+    public void testInjectionPoints() throws Throwable {
+        InjectionMetadata metadata = InjectionMetadata.forClass(ChildBean.class);
+        // 每个Class只解析一次:
+        assertSame(metadata, InjectionMetadata.forClass(ChildBean.class));
+        List<String> names = Arrays.stream(metadata.getPoints()).map(p -> p.kind() + ":" + p.name()).toList();
+        // 子类在前，字段在前:
+        assertEquals(List.of("Field:version", "Method:setName", "Field:title"), names);
+        // 父类的注入点被复用:
+        assertSame(InjectionMetadata.forClass(BaseBean.class).getPoints()[0], metadata.getPoints()[2]);
+
+        // 私有字段、基本类型和有返回值的私有setter:
+        ChildBean bean = new ChildBean();
+        metadata.getPoints()[0].setter().invoke(bean, 7);
+        metadata.getPoints()[1].setter().invoke(bean, "Bob");
+        metadata.getPoints()[2].setter().invoke(bean, "Koharu");
+        assertEquals(7, bean.version);
+        assertEquals("Bob", bean.name);
+        assertEquals("Koharu", ((BaseBean) bean).title);
+
+        assertEquals(0, InjectionMetadata.forClass(Object.class).getPoints().length);
+    }
+
+    @Test
+    public void testInvalidInjectionPoints() {
+        assertThrows(BeanDefinitionException.class, () -> InjectionMetadata.forClass(StaticFieldBean.class));
+        assertThrows(BeanDefinitionException.class, () -> InjectionMetadata.forClass(FinalFieldBean.class));
+        assertThrows(BeanCreationException.class, () -> InjectionMetadata.forClass(BothBean.class));
+        assertThrows(BeanDefinitionException.class, () -> InjectionMetadata.forClass(NonSetterBean.class));
+    }
+}
@@ -3,12 +3,23 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
 
 
 public class PropertyResolverTest {
@@ -59,6 +70,166 @@ public class PropertyResolverTest {
         });
     }
 
+    @Test
+    public void placeholderExpression() {
+        var props = new Properties();
+        props.setProperty("db.host", "localhost");
+        props.setProperty("db.port", "3306");
+        props.setProperty("env", "test");
+        props.setProperty("db.test.name", "koharu_test");
+        props.setProperty("db.url", "jdbc:mysql://${db.host}:${db.port}/${db.${env}.name}");
+        props.setProperty("pool.size", "${pool.max:${pool.default:8}}");
+        props.setProperty("loop.a", "${loop.b}");
+        props.setProperty("loop.b", "x-${loop.a}");
+        props.setProperty("request.timeout", "${timeout:PT30S}");
+
+        var pr = new PropertyResolver(props);
+        // 值中嵌入和嵌套的占位符:
+        assertEquals("jdbc:mysql://localhost:3306/koharu_test", pr.getProperty("db.url"));
+        assertEquals("localhost:3306", pr.getProperty("${db.host}:${db.port}"));
+        assertEquals("koharu_test", pr.getProperty("${db.${env}.name}"));
+        assertEquals("koharu_test", pr.getProperty("${db.prod.name:koharu_${env:prod}}"));
+        assertEquals(8, pr.getProperty("pool.size", int.class));
+        assertEquals("{json}", pr.getProperty("${no.such.key:{json}}"));
+        // 不完整的占位符作为普通文本:
+        assertEquals("${no.such.key:${unclosed}", pr.getProperty("${no.such.key:${unclosed}"));
+        // 缺少必须的占位符:
+        assertThrows(NullPointerException.class, () -> pr.getProperty("${db.host}/${db.name}"));
+        // 循环引用:
+        var e = assertThrows(IllegalArgumentException.class, () -> pr.getProperty("loop.a"));
+        assertEquals("Circular placeholder reference: loop.a -> loop.b -> loop.a", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> pr.getProperty("${:empty}"));
+        // 存在的key转换后的值被缓存:
+        Duration d = pr.getProperty("request.timeout", Duration.class);
+        assertEquals(Duration.ofSeconds(30), d);
+        assertSame(d, pr.getProperty("request.timeout", Duration.class));
+        assertEquals(Duration.ofSeconds(30), pr.getProperty("${timeout:PT30S}", Duration.class));
+        assertNull(pr.getProperty("no.such.key", Duration.class));
+        assertEquals(Duration.ZERO, pr.getProperty("no.such.key", Duration.class, Duration.ZERO));
+    }
+
+    @Test
+    public void boundedExpressionCache() {
+        var props = new Properties();
+        props.setProperty("app.name", "koharu");
+
+        var pr = new PropertyResolver(props);
+        int cached = pr.cachedExpressionCount();
+        // 普通key不编译缓存:
+        for (int i = 0; i < 100; i++) {
+            assertNull(pr.getProperty("no.such.key." + i));
+        }
+        assertEquals(cached, pr.cachedExpressionCount());
+        // 运行时传入的表达式超过上限后不再缓存:
+        for (int i = 0; i < PropertyResolver.MAX_CACHED_EXPRESSIONS * 2; i++) {
+            assertEquals("koharu-" + i, pr.getProperty("${app.name}-${no.such.key." + i + ":" + i + "}"));
+        }
+        assertEquals(PropertyResolver.MAX_CACHED_EXPRESSIONS, pr.cachedExpressionCount());
+    }
+
+    @Test
+    public void reload() {
+        var props = new Properties();
+        props.setProperty("db.host", "localhost");
+        props.setProperty("db.url", "jdbc:mysql://${db.host}/test");
+        props.setProperty("pool.size", "8");
+        props.setProperty("feature.flag", "on");
+
+        var pr = new PropertyResolver(props);
+        assertEquals(8, pr.getProperty("pool.size", int.class));
+        List<Set<String>> dbChanges = new ArrayList<>();
+        List<Set<String>> poolChanges = new ArrayList<>();
+        pr.addChangeListener("db", dbChanges::add);
+        PropertyChangeListener poolListener = poolChanges::add;
+        pr.addChangeListener("pool", poolListener);
+        pr.addChangeListener("", keys -> {
+            throw new IllegalStateException("listener error is ignored");
+        });
+
+        props.setProperty("db.host", "10.0.0.1");
+        props.setProperty("pool.size", "16");
+        props.remove("feature.flag");
+        props.setProperty("pool[0]", "x");
+        props.setProperty("poolx", "ignored");
+        // 引用了db.host的db.url也变化:
+        assertEquals(Set.of("db.host", "db.url", "pool.size", "feature.flag", "pool[0]", "poolx"), pr.reload(props));
+        assertEquals(List.of(Set.of("db.host", "db.url")), dbChanges);
+        assertEquals(List.of(Set.of("pool.size", "pool[0]")), poolChanges);
+        // 读取新快照，缓存的值随之失效:
+        assertEquals("jdbc:mysql://10.0.0.1/test", pr.getProperty("db.url"));
+        assertEquals(16, pr.getProperty("pool.size", int.class));
+        assertNull(pr.getProperty("feature.flag"));
+
+        // 没有变化时不通知:
+        pr.removeChangeListener(poolListener);
+        assertTrue(pr.reload(props).isEmpty());
+        props.setProperty("pool.size", "32");
+        pr.reload(props);
+        assertEquals(1, poolChanges.size());
+    }
+
+    @Test
+    public void layeredSources() {
+        var defaults = new PropertySource(PropertySource.DEFAULTS, Map.of("server.port", "8080", "app.name", "koharu", "app.mode", "dev"));
+        var application = new PropertySource("classpath:/application.yml",
+                Map.of("server.port", "8081", "app.max-pool-size", "10", "app.hosts[0]", "a", "app.title", "${app.name}"));
+        var profile = new PropertySource("classpath:/application-prod.yml", Map.of("app.mode", "prod"));
+        var env = new PropertySource(PropertySource.SYSTEM_ENVIRONMENT,
+                Map.of("SERVER_PORT", "9090", "APP_MAXPOOLSIZE", "20", "APP_HOSTS_0", "b", "APP_NAME", "env-koharu", "FEATURE_FLAG", "on"), true);
+        var args = PropertySource.commandLineArgs("--app.mode=test", "--debug", "ignored", "--=x");
+
+        var pr = new PropertyResolver(List.of(defaults, application, profile, env, args));
+        // 环境变量按宽松名称覆盖文件中的key:
+        assertEquals(9090, pr.getProperty("server.port", int.class));
+        assertEquals(20, pr.getProperty("app.max-pool-size", int.class));
+        assertEquals("b", pr.getProperty("app.hosts[0]"));
+        assertEquals("env-koharu", pr.getProperty("app.title"));
+        // 没有对应key的环境变量在查询时按宽松名称查找，不加入属性名称:
+        assertEquals("on", pr.getProperty("feature.flag"));
+        assertEquals("on", pr.getProperty("FEATURE_FLAG"));
+        assertEquals("on", pr.getProperty("${feature.flag:off}"));
+        assertTrue(pr.containsProperty("feature.flag"));
+        assertTrue(pr.getPropertyNames().contains("FEATURE_FLAG"));
+        assertFalse(pr.getPropertyNames().contains("feature.flag"));
+        assertFalse(pr.getPropertyNames().contains("app.maxpoolsize"));
+        // 命令行参数优先级最高:
+        assertEquals("test", pr.getProperty("app.mode"));
+        assertTrue(pr.getProperty("debug", boolean.class));
+        assertFalse(pr.containsProperty("ignored"));
+
+        // 来源:
+        assertEquals(PropertySource.SYSTEM_ENVIRONMENT, pr.getPropertyOrigin("server.port"));
+        assertEquals("classpath:/application.yml", pr.getPropertyOrigin("app.title"));
+        assertEquals(PropertySource.COMMAND_LINE_ARGS, pr.getPropertyOrigin("app.mode"));
+        assertEquals(PropertySource.SYSTEM_ENVIRONMENT, pr.getPropertyOrigin("feature.flag"));
+        assertNull(pr.getPropertyOrigin("no.such.key"));
+        assertEquals(5, pr.getPropertySources().size());
+    }
+
+    @Test
+    public void watchFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("application.properties");
+        Files.writeString(file, "app.title=v1\n");
+        var props = new Properties();
+        props.setProperty("app.title", "v1");
+        var pr = new PropertyResolver(props);
+        var changed = new CountDownLatch(1);
+        pr.addChangeListener("app", keys -> changed.countDown());
+        try (var watcher = new PropertyFileWatcher(pr, List.of(file), () -> {
+            var p = new Properties();
+            try (var reader = Files.newBufferedReader(file)) {
+                p.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return List.of(PropertySource.of("file", p));
+        })) {
+            Files.writeString(file, "app.title=v2\n");
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+            assertEquals("v2", pr.getProperty("app.title"));
+        }
+    }
+
     @Test
     @EnabledOnOs(OS.WINDOWS)
     public void propertyHolderOnWin() {
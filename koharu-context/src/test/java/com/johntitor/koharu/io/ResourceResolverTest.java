@@ -2,10 +2,18 @@ package com.johntitor.koharu.io;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -86,4 +94,57 @@ public class ResourceResolverTest {
                 "com/itranswarp/scan/sub1/sub2/sub3/sub3.txt", //
         }, classes.toArray(String[]::new));
     }
+
+    @Test
+    public void scanJarRepeatedly() {
+        var rr = new ResourceResolver(PostConstruct.class.getPackageName());
+        // 每次扫描都关闭jar，重复扫描不会失败:
+        for (int i = 0; i < 3; i++) {
+            List<Resource> resources = rr.scan(".class", res -> res);
+            assertTrue(resources.stream().allMatch(res -> res.name().endsWith(".class")));
+            Resource res = resources.stream().filter(r -> r.name().equals("jakarta/annotation/PostConstruct.class")).findFirst().orElseThrow();
+            assertTrue(res.path().startsWith("jar:file:"));
+            assertTrue(res.path().endsWith("!/jakarta/annotation/PostConstruct.class"));
+        }
+    }
+
+    @Test
+    public void scanNestedJar(@TempDir Path dir) throws Exception {
+        // app.jar!/BOOT-INF/lib/lib.jar!/com/example/Foo.class, app.jar!/BOOT-INF/classes/com/example/Bar.class:
+        var lib = new ByteArrayOutputStream();
+        try (var out = new JarOutputStream(lib)) {
+            writeEntry(out, "com/example/Foo.class");
+            writeEntry(out, "com/example/foo.txt");
+            writeEntry(out, "com/other/Other.class");
+        }
+        Path app = dir.resolve("app.jar");
+        try (var out = new JarOutputStream(Files.newOutputStream(app))) {
+            out.putNextEntry(new JarEntry("BOOT-INF/lib/lib.jar"));
+            out.write(lib.toByteArray());
+            out.closeEntry();
+            writeEntry(out, "BOOT-INF/classes/com/example/Bar.class");
+        }
+        var rr = new ResourceResolver("com.example");
+        String base = "jar:" + app.toUri();
+        List<String> names = new ArrayList<>();
+        rr.scanJar(base + "!/BOOT-INF/lib/lib.jar!/com/example", ".class", names, Resource::name);
+        assertEquals(List.of("com/example/Foo.class"), names);
+        List<Resource> resources = new ArrayList<>();
+        rr.scanJar(base + "!/BOOT-INF/classes!/com/example/", ".class", resources, res -> res);
+        assertEquals(List.of(new Resource(base + "!/BOOT-INF/classes!/com/example/Bar.class", "com/example/Bar.class")), resources);
+
+        // 空package扫描jar的根目录:
+        names.clear();
+        rr.scanJar(base + "!/BOOT-INF/lib/lib.jar!/", ".class", names, Resource::name);
+        assertEquals(List.of("com/example/Foo.class", "com/other/Other.class"), names);
+        names.clear();
+        rr.scanJar(base + "!/", ".class", names, Resource::name);
+        assertEquals(List.of("BOOT-INF/classes/com/example/Bar.class"), names);
+    }
+
+    static void writeEntry(JarOutputStream out, String name) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(new byte[]{1, 2, 3});
+        out.closeEntry();
+    }
 }
@@ -0,0 +1,118 @@
+package com.johntitor.koharu.properties;
+
+import com.johntitor.koharu.exception.PropertyBindingException;
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.io.PropertySource;
+import jakarta.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfigurationPropertiesBinderTest {
+
+    public record ServerProperties(@Nonnull String host, int port, Duration timeout, DataSize maxUpload, TimeUnit unit,
+                                   List<String> aliases, Set<Integer> ports, Map<String, String> labels,
+                                   List<Endpoint> endpoints, Map<String, Endpoint> routes, Pool pool, Pool standby) {
+    }
+
+    public record Endpoint(String path, boolean secure) {
+    }
+
+    public static class Pool {
+
+        int maxSize = 8;
+        Duration idleTimeout;
+        private List<String> tags;
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+
+    @Test
+    public void testBindRecord() {
+        var props = new Properties();
+        props.setProperty("server.host", "${HOST_NAME:localhost}");
+        props.setProperty("server.port", "8080");
+        props.setProperty("server.timeout", "30s");
+        props.setProperty("server.max-upload", "10MB");
+        props.setProperty("server.unit", "milliseconds");
+        props.setProperty("server.aliases[0]", "a.example.com");
+        props.setProperty("server.aliases[1]", "b.example.com");
+        props.setProperty("server.ports", "80, 443, 80");
+        props.setProperty("server.labels.env", "prod");
+        props.setProperty("server.labels.team.name", "core");
+        props.setProperty("server.endpoints[0].path", "/api");
+        props.setProperty("server.endpoints[0].secure", "true");
+        props.setProperty("server.endpoints[1].path", "/static");
+        props.setProperty("server.routes.admin.path", "/admin");
+        props.setProperty("server.routes.admin.secure", "true");
+        props.setProperty("server.routes.home.path", "/");
+        props.setProperty("server.pool.max-size", "32");
+        props.setProperty("server.pool.idleTimeout", "PT1M");
+        props.setProperty("server.pool.tags", "x,y");
+
+        var binder = new ConfigurationPropertiesBinder(new PropertyResolver(props));
+        ServerProperties sp = binder.bind("server", ServerProperties.class);
+        assertEquals("localhost", sp.host());
+        assertEquals(8080, sp.port());
+        assertEquals(Duration.ofSeconds(30), sp.timeout());
+        assertEquals(10L * 1024 * 1024, sp.maxUpload().bytes());
+        assertEquals(TimeUnit.MILLISECONDS, sp.unit());
+        assertEquals(List.of("a.example.com", "b.example.com"), sp.aliases());
+        assertEquals(Set.of(80, 443), sp.ports());
+        assertEquals(Map.of("env", "prod", "team.name", "core"), sp.labels());
+        assertEquals(List.of(new Endpoint("/api", true), new Endpoint("/static", false)), sp.endpoints());
+        assertEquals(Map.of("admin", new Endpoint("/admin", true), "home", new Endpoint("/", false)), sp.routes());
+        // POJO:
+        assertEquals(32, sp.pool().maxSize);
+        assertEquals(Duration.ofMinutes(1), sp.pool().idleTimeout);
+        assertEquals(List.of("x", "y"), sp.pool().tags);
+        // 没有任何属性的嵌套对象为null:
+        assertNull(sp.standby());
+    }
+
+    @Test
+    public void testBindRelaxedEnvironment() {
+        var application = new PropertySource("application", Map.of("server.host", "localhost", "server.port", "80"));
+        var env = new PropertySource(PropertySource.SYSTEM_ENVIRONMENT,
+                Map.of("SERVER_PORT", "8080", "SERVER_TIMEOUT", "5s", "PATH", "/usr/bin"), true);
+        var pr = new PropertyResolver(List.of(application, env));
+        ServerProperties sp = new ConfigurationPropertiesBinder(pr).bind("server", ServerProperties.class);
+        // 覆盖的key和只存在于环境变量中的key:
+        assertEquals(8080, sp.port());
+        assertEquals(Duration.ofSeconds(5), sp.timeout());
+        // 无关的环境变量不会以小写名称出现在属性名称中:
+        assertFalse(pr.getPropertyNames().contains("path"));
+    }
+
+    @Test
+    public void testBindErrors() {
+        var props = new Properties();
+        props.setProperty("server.host", "localhost");
+        props.setProperty("server.port", "http");
+        props.setProperty("server.endpoints[0].secure", "true");
+        props.setProperty("server.ports", "80,x");
+        var binder = new ConfigurationPropertiesBinder(new PropertyResolver(props));
+
+        var e = assertThrows(PropertyBindingException.class, () -> binder.bind("server", ServerProperties.class));
+        assertEquals("server.port", e.getPath());
+
+        props.setProperty("server.port", "80");
+        var e2 = assertThrows(PropertyBindingException.class, () -> new ConfigurationPropertiesBinder(new PropertyResolver(props)).bind("server", ServerProperties.class));
+        assertEquals("server.ports[1]", e2.getPath());
+
+        props.setProperty("server.ports", "80");
+        props.remove("server.host");
+        var e3 = assertThrows(PropertyBindingException.class, () -> new ConfigurationPropertiesBinder(new PropertyResolver(props)).bind("server", ServerProperties.class));
+        assertEquals("server.host", e3.getPath());
+        assertTrue(e3.getMessage().contains("Required property 'server.host'"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.johntitor.koharu.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CronExpressionTest {
+
+    static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    @Test
+    public void testEverySecond() {
+        var cron = CronExpression.parse("* * * * * *");
+        var t = ZonedDateTime.of(2023, 3, 29, 21, 45, 1, 500, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 3, 29, 21, 45, 2, 0, ZONE), cron.next(t));
+    }
+
+    @Test
+    public void testFiveFields() {
+        // 每天03:05:
+        var cron = CronExpression.parse("5 3 * * *");
+        var t = ZonedDateTime.of(2023, 3, 29, 21, 45, 1, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 3, 30, 3, 5, 0, 0, ZONE), cron.next(t));
+    }
+
+    @Test
+    public void testStepsAndRanges() {
+        var cron = CronExpression.parse("0 */15 9-17 * * MON-FRI");
+        // 2023-04-01是周六:
+        var t = ZonedDateTime.of(2023, 3, 31, 17, 45, 0, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 4, 3, 9, 0, 0, 0, ZONE), cron.next(t));
+        t = ZonedDateTime.of(2023, 4, 3, 9, 0, 0, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 4, 3, 9, 15, 0, 0, ZONE), cron.next(t));
+    }
+
+    @Test
+    public void testListsAndNames() {
+        var cron = CronExpression.parse("30 0 12 1,15 jan,jul ?");
+        var t = ZonedDateTime.of(2023, 1, 15, 12, 0, 30, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 7, 1, 12, 0, 30, 0, ZONE), cron.next(t));
+    }
+
+    @Test
+    public void testSunday() {
+        // 0和7都表示周日，2023-04-02是周日:
+        var t = ZonedDateTime.of(2023, 3, 29, 0, 0, 0, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2023, 4, 2, 0, 0, 0, 0, ZONE), CronExpression.parse("0 0 0 * * 0").next(t));
+        assertEquals(ZonedDateTime.of(2023, 4, 2, 0, 0, 0, 0, ZONE), CronExpression.parse("0 0 0 * * 7").next(t));
+    }
+
+    @Test
+    public void testLeapDay() {
+        var cron = CronExpression.parse("0 0 0 29 2 *");
+        var t = ZonedDateTime.of(2023, 3, 1, 0, 0, 0, 0, ZONE);
+        assertEquals(ZonedDateTime.of(2024, 2, 29, 0, 0, 0, 0, ZONE), cron.next(t));
+        // 2月30日永远不会执行:
+        assertNull(CronExpression.parse("0 0 0 30 2 *").next(t));
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("60 * * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * * * FOO *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("*/0 * * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * 10-5 * * *"));
+    }
+}
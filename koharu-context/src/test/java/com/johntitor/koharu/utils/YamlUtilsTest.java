@@ -2,10 +2,11 @@ package com.johntitor.koharu.utils;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
+import java.util.List;
 import java.util.Map;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class YamlUtilsTest {
     @Test
@@ -24,5 +25,70 @@ public class YamlUtilsTest {
 
         assertEquals("0x1a2b3c", configs.get("other.hex-data"));
         assertEquals("0x1a2b3c", configs.get("other.hex-string"));
+        assertEquals("", configs.get("summer.datasource.password"));
+        assertEquals("Apple", configs.get("other.list[0]"));
+        assertEquals("Pear", configs.get("other.list[2]"));
+    }
+
+    @Test
+    public void testFlatten() {
+        String yaml = """
+                server:
+                  port: 8080
+                  hosts:
+                    - name: a
+                      ports: [80, 443]
+                    - name: b
+                  empty:
+                  nothing: !!null
+                  matrix:
+                    - - 1
+                      - 2
+                defaults: &defaults
+                  timeout: 30s
+                  retry: 3
+                service:
+                  <<: *defaults
+                  retry: 5
+                mirror:
+                  hosts: &hosts [x, y]
+                  copy: *hosts
+                multi:
+                  <<: [*defaults, {extra: true}]
+                ---
+                server:
+                  port: 9090
+                """;
+        Map<String, Object> configs = YamlFlattener.flatten(new StringReader(yaml));
+        // 后面的文档覆盖前面的key:
+        assertEquals("9090", configs.get("server.port"));
+        assertEquals("a", configs.get("server.hosts[0].name"));
+        assertEquals("443", configs.get("server.hosts[0].ports[1]"));
+        assertEquals("b", configs.get("server.hosts[1].name"));
+        assertEquals("", configs.get("server.empty"));
+        assertEquals("", configs.get("server.nothing"));
+        assertEquals("2", configs.get("server.matrix[0][1]"));
+        // 锚点、别名和合并:
+        assertEquals("30s", configs.get("service.timeout"));
+        assertEquals("5", configs.get("service.retry"));
+        assertEquals("y", configs.get("mirror.copy[1]"));
+        assertEquals("3", configs.get("multi.retry"));
+        assertEquals("true", configs.get("multi.extra"));
+        assertFalse(configs.containsKey("service.<<"));
+        assertEquals(List.of("server.port", "server.hosts[0].name", "server.hosts[0].ports[0]"),
+                configs.keySet().stream().limit(3).toList());
+
+        assertThrows(IllegalArgumentException.class, () -> YamlFlattener.flatten(new StringReader("a: *missing")));
+        assertTrue(YamlFlattener.flatten(new StringReader("")).isEmpty());
+    }
+
+    @Test
+    public void testEmptyDocument() {
+        assertEquals(Map.of("a", "1"), YamlFlattener.flatten(new StringReader("a: 1\n---\n")));
+        assertEquals(Map.of("a", "2"), YamlFlattener.flatten(new StringReader("a: 1\n---\n---\na: 2\n")));
+        assertEquals(Map.of("a", "1"), YamlFlattener.flatten(new StringReader("---\n...\n---\na: 1\n---\n!!null\n")));
+        assertTrue(YamlFlattener.flatten(new StringReader("---\n")).isEmpty());
+        // 非空的顶层标量仍然不是合法的配置:
+        assertThrows(IllegalArgumentException.class, () -> YamlFlattener.flatten(new StringReader("a: 1\n---\nvalue\n")));
     }
 }
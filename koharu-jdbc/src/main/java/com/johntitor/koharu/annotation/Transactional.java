@@ -1,11 +1,43 @@
 package com.johntitor.koharu.annotation;
 
+import com.johntitor.koharu.jdbc.tx.Isolation;
+import com.johntitor.koharu.jdbc.tx.Propagation;
+
 import java.lang.annotation.*;
 
-@Target(ElementType.TYPE)
+@Target({ ElementType.TYPE, ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Inherited
 public @interface Transactional {
+
+    /**
+     * Transaction manager bean name.
+     */
     String value() default "platformTransactionManager";
+
+    /**
+     * 事务传播行为，默认加入当前事务，没有则新建。
+     */
+    Propagation propagation() default Propagation.REQUIRED;
+
+    /**
+     * 事务隔离级别，默认使用数据库的隔离级别。
+     */
+    Isolation isolation() default Isolation.DEFAULT;
+
+    /**
+     * 只读事务，会调用Connection.setReadOnly(true)。
+     */
+    boolean readOnly() default false;
+
+    /**
+     * 事务超时时间(秒)，-1表示不限制。
+     */
+    int timeout() default -1;
+
+    /**
+     * 除RuntimeException和Error外，额外需要回滚的异常类型。
+     */
+    Class<? extends Throwable>[] rollbackFor() default {};
 }
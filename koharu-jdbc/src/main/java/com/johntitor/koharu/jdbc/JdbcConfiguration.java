@@ -4,13 +4,23 @@ import com.johntitor.koharu.annotation.Autowired;
 import com.johntitor.koharu.annotation.Bean;
 import com.johntitor.koharu.annotation.Configuration;
 import com.johntitor.koharu.annotation.Value;
+import com.johntitor.koharu.context.ApplicationContextContainer;
+import com.johntitor.koharu.context.ConfigurableApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.jdbc.datasource.DataSourceProperties;
+import com.johntitor.koharu.jdbc.datasource.LoadBalanceStrategy;
+import com.johntitor.koharu.jdbc.datasource.RoutingDataSource;
+import com.johntitor.koharu.jdbc.metrics.DefaultJdbcMetrics;
+import com.johntitor.koharu.jdbc.metrics.JdbcMetrics;
 import com.johntitor.koharu.jdbc.tx.DataSourceTransactionManager;
 import com.johntitor.koharu.jdbc.tx.PlatformTransactionManager;
+import com.johntitor.koharu.jdbc.tx.TransactionContextPropagator;
 import com.johntitor.koharu.jdbc.tx.TransactionalBeanPostProcessor;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 public class JdbcConfiguration {
@@ -24,25 +34,50 @@ public class JdbcConfiguration {
             @Value("${summer.datasource.driver-class-name:}") String driver, //
             @Value("${summer.datasource.maximum-pool-size:20}") int maximumPoolSize, //
             @Value("${summer.datasource.minimum-pool-size:1}") int minimumPoolSize, //
-            @Value("${summer.datasource.connection-timeout:30000}") int connTimeout //
+            @Value("${summer.datasource.connection-timeout:30000}") int connTimeout, //
+            // 读写分离，replicas为逗号分隔的名称，每个replica从summer.datasource.replica.<name>.*读取:
+            @Value("${summer.datasource.replicas:}") String replicas, //
+            @Value("${summer.datasource.routing.strategy:round-robin}") String strategy, //
+            @Value("${summer.datasource.routing.sticky-window:0}") long stickyWindow, //
+            @Value("${summer.datasource.routing.retry-interval:30000}") long retryInterval //
     ) {
-        var config = new HikariConfig();
-        config.setAutoCommit(false);
-        config.setJdbcUrl(url);
-        config.setUsername(username);
-        config.setPassword(password);
-        if (driver != null) {
-            config.setDriverClassName(driver);
+        var primary = new DataSourceProperties(url, username, password, driver, maximumPoolSize, minimumPoolSize, connTimeout);
+        if (replicas == null || replicas.isBlank()) {
+            return primary.createDataSource("primary", true);
         }
-        config.setMaximumPoolSize(maximumPoolSize);
-        config.setMinimumIdle(minimumPoolSize);
-        config.setConnectionTimeout(connTimeout);
-        return new HikariDataSource(config);
+        PropertyResolver resolver = ((ConfigurableApplicationContext) ApplicationContextContainer.getRequiredApplicationContext()).getPropertyResolver();
+        Map<String, DataSource> replicaDataSources = new LinkedHashMap<>();
+        for (String name : replicas.split(",")) {
+            name = name.strip();
+            if (!name.isEmpty()) {
+                replicaDataSources.put(name, DataSourceProperties.load(resolver, "summer.datasource.replica." + name, primary).createDataSource(name, false));
+            }
+        }
+        return new RoutingDataSource(primary.createDataSource("primary", true), replicaDataSources, LoadBalanceStrategy.of(strategy),
+                Duration.ofMillis(stickyWindow), Duration.ofMillis(retryInterval));
+    }
+
+    /**
+     * 默认不启用，返回JdbcMetrics.NOOP
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    JdbcMetrics jdbcMetrics(
+            @Autowired DataSource dataSource, //
+            @Value("${summer.jdbc.metrics.enabled:false}") boolean enabled, //
+            // 慢查询阈值(ms)，负数表示不记录:
+            @Value("${summer.jdbc.metrics.slow-query-threshold:1000}") long slowQueryThreshold, //
+            // 导出间隔(ms)，0表示只在关闭时导出:
+            @Value("${summer.jdbc.metrics.export-interval:60000}") long exportInterval //
+    ) {
+        if (!enabled) {
+            return JdbcMetrics.NOOP;
+        }
+        return new DefaultJdbcMetrics(dataSource, Duration.ofMillis(slowQueryThreshold), Duration.ofMillis(exportInterval));
     }
 
     @Bean
-    JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+    JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource, @Autowired JdbcMetrics jdbcMetrics) {
+        return new JdbcTemplate(dataSource, jdbcMetrics);
     }
 
     @Bean
@@ -51,8 +86,13 @@ public class JdbcConfiguration {
     }
 
     @Bean
-    PlatformTransactionManager platformTransactionManager(@Autowired DataSource dataSource) {
-        return new DataSourceTransactionManager(dataSource);
+    TransactionContextPropagator transactionContextPropagator() {
+        return new TransactionContextPropagator();
+    }
+
+    @Bean
+    PlatformTransactionManager platformTransactionManager(@Autowired DataSource dataSource, @Autowired JdbcMetrics jdbcMetrics) {
+        return new DataSourceTransactionManager(dataSource, jdbcMetrics);
     }
 
 }
@@ -1,17 +1,22 @@
 package com.johntitor.koharu.jdbc;
 
 import com.johntitor.koharu.exception.DataAccessException;
+import com.johntitor.koharu.jdbc.datasource.RoutingDataSource;
 import com.johntitor.koharu.jdbc.mapper.RowMapper;
 import com.johntitor.koharu.jdbc.mapper.impl.BeanRowMapper;
 import com.johntitor.koharu.jdbc.mapper.impl.BooleanRowMapper;
 import com.johntitor.koharu.jdbc.mapper.impl.NumberRowMapper;
 import com.johntitor.koharu.jdbc.mapper.impl.StringRowMapper;
+import com.johntitor.koharu.jdbc.metrics.JdbcMetrics;
+import com.johntitor.koharu.jdbc.support.LongList;
 import com.johntitor.koharu.jdbc.tx.TransactionalContainer;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 /**
  * 获取连接，并执行 -> execute(ConnectionCallback)
@@ -24,15 +29,28 @@ import java.util.List;
 public class JdbcTemplate {
 
     private final DataSource dataSource;
+    // 读写分离时非事务查询走replica:
+    private final RoutingDataSource routingDataSource;
+    private final JdbcMetrics metrics;
 
     public JdbcTemplate(DataSource dataSource) {
+        this(dataSource, JdbcMetrics.NOOP);
+    }
+
+    public JdbcTemplate(DataSource dataSource, JdbcMetrics metrics) {
         this.dataSource = dataSource;
+        this.routingDataSource = dataSource instanceof RoutingDataSource routing ? routing : null;
+        this.metrics = metrics;
     }
 
     /**
      * Connection自动连接释放
      */
     public <T> T execute(ConnectionCallback<T> connectionAction) throws DataAccessException {
+        return execute(connectionAction, false);
+    }
+
+    private <T> T execute(ConnectionCallback<T> connectionAction, boolean read) throws DataAccessException {
         // 尝试获取当前事务连接:
         Connection currentConnection = TransactionalContainer.getCurrentConnection();
         if (currentConnection != null) {
@@ -43,7 +61,7 @@ public class JdbcTemplate {
             }
         }
 
-        try (Connection newConnection = dataSource.getConnection()) {
+        try (Connection newConnection = getConnection(read)) {
             final boolean autoCommit = newConnection.getAutoCommit();
             if (!autoCommit) {
                 newConnection.setAutoCommit(true);
@@ -59,16 +77,47 @@ public class JdbcTemplate {
     }
 
 
+    private Connection getConnection(boolean read) throws SQLException {
+        if (!metrics.isEnabled()) {
+            return read && routingDataSource != null ? routingDataSource.getReadConnection() : dataSource.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection connection = read && routingDataSource != null ? routingDataSource.getReadConnection() : dataSource.getConnection();
+        metrics.recordConnectionAcquire(System.nanoTime() - start);
+        return connection;
+    }
+
     public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> preparedStatementAction) {
+        return execute(psc, preparedStatementAction, false, null, 0, null);
+    }
+
+    /**
+     * sql不为null且启用了metrics时记录执行耗时和行数
+     */
+    private <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> preparedStatementAction, boolean read,
+                          String sql, int parameterCount, ToLongFunction<? super T> rowCounter) {
+        final boolean timed = sql != null && metrics.isEnabled();
         ConnectionCallback<T> connectionAction = new ConnectionCallback<T>() {
             @Override
             public T doInConnection(Connection connection) throws SQLException {
+                long start = timed ? System.nanoTime() : 0L;
+                T result = null;
+                boolean failed = true;
                 try (PreparedStatement ps = psc.createPreparedStatement(connection)) {
-                    return preparedStatementAction.doInPreparedStatement(ps);
+                    // 事务设置了超时时间:
+                    TransactionalContainer.applyTimeout(ps);
+                    result = preparedStatementAction.doInPreparedStatement(ps);
+                    failed = false;
+                    return result;
+                } finally {
+                    if (timed) {
+                        metrics.recordQuery(sql, parameterCount, System.nanoTime() - start,
+                                failed ? 0 : rowCounter.applyAsLong(result), failed);
+                    }
                 }
             }
         };
-        return execute(connectionAction);
+        return execute(connectionAction, read);
     }
 
 
@@ -107,7 +156,7 @@ public class JdbcTemplate {
                 return t;
             }
         };
-        return execute(psc, preparedStatementAction);
+        return execute(psc, preparedStatementAction, true, sql, args.length, t -> 1);
     }
 
     public <T> List<T> queryForList(String sql, Class<T> clazz, Object... args) throws DataAccessException {
@@ -128,19 +177,127 @@ public class JdbcTemplate {
                 return list;
             }
         };
-        return execute(psc, preparedStatementAction);
+        return execute(psc, preparedStatementAction, true, sql, args.length, List::size);
+    }
+
+    /**
+     * 查询单行单列的long值，使用rs.getLong(1)读取，不装箱
+     */
+    public long queryForLong(String sql, Object... args) throws DataAccessException {
+        return queryForScalar(sql, ScalarQuery.LONG, args).longValue;
+    }
+
+    public int queryForInt(String sql, Object... args) throws DataAccessException {
+        return (int) queryForScalar(sql, ScalarQuery.INT, args).longValue;
+    }
+
+    public double queryForDouble(String sql, Object... args) throws DataAccessException {
+        return queryForScalar(sql, ScalarQuery.DOUBLE, args).doubleValue;
+    }
+
+    /**
+     * 查询第一列的所有long值
+     */
+    public long[] queryForLongArray(String sql, Object... args) throws DataAccessException {
+        return queryForLongList(sql, args).toArray();
+    }
+
+    /**
+     * 查询第一列的所有int值，直接读入可增长的int[]
+     */
+    public int[] queryForIntArray(String sql, Object... args) throws DataAccessException {
+        PreparedStatementCallback<int[]> preparedStatementAction = ps -> {
+            int[] array = new int[16];
+            int size = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (size == array.length) {
+                        array = Arrays.copyOf(array, size + (size >> 1));
+                    }
+                    array[size++] = rs.getInt(1);
+                    checkNotNull(rs);
+                }
+            }
+            return size == array.length ? array : Arrays.copyOf(array, size);
+        };
+        return execute(preparedStatementCreator(sql, args), preparedStatementAction, true, sql, args.length, array -> array.length);
+    }
+
+    public LongList queryForLongList(String sql, Object... args) throws DataAccessException {
+        PreparedStatementCallback<LongList> preparedStatementAction = ps -> {
+            LongList list = new LongList();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(rs.getLong(1));
+                    checkNotNull(rs);
+                }
+            }
+            return list;
+        };
+        return execute(preparedStatementCreator(sql, args), preparedStatementAction, true, sql, args.length, LongList::size);
+    }
+
+    private ScalarQuery queryForScalar(String sql, int type, Object... args) throws DataAccessException {
+        return execute(preparedStatementCreator(sql, args), new ScalarQuery(type), true, sql, args.length, r -> 1);
+    }
+
+    /**
+     * 单行单列的查询，读取的值保存在基本类型字段中，返回自身，不经过装箱
+     */
+    private final class ScalarQuery implements PreparedStatementCallback<ScalarQuery> {
+
+        static final int LONG = 0;
+        static final int INT = 1;
+        static final int DOUBLE = 2;
+
+        final int type;
+        long longValue;
+        double doubleValue;
+
+        ScalarQuery(int type) {
+            this.type = type;
+        }
+
+        @Override
+        public ScalarQuery doInPreparedStatement(PreparedStatement ps) throws SQLException {
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new DataAccessException("Empty result set.");
+                }
+                switch (type) {
+                    case LONG -> longValue = rs.getLong(1);
+                    case INT -> longValue = rs.getInt(1);
+                    default -> doubleValue = rs.getDouble(1);
+                }
+                checkNotNull(rs);
+                if (rs.next()) {
+                    throw new DataAccessException("Multiple rows found.");
+                }
+                return this;
+            }
+        }
+    }
+
+    // 基本类型无法表示SQL NULL:
+    private void checkNotNull(ResultSet rs) throws SQLException {
+        if (rs.wasNull()) {
+            throw new DataAccessException("Null value found at row " + rs.getRow() + " for primitive column.");
+        }
     }
 
     public int update(String sql, Object... args) throws DataAccessException {
-        return execute(
+        int n = execute(
                 // PreparedStatementCreator
                 preparedStatementCreator(sql, args),
                 // PreparedStatementCallback
-                PreparedStatement::executeUpdate);
+                PreparedStatement::executeUpdate,
+                false, sql, args.length, Integer::longValue);
+        markWritten();
+        return n;
     }
 
     public Number updateAndReturnGeneratedKey(String sql, Object... args) throws DataAccessException {
-        return execute(
+        Number key = execute(
                 // PreparedStatementCreator
                 (Connection con) -> {
                     var ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
@@ -162,7 +319,17 @@ public class JdbcTemplate {
                         }
                     }
                     throw new DataAccessException("Should not reach here.");
-                });
+                },
+                false, sql, args.length, k -> 1);
+        markWritten();
+        return key;
+    }
+
+    // 非事务的写操作在语句完成后开始read-after-write窗口，事务中的写操作在提交时记录:
+    private void markWritten() {
+        if (routingDataSource != null && TransactionalContainer.getCurrentConnection() == null) {
+            routingDataSource.markWritten();
+        }
     }
 
 
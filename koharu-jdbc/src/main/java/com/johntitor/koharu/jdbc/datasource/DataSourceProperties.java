@@ -0,0 +1,49 @@
+package com.johntitor.koharu.jdbc.datasource;
+
+import com.johntitor.koharu.io.PropertyResolver;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.Nullable;
+
+/**
+ * 连接池配置，从指定前缀读取，例如summer.datasource.replica.r1.url
+ */
+public record DataSourceProperties(String url, String username, String password, String driverClassName,
+                                   int maximumPoolSize, int minimumPoolSize, int connectionTimeout) {
+
+    /**
+     * 从prefix读取配置，未配置的username/password/driver-class-name沿用defaults。
+     */
+    public static DataSourceProperties load(PropertyResolver resolver, String prefix, @Nullable DataSourceProperties defaults) {
+        return new DataSourceProperties(
+                resolver.getRequiredProperty(prefix + ".url"),
+                resolver.getProperty(prefix + ".username", defaults == null ? "" : defaults.username()),
+                resolver.getProperty(prefix + ".password", defaults == null ? "" : defaults.password()),
+                resolver.getProperty(prefix + ".driver-class-name", defaults == null ? "" : defaults.driverClassName()),
+                resolver.getProperty(prefix + ".maximum-pool-size", int.class, defaults == null ? 20 : defaults.maximumPoolSize()),
+                resolver.getProperty(prefix + ".minimum-pool-size", int.class, defaults == null ? 1 : defaults.minimumPoolSize()),
+                resolver.getProperty(prefix + ".connection-timeout", int.class, defaults == null ? 30000 : defaults.connectionTimeout()));
+    }
+
+    /**
+     * failFast为false时启动阶段不校验连接，用于replica，避免单个replica不可用导致启动失败。
+     */
+    public HikariDataSource createDataSource(String poolName, boolean failFast) {
+        var config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setAutoCommit(false);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        if (driverClassName != null && !driverClassName.isEmpty()) {
+            config.setDriverClassName(driverClassName);
+        }
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(minimumPoolSize);
+        config.setConnectionTimeout(connectionTimeout);
+        if (!failFast) {
+            config.setInitializationFailTimeout(-1);
+        }
+        return new HikariDataSource(config);
+    }
+}
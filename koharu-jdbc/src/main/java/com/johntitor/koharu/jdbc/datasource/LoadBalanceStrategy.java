@@ -0,0 +1,45 @@
+package com.johntitor.koharu.jdbc.datasource;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 从可用的replica中选择一个
+ */
+public enum LoadBalanceStrategy {
+
+    // 轮询:
+    ROUND_ROBIN {
+        @Override
+        ReplicaPool select(List<ReplicaPool> candidates, AtomicInteger counter) {
+            int n = counter.getAndIncrement() & Integer.MAX_VALUE;
+            return candidates.get(n % candidates.size());
+        }
+    },
+
+    // 活跃连接数最少，相同时取靠前的:
+    LEAST_ACTIVE {
+        @Override
+        ReplicaPool select(List<ReplicaPool> candidates, AtomicInteger counter) {
+            ReplicaPool selected = null;
+            int min = Integer.MAX_VALUE;
+            for (ReplicaPool pool : candidates) {
+                int active = pool.getActiveConnections();
+                if (active < min) {
+                    min = active;
+                    selected = pool;
+                }
+            }
+            return selected;
+        }
+    };
+
+    abstract ReplicaPool select(List<ReplicaPool> candidates, AtomicInteger counter);
+
+    /**
+     * 解析round-robin/least-active
+     */
+    public static LoadBalanceStrategy of(String name) {
+        return valueOf(name.trim().toUpperCase().replace('-', '_'));
+    }
+}
@@ -0,0 +1,72 @@
+package com.johntitor.koharu.jdbc.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个replica连接池及其健康状态
+ */
+class ReplicaPool {
+
+    final String name;
+    final DataSource dataSource;
+    // 标记为不可用的截止时间(System.nanoTime)，0表示可用:
+    volatile long downUntil;
+    final LongAdder routed = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    ReplicaPool(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    boolean isHealthy(long now) {
+        long until = this.downUntil;
+        return until == 0 || until - now <= 0;
+    }
+
+    Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        this.downUntil = 0;
+        this.routed.increment();
+        return connection;
+    }
+
+    void markDown(long retryIntervalNanos) {
+        this.failures.increment();
+        this.downUntil = System.nanoTime() + retryIntervalNanos;
+    }
+
+    int getActiveConnections() {
+        HikariPoolMXBean pool = getPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+
+    ReplicaStatus getStatus() {
+        HikariPoolMXBean pool = getPoolMXBean();
+        return new ReplicaStatus(name, isHealthy(System.nanoTime()),
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                pool == null ? 0 : pool.getTotalConnections(),
+                routed.sum(), failures.sum());
+    }
+
+    private HikariPoolMXBean getPoolMXBean() {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getHikariPoolMXBean() : null;
+    }
+
+    void close() {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close replica " + name, e);
+            }
+        }
+    }
+}
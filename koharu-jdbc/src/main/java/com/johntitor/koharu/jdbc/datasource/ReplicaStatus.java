@@ -0,0 +1,8 @@
+package com.johntitor.koharu.jdbc.datasource;
+
+/**
+ * replica连接池的健康状态和路由统计
+ */
+public record ReplicaStatus(String name, boolean healthy, int activeConnections, int idleConnections, int totalConnections,
+                            long routed, long failures) {
+}
@@ -0,0 +1,221 @@
+package com.johntitor.koharu.jdbc.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离DataSource:
+ * <p>
+ * getConnection()总是返回主库连接，getReadConnection()按负载均衡策略返回replica连接。
+ * 当前线程在stickyWindow内完成过写操作时，读也走主库，保证read-after-write。
+ * 写操作完成的时间由调用方通过markWritten()记录: 读写事务在提交后记录，非事务的写操作在语句执行完成后记录，
+ * 因此长时间运行的写事务提交后仍有完整的stickyWindow，只获取主库连接而没有写入时不会影响读路由。
+ * replica建立连接失败时标记为不可用，在retryInterval后重试，所有replica都不可用时回退到主库。
+ * 连接池繁忙(等待超时)等其他错误只跳过该replica，不标记为不可用。
+ */
+public class RoutingDataSource implements DataSource, AutoCloseable {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final DataSource primary;
+    private final List<ReplicaPool> replicas = new ArrayList<>();
+    private final LoadBalanceStrategy strategy;
+    private final long stickyWindowNanos;
+    private final long retryIntervalNanos;
+
+    private final AtomicInteger counter = new AtomicInteger();
+    private final LongAdder primaryRouted = new LongAdder();
+    // 当前线程最后一次完成写操作的时间:
+    private final ThreadLocal<long[]> lastWrite = ThreadLocal.withInitial(() -> new long[1]);
+
+    public RoutingDataSource(DataSource primary, Map<String, ? extends DataSource> replicas, LoadBalanceStrategy strategy,
+                             Duration stickyWindow, Duration retryInterval) {
+        this.primary = primary;
+        replicas.forEach((name, ds) -> this.replicas.add(new ReplicaPool(name, ds)));
+        this.strategy = strategy;
+        this.stickyWindowNanos = stickyWindow.toNanos();
+        this.retryIntervalNanos = retryInterval.toNanos();
+    }
+
+    /**
+     * 主库连接，用于写操作和读写事务
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        primaryRouted.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryRouted.increment();
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 只读连接，用于只读事务和非事务查询
+     */
+    public Connection getReadConnection() throws SQLException {
+        long now = System.nanoTime();
+        if (stickyWindowNanos > 0) {
+            long last = lastWrite.get()[0];
+            if (last != 0 && now - last < stickyWindowNanos) {
+                logger.debug("route read to primary within sticky window.");
+                primaryRouted.increment();
+                return primary.getConnection();
+            }
+        }
+        List<ReplicaPool> candidates = healthyReplicas(now);
+        while (!candidates.isEmpty()) {
+            ReplicaPool replica = strategy.select(candidates, counter);
+            try {
+                Connection connection = replica.getConnection();
+                logger.debug("route read to replica {}.", replica.name);
+                return connection;
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    logger.warn("replica {} is unavailable, mark it down for {} ms.", replica.name, retryIntervalNanos / 1_000_000, e);
+                    replica.markDown(retryIntervalNanos);
+                } else {
+                    logger.warn("replica {} failed to provide a connection, try next.", replica.name, e);
+                }
+                candidates.remove(replica);
+            }
+        }
+        logger.debug("no healthy replica, route read to primary.");
+        primaryRouted.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * 是否为连接级别的错误: SQLState为08xxx，或SQLNonTransientConnectionException，
+     * 或由建立连接失败引起的SQLTransientConnectionException(连接池单纯等待超时时没有cause)
+     */
+    public static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        if (state != null && state.startsWith("08")) {
+            return true;
+        }
+        if (e instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        return e instanceof SQLTransientConnectionException && e.getCause() != null;
+    }
+
+    private List<ReplicaPool> healthyReplicas(long now) {
+        List<ReplicaPool> list = new ArrayList<>(replicas.size());
+        for (ReplicaPool replica : replicas) {
+            if (replica.isHealthy(now)) {
+                list.add(replica);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 记录当前线程完成了一次写操作，此后stickyWindow内的读走主库
+     */
+    public void markWritten() {
+        if (stickyWindowNanos > 0) {
+            lastWrite.get()[0] = System.nanoTime();
+        }
+    }
+
+    /**
+     * 清除当前线程的read-after-write标记
+     */
+    public void clearStickiness() {
+        lastWrite.remove();
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * 主库和所有replica，主库名称为primary
+     */
+    public Map<String, DataSource> getDataSources() {
+        Map<String, DataSource> map = new LinkedHashMap<>();
+        map.put("primary", primary);
+        for (ReplicaPool replica : replicas) {
+            map.put(replica.name, replica.dataSource);
+        }
+        return map;
+    }
+
+    public long getPrimaryRouted() {
+        return primaryRouted.sum();
+    }
+
+    public List<ReplicaStatus> getReplicaStatus() {
+        return replicas.stream().map(ReplicaPool::getStatus).toList();
+    }
+
+    @Override
+    public void close() {
+        for (ReplicaPool replica : replicas) {
+            replica.close();
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close primary data source.", e);
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primary.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return primary.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,188 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.aop.metrics.LogHistogram;
+import com.johntitor.koharu.context.ApplicationContext;
+import com.johntitor.koharu.context.ApplicationContextContainer;
+import com.johntitor.koharu.jdbc.datasource.RoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于LogHistogram的JdbcMetrics实现:
+ * <p>
+ * 按规范化SQL统计耗时、行数和错误数，统计连接获取耗时、事务耗时、提交和回滚次数，快照中包含Hikari连接池状态。
+ * 超过slowQueryThreshold的SQL以WARN输出规范化SQL和绑定参数个数。
+ */
+public class DefaultJdbcMetrics implements JdbcMetrics {
+
+    // 规范化SQL数量上限，超出后归入OTHER:
+    static final int MAX_STATEMENTS = 1000;
+    static final String OTHER = "<other>";
+    // SQL耗时使用更细的子桶，相对误差约3%:
+    static final int SUB_BUCKET_BITS = 5;
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final DataSource dataSource;
+    // 负数表示不记录慢查询:
+    private final long slowQueryThresholdNanos;
+    private final long exportIntervalMillis;
+
+    private final SqlNormalizer normalizer = new SqlNormalizer();
+    private final Map<String, QueryMetrics> queries = new ConcurrentHashMap<>();
+    private final LogHistogram connectionAcquire = new LogHistogram(SUB_BUCKET_BITS);
+    private final LogHistogram transactionDuration = new LogHistogram(SUB_BUCKET_BITS);
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+
+    public DefaultJdbcMetrics(DataSource dataSource, Duration slowQueryThreshold, Duration exportInterval) {
+        this.dataSource = dataSource;
+        this.slowQueryThresholdNanos = slowQueryThreshold.isNegative() ? -1 : slowQueryThreshold.toNanos();
+        this.exportIntervalMillis = exportInterval.toMillis();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordQuery(String sql, int parameterCount, long nanos, long rows, boolean failed) {
+        String key = normalizer.normalize(sql);
+        QueryMetrics metrics = queries.get(key);
+        if (metrics == null) {
+            if (queries.size() >= MAX_STATEMENTS) {
+                key = OTHER;
+            }
+            metrics = queries.computeIfAbsent(key, QueryMetrics::new);
+        }
+        metrics.latency.record(nanos);
+        metrics.rows.add(rows);
+        if (failed) {
+            metrics.errors.increment();
+        }
+        if (slowQueryThresholdNanos >= 0 && nanos >= slowQueryThresholdNanos) {
+            logger.warn("slow query: {} ms, {} bind parameters, {} rows: {}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), parameterCount, rows, key);
+        }
+    }
+
+    @Override
+    public void recordConnectionAcquire(long nanos) {
+        connectionAcquire.record(nanos);
+    }
+
+    @Override
+    public void recordTransaction(long nanos, boolean committed) {
+        transactionDuration.record(nanos);
+        if (committed) {
+            commits.increment();
+        } else {
+            rollbacks.increment();
+        }
+    }
+
+    public void addExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    /**
+     * 查找MetricsExporter Bean，并按exportInterval定时导出
+     */
+    @Override
+    public void start() {
+        ApplicationContext ctx = ApplicationContextContainer.getApplicationContext();
+        if (ctx != null) {
+            exporters.addAll(ctx.getBeans(MetricsExporter.class));
+        }
+        if (exportIntervalMillis > 0 && !exporters.isEmpty()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "jdbc-metrics-exporter");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleAtFixedRate(this::export, exportIntervalMillis, exportIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void export() {
+        if (exporters.isEmpty()) {
+            return;
+        }
+        JdbcMetricsSnapshot snapshot = snapshot();
+        for (MetricsExporter exporter : exporters) {
+            try {
+                exporter.export(snapshot);
+            } catch (RuntimeException e) {
+                logger.warn("metrics exporter {} failed.", exporter.getClass().getName(), e);
+            }
+        }
+    }
+
+    public JdbcMetricsSnapshot snapshot() {
+        List<QueryStats> list = new ArrayList<>(queries.size());
+        for (QueryMetrics metrics : queries.values()) {
+            list.add(new QueryStats(metrics.sql, metrics.latency.snapshot(), metrics.rows.sum(), metrics.errors.sum()));
+        }
+        return new JdbcMetricsSnapshot(list, connectionAcquire.snapshot(), transactionDuration.snapshot(),
+                commits.sum(), rollbacks.sum(), getPoolStats());
+    }
+
+    public List<PoolStats> getPoolStats() {
+        List<PoolStats> pools = new ArrayList<>();
+        if (dataSource instanceof RoutingDataSource routing) {
+            routing.getDataSources().forEach((name, ds) -> addPoolStats(pools, name, ds));
+        } else {
+            addPoolStats(pools, null, dataSource);
+        }
+        return pools;
+    }
+
+    private void addPoolStats(List<PoolStats> pools, String name, DataSource ds) {
+        if (ds instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool != null) {
+                pools.add(new PoolStats(name == null ? hikari.getPoolName() : name, pool.getActiveConnections(),
+                        pool.getIdleConnections(), pool.getTotalConnections(), pool.getThreadsAwaitingConnection()));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        // 关闭前导出最后一次:
+        export();
+    }
+
+    static class QueryMetrics {
+        final String sql;
+        final LogHistogram latency = new LogHistogram(SUB_BUCKET_BITS);
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        QueryMetrics(String sql) {
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+/**
+ * JdbcTemplate和DataSourceTransactionManager的埋点接口，时间单位为纳秒。
+ * <p>
+ * 默认使用NOOP，isEnabled()返回false时调用方不会读取时钟。
+ */
+public interface JdbcMetrics extends AutoCloseable {
+
+    JdbcMetrics NOOP = NoOpJdbcMetrics.INSTANCE;
+
+    boolean isEnabled();
+
+    /**
+     * 记录一次SQL执行，rows为查询返回或更新影响的行数
+     */
+    void recordQuery(String sql, int parameterCount, long nanos, long rows, boolean failed);
+
+    /**
+     * 记录从连接池获取连接的耗时
+     */
+    void recordConnectionAcquire(long nanos);
+
+    /**
+     * 记录一个物理事务从开启到提交或回滚的耗时
+     */
+    void recordTransaction(long nanos, boolean committed);
+
+    void start();
+
+    @Override
+    void close();
+}
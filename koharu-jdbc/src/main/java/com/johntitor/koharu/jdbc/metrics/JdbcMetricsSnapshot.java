@@ -0,0 +1,10 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.aop.metrics.LatencySnapshot;
+
+import java.util.List;
+
+public record JdbcMetricsSnapshot(List<QueryStats> queries, LatencySnapshot connectionAcquire,
+                                  LatencySnapshot transactionDuration, long commits, long rollbacks,
+                                  List<PoolStats> pools) {
+}
@@ -0,0 +1,9 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+/**
+ * 导出JdbcMetrics快照，实现为Bean时由DefaultJdbcMetrics自动发现
+ */
+public interface MetricsExporter {
+
+    void export(JdbcMetricsSnapshot snapshot);
+}
@@ -0,0 +1,34 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+final class NoOpJdbcMetrics implements JdbcMetrics {
+
+    static final NoOpJdbcMetrics INSTANCE = new NoOpJdbcMetrics();
+
+    private NoOpJdbcMetrics() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordQuery(String sql, int parameterCount, long nanos, long rows, boolean failed) {
+    }
+
+    @Override
+    public void recordConnectionAcquire(long nanos) {
+    }
+
+    @Override
+    public void recordTransaction(long nanos, boolean committed) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
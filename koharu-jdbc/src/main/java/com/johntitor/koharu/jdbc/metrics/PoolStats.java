@@ -0,0 +1,8 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+/**
+ * Hikari连接池状态
+ */
+public record PoolStats(String name, int activeConnections, int idleConnections, int totalConnections,
+                        int threadsAwaitingConnection) {
+}
@@ -0,0 +1,9 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.aop.metrics.LatencySnapshot;
+
+/**
+ * 一条规范化SQL的统计
+ */
+public record QueryStats(String sql, LatencySnapshot latency, long rows, long errors) {
+}
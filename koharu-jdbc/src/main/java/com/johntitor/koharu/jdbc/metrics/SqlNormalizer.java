@@ -0,0 +1,132 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 规范化SQL用于统计分组:
+ * <p>
+ * 合并空白，字符串和数字常量替换为?，IN (?, ?, ...)合并为IN (?)。
+ */
+public class SqlNormalizer {
+
+    // SQL通常为常量，缓存结果，超出上限后不再缓存:
+    private static final int MAX_CACHE_SIZE = 2048;
+
+    private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+    public String normalize(String sql) {
+        String normalized = cache.get(sql);
+        if (normalized == null) {
+            normalized = doNormalize(sql);
+            if (cache.size() < MAX_CACHE_SIZE) {
+                cache.put(sql, normalized);
+            }
+        }
+        return normalized;
+    }
+
+    static String doNormalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!sb.isEmpty()) {
+                    sb.append(' ');
+                }
+                continue;
+            }
+            if (c == '\'') {
+                // 字符串常量，''为转义:
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                sb.append('?');
+                continue;
+            }
+            if (Character.isDigit(c) && !isIdentifierEnd(sb)) {
+                // 数字常量:
+                while (i < n && (Character.isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                sb.append('?');
+                continue;
+            }
+            if (c == '(' && collapseInList(sb)) {
+                int end = skipPlaceholderList(sql, i + 1);
+                if (end > 0) {
+                    sb.append("(?)");
+                    i = end;
+                    continue;
+                }
+            }
+            sb.append(c);
+            i++;
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') {
+            sb.setLength(len - 1);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isIdentifierEnd(StringBuilder sb) {
+        if (sb.isEmpty()) {
+            return false;
+        }
+        char last = sb.charAt(sb.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    // 前一个单词是否为IN:
+    private static boolean collapseInList(StringBuilder sb) {
+        int end = sb.length();
+        if (end > 0 && sb.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end < 2 || !sb.substring(end - 2, end).equalsIgnoreCase("in")) {
+            return false;
+        }
+        return end == 2 || !Character.isLetterOrDigit(sb.charAt(end - 3)) && sb.charAt(end - 3) != '_';
+    }
+
+    // 跳过由?、常量、逗号和空白组成的列表，返回')'之后的位置，不是此类列表时返回-1:
+    private static int skipPlaceholderList(String sql, int start) {
+        int n = sql.length();
+        int i = start;
+        boolean empty = true;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == ')') {
+                return empty ? -1 : i + 1;
+            }
+            if (c == '\'') {
+                i++;
+                while (i < n && !(sql.charAt(i) == '\'' && (i + 1 >= n || sql.charAt(i + 1) != '\''))) {
+                    i += sql.charAt(i) == '\'' ? 2 : 1;
+                }
+                empty = false;
+            } else if (c == '?' || Character.isDigit(c) || c == '.' || c == '-') {
+                empty = false;
+            } else if (c != ',' && !Character.isWhitespace(c)) {
+                return -1;
+            }
+            i++;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,31 @@
+package com.johntitor.koharu.jdbc.tx;
+
+import com.johntitor.koharu.annotation.Transactional;
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 从@Transactional解析事务属性:
+ * <p>
+ * 方法上的@Transactional优先于类上的@Transactional，类上的@Transactional不作用于Object声明的方法。
+ */
+public class AnnotationTransactionAttributeSource implements TransactionAttributeSource {
+
+    public static final AnnotationTransactionAttributeSource INSTANCE = new AnnotationTransactionAttributeSource();
+
+    @Nullable
+    @Override
+    public TransactionDefinition getTransactionAttribute(Method method, Class<?> targetClass) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+                || method.isBridge() || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        Transactional transactional = method.getAnnotation(Transactional.class);
+        if (transactional == null) {
+            transactional = targetClass.getAnnotation(Transactional.class);
+        }
+        return transactional == null ? null : TransactionDefinition.of(transactional);
+    }
+}
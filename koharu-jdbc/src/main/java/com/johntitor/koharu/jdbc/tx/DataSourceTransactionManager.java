@@ -1,66 +1,259 @@
 package com.johntitor.koharu.jdbc.tx;
 
 import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.jdbc.datasource.RoutingDataSource;
+import com.johntitor.koharu.jdbc.metrics.JdbcMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class DataSourceTransactionManager implements
         PlatformTransactionManager, InvocationHandler {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
     private static final ThreadLocal<TransactionStatus> transactionStatus = new ThreadLocal<>();
+    // Bean Class -> TransactionInterceptor:
+    private final Map<Class<?>, TransactionInterceptor> interceptors = new ConcurrentHashMap<>();
     final DataSource dataSource;
+    final JdbcMetrics metrics;
 
     public DataSourceTransactionManager(DataSource dataSource) {
+        this(dataSource, JdbcMetrics.NOOP);
+    }
+
+    public DataSourceTransactionManager(DataSource dataSource, JdbcMetrics metrics) {
         this.dataSource = dataSource;
+        this.metrics = metrics;
     }
 
+    /**
+     * 直接作为InvocationHandler使用时，按目标类缓存TransactionInterceptor
+     */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        TransactionStatus status = transactionStatus.get();
-        // 当前已有事务,加入当前事务执行:
-        if (status != null){
-            return method.invoke(proxy, args);
+        return interceptors.computeIfAbsent(proxy.getClass(),
+                c -> new TransactionInterceptor(this, AnnotationTransactionAttributeSource.INSTANCE, c)).invoke(proxy, method, args);
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        TransactionStatus current = transactionStatus.get();
+        // 当前已有事务:
+        if (current != null) {
+            return handleExistingTransaction(definition, current);
         }
-        // 当前无事务,开启新事务:
-        try (Connection connection = dataSource.getConnection()) {
-            boolean autoCommit = connection.getAutoCommit();
-            if (autoCommit){
-                connection.setAutoCommit(false);
+        // 当前无事务:
+        return switch (definition.propagation()) {
+            case MANDATORY -> throw new TransactionException("No existing transaction found for transaction marked with propagation 'MANDATORY'.");
+            case REQUIRED, REQUIRES_NEW, NESTED -> startTransaction(definition, null);
+            // SUPPORTS, NOT_SUPPORTED, NEVER 以非事务方式执行:
+            default -> new TransactionStatus(null, definition, false, null, null);
+        };
+    }
+
+    private TransactionStatus handleExistingTransaction(TransactionDefinition definition, TransactionStatus current) {
+        switch (definition.propagation()) {
+            case NEVER:
+                throw new TransactionException("Existing transaction found for transaction marked with propagation 'NEVER'.");
+            case NOT_SUPPORTED:
+                // 挂起当前事务:
+                transactionStatus.remove();
+                return new TransactionStatus(null, definition, false, null, current);
+            case REQUIRES_NEW:
+                // 挂起当前事务并开启新事务:
+                transactionStatus.remove();
+                try {
+                    return startTransaction(definition, current);
+                } catch (RuntimeException e) {
+                    transactionStatus.set(current);
+                    throw e;
+                }
+            case NESTED:
+                // 在当前事务中创建savepoint:
+                TransactionStatus nested = new TransactionStatus(current.getConnection(), definition, false, current, null);
+                try {
+                    nested.savepoint = current.getConnection().setSavepoint();
+                } catch (SQLException e) {
+                    throw new TransactionException("Could not create JDBC savepoint.", e);
+                }
+                return nested;
+            default:
+                // REQUIRED, SUPPORTS, MANDATORY 加入当前事务:
+                return new TransactionStatus(current.getConnection(), definition, false, current, null);
+        }
+    }
+
+    private TransactionStatus startTransaction(TransactionDefinition definition, TransactionStatus suspended) {
+        Connection connection = null;
+        try {
+            long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+            // 只读事务可路由至replica:
+            connection = definition.readOnly() && dataSource instanceof RoutingDataSource routing
+                    ? routing.getReadConnection()
+                    : dataSource.getConnection();
+            TransactionStatus status = new TransactionStatus(connection, definition, true, null, suspended);
+            if (metrics.isEnabled()) {
+                status.startTime = System.nanoTime();
+                metrics.recordConnectionAcquire(status.startTime - start);
+            }
+            prepareConnection(status, connection, definition);
+            if (definition.timeout() > 0) {
+                status.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(definition.timeout());
             }
+            // 设置ThreadLocal状态:
+            transactionStatus.set(status);
+            return status;
+        } catch (SQLException e) {
+            if (connection != null) {
+                closeConnection(connection);
+            }
+            throw new TransactionException("Could not open JDBC connection for transaction.", e);
+        }
+    }
 
+    private void prepareConnection(TransactionStatus status, Connection connection, TransactionDefinition definition) throws SQLException {
+        if (definition.readOnly()) {
+            // 只读提示，部分驱动(如SQLite)不支持在连接建立后修改:
             try {
-                // 设置ThreadLocal状态:
-                transactionStatus.set(new TransactionStatus(connection));
-                // 调用业务方法:
-                Object result = method.invoke(proxy, args);
+                status.previousReadOnly = connection.isReadOnly();
+                connection.setReadOnly(true);
+            } catch (SQLException | RuntimeException e) {
+                status.previousReadOnly = true;
+                logger.debug("Could not set JDBC connection read-only.", e);
+            }
+        }
+        if (definition.isolation() != Isolation.DEFAULT) {
+            int isolation = connection.getTransactionIsolation();
+            if (isolation != definition.isolation().level()) {
+                status.previousIsolation = isolation;
+                connection.setTransactionIsolation(definition.isolation().level());
+            }
+        }
+        status.previousAutoCommit = connection.getAutoCommit();
+        if (status.previousAutoCommit) {
+            connection.setAutoCommit(false);
+        }
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        if (status.isCompleted()) {
+            throw new TransactionException("Transaction is already completed.");
+        }
+        try {
+            if (status.isNewTransaction()) {
+                if (status.rollbackOnly) {
+                    status.getConnection().rollback();
+                    recordTransaction(status, false);
+                    throw new TransactionException("Transaction rolled back because it has been marked as rollback-only.");
+                }
                 // 提交事务
-                connection.commit();
-                // 方法返回
-                return result;
-            } catch (InvocationTargetException  e) {
-                // 回滚事务:
-                TransactionException te = new TransactionException(e.getCause());
-                try{
-                    connection.rollback();
-                } catch (SQLException sqlE){
-                    te.addSuppressed(sqlE);
+                status.getConnection().commit();
+                recordTransaction(status, true);
+                // 读写事务提交后开始read-after-write窗口:
+                if (!status.getDefinition().readOnly() && dataSource instanceof RoutingDataSource routing) {
+                    routing.markWritten();
                 }
-                throw te;
-            } finally {
-                // 删除ThreadLocal状态:
-                transactionStatus.remove();
-                if (autoCommit){
+            } else if (status.hasSavepoint()) {
+                status.getConnection().releaseSavepoint(status.savepoint);
+            }
+        } catch (SQLException e) {
+            throw new TransactionException(e);
+        } finally {
+            cleanupAfterCompletion(status);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        if (status.isCompleted()) {
+            throw new TransactionException("Transaction is already completed.");
+        }
+        try {
+            if (status.isNewTransaction()) {
+                // 回滚事务:
+                status.getConnection().rollback();
+                recordTransaction(status, false);
+            } else if (status.hasSavepoint()) {
+                // 回滚至savepoint:
+                status.getConnection().rollback(status.savepoint);
+                status.getConnection().releaseSavepoint(status.savepoint);
+            } else if (status.hasTransaction()) {
+                // 加入的事务，由外层事务负责回滚:
+                status.setRollbackOnly();
+            }
+        } catch (SQLException e) {
+            throw new TransactionException(e);
+        } finally {
+            cleanupAfterCompletion(status);
+        }
+    }
+
+    private void recordTransaction(TransactionStatus status, boolean committed) {
+        if (metrics.isEnabled()) {
+            metrics.recordTransaction(System.nanoTime() - status.startTime, committed);
+        }
+    }
+
+    private void cleanupAfterCompletion(TransactionStatus status) {
+        status.completed = true;
+        if (status.isNewTransaction()) {
+            Connection connection = status.getConnection();
+            try {
+                if (status.previousAutoCommit) {
                     connection.setAutoCommit(true);
                 }
+                if (status.previousIsolation >= 0) {
+                    connection.setTransactionIsolation(status.previousIsolation);
+                }
+                if (status.getDefinition().readOnly() && !status.previousReadOnly) {
+                    connection.setReadOnly(false);
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not reset JDBC connection after transaction.", e);
+            } finally {
+                closeConnection(connection);
             }
         }
+        // 删除ThreadLocal状态或恢复被挂起的事务:
+        if (status.getSuspended() != null) {
+            transactionStatus.set(status.getSuspended());
+        } else if (status.isNewTransaction()) {
+            transactionStatus.remove();
+        }
+    }
+
+    private void closeConnection(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Could not close JDBC connection.", e);
+        }
     }
 
     public static TransactionStatus getTransactionStatus() {
         return transactionStatus.get();
     }
-}
\ No newline at end of file
+
+    /**
+     * 把其他线程的事务绑定到当前线程，返回之前绑定的事务，传入null解除绑定
+     */
+    static TransactionStatus bindTransactionStatus(TransactionStatus status) {
+        TransactionStatus previous = transactionStatus.get();
+        if (status == null) {
+            transactionStatus.remove();
+        } else {
+            transactionStatus.set(status);
+        }
+        return previous;
+    }
+}
@@ -1,4 +1,21 @@
 package com.johntitor.koharu.jdbc.tx;
 
+import com.johntitor.koharu.exception.TransactionException;
+
 public interface PlatformTransactionManager {
+
+    /**
+     * 根据传播行为返回当前事务或新建事务。
+     */
+    TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException;
+
+    /**
+     * 提交事务，如果事务被标记为rollback-only则回滚。
+     */
+    void commit(TransactionStatus status) throws TransactionException;
+
+    /**
+     * 回滚事务，加入的事务只会被标记为rollback-only。
+     */
+    void rollback(TransactionStatus status) throws TransactionException;
 }
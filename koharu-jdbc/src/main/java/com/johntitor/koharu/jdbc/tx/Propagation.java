@@ -0,0 +1,28 @@
+package com.johntitor.koharu.jdbc.tx;
+
+/**
+ * 事务传播行为
+ */
+public enum Propagation {
+
+    // 加入当前事务，没有则新建:
+    REQUIRED,
+
+    // 加入当前事务，没有则以非事务方式执行:
+    SUPPORTS,
+
+    // 必须在已有事务中执行，否则抛出异常:
+    MANDATORY,
+
+    // 挂起当前事务，总是新建事务:
+    REQUIRES_NEW,
+
+    // 挂起当前事务，以非事务方式执行:
+    NOT_SUPPORTED,
+
+    // 以非事务方式执行，存在事务则抛出异常:
+    NEVER,
+
+    // 存在事务则在savepoint中执行，没有则新建:
+    NESTED;
+}
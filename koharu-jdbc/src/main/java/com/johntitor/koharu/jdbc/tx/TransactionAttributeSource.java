@@ -0,0 +1,17 @@
+package com.johntitor.koharu.jdbc.tx;
+
+import jakarta.annotation.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * 解析方法的事务属性
+ */
+public interface TransactionAttributeSource {
+
+    /**
+     * 返回null表示该方法不需要事务处理
+     */
+    @Nullable
+    TransactionDefinition getTransactionAttribute(Method method, Class<?> targetClass);
+}
@@ -0,0 +1,37 @@
+package com.johntitor.koharu.jdbc.tx;
+
+import com.johntitor.koharu.aop.async.ContextPropagator;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 通过@Async(propagate = "transaction")把调用方的事务传递到异步任务:
+ * <p>
+ * 异步任务加入调用方的事务并使用同一个Connection。JDBC Connection不是线程安全的，调用方必须在事务提交前等待任务完成，
+ * 且不能同时使用该事务。
+ */
+public class TransactionContextPropagator implements ContextPropagator {
+
+    public static final String NAME = "transaction";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public <T> Callable<T> wrap(Callable<T> task) {
+        TransactionStatus status = DataSourceTransactionManager.getTransactionStatus();
+        if (status == null) {
+            return task;
+        }
+        return () -> {
+            TransactionStatus previous = DataSourceTransactionManager.bindTransactionStatus(status);
+            try {
+                return task.call();
+            } finally {
+                DataSourceTransactionManager.bindTransactionStatus(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.johntitor.koharu.jdbc.tx;
+
+import com.johntitor.koharu.annotation.Transactional;
+
+/**
+ * 事务属性，由@Transactional解析而来
+ */
+public record TransactionDefinition(Propagation propagation, Isolation isolation, boolean readOnly, int timeout,
+                                    Class<? extends Throwable>[] rollbackFor) {
+
+    public static final int TIMEOUT_DEFAULT = -1;
+
+    @SuppressWarnings("unchecked")
+    public static final TransactionDefinition DEFAULT = new TransactionDefinition(Propagation.REQUIRED, Isolation.DEFAULT, false,
+            TIMEOUT_DEFAULT, new Class[0]);
+
+    public static TransactionDefinition of(Transactional transactional) {
+        return new TransactionDefinition(transactional.propagation(), transactional.isolation(), transactional.readOnly(),
+                transactional.timeout(), transactional.rollbackFor());
+    }
+
+    /**
+     * RuntimeException和Error总是回滚，checked异常只在rollbackFor中声明时回滚。
+     */
+    public boolean rollbackOn(Throwable ex) {
+        if (ex instanceof RuntimeException || ex instanceof Error) {
+            return true;
+        }
+        for (Class<? extends Throwable> type : rollbackFor) {
+            if (type.isInstance(ex)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,130 @@
+package com.johntitor.koharu.jdbc.tx;
+
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.MethodInvocation;
+import com.johntitor.koharu.aop.resilience.RetryContext;
+import com.johntitor.koharu.exception.TransactionException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 事务代理的MethodInterceptor:
+ * <p>
+ * 创建时对目标类的每个public方法解析一次事务属性，调用时查表，非事务方法直接调用目标Bean，不经过事务管理器。
+ */
+public class TransactionInterceptor implements MethodInterceptor, InvocationHandler {
+
+    private final PlatformTransactionManager transactionManager;
+    // Method -> 事务属性，只包含事务方法:
+    private final Map<Method, TransactionDefinition> attributes;
+
+    public TransactionInterceptor(PlatformTransactionManager transactionManager, TransactionAttributeSource attributeSource, Class<?> targetClass) {
+        this.transactionManager = transactionManager;
+        Map<Method, TransactionDefinition> map = new HashMap<>();
+        for (Method method : targetClass.getMethods()) {
+            TransactionDefinition definition = attributeSource.getTransactionAttribute(method, targetClass);
+            if (definition != null) {
+                map.put(method, definition);
+            }
+        }
+        this.attributes = map;
+    }
+
+    /**
+     * 目标类是否有需要事务处理的方法
+     */
+    public boolean hasTransactionalMethods() {
+        return !attributes.isEmpty();
+    }
+
+    public TransactionDefinition getTransactionAttribute(Method method) {
+        return attributes.get(method);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        TransactionDefinition definition = attributes.get(invocation.getMethod());
+        if (definition == null) {
+            // 非事务方法:
+            return invocation.proceed();
+        }
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        if (joinsExistingTransaction(status) && RetryContext.isRetrying(invocation.getMethod())) {
+            // 加入了外层事务，失败的尝试会把外层事务标记为rollback-only，由外层事务决定是否重试:
+            RetryContext.current().disableRetry();
+        }
+        Object result;
+        try {
+            // 调用业务方法:
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            throw completeAfterThrowing(status, e);
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+
+    private static boolean joinsExistingTransaction(TransactionStatus status) {
+        if (status.isNewTransaction() || status.getConnection() == null) {
+            return false;
+        }
+        // NESTED在savepoint中执行，失败时只回滚到savepoint:
+        return switch (status.getDefinition().propagation()) {
+            case REQUIRED, SUPPORTS, MANDATORY -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 反射调用，用于DataSourceTransactionManager直接作为InvocationHandler的情况
+     */
+    @Override
+    public Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        TransactionDefinition definition = attributes.get(method);
+        if (definition == null) {
+            // 非事务方法:
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        Object result;
+        try {
+            // 调用业务方法:
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw completeAfterThrowing(status, e.getCause());
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+
+    /**
+     * 业务方法抛出异常后，根据rollbackFor决定回滚或提交，并返回需要抛出的异常。
+     */
+    Throwable completeAfterThrowing(TransactionStatus status, Throwable ex) {
+        if (status.getDefinition().rollbackOn(ex)) {
+            // 物理事务回滚时包装为TransactionException，否则原样抛出交给外层事务处理:
+            Throwable toThrow = status.isNewTransaction() ? new TransactionException(ex) : ex;
+            try {
+                transactionManager.rollback(status);
+            } catch (TransactionException te) {
+                toThrow.addSuppressed(te);
+            }
+            return toThrow;
+        }
+        try {
+            transactionManager.commit(status);
+        } catch (TransactionException te) {
+            te.addSuppressed(ex);
+            return te;
+        }
+        return ex;
+    }
+}
@@ -1,15 +1,113 @@
 package com.johntitor.koharu.jdbc.tx;
 
+import com.johntitor.koharu.exception.TransactionException;
+import jakarta.annotation.Nullable;
+
 import java.sql.Connection;
+import java.sql.Savepoint;
 
 public class TransactionStatus {
+    // 事务连接，非事务执行时为null:
     private final Connection connection;
+    // 当前方法的事务属性:
+    private final TransactionDefinition definition;
+    // 是否由当前方法开启的物理事务:
+    private final boolean newTransaction;
+    // 实际持有连接的物理事务，非事务执行时为null:
+    private final TransactionStatus owner;
+    // 被挂起的事务，完成后恢复:
+    private final TransactionStatus suspended;
+    // NESTED事务的savepoint:
+    Savepoint savepoint;
+    // 超时截止时间(System.nanoTime)，0表示不限制:
+    long deadline;
+    // 物理事务开启时间(System.nanoTime)，仅在启用metrics时记录:
+    long startTime;
+    boolean rollbackOnly;
+    boolean completed;
+
+    // 开启事务前的连接状态，结束后恢复:
+    boolean previousAutoCommit;
+    boolean previousReadOnly;
+    int previousIsolation = -1;
 
-    public TransactionStatus(Connection connection) {
+    TransactionStatus(Connection connection, TransactionDefinition definition, boolean newTransaction,
+                      @Nullable TransactionStatus owner, @Nullable TransactionStatus suspended) {
         this.connection = connection;
+        this.definition = definition;
+        this.newTransaction = newTransaction;
+        this.owner = newTransaction ? this : owner;
+        this.suspended = suspended;
     }
 
+    @Nullable
     public Connection getConnection() {
         return connection;
     }
-}
\ No newline at end of file
+
+    public TransactionDefinition getDefinition() {
+        return definition;
+    }
+
+    public boolean isNewTransaction() {
+        return newTransaction;
+    }
+
+    public boolean hasTransaction() {
+        return owner != null;
+    }
+
+    public boolean hasSavepoint() {
+        return savepoint != null;
+    }
+
+    /**
+     * 物理事务是否只读，加入的事务沿用外层事务的设置。
+     */
+    public boolean isReadOnly() {
+        return owner != null ? owner.definition.readOnly() : definition.readOnly();
+    }
+
+    public boolean isRollbackOnly() {
+        return owner != null && owner.rollbackOnly;
+    }
+
+    public void setRollbackOnly() {
+        if (owner == null) {
+            throw new TransactionException("No transaction to mark rollback-only.");
+        }
+        owner.rollbackOnly = true;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Nullable
+    TransactionStatus getOwner() {
+        return owner;
+    }
+
+    @Nullable
+    TransactionStatus getSuspended() {
+        return suspended;
+    }
+
+    /**
+     * 剩余的超时时间(秒)，不限制时返回-1，已超时抛出TransactionException。
+     */
+    public int getTimeToLiveInSeconds() {
+        long deadline = owner == null ? 0 : owner.deadline;
+        if (deadline == 0) {
+            return -1;
+        }
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            if (owner != null) {
+                owner.rollbackOnly = true;
+            }
+            throw new TransactionException("Transaction timed out.");
+        }
+        return (int) Math.max(1, (remaining + 999_999_999L) / 1_000_000_000L);
+    }
+}
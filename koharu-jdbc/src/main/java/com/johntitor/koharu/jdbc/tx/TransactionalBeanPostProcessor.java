@@ -2,7 +2,54 @@ package com.johntitor.koharu.jdbc.tx;
 
 import com.johntitor.koharu.annotation.Transactional;
 import com.johntitor.koharu.aop.AnnotationProxyBeanPostProcessor;
+import com.johntitor.koharu.aop.MethodInterceptor;
+import com.johntitor.koharu.aop.Pointcut;
+import com.johntitor.koharu.exception.AopConfigException;
 
+import java.lang.reflect.Method;
+
+/**
+ * 为标记了@Transactional(类或public方法)的Bean创建事务代理
+ */
 public class TransactionalBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Transactional> {
 
+    private final TransactionAttributeSource attributeSource = AnnotationTransactionAttributeSource.INSTANCE;
+
+    /**
+     * 类上的@Transactional优先，否则取public方法上的@Transactional，同一个Bean只能使用一个事务管理器
+     */
+    @Override
+    protected Transactional findAnnotation(Class<?> beanClass) {
+        Transactional found = beanClass.getAnnotation(Transactional.class);
+        for (Method method : beanClass.getMethods()) {
+            Transactional transactional = method.getAnnotation(Transactional.class);
+            if (transactional == null) {
+                continue;
+            }
+            if (found == null) {
+                found = transactional;
+            } else if (!found.value().equals(transactional.value())) {
+                throw new AopConfigException(String.format("@Transactional on %s.%s uses transaction manager '%s', but bean %s uses '%s'.",
+                        beanClass.getSimpleName(), method.getName(), transactional.value(), beanClass.getName(), found.value()));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 只拦截有事务属性的方法，其余方法由Proxy直接调用原始Bean
+     */
+    @Override
+    protected Pointcut getPointcut(Class<?> beanClass) {
+        return (method, targetClass) -> attributeSource.getTransactionAttribute(method, targetClass) != null;
+    }
+
+    @Override
+    protected MethodInterceptor createMethodInterceptor(Class<?> beanClass, String handlerName, Object handlerBean) {
+        if (handlerBean instanceof PlatformTransactionManager transactionManager) {
+            // 代理创建时预先计算每个方法的事务属性:
+            return new TransactionInterceptor(transactionManager, attributeSource, beanClass);
+        }
+        return super.createMethodInterceptor(beanClass, handlerName, handlerBean);
+    }
 }
@@ -3,6 +3,8 @@ package com.johntitor.koharu.jdbc.tx;
 import jakarta.annotation.Nullable;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 
 public class TransactionalContainer {
     @Nullable
@@ -10,5 +12,17 @@ public class TransactionalContainer {
         TransactionStatus ts = DataSourceTransactionManager.getTransactionStatus();
         return ts == null ? null : ts.getConnection();
     }
-}
 
+    /**
+     * 把当前事务剩余的超时时间设置到Statement上
+     */
+    public static void applyTimeout(Statement statement) throws SQLException {
+        TransactionStatus ts = DataSourceTransactionManager.getTransactionStatus();
+        if (ts != null) {
+            int ttl = ts.getTimeToLiveInSeconds();
+            if (ttl > 0) {
+                statement.setQueryTimeout(ttl);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.johntitor.koharu.jdbc.async;
+
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncTransactionTest extends JdbcTestBase {
+
+    @Test
+    public void testPropagateTransaction() {
+        try (var ctx = new AnnotationConfigApplicationContext(AsyncTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            OrderService orderService = ctx.getBean(OrderService.class);
+
+            assertTrue(orderService.place("Bob"));
+            assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+            // 异步任务在调用方的事务中执行，随调用方回滚:
+            assertThrows(TransactionException.class, () -> orderService.place("fail-Alice"));
+            assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+            // 未指定propagate时不传递事务:
+            assertFalse(orderService.withoutPropagation());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.johntitor.koharu.jdbc.async;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.async.AsyncConfiguration;
+import com.johntitor.koharu.jdbc.JdbcConfiguration;
+
+@ComponentScan
+@Configuration
+@Import({JdbcConfiguration.class, AsyncConfiguration.class})
+public class AsyncTxApplication {
+
+}
@@ -0,0 +1,29 @@
+package com.johntitor.koharu.jdbc.async;
+
+import com.johntitor.koharu.annotation.Async;
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import com.johntitor.koharu.jdbc.tx.DataSourceTransactionManager;
+
+import java.util.concurrent.CompletableFuture;
+
+@Component
+public class AuditWriter {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // 加入调用方的事务:
+    @Async(propagate = "transaction")
+    public CompletableFuture<Boolean> write(String name) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        return CompletableFuture.completedFuture(DataSourceTransactionManager.getTransactionStatus() != null);
+    }
+
+    @Async
+    public CompletableFuture<Boolean> inTransaction() {
+        return CompletableFuture.completedFuture(DataSourceTransactionManager.getTransactionStatus() != null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.johntitor.koharu.jdbc.async;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+
+@Component
+@Transactional
+public class OrderService {
+
+    @Autowired
+    AuditWriter auditWriter;
+
+    public boolean place(String name) {
+        // 提交事务前等待异步任务完成:
+        boolean joined = auditWriter.write(name).join();
+        if (name.startsWith("fail")) {
+            throw new IllegalStateException("Failed to place order for " + name);
+        }
+        return joined;
+    }
+
+    public boolean withoutPropagation() {
+        return auditWriter.inTransaction().join();
+    }
+}
@@ -0,0 +1,39 @@
+package com.johntitor.koharu.jdbc.method;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import com.johntitor.koharu.jdbc.tx.DataSourceTransactionManager;
+
+/**
+ * 只在方法上标记@Transactional
+ */
+@Component
+public class AccountService {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    String owner = "Bob";
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean inTransaction() {
+        return DataSourceTransactionManager.getTransactionStatus() != null;
+    }
+
+    @Transactional
+    public boolean transactionalInTransaction() {
+        return inTransaction();
+    }
+
+    @Transactional
+    public void insertAndFail(String name) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        throw new IllegalStateException("Failed to insert " + name);
+    }
+}
@@ -0,0 +1,34 @@
+package com.johntitor.koharu.jdbc.method;
+
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MethodLevelTest extends JdbcTestBase {
+
+    @Test
+    public void testMethodLevelTransactional() {
+        try (var ctx = new AnnotationConfigApplicationContext(MethodLevelApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+
+            AccountService accountService = ctx.getBean(AccountService.class);
+            // 只有方法上的@Transactional也会创建代理:
+            assertNotSame(AccountService.class, accountService.getClass());
+
+            // 非事务方法直接调用原始Bean:
+            assertEquals("Bob", accountService.getOwner());
+            assertFalse(accountService.inTransaction());
+            assertNotNull(accountService.toString());
+
+            // 事务方法:
+            assertTrue(accountService.transactionalInTransaction());
+            assertThrows(TransactionException.class, () -> accountService.insertAndFail("Alice"));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Number.class).intValue());
+        }
+    }
+}
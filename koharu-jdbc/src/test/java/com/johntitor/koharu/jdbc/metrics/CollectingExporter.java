@@ -0,0 +1,17 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.annotation.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class CollectingExporter implements MetricsExporter {
+
+    final List<JdbcMetricsSnapshot> snapshots = new ArrayList<>();
+
+    @Override
+    public void export(JdbcMetricsSnapshot snapshot) {
+        snapshots.add(snapshot);
+    }
+}
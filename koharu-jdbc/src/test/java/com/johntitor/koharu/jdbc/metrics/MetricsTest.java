@@ -0,0 +1,106 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.aop.metrics.LatencySnapshot;
+import com.johntitor.koharu.aop.metrics.LogHistogram;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest extends JdbcTestBase {
+
+    @Test
+    public void testHistogram() {
+        LogHistogram histogram = new LogHistogram(DefaultJdbcMetrics.SUB_BUCKET_BITS);
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.count());
+        assertEquals(10_000_000, snapshot.max());
+        assertEquals(5_000_500, snapshot.mean(), 1);
+        assertEquals(5_000_000, snapshot.p50(), 5_000_000 * 0.04);
+        assertEquals(9_900_000, snapshot.p99(), 9_900_000 * 0.04);
+        assertTrue(snapshot.p999() <= snapshot.max());
+        assertSame(LatencySnapshot.EMPTY, new LogHistogram(DefaultJdbcMetrics.SUB_BUCKET_BITS).snapshot());
+    }
+
+    @Test
+    public void testSqlNormalizer() {
+        SqlNormalizer normalizer = new SqlNormalizer();
+        assertEquals("SELECT * FROM users WHERE id = ?", normalizer.normalize("SELECT *  FROM users\n WHERE id = 1"));
+        assertEquals("SELECT * FROM users WHERE name = ? AND age > ?", normalizer.normalize("SELECT * FROM users WHERE name = 'O''Brien' AND age > 18"));
+        assertEquals("SELECT * FROM users WHERE id IN (?)", normalizer.normalize("SELECT * FROM users WHERE id IN (?, ?, ?)"));
+        assertEquals("SELECT * FROM users WHERE id in (?)", normalizer.normalize("SELECT * FROM users WHERE id in (1,2)"));
+        assertEquals("SELECT * FROM t1 WHERE c2 = ?", normalizer.normalize("SELECT * FROM t1 WHERE c2 = ?"));
+        assertEquals("INSERT INTO users (name, age) VALUES (?, ?)", normalizer.normalize(INSERT_USER));
+    }
+
+    @Test
+    public void testJdbcMetrics() {
+        CollectingExporter exporter;
+        try (var ctx = new AnnotationConfigApplicationContext(MetricsApplication.class, createMetricsPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            DefaultJdbcMetrics metrics = (DefaultJdbcMetrics) ctx.getBean(JdbcMetrics.class);
+            exporter = ctx.getBean(CollectingExporter.class);
+            jdbcTemplate.update(CREATE_USER);
+            jdbcTemplate.update(INSERT_USER, "Bob", 20);
+            jdbcTemplate.update(INSERT_USER, "Alice", 21);
+            assertEquals(2, jdbcTemplate.queryForList("SELECT * FROM users WHERE id IN (1, 2)", UserRow.class).size());
+            assertEquals(1, jdbcTemplate.queryForList("SELECT * FROM users WHERE id IN (2)", UserRow.class).size());
+            assertThrows(RuntimeException.class, () -> jdbcTemplate.update("UPDATE not_exist SET a = 1"));
+
+            UserService userService = ctx.getBean(UserService.class);
+            userService.insert("Tx-1", false);
+            assertThrows(TransactionException.class, () -> userService.insert("Tx-2", true));
+
+            JdbcMetricsSnapshot snapshot = metrics.snapshot();
+            QueryStats insert = find(snapshot, INSERT_USER);
+            assertEquals(4, insert.latency().count());
+            assertEquals(4, insert.rows());
+            QueryStats select = find(snapshot, "SELECT * FROM users WHERE id IN (?)");
+            assertEquals(2, select.latency().count());
+            assertEquals(3, select.rows());
+            QueryStats failed = find(snapshot, "UPDATE not_exist SET a = ?");
+            assertEquals(1, failed.errors());
+
+            assertEquals(1, snapshot.commits());
+            assertEquals(1, snapshot.rollbacks());
+            assertEquals(2, snapshot.transactionDuration().count());
+            assertTrue(snapshot.connectionAcquire().count() >= 7);
+            assertEquals(1, snapshot.pools().size());
+            assertTrue(snapshot.pools().get(0).totalConnections() >= 1);
+            assertTrue(exporter.snapshots.isEmpty());
+        }
+        // 关闭时导出:
+        assertEquals(1, exporter.snapshots.size());
+    }
+
+    QueryStats find(JdbcMetricsSnapshot snapshot, String sql) {
+        return snapshot.queries().stream().filter(q -> q.sql().equals(sql)).findFirst().orElseThrow();
+    }
+
+    PropertyResolver createMetricsPropertyResolver() {
+        var ps = new Properties();
+        ps.put("summer.datasource.url", "jdbc:sqlite:test.db");
+        ps.put("summer.datasource.username", "sa");
+        ps.put("summer.datasource.password", "");
+        ps.put("summer.datasource.driver-class-name", "org.sqlite.JDBC");
+        ps.put("summer.jdbc.metrics.enabled", "true");
+        ps.put("summer.jdbc.metrics.slow-query-threshold", "0");
+        ps.put("summer.jdbc.metrics.export-interval", "0");
+        return new PropertyResolver(ps);
+    }
+
+    public static class UserRow {
+        public int id;
+        public String name;
+        public int age;
+    }
+}
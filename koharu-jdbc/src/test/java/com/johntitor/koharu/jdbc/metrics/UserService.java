@@ -0,0 +1,22 @@
+package com.johntitor.koharu.jdbc.metrics;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+
+@Component
+@Transactional
+public class UserService {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public void insert(String name, boolean fail) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        if (fail) {
+            throw new IllegalStateException("Failed to insert " + name);
+        }
+    }
+}
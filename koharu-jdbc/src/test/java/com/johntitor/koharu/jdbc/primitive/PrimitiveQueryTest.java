@@ -0,0 +1,66 @@
+package com.johntitor.koharu.jdbc.primitive;
+
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.DataAccessException;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import com.johntitor.koharu.jdbc.support.LongList;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrimitiveQueryTest extends JdbcTestBase {
+
+    @Test
+    public void testPrimitiveQueries() {
+        try (var ctx = new AnnotationConfigApplicationContext(PrimitiveApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            for (int i = 0; i < 100; i++) {
+                jdbcTemplate.update(INSERT_USER, "User-" + i, i);
+            }
+            jdbcTemplate.update("INSERT INTO users (name, age) VALUES (?, NULL)", "Nobody");
+
+            assertEquals(101L, jdbcTemplate.queryForLong("SELECT COUNT(*) FROM users"));
+            assertEquals(42, jdbcTemplate.queryForInt(SELECT_USER_AGE, 43));
+            assertEquals(49.5, jdbcTemplate.queryForDouble("SELECT AVG(age) FROM users"), 1e-9);
+
+            long[] ids = jdbcTemplate.queryForLongArray("SELECT id FROM users WHERE age IS NOT NULL ORDER BY id");
+            assertEquals(100, ids.length);
+            assertEquals(1L, ids[0]);
+            assertEquals(100L, ids[99]);
+
+            int[] ages = jdbcTemplate.queryForIntArray("SELECT age FROM users WHERE age < ? ORDER BY age", 5);
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4}, ages);
+            assertEquals(0, jdbcTemplate.queryForIntArray("SELECT age FROM users WHERE age < 0").length);
+            // 超过初始容量时扩容:
+            int[] allAges = jdbcTemplate.queryForIntArray("SELECT age FROM users WHERE age IS NOT NULL ORDER BY age");
+            assertEquals(100, allAges.length);
+            assertEquals(99, allAges[99]);
+
+            LongList list = jdbcTemplate.queryForLongList("SELECT id FROM users WHERE age >= ? ORDER BY id", 90);
+            assertEquals(10, list.size());
+            assertEquals(91L, list.get(0));
+            assertEquals(10, list.stream().count());
+
+            // 空结果、多行和NULL:
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForLong(SELECT_USER_AGE, 1000));
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForInt("SELECT age FROM users"));
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForInt("SELECT age FROM users WHERE name = ?", "Nobody"));
+            assertThrows(DataAccessException.class, () -> jdbcTemplate.queryForLongArray("SELECT age FROM users"));
+        }
+    }
+
+    @Test
+    public void testLongList() {
+        LongList list = new LongList();
+        assertTrue(list.isEmpty());
+        for (long i = 0; i < 1000; i++) {
+            list.add(i * 2);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(1998L, list.get(999));
+        assertEquals(1000, list.toArray().length);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1000));
+    }
+}
@@ -0,0 +1,72 @@
+package com.johntitor.koharu.jdbc.propagation;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import com.johntitor.koharu.jdbc.tx.DataSourceTransactionManager;
+import com.johntitor.koharu.jdbc.tx.Isolation;
+import com.johntitor.koharu.jdbc.tx.Propagation;
+
+import java.io.IOException;
+
+@Component
+@Transactional
+public class InnerService {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public void insertRequired(String name, boolean fail) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        if (fail) {
+            throw new IllegalStateException("Failed to insert " + name);
+        }
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertRequiresNew(String name) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+    }
+
+    @Transactional(propagation = Propagation.NESTED)
+    public void insertNested(String name, boolean fail) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        if (fail) {
+            throw new IllegalStateException("Failed to insert " + name);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean mandatory() {
+        return DataSourceTransactionManager.getTransactionStatus() != null;
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public boolean never() {
+        return DataSourceTransactionManager.getTransactionStatus() == null;
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean notSupported() {
+        return DataSourceTransactionManager.getTransactionStatus() == null;
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.SERIALIZABLE, timeout = 10)
+    public boolean readOnly() {
+        var status = DataSourceTransactionManager.getTransactionStatus();
+        return status.isReadOnly() && status.getTimeToLiveInSeconds() > 0;
+    }
+
+    public void checkedCommit(String name) throws IOException {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        throw new IOException("Commit " + name);
+    }
+
+    @Transactional(rollbackFor = IOException.class)
+    public void checkedRollback(String name) throws IOException {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        throw new IOException("Rollback " + name);
+    }
+}
@@ -0,0 +1,55 @@
+package com.johntitor.koharu.jdbc.propagation;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+
+@Component
+@Transactional
+public class OuterService {
+
+    @Autowired
+    InnerService innerService;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public void requiresNewThenFail(String outer, String inner) {
+        // SQLite only allows one writer, so commit the new transaction before outer write:
+        innerService.insertRequiresNew(inner);
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, outer, 30);
+        throw new IllegalStateException("Rollback " + outer);
+    }
+
+    public void nestedFailure(String outer, String inner) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, outer, 30);
+        try {
+            innerService.insertNested(inner, true);
+        } catch (IllegalStateException e) {
+            // ignore nested failure:
+        }
+    }
+
+    public void swallowRequiredFailure(String outer, String inner) {
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, outer, 30);
+        try {
+            innerService.insertRequired(inner, true);
+        } catch (IllegalStateException e) {
+            // transaction is marked rollback-only:
+        }
+    }
+
+    public boolean callMandatory() {
+        return innerService.mandatory();
+    }
+
+    public boolean callNever() {
+        return innerService.never();
+    }
+
+    public boolean callNotSupported() {
+        return innerService.notSupported();
+    }
+}
@@ -0,0 +1,62 @@
+package com.johntitor.koharu.jdbc.propagation;
+
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropagationTest extends JdbcTestBase {
+
+    static final String COUNT_USER_BY_NAME = "SELECT COUNT(*) FROM users WHERE name = ?";
+
+    @Test
+    public void testPropagation() {
+        try (var ctx = new AnnotationConfigApplicationContext(PropagationApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+
+            OuterService outerService = ctx.getBean(OuterService.class);
+            InnerService innerService = ctx.getBean(InnerService.class);
+
+            // REQUIRES_NEW is committed even if outer transaction is rolled back:
+            assertThrows(TransactionException.class, () -> outerService.requiresNewThenFail("Outer-1", "Inner-1"));
+            assertEquals(0, count(jdbcTemplate, "Outer-1"));
+            assertEquals(1, count(jdbcTemplate, "Inner-1"));
+
+            // NESTED is rolled back to savepoint, outer transaction is committed:
+            outerService.nestedFailure("Outer-2", "Inner-2");
+            assertEquals(1, count(jdbcTemplate, "Outer-2"));
+            assertEquals(0, count(jdbcTemplate, "Inner-2"));
+
+            // REQUIRED failure marks outer transaction rollback-only:
+            assertThrows(TransactionException.class, () -> outerService.swallowRequiredFailure("Outer-3", "Inner-3"));
+            assertEquals(0, count(jdbcTemplate, "Outer-3"));
+            assertEquals(0, count(jdbcTemplate, "Inner-3"));
+
+            // MANDATORY, NEVER and NOT_SUPPORTED:
+            assertTrue(outerService.callMandatory());
+            assertThrows(TransactionException.class, () -> innerService.mandatory());
+            assertTrue(innerService.never());
+            assertThrows(TransactionException.class, () -> outerService.callNever());
+            assertTrue(outerService.callNotSupported());
+
+            // read-only hint and timeout:
+            assertTrue(innerService.readOnly());
+
+            // checked exception commits unless declared in rollbackFor:
+            assertThrows(IOException.class, () -> innerService.checkedCommit("Checked-1"));
+            assertEquals(1, count(jdbcTemplate, "Checked-1"));
+            assertThrows(TransactionException.class, () -> innerService.checkedRollback("Checked-2"));
+            assertEquals(0, count(jdbcTemplate, "Checked-2"));
+        }
+    }
+
+    int count(JdbcTemplate jdbcTemplate, String name) {
+        return jdbcTemplate.queryForObject(COUNT_USER_BY_NAME, Number.class, name).intValue();
+    }
+}
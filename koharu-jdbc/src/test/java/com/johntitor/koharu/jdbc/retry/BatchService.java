@@ -0,0 +1,24 @@
+package com.johntitor.koharu.jdbc.retry;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+
+@Component
+@Transactional
+public class BatchService {
+
+    @Autowired
+    RegisterService registerService;
+
+    public void registerAll(String... names) {
+        for (String name : names) {
+            registerService.register(name);
+        }
+    }
+
+    public void registerAllThenFail(String... names) {
+        registerAll(names);
+        throw new IllegalStateException("Batch failed after register " + names.length + " users.");
+    }
+}
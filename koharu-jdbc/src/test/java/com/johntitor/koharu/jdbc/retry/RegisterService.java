@@ -0,0 +1,36 @@
+package com.johntitor.koharu.jdbc.retry;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Retry;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import com.johntitor.koharu.jdbc.tx.DataSourceTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class RegisterService {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // 接下来失败的次数:
+    public final AtomicInteger failures = new AtomicInteger();
+    public final AtomicInteger newTransactions = new AtomicInteger();
+    public final AtomicInteger attempts = new AtomicInteger();
+
+    @Retry(maxAttempts = 3, backoff = 0)
+    @Transactional
+    public void register(String name) {
+        attempts.incrementAndGet();
+        if (DataSourceTransactionManager.getTransactionStatus().isNewTransaction()) {
+            newTransactions.incrementAndGet();
+        }
+        jdbcTemplate.update(JdbcTestBase.INSERT_USER, name, 20);
+        if (failures.getAndDecrement() > 0) {
+            throw new IllegalStateException("Deadlock detected when register " + name);
+        }
+    }
+}
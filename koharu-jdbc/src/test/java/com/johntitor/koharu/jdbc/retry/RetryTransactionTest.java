@@ -0,0 +1,58 @@
+package com.johntitor.koharu.jdbc.retry;
+
+import com.johntitor.koharu.aop.ProxyResolver;
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.exception.TransactionException;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryTransactionTest extends JdbcTestBase {
+
+    @Test
+    public void testRetryInNewTransaction() {
+        try (var ctx = new AnnotationConfigApplicationContext(RetryTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            RegisterService registerService = ctx.getBean(RegisterService.class);
+            RegisterService target = (RegisterService) ProxyResolver.getTarget(registerService);
+
+            // 前2次失败的事务回滚，第3次提交:
+            target.failures.set(2);
+            registerService.register("Bob");
+            assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+            assertEquals(3, target.newTransactions.get());
+
+            // 重试次数用完:
+            target.failures.set(3);
+            assertThrows(TransactionException.class, () -> registerService.register("Alice"));
+            assertEquals(1, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+        }
+    }
+
+    @Test
+    public void testNoRetryInsideOuterTransaction() {
+        try (var ctx = new AnnotationConfigApplicationContext(RetryTxApplication.class, createPropertyResolver())) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            jdbcTemplate.update(CREATE_USER);
+            RegisterService target = (RegisterService) ProxyResolver.getTarget(ctx.getBean(RegisterService.class));
+            BatchService batchService = ctx.getBean(BatchService.class);
+
+            // 加入外层事务的尝试失败后不重试，外层事务整体回滚:
+            target.failures.set(1);
+            assertThrows(TransactionException.class, () -> batchService.registerAll("Bob", "Alice"));
+            assertEquals(0, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+            assertEquals(1, target.attempts.get());
+
+            // 内层调用成功后外层失败，内层写入同样被回滚:
+            assertThrows(TransactionException.class, () -> batchService.registerAllThenFail("Bob", "Alice"));
+            assertEquals(0, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+
+            batchService.registerAll("Bob", "Alice");
+            assertEquals(2, jdbcTemplate.queryForInt("SELECT COUNT(*) FROM users"));
+            assertEquals(5, target.attempts.get());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.johntitor.koharu.jdbc.retry;
+
+import com.johntitor.koharu.annotation.ComponentScan;
+import com.johntitor.koharu.annotation.Configuration;
+import com.johntitor.koharu.annotation.Import;
+import com.johntitor.koharu.aop.resilience.ResilienceConfiguration;
+import com.johntitor.koharu.jdbc.JdbcConfiguration;
+
+@ComponentScan
+@Configuration
+@Import({JdbcConfiguration.class, ResilienceConfiguration.class})
+public class RetryTxApplication {
+
+}
@@ -0,0 +1,28 @@
+package com.johntitor.koharu.jdbc.routing;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.Component;
+import com.johntitor.koharu.annotation.Transactional;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+
+@Component
+@Transactional
+public class NodeService {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public String readOnlyNode() {
+        return jdbcTemplate.queryForObject(RoutingTest.SELECT_NODE, String.class);
+    }
+
+    public String readWriteNode() {
+        return jdbcTemplate.queryForObject(RoutingTest.SELECT_NODE, String.class);
+    }
+
+    public void renameSlowly(String name, long millis) throws InterruptedException {
+        jdbcTemplate.update("UPDATE node SET name = ?", name);
+        Thread.sleep(millis);
+    }
+}
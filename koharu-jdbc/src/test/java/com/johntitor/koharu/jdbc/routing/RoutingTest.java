@@ -0,0 +1,196 @@
+package com.johntitor.koharu.jdbc.routing;
+
+import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
+import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.jdbc.JdbcTemplate;
+import com.johntitor.koharu.jdbc.datasource.ReplicaStatus;
+import com.johntitor.koharu.jdbc.datasource.RoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoutingTest {
+
+    static final String SELECT_NODE = "SELECT name FROM node";
+    static final String[] NODES = {"primary", "r1", "r2"};
+
+    @BeforeEach
+    public void beforeEach() throws SQLException {
+        cleanDb();
+        // 每个库写入自己的名称，用于判断查询被路由到哪个库:
+        for (String node : NODES) {
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:routing-" + node + ".db");
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE node (name VARCHAR(255) NOT NULL)");
+                stmt.executeUpdate("INSERT INTO node (name) VALUES ('" + node + "')");
+            }
+        }
+    }
+
+    @AfterEach
+    public void afterEach() {
+        cleanDb();
+    }
+
+    @Test
+    public void testRoundRobin() {
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1,r2", null))) {
+            assertInstanceOf(RoutingDataSource.class, ctx.getBean(DataSource.class));
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            assertEquals("r2", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            // 写操作总是路由到主库:
+            assertEquals(1, jdbcTemplate.update("UPDATE node SET name = ?", "primary-updated"));
+            assertEquals("r2", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+    }
+
+    @Test
+    public void testTransaction() {
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1", null))) {
+            NodeService nodeService = ctx.getBean(NodeService.class);
+            assertEquals("r1", nodeService.readOnlyNode());
+            assertEquals("primary", nodeService.readWriteNode());
+        }
+    }
+
+    @Test
+    public void testStickyWindow() {
+        var props = new Properties();
+        props.put("summer.datasource.routing.sticky-window", "60000");
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1", props))) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            jdbcTemplate.update("UPDATE node SET name = ?", "primary-updated");
+            // read-after-write:
+            assertEquals("primary-updated", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            ((RoutingDataSource) ctx.getBean(DataSource.class)).clearStickiness();
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+    }
+
+    @Test
+    public void testStickyAfterLongWriteTransaction() throws Exception {
+        var props = new Properties();
+        props.put("summer.datasource.routing.sticky-window", "1000");
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1", props))) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            // 只获取主库连接而没有写入时不影响读路由:
+            assertEquals("primary", jdbcTemplate.execute(conn -> {
+                try (Statement stmt = conn.createStatement(); var rs = stmt.executeQuery(SELECT_NODE)) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }));
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            // 写事务的运行时间超过stickyWindow，提交后仍然读主库:
+            ctx.getBean(NodeService.class).renameSlowly("primary-updated", 1500);
+            assertEquals("primary-updated", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+    }
+
+    @Test
+    public void testLeastActive() throws SQLException {
+        var props = new Properties();
+        props.put("summer.datasource.routing.strategy", "least-active");
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1,r2", props))) {
+            RoutingDataSource dataSource = (RoutingDataSource) ctx.getBean(DataSource.class);
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            try (Connection ignored = dataSource.getReadConnection()) {
+                // r1占用一个连接时选择r2:
+                assertEquals("r2", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            }
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+    }
+
+    @Test
+    public void testFallbackToPrimary() {
+        var props = new Properties();
+        props.put("summer.datasource.replica.broken.url", "jdbc:sqlite:routing-not-exist/broken.db");
+        props.put("summer.datasource.replica.broken.connection-timeout", "250");
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("broken", props))) {
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            assertEquals("primary", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            // 标记为不可用后不再尝试:
+            assertEquals("primary", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            List<ReplicaStatus> status = ((RoutingDataSource) ctx.getBean(DataSource.class)).getReplicaStatus();
+            assertEquals(1, status.size());
+            assertFalse(status.get(0).healthy());
+            assertEquals(1, status.get(0).failures());
+            assertEquals(0, status.get(0).routed());
+        }
+    }
+
+    @Test
+    public void testBusyReplicaNotMarkedDown() throws SQLException {
+        var props = new Properties();
+        props.put("summer.datasource.replica.r1.maximum-pool-size", "1");
+        props.put("summer.datasource.replica.r1.connection-timeout", "250");
+        try (var ctx = new AnnotationConfigApplicationContext(RoutingApplication.class, createPropertyResolver("r1", props))) {
+            RoutingDataSource dataSource = (RoutingDataSource) ctx.getBean(DataSource.class);
+            JdbcTemplate jdbcTemplate = ctx.getBean(JdbcTemplate.class);
+            try (Connection ignored = dataSource.getReadConnection()) {
+                // 连接池等待超时，回退到主库:
+                assertEquals("primary", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+            }
+            // 连接池繁忙不标记为不可用:
+            ReplicaStatus status = dataSource.getReplicaStatus().get(0);
+            assertTrue(status.healthy());
+            assertEquals(0, status.failures());
+            assertEquals("r1", jdbcTemplate.queryForObject(SELECT_NODE, String.class));
+        }
+    }
+
+    @Test
+    public void testConnectionFailure() {
+        assertTrue(RoutingDataSource.isConnectionFailure(new SQLException("link failure", "08S01")));
+        assertTrue(RoutingDataSource.isConnectionFailure(new SQLNonTransientConnectionException("refused")));
+        assertTrue(RoutingDataSource.isConnectionFailure(new SQLTransientConnectionException("timeout", null, new SQLException("refused"))));
+        assertFalse(RoutingDataSource.isConnectionFailure(new SQLTransientConnectionException("timeout")));
+        assertFalse(RoutingDataSource.isConnectionFailure(new SQLException("syntax error", "42000")));
+        assertFalse(RoutingDataSource.isConnectionFailure(new SQLException("constraint violation", "23000")));
+    }
+
+    PropertyResolver createPropertyResolver(String replicas, Properties extra) {
+        var ps = new Properties();
+        ps.put("summer.datasource.url", "jdbc:sqlite:routing-primary.db");
+        ps.put("summer.datasource.username", "sa");
+        ps.put("summer.datasource.password", "");
+        ps.put("summer.datasource.driver-class-name", "org.sqlite.JDBC");
+        ps.put("summer.datasource.replicas", replicas);
+        ps.put("summer.datasource.replica.r1.url", "jdbc:sqlite:routing-r1.db");
+        ps.put("summer.datasource.replica.r2.url", "jdbc:sqlite:routing-r2.db");
+        if (extra != null) {
+            ps.putAll(extra);
+        }
+        return new PropertyResolver(ps);
+    }
+
+    void cleanDb() {
+        try {
+            for (String node : NODES) {
+                Files.deleteIfExists(Path.of("routing-" + node + ".db").normalize().toAbsolutePath());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
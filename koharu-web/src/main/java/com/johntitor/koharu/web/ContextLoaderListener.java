@@ -3,6 +3,7 @@ package com.johntitor.koharu.web;
 import com.johntitor.koharu.context.AnnotationConfigApplicationContext;
 import com.johntitor.koharu.context.ApplicationContext;
 import com.johntitor.koharu.exception.NestedRuntimeException;
+import com.johntitor.koharu.io.PropertyFileWatcher;
 import com.johntitor.koharu.io.PropertyResolver;
 import com.johntitor.koharu.web.utils.WebUtils;
 import jakarta.servlet.ServletContextEvent;
@@ -39,11 +40,19 @@ public class ContextLoaderListener implements ServletContextListener {
         WebUtils.registerDispatcherServlet(servletContext, propertyResolver);
         // 把 ApplicationContext 保存到全局
         servletContext.setAttribute("applicationContext", applicationContext);
+        // 启用时监听配置文件变化:
+        var propertyFileWatcher = WebUtils.createPropertyFileWatcher(propertyResolver);
+        if (propertyFileWatcher != null) {
+            servletContext.setAttribute("propertyFileWatcher", propertyFileWatcher);
+        }
 
     }
 
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
+        if (sce.getServletContext().getAttribute("propertyFileWatcher") instanceof PropertyFileWatcher propertyFileWatcher) {
+            propertyFileWatcher.close();
+        }
         if (sce.getServletContext().getAttribute("applicationContext") instanceof ApplicationContext applicationContext) {
             applicationContext.close();
         }
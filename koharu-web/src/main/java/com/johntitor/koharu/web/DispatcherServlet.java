@@ -4,13 +4,19 @@ import com.johntitor.koharu.annotation.Controller;
 import com.johntitor.koharu.annotation.GetMapping;
 import com.johntitor.koharu.annotation.PostMapping;
 import com.johntitor.koharu.annotation.RestController;
+import com.johntitor.koharu.annotation.Scope;
 import com.johntitor.koharu.context.ApplicationContext;
 import com.johntitor.koharu.context.ConfigurableApplicationContext;
 import com.johntitor.koharu.exception.ErrorResponseException;
+import com.johntitor.koharu.exception.InvocationRejectedException;
 import com.johntitor.koharu.exception.NestedRuntimeException;
+import com.johntitor.koharu.exception.RateLimitExceededException;
 import com.johntitor.koharu.io.PropertyResolver;
 import com.johntitor.koharu.web.model.Dispatcher;
 import com.johntitor.koharu.web.model.Result;
+import com.johntitor.koharu.web.scope.RequestContextHolder;
+import com.johntitor.koharu.web.scope.RequestScope;
+import com.johntitor.koharu.web.scope.SessionScope;
 import com.johntitor.koharu.web.utils.JsonUtils;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletException;
@@ -28,6 +34,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public class DispatcherServlet extends HttpServlet {
 
@@ -44,6 +51,11 @@ public class DispatcherServlet extends HttpServlet {
 
     public DispatcherServlet(final ApplicationContext applicationContext, PropertyResolver propertyResolver) {
         this.applicationContext = applicationContext;
+        // request/session作用域依赖DispatcherServlet绑定的当前请求:
+        if (applicationContext instanceof ConfigurableApplicationContext ctx) {
+            ctx.registerScope(Scope.REQUEST, new RequestScope());
+            ctx.registerScope(Scope.SESSION, new SessionScope());
+        }
         this.viewResolver = applicationContext.getBean(ViewResolver.class);
         this.resourcePath = propertyResolver.getProperty("${koharu.web.static-path:/static/}");
         this.faviconPath = propertyResolver.getProperty("${koharu.web.favicon-path:/favicon.ico}");
@@ -65,10 +77,10 @@ public class DispatcherServlet extends HttpServlet {
                 throw new ServletException("Found @Controller and @RestController on class: " + beanClass.getName());
             }
             if (controller != null) {
-                addController(false, def.getName(), def.getRequiredInstance());
+                addController(false, def.getName(), applicationContext.getBean(def.getName()));
             }
             if (restController != null) {
-                addController(true, def.getName(), def.getRequiredInstance());
+                addController(true, def.getName(), applicationContext.getBean(def.getName()));
             }
         }
     }
@@ -78,6 +90,18 @@ public class DispatcherServlet extends HttpServlet {
         this.applicationContext.close();
     }
 
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        // 绑定当前请求，请求结束后销毁request作用域的Bean:
+        HttpServletRequest previous = RequestContextHolder.bind(req);
+        try {
+            super.service(req, resp);
+        } finally {
+            RequestScope.requestCompleted(req);
+            RequestContextHolder.bind(previous);
+        }
+    }
+
     @Override
     protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) throws ServletException, IOException {
         String url = req.getRequestURI();
@@ -168,6 +192,17 @@ public class DispatcherServlet extends HttpServlet {
         String url = req.getRequestURI();
         try {
             doService(url, req, resp, dispatchers);
+        } catch (InvocationRejectedException e) {
+            // 限流返回429，并发已满或熔断返回503:
+            ErrorResponseException error = toErrorResponse(e);
+            logger.warn("process request rejected with status {} by {}: {}", error.statusCode, e.getLimiterName(), url);
+            if (!resp.isCommitted()) {
+                resp.resetBuffer();
+                if (e instanceof RateLimitExceededException r) {
+                    resp.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(r.getRetryAfterNanos() + 999_999_999L))));
+                }
+                resp.sendError(error.statusCode, error.getMessage());
+            }
         } catch (ErrorResponseException e) {
             logger.warn("process request failed with status " + e.statusCode + " : " + url, e);
             if (!resp.isCommitted()) {
@@ -183,6 +218,11 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
 
+    static ErrorResponseException toErrorResponse(InvocationRejectedException e) {
+        int status = e instanceof RateLimitExceededException ? 429 : 503;
+        return new ErrorResponseException(status, e.getMessage(), e);
+    }
+
     private void doService(String url, HttpServletRequest req, HttpServletResponse resp, List<Dispatcher> dispatchers) throws Exception {
         for (Dispatcher dispatcher : dispatchers) {
             Result result = dispatcher.process(url, req, resp);
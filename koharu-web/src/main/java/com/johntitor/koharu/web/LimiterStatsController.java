@@ -0,0 +1,24 @@
+package com.johntitor.koharu.web;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.GetMapping;
+import com.johntitor.koharu.annotation.RestController;
+import com.johntitor.koharu.aop.limit.LimiterRegistry;
+import com.johntitor.koharu.aop.limit.LimiterStats;
+
+import java.util.List;
+
+/**
+ * 以JSON返回@RateLimited和@Bulkhead的统计，通过@Import({LimitConfiguration.class, LimiterStatsController.class})启用
+ */
+@RestController
+public class LimiterStatsController {
+
+    @Autowired
+    LimiterRegistry registry;
+
+    @GetMapping("/koharu/metrics/limits")
+    public List<LimiterStats> limits() {
+        return registry.snapshot();
+    }
+}
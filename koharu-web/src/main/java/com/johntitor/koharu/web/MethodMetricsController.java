@@ -0,0 +1,24 @@
+package com.johntitor.koharu.web;
+
+import com.johntitor.koharu.annotation.Autowired;
+import com.johntitor.koharu.annotation.GetMapping;
+import com.johntitor.koharu.annotation.RestController;
+import com.johntitor.koharu.aop.metrics.MethodMetricsRegistry;
+import com.johntitor.koharu.aop.metrics.MethodMetricsSnapshot;
+
+import java.util.List;
+
+/**
+ * 以JSON返回@Timed和@Counted的统计，通过@Import({MetricsConfiguration.class, MethodMetricsController.class})启用
+ */
+@RestController
+public class MethodMetricsController {
+
+    @Autowired
+    MethodMetricsRegistry registry;
+
+    @GetMapping("/koharu/metrics/methods")
+    public List<MethodMetricsSnapshot> methods() {
+        return registry.snapshot();
+    }
+}
@@ -0,0 +1,44 @@
+package com.johntitor.koharu.web.scope;
+
+import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 由DispatcherServlet把当前请求绑定到处理线程
+ */
+public final class RequestContextHolder {
+
+    private static final ThreadLocal<HttpServletRequest> currentRequest = new ThreadLocal<>();
+
+    private RequestContextHolder() {
+    }
+
+    @Nullable
+    public static HttpServletRequest getRequest() {
+        return currentRequest.get();
+    }
+
+    /**
+     * 返回当前请求，不存在时抛出IllegalStateException
+     */
+    public static HttpServletRequest getRequiredRequest() {
+        HttpServletRequest request = currentRequest.get();
+        if (request == null) {
+            throw new IllegalStateException("No request bound to current thread, scoped bean must be used in a request processed by DispatcherServlet.");
+        }
+        return request;
+    }
+
+    /**
+     * 绑定请求并返回之前绑定的请求，传入null解除绑定
+     */
+    public static HttpServletRequest bind(@Nullable HttpServletRequest request) {
+        HttpServletRequest previous = currentRequest.get();
+        if (request == null) {
+            currentRequest.remove();
+        } else {
+            currentRequest.set(request);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,80 @@
+package com.johntitor.koharu.web.scope;
+
+import com.johntitor.koharu.scope.BeanScope;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 实例保存在当前请求的attribute中，请求结束时由DispatcherServlet调用requestCompleted()执行destroy方法
+ */
+public class RequestScope implements BeanScope {
+
+    static final String ATTRIBUTE_PREFIX = "koharu.scope.request.";
+    static final String CALLBACKS_ATTRIBUTE = "koharu.scope.request.$callbacks";
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestScope.class);
+
+    @Override
+    public Object get(String name, Supplier<?> factory) {
+        HttpServletRequest request = RequestContextHolder.getRequiredRequest();
+        Object instance = request.getAttribute(ATTRIBUTE_PREFIX + name);
+        if (instance == null) {
+            instance = factory.get();
+            request.setAttribute(ATTRIBUTE_PREFIX + name, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object remove(String name) {
+        HttpServletRequest request = RequestContextHolder.getRequiredRequest();
+        Object instance = request.getAttribute(ATTRIBUTE_PREFIX + name);
+        if (instance != null) {
+            request.removeAttribute(ATTRIBUTE_PREFIX + name);
+            callbacks(request).remove(name);
+        }
+        return instance;
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        callbacks(RequestContextHolder.getRequiredRequest()).put(name, callback);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Runnable> callbacks(HttpServletRequest request) {
+        Map<String, Runnable> callbacks = (Map<String, Runnable>) request.getAttribute(CALLBACKS_ATTRIBUTE);
+        if (callbacks == null) {
+            callbacks = new LinkedHashMap<>();
+            request.setAttribute(CALLBACKS_ATTRIBUTE, callbacks);
+        }
+        return callbacks;
+    }
+
+    /**
+     * 按创建的相反顺序执行请求中Bean的destroy方法
+     */
+    @SuppressWarnings("unchecked")
+    public static void requestCompleted(HttpServletRequest request) {
+        Map<String, Runnable> callbacks = (Map<String, Runnable>) request.getAttribute(CALLBACKS_ATTRIBUTE);
+        if (callbacks == null) {
+            return;
+        }
+        request.removeAttribute(CALLBACKS_ATTRIBUTE);
+        List<Runnable> list = new ArrayList<>(callbacks.values());
+        for (int i = list.size() - 1; i >= 0; i--) {
+            try {
+                list.get(i).run();
+            } catch (RuntimeException e) {
+                logger.warn("destruction callback failed in request scope.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.johntitor.koharu.web.scope;
+
+import com.johntitor.koharu.scope.BeanScope;
+import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpSessionBindingEvent;
+import jakarta.servlet.http.HttpSessionBindingListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.function.Supplier;
+
+/**
+ * 实例保存在当前请求的HttpSession中，session失效时执行destroy方法
+ */
+public class SessionScope implements BeanScope {
+
+    static final String ATTRIBUTE_PREFIX = "koharu.scope.session.";
+    static final String CALLBACK_PREFIX = "koharu.scope.session.$callback.";
+    static final String MUTEX_ATTRIBUTE = "koharu.scope.session.$mutex";
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionScope.class);
+
+    @Override
+    public Object get(String name, Supplier<?> factory) {
+        HttpSession session = RequestContextHolder.getRequiredRequest().getSession();
+        // 同一session的并发请求只创建一个实例:
+        synchronized (mutex(session)) {
+            Object instance = session.getAttribute(ATTRIBUTE_PREFIX + name);
+            if (instance == null) {
+                instance = factory.get();
+                session.setAttribute(ATTRIBUTE_PREFIX + name, instance);
+            }
+            return instance;
+        }
+    }
+
+    @Override
+    public Object remove(String name) {
+        HttpSession session = RequestContextHolder.getRequiredRequest().getSession(false);
+        if (session == null) {
+            return null;
+        }
+        synchronized (mutex(session)) {
+            Object instance = session.getAttribute(ATTRIBUTE_PREFIX + name);
+            if (session.getAttribute(CALLBACK_PREFIX + name) instanceof DestructionCallback callback) {
+                // 主动删除时不执行destroy方法:
+                callback.cancelled = true;
+                session.removeAttribute(CALLBACK_PREFIX + name);
+            }
+            session.removeAttribute(ATTRIBUTE_PREFIX + name);
+            return instance;
+        }
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        HttpSession session = RequestContextHolder.getRequiredRequest().getSession();
+        session.setAttribute(CALLBACK_PREFIX + name, new DestructionCallback(callback));
+    }
+
+    private static Object mutex(HttpSession session) {
+        Object mutex = session.getAttribute(MUTEX_ATTRIBUTE);
+        if (mutex == null) {
+            synchronized (SessionScope.class) {
+                mutex = session.getAttribute(MUTEX_ATTRIBUTE);
+                if (mutex == null) {
+                    mutex = new Mutex();
+                    session.setAttribute(MUTEX_ATTRIBUTE, mutex);
+                }
+            }
+        }
+        return mutex;
+    }
+
+    private static class Mutex implements Serializable {
+    }
+
+    /**
+     * session失效时从session中移除并收到valueUnbound()回调
+     */
+    private static class DestructionCallback implements HttpSessionBindingListener {
+
+        final Runnable callback;
+        volatile boolean cancelled;
+
+        DestructionCallback(Runnable callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void valueUnbound(HttpSessionBindingEvent event) {
+            if (!cancelled) {
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    logger.warn("destruction callback failed in session scope.", e);
+                }
+            }
+        }
+    }
+}
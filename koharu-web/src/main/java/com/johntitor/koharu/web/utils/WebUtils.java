@@ -1,25 +1,32 @@
 package com.johntitor.koharu.web.utils;
 
 import com.johntitor.koharu.context.ApplicationContextContainer;
+import com.johntitor.koharu.io.PropertyFileWatcher;
 import com.johntitor.koharu.io.PropertyResolver;
+import com.johntitor.koharu.io.PropertySource;
 import com.johntitor.koharu.utils.ClassPathUtils;
 import com.johntitor.koharu.utils.YamlUtils;
 import com.johntitor.koharu.web.DispatcherServlet;
 import com.johntitor.koharu.web.FilterRegistrationBean;
+import jakarta.annotation.Nullable;
 import jakarta.servlet.DispatcherType;
 import jakarta.servlet.ServletContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 public class WebUtils {
     protected static final Logger logger = LoggerFactory.getLogger(WebUtils.class);
 
-    private static final String CONFIG_APP_YAML = "/application.yml";
-    private static final String CONFIG_APP_PROP = "/application.properties";
+    private static final String CONFIG_APP = "application";
+    private static final String CONFIG_PROFILES_ACTIVE = "koharu.profiles.active";
+    private static final String CLASSPATH_PREFIX = "classpath:";
 
     public static final String DEFAULT_PARAM_VALUE = "\0\t\0\t\0";
 
@@ -28,28 +35,125 @@ public class WebUtils {
      * Try load property resolver from /application.yml or /application.properties.
      */
     public static PropertyResolver createPropertyResolver() {
-        final Properties props = new Properties();
-        // 优先加载 application.yml
-        try {
-            Map<String, Object> ymlMap = YamlUtils.loadYamlAsPlainMap(CONFIG_APP_YAML);
-            logger.info("load config: {}", CONFIG_APP_YAML);
-            for (String key : ymlMap.keySet()) {
-                Object value = ymlMap.get(key);
-                if (value instanceof String strValue) {
-                    props.put(key, strValue);
+        return createPropertyResolver(Map.of());
+    }
+
+    /**
+     * 按从低到高的优先级加载属性来源并封装成 PropertyResolver:
+     * <p>
+     * defaultProperties、application.yml、application-{profile}.yml、环境变量、系统属性、命令行参数(--key=value)。
+     * 每个文件优先加载.yml，不存在时加载.properties；profile由koharu.profiles.active指定，多个profile以逗号分隔，后面的优先。
+     */
+    public static PropertyResolver createPropertyResolver(Map<String, String> defaultProperties, String... args) {
+        return new PropertyResolver(loadPropertySources(defaultProperties, args));
+    }
+
+    public static List<PropertySource> loadPropertySources(Map<String, String> defaultProperties, String... args) {
+        List<PropertySource> sources = new ArrayList<>();
+        sources.add(new PropertySource(PropertySource.DEFAULTS, defaultProperties));
+        PropertySource application = loadConfigFile(CONFIG_APP);
+        if (application != null) {
+            sources.add(application);
+        }
+        List<PropertySource> overrides = List.of(PropertySource.systemEnvironment(), PropertySource.systemProperties(),
+                PropertySource.commandLineArgs(args));
+        // profile本身可以由任何非profile文件的来源指定:
+        List<PropertySource> base = new ArrayList<>(sources);
+        base.addAll(overrides);
+        String profiles = new PropertyResolver(base).getProperty(CONFIG_PROFILES_ACTIVE);
+        if (profiles != null && !profiles.isBlank()) {
+            logger.info("active profiles: {}", profiles);
+            for (String profile : profiles.split(",")) {
+                profile = profile.strip();
+                if (!profile.isEmpty()) {
+                    PropertySource source = loadConfigFile(CONFIG_APP + "-" + profile);
+                    if (source != null) {
+                        sources.add(source);
+                    }
+                }
+            }
+        }
+        sources.addAll(overrides);
+        return sources;
+    }
+
+    // 加载/name.yml或/name.properties，都不存在时返回null:
+    @Nullable
+    static PropertySource loadConfigFile(String name) {
+        String yml = "/" + name + ".yml";
+        if (ClassPathUtils.exists(yml)) {
+            logger.info("load config: {}", yml);
+            return new PropertySource(CLASSPATH_PREFIX + yml, toStrings(YamlUtils.loadYamlAsPlainMap(yml)));
+        }
+        String prop = "/" + name + ".properties";
+        if (ClassPathUtils.exists(prop)) {
+            logger.info("load config: {}", prop);
+            return ClassPathUtils.readInputStream(prop, (input) -> {
+                Properties props = new Properties();
+                props.load(input);
+                return PropertySource.of(CLASSPATH_PREFIX + prop, props);
+            });
+        }
+        return null;
+    }
+
+    /**
+     * koharu.config.watch=true时监听加载的application*.yml或application*.properties，变化后重新加载到propertyResolver
+     * <p>
+     * 只重新加载文件对应的属性来源，其他来源和激活的profile不变。配置文件不在文件系统中(例如打包在jar中)或未启用时返回null。
+     */
+    @Nullable
+    public static PropertyFileWatcher createPropertyFileWatcher(PropertyResolver propertyResolver) {
+        if (!propertyResolver.getProperty("${koharu.config.watch:false}", boolean.class)) {
+            return null;
+        }
+        // 来源名称 -> 文件:
+        Map<String, Path> files = new LinkedHashMap<>();
+        for (PropertySource source : propertyResolver.getPropertySources()) {
+            if (source.name().startsWith(CLASSPATH_PREFIX)) {
+                Path file = ClassPathUtils.findFile(source.name().substring(CLASSPATH_PREFIX.length()));
+                if (file != null) {
+                    files.put(source.name(), file);
                 }
             }
-        } catch (UncheckedIOException e) {
-            if (e.getCause() instanceof FileNotFoundException) {
-                // 尝试加载 application.properties；
-                ClassPathUtils.readInputStream(CONFIG_APP_PROP, (input) -> {
-                    logger.info("load config: {}", CONFIG_APP_PROP);
-                    props.load(input);
-                    return true;
-                });
+        }
+        if (files.isEmpty()) {
+            logger.warn("config file is not in file system, ignore koharu.config.watch.");
+            return null;
+        }
+        return new PropertyFileWatcher(propertyResolver, files.values(), () -> {
+            List<PropertySource> sources = new ArrayList<>();
+            for (PropertySource source : propertyResolver.getPropertySources()) {
+                Path file = files.get(source.name());
+                sources.add(file == null ? source : readConfigFile(source.name(), file));
+            }
+            return sources;
+        });
+    }
+
+    static PropertySource readConfigFile(String name, Path file) {
+        if (name.endsWith(".yml")) {
+            return new PropertySource(name, toStrings(YamlUtils.loadYamlAsPlainMap(file)));
+        }
+        // 与首次从classpath加载一致，按Properties.load(InputStream)的ISO-8859-1解码，避免非ASCII的值在重新加载后变化:
+        Properties props = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            props.load(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return PropertySource.of(name, props);
+    }
+
+    private static Map<String, String> toStrings(Map<String, Object> source) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (String key : source.keySet()) {
+            Object value = source.get(key);
+            if (value instanceof String strValue) {
+                map.put(key, strValue);
             }
         }
-        return new PropertyResolver(props);
+        return map;
     }
 
     // 注册DispatcherServlet